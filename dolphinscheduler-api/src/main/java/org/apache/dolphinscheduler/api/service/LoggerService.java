@@ -20,6 +20,7 @@ package org.apache.dolphinscheduler.api.service;
 import org.apache.dolphinscheduler.api.utils.Result;
 import org.apache.dolphinscheduler.dao.entity.User;
 
+import java.io.InputStream;
 import java.util.Map;
 
 /**
@@ -46,6 +47,14 @@ public interface LoggerService {
      */
     byte[] getLogBytes(int taskInstId);
 
+    /**
+     * get log stream
+     *
+     * @param taskInstId task instance id
+     * @return log content stream
+     */
+    InputStream getLogStream(int taskInstId);
+
     /**
      * query log
      *
@@ -67,4 +76,14 @@ public interface LoggerService {
      * @return log byte array
      */
     byte[] getLogBytes(User loginUser, long projectCode, int taskInstId);
+
+    /**
+     * get log stream
+     *
+     * @param loginUser   login user
+     * @param projectCode project code
+     * @param taskInstId  task instance id
+     * @return log content stream
+     */
+    InputStream getLogStream(User loginUser, long projectCode, int taskInstId);
 }
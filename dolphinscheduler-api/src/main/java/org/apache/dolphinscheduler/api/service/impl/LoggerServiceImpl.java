@@ -36,6 +36,9 @@ import org.apache.dolphinscheduler.service.process.ProcessService;
 
 import org.apache.commons.lang.StringUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.Objects;
@@ -120,11 +123,18 @@ public class LoggerServiceImpl extends BaseServiceImpl implements LoggerService
      */
     @Override
     public byte[] getLogBytes(int taskInstId) {
-        TaskInstance taskInstance = processService.findTaskInstanceById(taskInstId);
-        if (taskInstance == null || StringUtils.isBlank(taskInstance.getHost())) {
-            throw new ServiceException("task instance is null or host is null");
-        }
-        return getLogBytes(taskInstance);
+        return getLogBytes(findTaskInstance(taskInstId));
+    }
+
+    /**
+     * get log stream
+     *
+     * @param taskInstId task instance id
+     * @return log content stream
+     */
+    @Override
+    public InputStream getLogStream(int taskInstId) {
+        return getLogStream(findTaskInstance(taskInstId));
     }
 
     /**
@@ -173,6 +183,45 @@ public class LoggerServiceImpl extends BaseServiceImpl implements LoggerService
      */
     @Override
     public byte[] getLogBytes(User loginUser, long projectCode, int taskInstId) {
+        return getLogBytes(findTaskInstance(loginUser, projectCode, taskInstId));
+    }
+
+    /**
+     * get log stream
+     *
+     * @param loginUser   login user
+     * @param projectCode project code
+     * @param taskInstId  task instance id
+     * @return log content stream
+     */
+    @Override
+    public InputStream getLogStream(User loginUser, long projectCode, int taskInstId) {
+        return getLogStream(findTaskInstance(loginUser, projectCode, taskInstId));
+    }
+
+    /**
+     * find the task instance of the log
+     *
+     * @param taskInstId task instance id
+     * @return task instance
+     */
+    private TaskInstance findTaskInstance(int taskInstId) {
+        TaskInstance taskInstance = processService.findTaskInstanceById(taskInstId);
+        if (taskInstance == null || StringUtils.isBlank(taskInstance.getHost())) {
+            throw new ServiceException("task instance is null or host is null");
+        }
+        return taskInstance;
+    }
+
+    /**
+     * find the task instance of the log in the project of the user
+     *
+     * @param loginUser   login user
+     * @param projectCode project code
+     * @param taskInstId  task instance id
+     * @return task instance
+     */
+    private TaskInstance findTaskInstance(User loginUser, long projectCode, int taskInstId) {
         Project project = projectMapper.queryByCode(projectCode);
         //check user access for project
         Map<String, Object> result = projectService.checkProjectAndAuth(loginUser, project, projectCode);
@@ -189,7 +238,7 @@ public class LoggerServiceImpl extends BaseServiceImpl implements LoggerService
         if (taskDefinition != null && projectCode != taskDefinition.getProjectCode()) {
             throw new ServiceException("task instance does not exist in project");
         }
-        return getLogBytes(task);
+        return task;
     }
 
     /**
@@ -250,4 +299,20 @@ public class LoggerServiceImpl extends BaseServiceImpl implements LoggerService
         return Bytes.concat(head,
                 logClient.getLogBytes(host, PropertyUtils.getInt(Constants.RPC_PORT, 50051), taskInstance.getLogPath()));
     }
+
+    /**
+     * get log stream
+     *
+     * @param taskInstance task instance
+     * @return log content stream, the log is fetched from the log server while it is read
+     */
+    private InputStream getLogStream(TaskInstance taskInstance) {
+        String host = getHost(taskInstance.getHost());
+        byte[] head = String.format(LOG_HEAD_FORMAT,
+                taskInstance.getLogPath(),
+                host,
+                Constants.SYSTEM_LINE_SEPARATOR).getBytes(StandardCharsets.UTF_8);
+        return new SequenceInputStream(new ByteArrayInputStream(head),
+                logClient.getLogStream(host, PropertyUtils.getInt(Constants.RPC_PORT, 50051), taskInstance.getLogPath()));
+    }
 }
@@ -18,6 +18,7 @@
 package org.apache.dolphinscheduler.api.service;
 
 import org.apache.dolphinscheduler.api.enums.Status;
+import org.apache.dolphinscheduler.api.exceptions.ServiceException;
 import org.apache.dolphinscheduler.api.service.impl.LoggerServiceImpl;
 import org.apache.dolphinscheduler.api.utils.Result;
 import org.apache.dolphinscheduler.common.Constants;
@@ -133,6 +134,25 @@ public class LoggerServiceTest {
 
     }
 
+    @Test
+    public void testGetLogStream() {
+        TaskInstance taskInstance = new TaskInstance();
+        Mockito.when(processService.findTaskInstanceById(1)).thenReturn(taskInstance);
+
+        //task instance host is null
+        try {
+            loggerService.getLogStream(1);
+            Assert.fail();
+        } catch (ServiceException e) {
+            Assert.assertEquals("task instance is null or host is null", e.getMessage());
+        }
+
+        //success, the log is only fetched when the stream is read
+        taskInstance.setHost("127.0.0.1:8080");
+        taskInstance.setLogPath("/temp/log");
+        Assert.assertNotNull(loggerService.getLogStream(1));
+    }
+
     @Test
     public void testQueryLogInSpecifiedProject() {
         long projectCode = 1L;
@@ -19,7 +19,10 @@ package org.apache.dolphinscheduler.common.thread;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
@@ -41,6 +44,23 @@ public class ThreadUtils {
         return Executors.newFixedThreadPool(threadsNum, threadFactory);
     }
 
+    /**
+     * Wrapper over newDaemonFixedThreadExecutor with a bounded task queue,
+     * tasks submitted when the queue is full will be rejected.
+     * @param threadName threadName
+     * @param threadsNum threadsNum
+     * @param queueCapacity queueCapacity
+     * @return ThreadPoolExecutor
+     */
+    public static ThreadPoolExecutor newDaemonFixedThreadExecutor(String threadName, int threadsNum, int queueCapacity) {
+        ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat(threadName)
+                .build();
+        return new ThreadPoolExecutor(threadsNum, threadsNum, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), threadFactory);
+    }
+
     public static void sleep(final long millis) {
         try {
             Thread.sleep(millis);
@@ -383,6 +383,17 @@ public class HadoopUtils implements Closeable {
         }
     }
 
+    /**
+     * get the status of a file
+     *
+     * @param filePath file path
+     * @return {@link FileStatus} file status
+     * @throws IOException errors
+     */
+    public FileStatus getFileStatus(String filePath) throws IOException {
+        return fs.getFileStatus(new Path(filePath));
+    }
+
     /**
      * Renames Path src to Path dst.  Can take place on local fs
      * or remote DFS.
@@ -17,8 +17,6 @@
 
 package org.apache.dolphinscheduler.common.utils;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
-
 import static com.fasterxml.jackson.databind.DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT;
 import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
 import static com.fasterxml.jackson.databind.DeserializationFeature.READ_UNKNOWN_ENUM_VALUES_AS_NULL;
@@ -27,6 +25,7 @@ import static com.fasterxml.jackson.databind.MapperFeature.REQUIRE_SETTERS_FOR_G
 import org.apache.commons.lang.StringUtils;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -141,11 +140,37 @@ public class JSONUtils {
      * @return deserialize type
      */
     public static <T> T parseObject(byte[] src, Class<T> clazz) {
+        if (src == null || src.length == 0) {
+            return null;
+        }
+
+        try {
+            return objectMapper.readValue(src, clazz);
+        } catch (Exception e) {
+            logger.error("parse object exception!", e);
+        }
+        return null;
+    }
+
+    /**
+     * deserialize from a stream, without building the json string first
+     *
+     * @param src input stream
+     * @param clazz class
+     * @param <T> deserialize type
+     * @return deserialize type
+     */
+    public static <T> T parseObject(InputStream src, Class<T> clazz) {
         if (src == null) {
             return null;
         }
-        String json = new String(src, UTF_8);
-        return parseObject(json, clazz);
+
+        try {
+            return objectMapper.readValue(src, clazz);
+        } catch (Exception e) {
+            logger.error("parse object exception!", e);
+        }
+        return null;
     }
 
     /**
@@ -289,14 +314,13 @@ public class JSONUtils {
         if (obj == null) {
             return null;
         }
-        String json = "";
         try {
-            json = toJsonString(obj);
+            return objectMapper.writeValueAsBytes(obj);
         } catch (Exception e) {
             logger.error("json serialize exception.", e);
         }
 
-        return json.getBytes(UTF_8);
+        return new byte[0];
     }
 
     public static ObjectNode parseObject(String text) {
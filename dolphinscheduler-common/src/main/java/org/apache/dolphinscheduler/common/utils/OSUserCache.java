@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.common.utils;
+
+import org.apache.commons.lang.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * cache of the os user list, reloaded when the passwd file changes or after the ttl
+ */
+public class OSUserCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(OSUserCache.class);
+
+    /**
+     * loads the os user list
+     */
+    public interface UserListLoader {
+
+        Collection<String> load() throws IOException;
+    }
+
+    private final File passwd;
+
+    private final UserListLoader loader;
+
+    /**
+     * current time millis
+     */
+    private final LongSupplier clock;
+
+    private final long ttlMillis;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * @param passwd file whose mtime and size tell that the user list changed
+     * @param loader loader of the user list
+     * @param clock current time millis
+     * @param ttlMillis max age of the cached user list
+     */
+    public OSUserCache(File passwd, UserListLoader loader, LongSupplier clock, long ttlMillis) {
+        this.passwd = passwd;
+        this.loader = loader;
+        this.clock = clock;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * whether the os user exists
+     *
+     * @param userName user name
+     * @return true if the user exists
+     */
+    public boolean exists(String userName) {
+        if (StringUtils.isEmpty(userName)) {
+            return false;
+        }
+        return getSnapshot().users.contains(userName);
+    }
+
+    /**
+     * drop the cached user list, the next lookup reloads it
+     */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    private Snapshot getSnapshot() {
+        long lastModified = passwd.lastModified();
+        long length = passwd.length();
+        Snapshot cache = snapshot;
+        if (cache != null && cache.isValid(lastModified, length, clock.getAsLong())) {
+            return cache;
+        }
+        synchronized (this) {
+            cache = snapshot;
+            if (cache != null && cache.isValid(lastModified, length, clock.getAsLong())) {
+                return cache;
+            }
+            try {
+                cache = new Snapshot(new HashSet<>(loader.load()), lastModified, length, clock.getAsLong() + ttlMillis);
+                snapshot = cache;
+                return cache;
+            } catch (Exception e) {
+                // keep nothing, so the next lookup tries again
+                logger.error(e.getMessage(), e);
+                return new Snapshot(Collections.emptySet(), lastModified, length, 0L);
+            }
+        }
+    }
+
+    /**
+     * cached os users, valid until the ttl expires or the passwd file changes
+     */
+    private static final class Snapshot {
+
+        private final Set<String> users;
+
+        private final long passwdLastModified;
+
+        private final long passwdLength;
+
+        private final long expireTime;
+
+        private Snapshot(Set<String> users, long passwdLastModified, long passwdLength, long expireTime) {
+            this.users = users;
+            this.passwdLastModified = passwdLastModified;
+            this.passwdLength = passwdLength;
+            this.expireTime = expireTime;
+        }
+
+        private boolean isValid(long lastModified, long length, long now) {
+            return passwdLastModified == lastModified
+                    && passwdLength == length
+                    && now < expireTime;
+        }
+    }
+}
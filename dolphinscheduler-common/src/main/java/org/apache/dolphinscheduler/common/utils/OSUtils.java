@@ -23,6 +23,7 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.SystemUtils;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -36,6 +37,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.StringTokenizer;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
@@ -74,6 +76,16 @@ public class OSUtils {
      */
     private static final Pattern PATTERN = Pattern.compile("\\s+");
 
+    private static final String PASSWD_FILE = "/etc/passwd";
+
+    /**
+     * max age of the cached os users
+     */
+    private static final long USER_CACHE_TTL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final OSUserCache USER_CACHE = new OSUserCache(new File(PASSWD_FILE), OSUtils::loadUserList,
+            System::currentTimeMillis, USER_CACHE_TTL_MILLIS);
+
     /**
      * get memory usage
      * Keep 2 decimal
@@ -146,13 +158,7 @@ public class OSUtils {
 
     public static List<String> getUserList() {
         try {
-            if (SystemUtils.IS_OS_MAC) {
-                return getUserListFromMac();
-            } else if (SystemUtils.IS_OS_WINDOWS) {
-                return getUserListFromWindows();
-            } else {
-                return getUserListFromLinux();
-            }
+            return loadUserList();
         } catch (Exception e) {
             logger.error(e.getMessage(), e);
         }
@@ -160,6 +166,34 @@ public class OSUtils {
         return Collections.emptyList();
     }
 
+    private static List<String> loadUserList() throws IOException {
+        if (SystemUtils.IS_OS_MAC) {
+            return getUserListFromMac();
+        } else if (SystemUtils.IS_OS_WINDOWS) {
+            return getUserListFromWindows();
+        } else {
+            return getUserListFromLinux();
+        }
+    }
+
+    /**
+     * whether the os user exists, answered from a cache of the user list which is reloaded
+     * when /etc/passwd changes or after {@link #USER_CACHE_TTL_MILLIS}
+     *
+     * @param userName user name
+     * @return true if the user exists
+     */
+    public static boolean existsUser(String userName) {
+        return USER_CACHE.exists(userName);
+    }
+
+    /**
+     * drop the cached user list, the next lookup reloads it
+     */
+    public static void invalidateUserCache() {
+        USER_CACHE.invalidate();
+    }
+
     /**
      * get user list from linux
      *
@@ -169,7 +203,7 @@ public class OSUtils {
         List<String> userList = new ArrayList<>();
 
         try (BufferedReader bufferedReader = new BufferedReader(
-                new InputStreamReader(new FileInputStream("/etc/passwd")))) {
+                new InputStreamReader(new FileInputStream(PASSWD_FILE)))) {
             String line;
 
             while ((line = bufferedReader.readLine()) != null) {
@@ -244,8 +278,9 @@ public class OSUtils {
      */
     public static void createUserIfAbsent(String userName) {
         // if not exists this user, then create
-        if (!getUserList().contains(userName)) {
+        if (!existsUser(userName)) {
             boolean isSuccess = createUser(userName);
+            invalidateUserCache();
             logger.info("create user {} {}", userName, isSuccess ? "success" : "fail");
         }
     }
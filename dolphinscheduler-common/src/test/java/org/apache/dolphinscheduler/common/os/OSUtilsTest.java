@@ -17,10 +17,23 @@
 package org.apache.dolphinscheduler.common.os;
 
 
+import org.apache.dolphinscheduler.common.utils.OSUserCache;
 import org.apache.dolphinscheduler.common.utils.OSUtils;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,6 +45,9 @@ public class OSUtilsTest {
 
     private static Logger logger = LoggerFactory.getLogger(OSUtilsTest.class);
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void memoryUsage() {
         double memoryUsage = OSUtils.memoryUsage();
@@ -52,4 +68,91 @@ public class OSUtilsTest {
         logger.info("cpuUsage : {}", cpuUsage);
         Assert.assertTrue(cpuUsage >= 0.0);
     }
+
+    @Test
+    public void existsUser() {
+        String userName = System.getProperty("user.name");
+        boolean exists = OSUtils.getUserList().contains(userName);
+        Assert.assertEquals(exists, OSUtils.existsUser(userName));
+        // answered from the cache
+        Assert.assertEquals(exists, OSUtils.existsUser(userName));
+        OSUtils.invalidateUserCache();
+        Assert.assertEquals(exists, OSUtils.existsUser(userName));
+        Assert.assertFalse(OSUtils.existsUser(""));
+    }
+
+    @Test
+    public void userCacheReloadsOnPasswdChange() throws IOException {
+        File passwd = folder.newFile("passwd");
+        write(passwd, "alice:x:1000:1000::/home/alice:/bin/sh");
+        AtomicLong clock = new AtomicLong();
+        AtomicInteger loads = new AtomicInteger();
+        OSUserCache userCache = new OSUserCache(passwd, () -> {
+            loads.incrementAndGet();
+            return readUsers(passwd);
+        }, clock::get, 60000);
+
+        Assert.assertTrue(userCache.exists("alice"));
+        Assert.assertFalse(userCache.exists("bob"));
+        Assert.assertEquals(1, loads.get());
+
+        // a user added after the first lookup changes the size and the mtime
+        write(passwd, "alice:x:1000:1000::/home/alice:/bin/sh", "bob:x:1001:1001::/home/bob:/bin/sh");
+        Assert.assertTrue(passwd.setLastModified(passwd.lastModified() + 2000));
+        Assert.assertTrue(userCache.exists("bob"));
+        Assert.assertEquals(2, loads.get());
+
+        // the same size, only the mtime tells the change
+        write(passwd, "alice:x:1000:1000::/home/alice:/bin/sh", "eve:x:1001:1001::/home/eve:/bin/sh");
+        Assert.assertTrue(passwd.setLastModified(passwd.lastModified() + 2000));
+        Assert.assertTrue(userCache.exists("eve"));
+        Assert.assertFalse(userCache.exists("bob"));
+        Assert.assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void userCacheReloadsAfterTtl() throws IOException {
+        File passwd = folder.newFile("passwd");
+        write(passwd, "alice:x:1000:1000::/home/alice:/bin/sh", "bob:x:1001:1001::/home/bob:/bin/sh");
+        long lastModified = passwd.lastModified();
+        AtomicLong clock = new AtomicLong();
+        OSUserCache userCache = new OSUserCache(passwd, () -> readUsers(passwd), clock::get, 60000);
+        Assert.assertTrue(userCache.exists("bob"));
+
+        // a change the passwd file stat can not tell
+        write(passwd, "alice:x:1000:1000::/home/alice:/bin/sh", "eve:x:1001:1001::/home/eve:/bin/sh");
+        Assert.assertTrue(passwd.setLastModified(lastModified));
+        clock.set(59999);
+        Assert.assertFalse(userCache.exists("eve"));
+
+        clock.set(60000);
+        Assert.assertTrue(userCache.exists("eve"));
+        Assert.assertFalse(userCache.exists("bob"));
+    }
+
+    @Test
+    public void userCacheInvalidate() throws IOException {
+        File passwd = folder.newFile("passwd");
+        write(passwd, "alice:x:1000:1000::/home/alice:/bin/sh", "bob:x:1001:1001::/home/bob:/bin/sh");
+        long lastModified = passwd.lastModified();
+        OSUserCache userCache = new OSUserCache(passwd, () -> readUsers(passwd), () -> 0L, 60000);
+        Assert.assertTrue(userCache.exists("bob"));
+
+        write(passwd, "alice:x:1000:1000::/home/alice:/bin/sh", "eve:x:1001:1001::/home/eve:/bin/sh");
+        Assert.assertTrue(passwd.setLastModified(lastModified));
+        Assert.assertFalse(userCache.exists("eve"));
+
+        userCache.invalidate();
+        Assert.assertTrue(userCache.exists("eve"));
+    }
+
+    private static void write(File passwd, String... lines) throws IOException {
+        Files.write(passwd.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+    }
+
+    private static List<String> readUsers(File passwd) throws IOException {
+        return Files.readAllLines(passwd.toPath(), StandardCharsets.UTF_8).stream()
+                .map(line -> line.split(":")[0])
+                .collect(Collectors.toList());
+    }
 }
@@ -138,6 +138,18 @@ public class Command {
     @TableField("process_definition_version")
     private int processDefinitionVersion;
 
+    /**
+     * host of the master which claimed this command, null if not claimed yet
+     */
+    @TableField("claim_host")
+    private String claimHost;
+
+    /**
+     * claim time
+     */
+    @TableField("claim_time")
+    private Date claimTime;
+
     public Command() {
         this.taskDependType = TaskDependType.TASK_POST;
         this.failureStrategy = FailureStrategy.CONTINUE;
@@ -325,6 +337,22 @@ public class Command {
         this.processDefinitionVersion = processDefinitionVersion;
     }
 
+    public String getClaimHost() {
+        return claimHost;
+    }
+
+    public void setClaimHost(String claimHost) {
+        this.claimHost = claimHost;
+    }
+
+    public Date getClaimTime() {
+        return claimTime;
+    }
+
+    public void setClaimTime(Date claimTime) {
+        this.claimTime = claimTime;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -433,6 +461,8 @@ public class Command {
                 + ", dryRun='" + dryRun + '\''
                 + ", processInstanceId='" + processInstanceId + '\''
                 + ", processDefinitionVersion='" + processDefinitionVersion + '\''
+                + ", claimHost='" + claimHost + '\''
+                + ", claimTime=" + claimTime
                 + '}';
     }
 
@@ -51,4 +51,39 @@ public interface CommandMapper extends BaseMapper<Command> {
      */
     List<Command> queryCommandPage(@Param("limit") int limit, @Param("offset") int offset);
 
+    /**
+     * query ids of the commands which are not claimed by any master yet
+     *
+     * @param limit limit
+     * @return command id list
+     */
+    List<Integer> queryUnclaimedCommandIds(@Param("limit") int limit);
+
+    /**
+     * claim commands for the given master host, only the commands which are not claimed yet will be updated
+     *
+     * @param host master host
+     * @param claimTime claim time
+     * @param ids command ids
+     * @return claimed command count
+     */
+    int claimCommands(@Param("host") String host, @Param("claimTime") Date claimTime, @Param("ids") List<Integer> ids);
+
+    /**
+     * query commands claimed by the given master host
+     *
+     * @param host master host
+     * @param limit limit
+     * @return command list
+     */
+    List<Command> queryClaimedCommands(@Param("host") String host, @Param("limit") int limit);
+
+    /**
+     * release commands claimed by the given master host
+     *
+     * @param host master host
+     * @return released command count
+     */
+    int releaseClaimedCommands(@Param("host") String host);
+
 }
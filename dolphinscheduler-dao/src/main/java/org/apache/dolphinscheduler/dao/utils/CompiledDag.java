@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.dao.utils;
+
+import org.apache.dolphinscheduler.common.graph.DAG;
+import org.apache.dolphinscheduler.common.model.TaskNode;
+import org.apache.dolphinscheduler.common.model.TaskNodeRelation;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * immutable, index based form of a workflow dag.
+ * nodes are numbered in topological order and the adjacency is kept in int arrays,
+ * so it is read without locks and can be shared by the workflow instances running the same dag.
+ * the per instance progress is kept by {@link DagDependencyTracker}.
+ */
+public final class CompiledDag {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final String[] codes;
+
+    private final TaskNode[] nodes;
+
+    private final Map<String, Integer> indexes;
+
+    private final int[][] successors;
+
+    private final int[][] predecessors;
+
+    /**
+     * number of distinct codes in the depend list of a node, including the ones outside of the dag
+     */
+    private final int[] dependCounts;
+
+    /**
+     * number of predecessors which are not forbidden, they have to end before the node is ready
+     */
+    private final int[] blockingCounts;
+
+    private final boolean[] forbidden;
+
+    private final boolean[] beginNodes;
+
+    private CompiledDag(int size) {
+        this.codes = new String[size];
+        this.nodes = new TaskNode[size];
+        this.indexes = new HashMap<>(size * 2);
+        this.successors = new int[size][];
+        this.predecessors = new int[size][];
+        this.dependCounts = new int[size];
+        this.blockingCounts = new int[size];
+        this.forbidden = new boolean[size];
+        this.beginNodes = new boolean[size];
+    }
+
+    /**
+     * compile the dag, the task nodes are shared with the dag and must not be changed afterwards
+     *
+     * @param dag dag
+     * @return compiled dag
+     * @throws Exception if the dag has a cycle
+     */
+    public static CompiledDag compile(DAG<String, TaskNode, TaskNodeRelation> dag) throws Exception {
+        List<String> sortedCodes = dag.topologicalSort();
+        int size = sortedCodes.size();
+        CompiledDag compiled = new CompiledDag(size);
+        for (int i = 0; i < size; i++) {
+            String code = sortedCodes.get(i);
+            compiled.codes[i] = code;
+            compiled.nodes[i] = dag.getNode(code);
+            compiled.indexes.put(code, i);
+            compiled.forbidden[i] = compiled.nodes[i].isForbidden();
+        }
+        for (int i = 0; i < size; i++) {
+            compiled.successors[i] = compiled.toIndexes(dag.getSubsequentNodes(compiled.codes[i]));
+            compiled.predecessors[i] = compiled.toIndexes(dag.getPreviousNodes(compiled.codes[i]));
+            List<String> depList = compiled.nodes[i].getDepList();
+            compiled.dependCounts[i] = depList == null ? 0 : new HashSet<>(depList).size();
+            for (int pre : compiled.predecessors[i]) {
+                if (!compiled.forbidden[pre]) {
+                    compiled.blockingCounts[i]++;
+                }
+            }
+            compiled.beginNodes[i] = compiled.predecessors[i].length == 0;
+        }
+        return compiled;
+    }
+
+    private int[] toIndexes(Set<String> nodeCodes) {
+        if (nodeCodes.isEmpty()) {
+            return EMPTY;
+        }
+        int[] result = new int[nodeCodes.size()];
+        int i = 0;
+        for (String code : nodeCodes) {
+            result[i++] = indexes.get(code);
+        }
+        return result;
+    }
+
+    /**
+     * @return number of nodes
+     */
+    public int size() {
+        return codes.length;
+    }
+
+    /**
+     * @param code task code
+     * @return index of the node, -1 if the node is not in the dag
+     */
+    public int indexOf(String code) {
+        Integer index = indexes.get(code);
+        return index == null ? -1 : index;
+    }
+
+    public boolean containsNode(String code) {
+        return indexes.containsKey(code);
+    }
+
+    public String getCode(int index) {
+        return codes[index];
+    }
+
+    public TaskNode getNode(int index) {
+        return nodes[index];
+    }
+
+    /**
+     * @param code task code
+     * @return task node, null if the node is not in the dag
+     */
+    public TaskNode getNode(String code) {
+        int index = indexOf(code);
+        return index < 0 ? null : nodes[index];
+    }
+
+    /**
+     * @return successor indexes of the node, must not be modified
+     */
+    public int[] getSuccessors(int index) {
+        return successors[index];
+    }
+
+    /**
+     * @return predecessor indexes of the node, must not be modified
+     */
+    public int[] getPredecessors(int index) {
+        return predecessors[index];
+    }
+
+    public int getDependCount(int index) {
+        return dependCounts[index];
+    }
+
+    public int getBlockingCount(int index) {
+        return blockingCounts[index];
+    }
+
+    public boolean isForbidden(int index) {
+        return forbidden[index];
+    }
+
+    public boolean isBeginNode(int index) {
+        return beginNodes[index];
+    }
+
+    public boolean isBeginNode(String code) {
+        int index = indexOf(code);
+        return index >= 0 && beginNodes[index];
+    }
+}
@@ -0,0 +1,349 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.dao.utils;
+
+import org.apache.dolphinscheduler.common.model.TaskNode;
+import org.apache.dolphinscheduler.common.task.conditions.ConditionsParameters;
+import org.apache.dolphinscheduler.common.task.switchtask.SwitchParameters;
+import org.apache.dolphinscheduler.common.task.switchtask.SwitchResultVo;
+import org.apache.dolphinscheduler.common.utils.JSONUtils;
+import org.apache.dolphinscheduler.dao.entity.TaskInstance;
+
+import org.apache.commons.collections.CollectionUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * progress of one workflow instance over a {@link CompiledDag}.
+ * every node keeps the number of predecessors which have not ended yet, it is decremented
+ * when a predecessor completes or is skipped, so the ready successors of a finished node are
+ * found by looking at its out edges only. the rules are the same as
+ * {@link DagHelper#parsePostNodes}: forbidden and completed nodes are passed through,
+ * conditions and switch nodes choose their branch and skip the others.
+ * not thread safe, it is used by the thread handling the events of the workflow instance.
+ */
+public class DagDependencyTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(DagDependencyTracker.class);
+
+    private final CompiledDag dag;
+
+    /**
+     * find the task instance by id
+     */
+    private final Function<Integer, TaskInstance> taskInstanceLookup;
+
+    /**
+     * skipped nodes, task code as key, shared with the workflow
+     */
+    private final Map<String, TaskNode> skipTaskNodeMap;
+
+    /**
+     * predecessors not ended yet, forbidden ones are not counted
+     */
+    private final int[] remainingCounts;
+
+    private final int[] skippedDependCounts;
+
+    /**
+     * id of the task instance which completed the node, null if not completed
+     */
+    private final Integer[] completeTaskIds;
+
+    private final boolean[] ended;
+
+    private final boolean[] skipped;
+
+    /**
+     * visit mark of the current resolve, compared with the resolve epoch
+     */
+    private final int[] visitEpochs;
+
+    private int epoch;
+
+    /**
+     * nodes to visit in the current resolve
+     */
+    private int[] stack = new int[16];
+
+    private int stackSize;
+
+    private boolean resolving;
+
+    public DagDependencyTracker(CompiledDag dag,
+                                Function<Integer, TaskInstance> taskInstanceLookup,
+                                Map<String, TaskNode> skipTaskNodeMap) {
+        int size = dag.size();
+        this.dag = dag;
+        this.taskInstanceLookup = taskInstanceLookup;
+        this.skipTaskNodeMap = skipTaskNodeMap;
+        this.remainingCounts = new int[size];
+        for (int i = 0; i < size; i++) {
+            remainingCounts[i] = dag.getBlockingCount(i);
+        }
+        this.skippedDependCounts = new int[size];
+        this.completeTaskIds = new Integer[size];
+        this.ended = new boolean[size];
+        this.skipped = new boolean[size];
+        this.visitEpochs = new int[size];
+        for (String skipCode : skipTaskNodeMap.keySet().toArray(new String[0])) {
+            int index = dag.indexOf(skipCode);
+            if (index >= 0) {
+                skip(index);
+            }
+        }
+    }
+
+    /**
+     * mark the node completed, its successors no longer wait for it
+     *
+     * @param code task code
+     * @param taskInstanceId id of the task instance which completed the node
+     */
+    public void complete(String code, int taskInstanceId) {
+        int index = dag.indexOf(code);
+        if (index < 0) {
+            return;
+        }
+        completeTaskIds[index] = taskInstanceId;
+        end(index);
+    }
+
+    /**
+     * the successor nodes ready to run after the previous node, the result of
+     * {@link DagHelper#parsePostNodes} computed from the counters
+     *
+     * @param preNodeCode previous node, null for the begin nodes
+     * @return codes of the ready nodes
+     */
+    public Set<String> parsePostNodes(String preNodeCode) {
+        Set<String> postNodes = new LinkedHashSet<>();
+        int preIndex = -1;
+        if (preNodeCode != null) {
+            preIndex = dag.indexOf(preNodeCode);
+            if (preIndex < 0) {
+                logger.error("taskNode {} is not in dag, please check dag", preNodeCode);
+                return postNodes;
+            }
+        }
+        epoch++;
+        stackSize = 0;
+        resolving = true;
+        try {
+            if (preIndex < 0) {
+                for (int i = 0; i < dag.size(); i++) {
+                    if (dag.isBeginNode(i)) {
+                        push(i);
+                    }
+                }
+            } else {
+                pushSubsequent(preIndex);
+            }
+            while (stackSize > 0) {
+                int index = stack[--stackSize];
+                if (visitEpochs[index] == epoch) {
+                    continue;
+                }
+                if (skipped[index] && completeTaskIds[index] == null) {
+                    continue;
+                }
+                if (needSkip(index)) {
+                    skip(index);
+                    continue;
+                }
+                if (remainingCounts[index] > 0) {
+                    continue;
+                }
+                visitEpochs[index] = epoch;
+                if (dag.isForbidden(index) || completeTaskIds[index] != null) {
+                    pushSubsequent(index);
+                    continue;
+                }
+                postNodes.add(dag.getCode(index));
+            }
+        } finally {
+            resolving = false;
+        }
+        // a branch skipped later in the resolve may contain a node found ready before
+        postNodes.removeIf(this::isSkipped);
+        return postNodes;
+    }
+
+    /**
+     * the branch chosen by a completed conditions node, the other branch is skipped
+     *
+     * @param code code of the conditions node
+     * @return codes of the chosen branch
+     */
+    public List<String> parseConditionTask(String code) {
+        int index = dag.indexOf(code);
+        if (index < 0 || !dag.getNode(index).isConditionsTask()) {
+            return new ArrayList<>();
+        }
+        return parseConditionTask(index);
+    }
+
+    /**
+     * @return true if the node is in the dag and has been skipped
+     */
+    public boolean isSkipped(String code) {
+        int index = dag.indexOf(code);
+        return index >= 0 && skipped[index];
+    }
+
+    private List<String> parseConditionTask(int index) {
+        TaskInstance taskInstance = getCompleteTaskInstance(index);
+        if (taskInstance == null) {
+            return new ArrayList<>();
+        }
+        ConditionsParameters conditionsParameters =
+                JSONUtils.parseObject(dag.getNode(index).getConditionResult(), ConditionsParameters.class);
+        List<String> conditionTaskList;
+        List<String> skipNodeList;
+        if (taskInstance.getState().typeIsSuccess()) {
+            conditionTaskList = conditionsParameters.getSuccessNode();
+            skipNodeList = conditionsParameters.getFailedNode();
+        } else if (taskInstance.getState().typeIsFailure()) {
+            conditionTaskList = conditionsParameters.getFailedNode();
+            skipNodeList = conditionsParameters.getSuccessNode();
+        } else {
+            conditionTaskList = new ArrayList<>(Collections.singletonList(dag.getCode(index)));
+            skipNodeList = Collections.emptyList();
+        }
+        for (String skipNode : skipNodeList) {
+            skip(skipNode);
+        }
+        return conditionTaskList;
+    }
+
+    private List<String> parseSwitchTask(int index) {
+        TaskInstance taskInstance = getCompleteTaskInstance(index);
+        if (taskInstance == null) {
+            return new ArrayList<>();
+        }
+        SwitchParameters switchParameters = taskInstance.getSwitchDependency();
+        int resultConditionLocation = switchParameters.getResultConditionLocation();
+        List<SwitchResultVo> conditionResultVoList = switchParameters.getDependTaskList();
+        List<String> switchTaskList = conditionResultVoList.get(resultConditionLocation).getNextNode();
+        for (int i = 0; i < conditionResultVoList.size(); i++) {
+            List<String> nextNode = conditionResultVoList.get(i).getNextNode();
+            if (i != resultConditionLocation && CollectionUtils.isNotEmpty(nextNode)) {
+                skip(nextNode.get(0));
+            }
+        }
+        return CollectionUtils.isEmpty(switchTaskList) ? new ArrayList<>() : switchTaskList;
+    }
+
+    private TaskInstance getCompleteTaskInstance(int index) {
+        Integer taskInstanceId = completeTaskIds[index];
+        return taskInstanceId == null ? null : taskInstanceLookup.apply(taskInstanceId);
+    }
+
+    private void pushSubsequent(int index) {
+        TaskNode taskNode = dag.getNode(index);
+        List<String> branch;
+        if (taskNode.isConditionsTask()) {
+            branch = parseConditionTask(index);
+        } else if (taskNode.isSwitchTask()) {
+            branch = parseSwitchTask(index);
+        } else {
+            for (int successor : dag.getSuccessors(index)) {
+                push(successor);
+            }
+            return;
+        }
+        for (String code : branch) {
+            int successor = dag.indexOf(code);
+            if (successor < 0) {
+                logger.error("taskNode {} is null, please check dag", code);
+                continue;
+            }
+            push(successor);
+        }
+    }
+
+    private void push(int index) {
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+        stack[stackSize++] = index;
+    }
+
+    /**
+     * all the depend nodes are skipped, skip it too
+     */
+    private boolean needSkip(int index) {
+        int dependCount = dag.getDependCount(index);
+        return dependCount > 0 && skippedDependCounts[index] >= dependCount;
+    }
+
+    private void skip(String code) {
+        int index = dag.indexOf(code);
+        if (index >= 0) {
+            skip(index);
+        }
+    }
+
+    /**
+     * skip the node and the successors whose depend nodes are all skipped.
+     * a successor which no longer waits for anything is visited again by the current resolve,
+     * it may have been visited before the branch was skipped.
+     */
+    private void skip(int index) {
+        if (skipped[index]) {
+            return;
+        }
+        skipped[index] = true;
+        skipTaskNodeMap.putIfAbsent(dag.getCode(index), dag.getNode(index));
+        end(index);
+        for (int successor : dag.getSuccessors(index)) {
+            skippedDependCounts[successor]++;
+            if (needSkip(successor)) {
+                skip(successor);
+            } else if (remainingCounts[successor] == 0 && resolving) {
+                push(successor);
+            }
+        }
+    }
+
+    private void end(int index) {
+        if (ended[index]) {
+            return;
+        }
+        ended[index] = true;
+        boolean counted = !dag.isForbidden(index);
+        for (int successor : dag.getSuccessors(index)) {
+            if (counted) {
+                remainingCounts[successor]--;
+            }
+            if (remainingCounts[successor] == 0 && resolving) {
+                push(successor);
+            }
+        }
+    }
+}
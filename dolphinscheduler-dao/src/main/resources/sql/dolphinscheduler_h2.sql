@@ -330,8 +330,11 @@ CREATE TABLE t_ds_command
     dry_run                    int NULL DEFAULT 0,
     process_instance_id        int(11) DEFAULT 0,
     process_definition_version int(11) DEFAULT 0,
+    claim_host                 varchar(135) DEFAULT NULL,
+    claim_time                 datetime DEFAULT NULL,
     PRIMARY KEY (id),
-    KEY                        priority_id_index (process_instance_priority, id)
+    KEY                        priority_id_index (process_instance_priority, id),
+    KEY                        claim_host_index (claim_host, process_instance_priority, id)
 );
 
 -- ----------------------------
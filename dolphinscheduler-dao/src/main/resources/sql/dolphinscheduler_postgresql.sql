@@ -257,10 +257,13 @@ CREATE TABLE t_ds_command (
   dry_run                   int DEFAULT '0' ,
   process_instance_id       int DEFAULT 0,
   process_definition_version int DEFAULT 0,
+  claim_host                varchar(135) DEFAULT NULL ,
+  claim_time                timestamp DEFAULT NULL ,
   PRIMARY KEY (id)
 ) ;
 
 create index priority_id_index on t_ds_command (process_instance_priority,id);
+create index claim_host_index on t_ds_command (claim_host,process_instance_priority,id);
 
 --
 -- Table structure for table t_ds_datasource
@@ -19,3 +19,7 @@ SET sql_mode=(SELECT REPLACE(@@sql_mode,'ONLY_FULL_GROUP_BY',''));
 
 alter table t_ds_process_instance drop KEY `start_time_index`;
 alter table t_ds_process_instance add KEY `start_time_index` (`start_time`,`end_time`) USING BTREE;
+
+alter table t_ds_command add column `claim_host` varchar(135) DEFAULT NULL COMMENT 'host of the master which claimed the command';
+alter table t_ds_command add column `claim_time` datetime DEFAULT NULL COMMENT 'claim time';
+alter table t_ds_command add KEY `claim_host_index` (`claim_host`,`process_instance_priority`,`id`) USING BTREE;
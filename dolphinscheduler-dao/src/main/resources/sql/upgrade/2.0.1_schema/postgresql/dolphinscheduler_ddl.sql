@@ -31,6 +31,10 @@ BEGIN
     EXECUTE 'DROP INDEX IF EXISTS "start_time_index"';
     EXECUTE 'CREATE INDEX IF NOT EXISTS start_time_index ON ' || quote_ident(v_schema) ||'.t_ds_process_instance USING Btree("start_time","end_time")';
 
+    EXECUTE 'ALTER TABLE ' || quote_ident(v_schema) ||'.t_ds_command ADD COLUMN IF NOT EXISTS "claim_host" varchar(135) DEFAULT NULL';
+    EXECUTE 'ALTER TABLE ' || quote_ident(v_schema) ||'.t_ds_command ADD COLUMN IF NOT EXISTS "claim_time" timestamp DEFAULT NULL';
+    EXECUTE 'CREATE INDEX IF NOT EXISTS claim_host_index ON ' || quote_ident(v_schema) ||'.t_ds_command USING Btree("claim_host","process_instance_priority","id")';
+
 	return 'Success!';
 	exception when others then
 		---Raise EXCEPTION '(%)',SQLERRM;
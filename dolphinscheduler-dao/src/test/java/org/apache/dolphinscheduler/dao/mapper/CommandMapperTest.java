@@ -23,6 +23,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import org.apache.dolphinscheduler.common.Constants;
 import org.apache.dolphinscheduler.common.enums.CommandType;
@@ -38,12 +39,18 @@ import org.apache.dolphinscheduler.dao.entity.Command;
 import org.apache.dolphinscheduler.dao.entity.CommandCount;
 import org.apache.dolphinscheduler.dao.entity.ProcessDefinition;
 
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
 /**
@@ -51,6 +58,8 @@ import org.springframework.beans.factory.annotation.Autowired;
  */
 public class CommandMapperTest extends BaseDaoTest {
 
+    private static final Logger logger = LoggerFactory.getLogger(CommandMapperTest.class);
+
     @Autowired
     private CommandMapper commandMapper;
 
@@ -144,6 +153,62 @@ public class CommandMapperTest extends BaseDaoTest {
         assertNotNull(actualCommand);
     }
 
+    /**
+     * test claim commands by different masters
+     */
+    @Test
+    public void testClaimCommands() {
+        createCommandMap(10);
+
+        List<Integer> candidateIds = commandMapper.queryUnclaimedCommandIds(5);
+        assertEquals(5, candidateIds.size());
+        assertEquals(5, commandMapper.claimCommands("master1:5678", new Date(), candidateIds));
+        // the same candidates can not be claimed again by another master
+        assertEquals(0, commandMapper.claimCommands("master2:5678", new Date(), candidateIds));
+
+        List<Integer> otherCandidateIds = commandMapper.queryUnclaimedCommandIds(5);
+        assertTrue(Collections.disjoint(candidateIds, otherCandidateIds));
+        assertEquals(otherCandidateIds.size(), commandMapper.claimCommands("master2:5678", new Date(), otherCandidateIds));
+
+        List<Command> master1Commands = commandMapper.queryClaimedCommands("master1:5678", 10);
+        assertEquals(5, master1Commands.size());
+        assertTrue(master1Commands.stream().allMatch(command -> "master1:5678".equals(command.getClaimHost())));
+
+        assertEquals(5, commandMapper.releaseClaimedCommands("master1:5678"));
+        assertTrue(commandMapper.queryClaimedCommands("master1:5678", 10).isEmpty());
+        assertTrue(commandMapper.queryUnclaimedCommandIds(10).containsAll(candidateIds));
+    }
+
+    /**
+     * measure the claim throughput against the command backlog size,
+     * run with -Dspring.datasource.* pointing to a mysql database to measure it on mysql
+     */
+    @Test
+    public void testClaimCommandsThroughput() {
+        int fetchNum = 10;
+        int batches = 5;
+        int createdCount = 0;
+        for (int backlog : new int[]{100, 1000, 5000}) {
+            for (; createdCount < backlog; createdCount++) {
+                createCommand();
+            }
+            Set<Integer> claimedIds = new HashSet<>();
+            long startTime = System.nanoTime();
+            for (int i = 0; i < batches; i++) {
+                List<Integer> candidateIds = commandMapper.queryUnclaimedCommandIds(fetchNum);
+                commandMapper.claimCommands("master1:5678", new Date(), candidateIds);
+                List<Command> commands = commandMapper.queryClaimedCommands("master1:5678", fetchNum);
+                claimedIds.addAll(commands.stream().map(Command::getId).collect(Collectors.toList()));
+                // handled commands are deleted by the master
+                commands.forEach(command -> commandMapper.deleteById(command.getId()));
+            }
+            long costNanos = Math.max(System.nanoTime() - startTime, 1);
+            createdCount -= claimedIds.size();
+            assertEquals(fetchNum * batches, claimedIds.size());
+            logger.info("claim commands with backlog {}: {} commands/second", backlog, claimedIds.size() * 1_000_000_000L / costNanos);
+        }
+    }
+
     /**
      * test count command state
      */
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.dao.utils;
+
+import org.apache.dolphinscheduler.common.Constants;
+import org.apache.dolphinscheduler.common.enums.ExecutionStatus;
+import org.apache.dolphinscheduler.common.enums.TaskType;
+import org.apache.dolphinscheduler.common.graph.DAG;
+import org.apache.dolphinscheduler.common.model.TaskNode;
+import org.apache.dolphinscheduler.common.model.TaskNodeRelation;
+import org.apache.dolphinscheduler.common.process.ProcessDag;
+import org.apache.dolphinscheduler.common.utils.JSONUtils;
+import org.apache.dolphinscheduler.dao.entity.TaskInstance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * dag dependency tracker test
+ */
+public class DagDependencyTrackerTest {
+
+    private final Map<Integer, TaskInstance> taskInstanceMap = new HashMap<>();
+
+    private final Map<String, TaskNode> skipTaskNodeMap = new HashMap<>();
+
+    private DagDependencyTracker tracker;
+
+    @Test
+    public void testParsePostNodes() throws Exception {
+        // 1->2->3->5->7
+        // 4->3->6
+        // 2->8->5->7
+        tracker = newTracker(generateTaskNodes());
+
+        assertNodes(tracker.parsePostNodes(null), "1", "4");
+        assertNodes(completeAndParse("1", ExecutionStatus.SUCCESS), "2");
+        assertNodes(completeAndParse("2", ExecutionStatus.SUCCESS), "8");
+        assertNodes(completeAndParse("4", ExecutionStatus.SUCCESS), "3");
+        assertNodes(completeAndParse("3", ExecutionStatus.SUCCESS), "6");
+        assertNodes(completeAndParse("8", ExecutionStatus.SUCCESS), "5");
+        assertNodes(completeAndParse("6", ExecutionStatus.SUCCESS));
+        assertNodes(completeAndParse("5", ExecutionStatus.SUCCESS), "7");
+    }
+
+    @Test
+    public void testRecoverPostNodes() throws Exception {
+        tracker = newTracker(generateTaskNodes());
+        complete("1", ExecutionStatus.SUCCESS);
+        complete("2", ExecutionStatus.SUCCESS);
+        complete("4", ExecutionStatus.SUCCESS);
+
+        // completed nodes are passed through from the begin nodes
+        assertNodes(tracker.parsePostNodes(null), "3", "8");
+    }
+
+    @Test
+    public void testForbiddenPostNode() throws Exception {
+        List<TaskNode> taskNodes = generateTaskNodes();
+        taskNodes.get(1).setRunFlag(Constants.FLOWNODE_RUN_FLAG_FORBIDDEN);
+        tracker = newTracker(taskNodes);
+
+        // forbid:2 complete:1 post:8, 3 still waits for 4
+        assertNodes(tracker.parsePostNodes(null), "1", "4");
+        assertNodes(completeAndParse("1", ExecutionStatus.SUCCESS), "8");
+        assertNodes(completeAndParse("4", ExecutionStatus.SUCCESS), "3");
+    }
+
+    @Test
+    public void testConditionPostNode() throws Exception {
+        List<TaskNode> taskNodes = generateTaskNodes();
+        setConditions(taskNodes.get(3), "5", "6");
+        tracker = newTracker(taskNodes);
+        complete("1", ExecutionStatus.SUCCESS);
+        complete("2", ExecutionStatus.SUCCESS);
+        complete("4", ExecutionStatus.SUCCESS);
+
+        // 3 success: 5 waits for 8, 6 is skipped
+        assertNodes(completeAndParse("3", ExecutionStatus.SUCCESS));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("6")), skipTaskNodeMap.keySet());
+        assertNodes(completeAndParse("8", ExecutionStatus.SUCCESS), "5");
+        Assert.assertEquals(Arrays.asList("5"), tracker.parseConditionTask("3"));
+
+        // 3 failure: 6 runs, 5 and 7 are skipped
+        skipTaskNodeMap.clear();
+        taskNodes = generateTaskNodes();
+        setConditions(taskNodes.get(3), "5", "6");
+        tracker = newTracker(taskNodes);
+        complete("1", ExecutionStatus.SUCCESS);
+        complete("2", ExecutionStatus.SUCCESS);
+        complete("4", ExecutionStatus.SUCCESS);
+        assertNodes(completeAndParse("3", ExecutionStatus.FAILURE), "6");
+        Assert.assertEquals(new HashSet<>(Arrays.asList("5", "7")), skipTaskNodeMap.keySet());
+        Assert.assertTrue(tracker.isSkipped("7"));
+    }
+
+    @Test
+    public void testSkipReleasesWaitingNode() throws Exception {
+        // 1(conditions)->2, 1->3, 3->5, 4->5
+        List<TaskNode> taskNodes = new ArrayList<>();
+        taskNodes.add(newTaskNode(1));
+        taskNodes.add(newTaskNode(2, "1"));
+        taskNodes.add(newTaskNode(3, "1"));
+        taskNodes.add(newTaskNode(4));
+        taskNodes.add(newTaskNode(5, "3", "4"));
+        setConditions(taskNodes.get(0), "2", "3");
+        tracker = newTracker(taskNodes);
+
+        assertNodes(tracker.parsePostNodes(null), "1", "4");
+        assertNodes(completeAndParse("4", ExecutionStatus.SUCCESS));
+        // 5 only waited for 3, which is skipped with the failed branch
+        assertNodes(completeAndParse("1", ExecutionStatus.SUCCESS), "2", "5");
+    }
+
+    private Set<String> completeAndParse(String code, ExecutionStatus state) {
+        complete(code, state);
+        return tracker.parsePostNodes(code);
+    }
+
+    private void complete(String code, ExecutionStatus state) {
+        TaskInstance taskInstance = new TaskInstance();
+        taskInstance.setId(taskInstanceMap.size() + 1);
+        taskInstance.setTaskCode(Long.parseLong(code));
+        taskInstance.setState(state);
+        taskInstanceMap.put(taskInstance.getId(), taskInstance);
+        tracker.complete(code, taskInstance.getId());
+    }
+
+    private void assertNodes(Set<String> postNodes, String... expected) {
+        Assert.assertEquals(new HashSet<>(Arrays.asList(expected)), postNodes);
+    }
+
+    private DagDependencyTracker newTracker(List<TaskNode> taskNodes) throws Exception {
+        ProcessDag processDag = new ProcessDag();
+        processDag.setNodes(taskNodes);
+        processDag.setEdges(DagHelper.generateRelationListByFlowNodes(taskNodes));
+        DAG<String, TaskNode, TaskNodeRelation> dag = DagHelper.buildDagGraph(processDag);
+        return new DagDependencyTracker(CompiledDag.compile(dag), taskInstanceMap::get, skipTaskNodeMap);
+    }
+
+    private List<TaskNode> generateTaskNodes() {
+        List<TaskNode> taskNodes = new ArrayList<>();
+        taskNodes.add(newTaskNode(1));
+        taskNodes.add(newTaskNode(2, "1"));
+        taskNodes.add(newTaskNode(4));
+        taskNodes.add(newTaskNode(3, "2", "4"));
+        taskNodes.add(newTaskNode(5, "3", "8"));
+        taskNodes.add(newTaskNode(6, "3"));
+        taskNodes.add(newTaskNode(7, "5"));
+        taskNodes.add(newTaskNode(8, "2"));
+        return taskNodes;
+    }
+
+    private TaskNode newTaskNode(long code, String... preTasks) {
+        TaskNode taskNode = new TaskNode();
+        taskNode.setId(Long.toString(code));
+        taskNode.setName(Long.toString(code));
+        taskNode.setCode(code);
+        taskNode.setType(TaskType.SHELL.getDesc());
+        taskNode.setPreTasks(JSONUtils.toJsonString(Arrays.asList(preTasks)));
+        return taskNode;
+    }
+
+    private void setConditions(TaskNode taskNode, String successNode, String failedNode) {
+        taskNode.setType(TaskType.CONDITIONS.getDesc());
+        taskNode.setConditionResult("{\"successNode\": [" + successNode + "], \"failedNode\": [" + failedNode + "]}");
+    }
+}
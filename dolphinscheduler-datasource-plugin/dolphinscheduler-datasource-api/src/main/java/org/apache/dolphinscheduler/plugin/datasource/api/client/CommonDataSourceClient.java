@@ -25,15 +25,19 @@ import org.apache.dolphinscheduler.spi.utils.StringUtils;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.TimeUnit;
-
-import javax.sql.DataSource;
+import java.util.function.ToIntFunction;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 import com.google.common.base.Stopwatch;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 
 public class CommonDataSourceClient implements DataSourceClient {
 
@@ -44,7 +48,7 @@ public class CommonDataSourceClient implements DataSourceClient {
     public static final String COMMON_VALIDATION_QUERY = "select 1";
 
     protected final BaseConnectionParam baseConnectionParam;
-    protected DataSource dataSource;
+    protected HikariDataSource dataSource;
     protected JdbcTemplate jdbcTemplate;
 
     public CommonDataSourceClient(BaseConnectionParam baseConnectionParam, DbType dbType) {
@@ -122,8 +126,52 @@ public class CommonDataSourceClient implements DataSourceClient {
     @Override
     public void close() {
         logger.info("do close dataSource.");
+        if (this.dataSource != null) {
+            this.dataSource.close();
+        }
         this.dataSource = null;
         this.jdbcTemplate = null;
     }
 
+    /**
+     * @return the pools opened by this client
+     */
+    protected List<HikariDataSource> getPools() {
+        return Collections.singletonList(dataSource);
+    }
+
+    /**
+     * @return the maximum number of connections of all pools of this client
+     */
+    public int getMaximumPoolSize() {
+        return sumPools(HikariDataSource::getMaximumPoolSize);
+    }
+
+    /**
+     * shrink the first pool so that all pools of this client together hold at most the given number of connections,
+     * every pool keeps one connection at least
+     *
+     * @param maximumPoolSize maximum number of connections
+     */
+    public void setMaximumPoolSize(int maximumPoolSize) {
+        HikariDataSource first = getPools().get(0);
+        int size = Math.max(1, maximumPoolSize - (getMaximumPoolSize() - first.getMaximumPoolSize()));
+        first.getHikariConfigMXBean().setMinimumIdle(Math.min(first.getMinimumIdle(), size));
+        first.getHikariConfigMXBean().setMaximumPoolSize(size);
+    }
+
+    /**
+     * @return the number of connections borrowed from the pools of this client
+     */
+    public int getActiveConnections() {
+        return sumPools(pool -> {
+            HikariPoolMXBean poolMXBean = pool.getHikariPoolMXBean();
+            return poolMXBean == null ? 0 : poolMXBean.getActiveConnections();
+        });
+    }
+
+    private int sumPools(ToIntFunction<HikariDataSource> function) {
+        return getPools().stream().filter(Objects::nonNull).mapToInt(function).sum();
+    }
+
 }
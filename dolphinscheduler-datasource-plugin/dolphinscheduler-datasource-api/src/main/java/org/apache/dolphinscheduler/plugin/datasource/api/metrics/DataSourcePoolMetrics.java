@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.plugin.datasource.api.metrics;
+
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * meters of the datasource pools, registered in the global registry which is exposed by the prometheus endpoint,
+ * the connections of every pool are metered by hikari under the pool name
+ */
+public final class DataSourcePoolMetrics {
+
+    private DataSourcePoolMetrics() {
+        throw new UnsupportedOperationException("Construct DataSourcePoolMetrics");
+    }
+
+    /**
+     * register the gauges of the datasource pools
+     *
+     * @param poolCount supplier of the open pools
+     * @param reservedConnections supplier of the sum of the maximum sizes of the open pools
+     * @param maxTotalConnections budget of the reserved connections
+     */
+    public static void registerPoolGauges(Supplier<Number> poolCount, Supplier<Number> reservedConnections, int maxTotalConnections) {
+        Gauge.builder("ds.datasource.pool.count", poolCount)
+                .description("number of open datasource pools")
+                .register(Metrics.globalRegistry);
+        Gauge.builder("ds.datasource.pool.connections.reserved", reservedConnections)
+                .description("sum of the maximum sizes of the open datasource pools")
+                .register(Metrics.globalRegistry);
+        Gauge.builder("ds.datasource.pool.connections.max", () -> maxTotalConnections)
+                .description("budget of the connections of all datasource pools")
+                .register(Metrics.globalRegistry);
+    }
+
+    private static final Counter IDLE_EVICTION_COUNTER = Counter.builder("ds.datasource.pool.evicted")
+            .description("number of datasource pools closed")
+            .tag("cause", "idle")
+            .register(Metrics.globalRegistry);
+
+    private static final Counter BUDGET_EVICTION_COUNTER = Counter.builder("ds.datasource.pool.evicted")
+            .description("number of datasource pools closed")
+            .tag("cause", "budget")
+            .register(Metrics.globalRegistry);
+
+    public static Counter idleEvictionCounter() {
+        return IDLE_EVICTION_COUNTER;
+    }
+
+    public static Counter budgetEvictionCounter() {
+        return BUDGET_EVICTION_COUNTER;
+    }
+}
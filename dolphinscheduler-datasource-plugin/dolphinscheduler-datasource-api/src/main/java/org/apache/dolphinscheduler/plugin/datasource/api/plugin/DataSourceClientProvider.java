@@ -17,29 +17,51 @@
 
 package org.apache.dolphinscheduler.plugin.datasource.api.plugin;
 
+import org.apache.dolphinscheduler.plugin.datasource.api.metrics.DataSourcePoolMetrics;
 import org.apache.dolphinscheduler.plugin.datasource.api.utils.DataSourceUtils;
 import org.apache.dolphinscheduler.spi.datasource.BaseConnectionParam;
 import org.apache.dolphinscheduler.spi.datasource.ConnectionParam;
 import org.apache.dolphinscheduler.spi.datasource.DataSourceChannel;
-import org.apache.dolphinscheduler.spi.datasource.DataSourceClient;
 import org.apache.dolphinscheduler.spi.enums.DbType;
+import org.apache.dolphinscheduler.spi.utils.Constants;
+import org.apache.dolphinscheduler.spi.utils.PropertyUtils;
 
 import java.sql.Connection;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 public class DataSourceClientProvider {
     private static final Logger logger = LoggerFactory.getLogger(DataSourceClientProvider.class);
 
-    private static final Map<String, DataSourceClient> uniqueId2dataSourceClientMap = new ConcurrentHashMap<>();
+    /**
+     * longest interval between two checks of the idle pools
+     */
+    private static final long MAX_EVICT_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final DataSourcePoolRegistry dataSourcePoolRegistry;
 
     private DataSourcePluginManager dataSourcePluginManager;
 
     private DataSourceClientProvider() {
         initDataSourcePlugin();
+        int maxTotalConnections = PropertyUtils.getInt(Constants.DATASOURCE_POOL_MAX_TOTAL, 500);
+        long idleTimeoutMillis = TimeUnit.SECONDS.toMillis(PropertyUtils.getLong(Constants.DATASOURCE_POOL_IDLE_TIMEOUT, 600));
+        dataSourcePoolRegistry = new DataSourcePoolRegistry(maxTotalConnections, idleTimeoutMillis);
+        DataSourcePoolMetrics.registerPoolGauges(dataSourcePoolRegistry::getPoolCount, dataSourcePoolRegistry::getReservedConnections, maxTotalConnections);
+
+        long evictIntervalMillis = Math.max(1000, Math.min(idleTimeoutMillis, MAX_EVICT_INTERVAL_MILLIS));
+        ScheduledExecutorService poolEvictExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("DataSourcePoolEvictor")
+                .build());
+        poolEvictExecutor.scheduleWithFixedDelay(this::evictIdlePools, evictIntervalMillis, evictIntervalMillis, TimeUnit.MILLISECONDS);
     }
 
     private static class DataSourceClientProviderHolder {
@@ -55,7 +77,7 @@ public class DataSourceClientProvider {
         String datasourceUniqueId = DataSourceUtils.getDatasourceUniqueId(baseConnectionParam, dbType);
         logger.info("getConnection datasourceUniqueId {}", datasourceUniqueId);
 
-        DataSourceClient dataSourceClient = uniqueId2dataSourceClientMap.computeIfAbsent(datasourceUniqueId, $ -> {
+        return dataSourcePoolRegistry.getConnection(datasourceUniqueId, () -> {
             Map<String, DataSourceChannel> dataSourceChannelMap = dataSourcePluginManager.getDataSourceChannelMap();
             DataSourceChannel dataSourceChannel = dataSourceChannelMap.get(dbType.getDescp());
             if (null == dataSourceChannel) {
@@ -63,7 +85,14 @@ public class DataSourceClientProvider {
             }
             return dataSourceChannel.createDataSourceClient(baseConnectionParam, dbType);
         });
-        return dataSourceClient.getConnection();
+    }
+
+    private void evictIdlePools() {
+        try {
+            dataSourcePoolRegistry.evictIdlePools();
+        } catch (Exception e) {
+            logger.error("evict idle datasource pools error", e);
+        }
     }
 
     private void initDataSourcePlugin() {
@@ -0,0 +1,272 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.plugin.datasource.api.plugin;
+
+import org.apache.dolphinscheduler.plugin.datasource.api.client.CommonDataSourceClient;
+import org.apache.dolphinscheduler.plugin.datasource.api.metrics.DataSourcePoolMetrics;
+import org.apache.dolphinscheduler.spi.datasource.DataSourceClient;
+import org.apache.dolphinscheduler.spi.utils.Constants;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Open datasource pools, keyed by the datasource unique id.
+ * <p>
+ * The maximum sizes of the pools add up to a budget of connections. A new pool takes the budget of the least recently
+ * used pools which lend no connection, and is shrunk to what is left when that is not enough. A pool which lends no
+ * connection for the idle timeout is closed by {@link #evictIdlePools()}. A pool is never closed while a connection
+ * is borrowed from it.
+ */
+public class DataSourcePoolRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourcePoolRegistry.class);
+
+    private final int maxTotalConnections;
+
+    private final long idleTimeoutMillis;
+
+    /**
+     * current time millis
+     */
+    private final LongSupplier clock;
+
+    private final Map<String, PoolEntry> pools = new ConcurrentHashMap<>();
+
+    /**
+     * sum of the maximum sizes of the open pools, guarded by this
+     */
+    private int reservedConnections;
+
+    public DataSourcePoolRegistry(int maxTotalConnections, long idleTimeoutMillis) {
+        this(maxTotalConnections, idleTimeoutMillis, System::currentTimeMillis);
+    }
+
+    DataSourcePoolRegistry(int maxTotalConnections, long idleTimeoutMillis, LongSupplier clock) {
+        this.maxTotalConnections = maxTotalConnections;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * borrow a connection from the pool of the datasource, the pool is created by the factory if it is not open
+     *
+     * @param datasourceUniqueId datasource unique id
+     * @param clientFactory factory of the client of the datasource
+     * @return connection, null if the client failed to get one
+     */
+    public Connection getConnection(String datasourceUniqueId, Supplier<DataSourceClient> clientFactory) {
+        while (true) {
+            PoolEntry entry = pools.get(datasourceUniqueId);
+            if (entry == null) {
+                entry = register(datasourceUniqueId, clientFactory.get());
+            }
+            if (entry.acquire()) {
+                try {
+                    return entry.client.getConnection();
+                } finally {
+                    entry.release();
+                }
+            }
+            // the pool was closed after it was looked up
+        }
+    }
+
+    /**
+     * close the pools which lend no connection for the idle timeout
+     */
+    public void evictIdlePools() {
+        List<PoolEntry> evicted = new ArrayList<>();
+        synchronized (this) {
+            long now = clock.getAsLong();
+            for (PoolEntry entry : pools.values()) {
+                if (entry.getActiveConnections() > 0) {
+                    // a connection borrowed long ago keeps the pool in use until it is returned
+                    entry.lastUsedMillis = now;
+                } else if (now - entry.lastUsedMillis >= idleTimeoutMillis && entry.tryClose()) {
+                    remove(entry);
+                    evicted.add(entry);
+                    DataSourcePoolMetrics.idleEvictionCounter().increment();
+                }
+            }
+        }
+        evicted.forEach(PoolEntry::close);
+    }
+
+    /**
+     * @return the number of open pools
+     */
+    public int getPoolCount() {
+        return pools.size();
+    }
+
+    /**
+     * @return the sum of the maximum sizes of the open pools
+     */
+    public synchronized int getReservedConnections() {
+        return reservedConnections;
+    }
+
+    private PoolEntry register(String datasourceUniqueId, DataSourceClient client) {
+        PoolEntry entry = new PoolEntry(datasourceUniqueId, client, clock);
+        List<PoolEntry> evicted = new ArrayList<>();
+        try {
+            synchronized (this) {
+                PoolEntry registered = pools.get(datasourceUniqueId);
+                if (registered != null) {
+                    // another thread opened the pool meanwhile
+                    evicted.add(entry);
+                    return registered;
+                }
+                int wanted = entry.getMaximumPoolSize();
+                if (reservedConnections + wanted > maxTotalConnections) {
+                    evictLeastRecentlyUsed(wanted, evicted);
+                }
+                int granted = Math.min(wanted, maxTotalConnections - reservedConnections);
+                if (wanted > 0 && granted < 1) {
+                    evicted.add(entry);
+                    throw new RuntimeException(String.format("the %d connections of the datasource pools are all reserved by pools in use, raise %s",
+                            maxTotalConnections, Constants.DATASOURCE_POOL_MAX_TOTAL));
+                }
+                if (granted < wanted) {
+                    logger.warn("shrink the pool of datasource {} from {} to {} connections to stay within the budget", datasourceUniqueId, wanted, granted);
+                    ((CommonDataSourceClient) client).setMaximumPoolSize(granted);
+                }
+                entry.reserved = entry.getMaximumPoolSize();
+                reservedConnections += entry.reserved;
+                pools.put(datasourceUniqueId, entry);
+                logger.info("open the pool of datasource {} with {} connections, {} of {} connections reserved",
+                        datasourceUniqueId, entry.reserved, reservedConnections, maxTotalConnections);
+                return entry;
+            }
+        } finally {
+            evicted.forEach(PoolEntry::close);
+        }
+    }
+
+    /**
+     * close the least recently used pools which lend no connection until the wanted connections are free
+     */
+    private void evictLeastRecentlyUsed(int wanted, List<PoolEntry> evicted) {
+        List<PoolEntry> candidates = pools.values().stream()
+                .sorted(Comparator.comparingLong(entry -> entry.lastUsedMillis))
+                .collect(Collectors.toList());
+        for (PoolEntry candidate : candidates) {
+            if (reservedConnections + wanted <= maxTotalConnections) {
+                return;
+            }
+            if (candidate.tryClose()) {
+                remove(candidate);
+                evicted.add(candidate);
+                DataSourcePoolMetrics.budgetEvictionCounter().increment();
+            }
+        }
+    }
+
+    private void remove(PoolEntry entry) {
+        pools.remove(entry.datasourceUniqueId, entry);
+        reservedConnections -= entry.reserved;
+    }
+
+    private static class PoolEntry {
+
+        private final String datasourceUniqueId;
+
+        private final DataSourceClient client;
+
+        /**
+         * threads between looking up the pool and getting a connection from it
+         */
+        private final AtomicInteger borrowers = new AtomicInteger();
+
+        private volatile boolean closed;
+
+        private final LongSupplier clock;
+
+        private volatile long lastUsedMillis;
+
+        private int reserved;
+
+        PoolEntry(String datasourceUniqueId, DataSourceClient client, LongSupplier clock) {
+            this.datasourceUniqueId = datasourceUniqueId;
+            this.client = client;
+            this.clock = clock;
+            this.lastUsedMillis = clock.getAsLong();
+        }
+
+        boolean acquire() {
+            borrowers.incrementAndGet();
+            if (closed) {
+                borrowers.decrementAndGet();
+                return false;
+            }
+            lastUsedMillis = clock.getAsLong();
+            return true;
+        }
+
+        void release() {
+            borrowers.decrementAndGet();
+        }
+
+        /**
+         * mark the pool closed if no connection is borrowed from it, a borrower either sees the mark or is seen here
+         */
+        boolean tryClose() {
+            if (borrowers.get() > 0 || getActiveConnections() > 0) {
+                return false;
+            }
+            closed = true;
+            if (borrowers.get() > 0) {
+                closed = false;
+                return false;
+            }
+            return true;
+        }
+
+        void close() {
+            logger.info("close the pool of datasource {}", datasourceUniqueId);
+            try {
+                client.close();
+            } catch (Exception e) {
+                logger.error("close the pool of datasource {} error", datasourceUniqueId, e);
+            }
+        }
+
+        /**
+         * clients other than the common one are neither budgeted nor closed, as their pools are unknown
+         */
+        int getMaximumPoolSize() {
+            return client instanceof CommonDataSourceClient ? ((CommonDataSourceClient) client).getMaximumPoolSize() : 0;
+        }
+
+        int getActiveConnections() {
+            return client instanceof CommonDataSourceClient ? ((CommonDataSourceClient) client).getActiveConnections() : 1;
+        }
+    }
+}
@@ -26,12 +26,15 @@ import org.apache.dolphinscheduler.spi.utils.PropertyUtils;
 import org.apache.dolphinscheduler.spi.utils.StringUtils;
 
 import java.sql.Driver;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.zaxxer.hikari.HikariDataSource;
 
+import io.micrometer.core.instrument.Metrics;
+
 /**
  * Jdbc Data Source Provider
  */
@@ -39,8 +42,19 @@ public class JDBCDataSourceProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(JDBCDataSourceProvider.class);
 
+    private static final int DEFAULT_POOL_MIN_IDLE = 0;
+
+    private static final int DEFAULT_POOL_MAX_SIZE = 50;
+
+    /**
+     * sequence of the pool names, which tag the pool meters
+     */
+    private static final AtomicInteger POOL_SEQUENCE = new AtomicInteger();
+
     public static HikariDataSource createJdbcDataSource(BaseConnectionParam properties, DbType dbType) {
-        logger.info("Creating HikariDataSource pool for maxActive:{}", PropertyUtils.getInt(Constants.SPRING_DATASOURCE_MAX_ACTIVE, 50));
+        String datasourceUniqueId = DataSourceUtils.getDatasourceUniqueId(properties, dbType);
+        int maximumPoolSize = getPoolSize(Constants.DATASOURCE_POOL_MAX_SIZE, dbType, datasourceUniqueId, DEFAULT_POOL_MAX_SIZE);
+        logger.info("Creating HikariDataSource pool for maxActive:{}", maximumPoolSize);
         HikariDataSource dataSource = new HikariDataSource();
 
         //TODO Support multiple versions of data sources
@@ -52,9 +66,11 @@ public class JDBCDataSourceProvider {
         dataSource.setUsername(properties.getUser());
         dataSource.setPassword(PasswordUtils.decodePassword(properties.getPassword()));
 
-        dataSource.setMinimumIdle(PropertyUtils.getInt(Constants.SPRING_DATASOURCE_MIN_IDLE, 5));
-        dataSource.setMaximumPoolSize(PropertyUtils.getInt(Constants.SPRING_DATASOURCE_MAX_ACTIVE, 50));
+        dataSource.setMinimumIdle(Math.min(getPoolSize(Constants.DATASOURCE_POOL_MIN_IDLE, dbType, datasourceUniqueId, DEFAULT_POOL_MIN_IDLE), maximumPoolSize));
+        dataSource.setMaximumPoolSize(maximumPoolSize);
         dataSource.setConnectionTestQuery(properties.getValidationQuery());
+        dataSource.setPoolName(String.format("%s-%d", dbType.getDescp(), POOL_SEQUENCE.incrementAndGet()));
+        dataSource.setMetricRegistry(Metrics.globalRegistry);
 
         if (properties.getProps() != null) {
             properties.getProps().forEach(dataSource::addDataSourceProperty);
@@ -68,7 +84,7 @@ public class JDBCDataSourceProvider {
      * @return One Session Jdbc DataSource
      */
     public static HikariDataSource createOneSessionJdbcDataSource(BaseConnectionParam properties, DbType dbType) {
-        logger.info("Creating OneSession HikariDataSource pool for maxActive:{}", PropertyUtils.getInt(Constants.SPRING_DATASOURCE_MAX_ACTIVE, 50));
+        logger.info("Creating OneSession HikariDataSource pool for maxActive:{}", 1);
 
         HikariDataSource dataSource = new HikariDataSource();
 
@@ -80,6 +96,8 @@ public class JDBCDataSourceProvider {
         dataSource.setMinimumIdle(1);
         dataSource.setMaximumPoolSize(1);
         dataSource.setConnectionTestQuery(properties.getValidationQuery());
+        dataSource.setPoolName(String.format("%s-session-%d", dbType.getDescp(), POOL_SEQUENCE.incrementAndGet()));
+        dataSource.setMetricRegistry(Metrics.globalRegistry);
 
         if (properties.getProps() != null) {
             properties.getProps().forEach(dataSource::addDataSourceProperty);
@@ -89,6 +107,15 @@ public class JDBCDataSourceProvider {
         return dataSource;
     }
 
+    /**
+     * get the pool size configured for the datasource, or for the datasource type if the datasource has none,
+     * or for all datasources if the type has none
+     */
+    static int getPoolSize(String key, DbType dbType, String datasourceUniqueId, int defaultValue) {
+        int typePoolSize = PropertyUtils.getInt(key + "." + dbType.getDescp(), PropertyUtils.getInt(key, defaultValue));
+        return PropertyUtils.getInt(key + "." + datasourceUniqueId, typePoolSize);
+    }
+
     protected static void loaderJdbcDriver(ClassLoader classLoader, BaseConnectionParam properties, DbType dbType) {
         String drv = StringUtils.isBlank(properties.getDriverClassName()) ? DataSourceUtils.getDatasourceProcessor(dbType).getDatasourceDriver() : properties.getDriverClassName();
         try {
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.plugin.datasource.api.plugin;
+
+import org.apache.dolphinscheduler.plugin.datasource.api.client.CommonDataSourceClient;
+import org.apache.dolphinscheduler.plugin.datasource.api.datasource.postgresql.PostgreSQLConnectionParam;
+import org.apache.dolphinscheduler.spi.datasource.BaseConnectionParam;
+import org.apache.dolphinscheduler.spi.enums.DbType;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+public class DataSourcePoolRegistryTest {
+
+    private static final int POOL_SIZE = 4;
+
+    private final Map<String, H2DataSourceClient> clients = new HashMap<>();
+
+    private final List<String> closedPools = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger createdPools = new AtomicInteger();
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @After
+    public void after() {
+        clients.values().forEach(CommonDataSourceClient::close);
+    }
+
+    @Test
+    public void testReusePool() throws SQLException {
+        DataSourcePoolRegistry registry = new DataSourcePoolRegistry(100, 60000);
+        try (Connection first = getConnection(registry, "a");
+             Connection second = getConnection(registry, "a")) {
+            Assert.assertNotNull(first);
+            Assert.assertNotNull(second);
+        }
+        Assert.assertEquals(1, createdPools.get());
+        Assert.assertEquals(1, registry.getPoolCount());
+        Assert.assertEquals(POOL_SIZE, registry.getReservedConnections());
+    }
+
+    @Test
+    public void testShrinkPoolToBudget() throws SQLException {
+        DataSourcePoolRegistry registry = new DataSourcePoolRegistry(POOL_SIZE + 2, 60000);
+        try (Connection inUse = getConnection(registry, "a");
+             Connection shrunk = getConnection(registry, "b")) {
+            Assert.assertNotNull(shrunk);
+            Assert.assertEquals(2, clients.get("b").getMaximumPoolSize());
+            Assert.assertEquals(POOL_SIZE + 2, registry.getReservedConnections());
+            Assert.assertTrue(closedPools.isEmpty());
+        }
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsedPool() throws SQLException {
+        DataSourcePoolRegistry registry = new DataSourcePoolRegistry(POOL_SIZE * 2, 60000, clock::get);
+        getConnection(registry, "a").close();
+        clock.incrementAndGet();
+        try (Connection inUse = getConnection(registry, "b")) {
+            clock.incrementAndGet();
+            getConnection(registry, "c").close();
+        }
+        Assert.assertEquals(1, closedPools.size());
+        Assert.assertEquals("a", closedPools.get(0));
+        Assert.assertEquals(2, registry.getPoolCount());
+        Assert.assertEquals(POOL_SIZE * 2, registry.getReservedConnections());
+
+        // a closed pool is opened again when it is used, it takes the budget of b which is used before c
+        clock.incrementAndGet();
+        getConnection(registry, "a").close();
+        Assert.assertEquals(4, createdPools.get());
+        Assert.assertEquals("b", closedPools.get(1));
+    }
+
+    @Test
+    public void testBudgetUsedUp() throws SQLException {
+        DataSourcePoolRegistry registry = new DataSourcePoolRegistry(POOL_SIZE, 60000);
+        try (Connection inUse = getConnection(registry, "a")) {
+            getConnection(registry, "b");
+            Assert.fail();
+        } catch (RuntimeException e) {
+            Assert.assertEquals(1, closedPools.size());
+            Assert.assertEquals("b", closedPools.get(0));
+        }
+        Assert.assertEquals(1, registry.getPoolCount());
+        Assert.assertEquals(POOL_SIZE, registry.getReservedConnections());
+    }
+
+    @Test
+    public void testEvictIdlePools() throws SQLException {
+        DataSourcePoolRegistry registry = new DataSourcePoolRegistry(100, 0);
+        getConnection(registry, "a").close();
+        try (Connection inUse = getConnection(registry, "b")) {
+            registry.evictIdlePools();
+            Assert.assertEquals(1, closedPools.size());
+            Assert.assertEquals("a", closedPools.get(0));
+            Assert.assertEquals(1, registry.getPoolCount());
+            Assert.assertEquals(POOL_SIZE, registry.getReservedConnections());
+        }
+        registry.evictIdlePools();
+        Assert.assertEquals(0, registry.getPoolCount());
+        Assert.assertEquals(0, registry.getReservedConnections());
+    }
+
+    private Connection getConnection(DataSourcePoolRegistry registry, String name) {
+        return registry.getConnection(name, () -> {
+            createdPools.incrementAndGet();
+            H2DataSourceClient client = new H2DataSourceClient(name, closedPools);
+            clients.put(name, client);
+            return client;
+        });
+    }
+
+    private static BaseConnectionParam createConnectionParam(String name) {
+        PostgreSQLConnectionParam connectionParam = new PostgreSQLConnectionParam();
+        connectionParam.setJdbcUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        connectionParam.setDriverClassName("org.h2.Driver");
+        return connectionParam;
+    }
+
+    private static class H2DataSourceClient extends CommonDataSourceClient {
+
+        private final String name;
+
+        private final List<String> closedPools;
+
+        H2DataSourceClient(String name, List<String> closedPools) {
+            super(createConnectionParam(name), DbType.POSTGRESQL);
+            this.name = name;
+            this.closedPools = closedPools;
+        }
+
+        @Override
+        protected void initClient(BaseConnectionParam baseConnectionParam, DbType dbType) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setDriverClassName(baseConnectionParam.getDriverClassName());
+            dataSource.setJdbcUrl(baseConnectionParam.getJdbcUrl());
+            dataSource.setUsername(baseConnectionParam.getUser());
+            dataSource.setPassword(baseConnectionParam.getPassword());
+            dataSource.setMinimumIdle(0);
+            dataSource.setMaximumPoolSize(POOL_SIZE);
+            this.dataSource = dataSource;
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+        }
+
+        @Override
+        public void close() {
+            if (dataSource != null) {
+                closedPools.add(name);
+            }
+            super.close();
+        }
+    }
+}
@@ -19,6 +19,7 @@ package org.apache.dolphinscheduler.plugin.datasource.api.provider;
 
 import org.apache.dolphinscheduler.plugin.datasource.api.datasource.mysql.MySQLConnectionParam;
 import org.apache.dolphinscheduler.spi.enums.DbType;
+import org.apache.dolphinscheduler.spi.utils.PropertyUtils;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -50,4 +51,19 @@ public class JDBCDataSourceProviderTest {
         Assert.assertNotNull(JDBCDataSourceProvider.createOneSessionJdbcDataSource(new MySQLConnectionParam(), DbType.MYSQL));
     }
 
+    @Test
+    public void testGetPoolSize() {
+        String key = "test.pool.max.size";
+        String datasourceUniqueId = "mysql@root@jdbc:mysql://127.0.0.1:3306/test";
+        Assert.assertEquals(50, JDBCDataSourceProvider.getPoolSize(key, DbType.MYSQL, datasourceUniqueId, 50));
+        PropertyUtils.setValue(key, "20");
+        Assert.assertEquals(20, JDBCDataSourceProvider.getPoolSize(key, DbType.MYSQL, datasourceUniqueId, 50));
+        PropertyUtils.setValue(key + ".mysql", "10");
+        Assert.assertEquals(10, JDBCDataSourceProvider.getPoolSize(key, DbType.MYSQL, datasourceUniqueId, 50));
+        Assert.assertEquals(20, JDBCDataSourceProvider.getPoolSize(key, DbType.POSTGRESQL, "postgresql@root@jdbc:postgresql://127.0.0.1:5432/test", 50));
+        PropertyUtils.setValue(key + "." + datasourceUniqueId, "5");
+        Assert.assertEquals(5, JDBCDataSourceProvider.getPoolSize(key, DbType.MYSQL, datasourceUniqueId, 50));
+        Assert.assertEquals(10, JDBCDataSourceProvider.getPoolSize(key, DbType.MYSQL, "mysql@root@jdbc:mysql://127.0.0.2:3306/test", 50));
+    }
+
 }
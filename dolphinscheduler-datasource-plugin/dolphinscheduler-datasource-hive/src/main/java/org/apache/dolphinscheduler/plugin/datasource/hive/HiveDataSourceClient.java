@@ -37,6 +37,8 @@ import java.io.IOException;
 import java.lang.reflect.Field;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -154,6 +156,11 @@ public class HiveDataSourceClient extends CommonDataSourceClient {
         }
     }
 
+    @Override
+    protected List<HikariDataSource> getPools() {
+        return Arrays.asList(dataSource, oneSessionDataSource);
+    }
+
     @Override
     public void close() {
         super.close();
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * sparse index of a log file: the byte offset where every {@code interval}-th line starts.
+ * the index only covers complete lines and is extended over the appended bytes when the file grows,
+ * lines end with \n, \r or \r\n like {@link java.io.BufferedReader#readLine}.
+ */
+final class LogFileIndex {
+
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
+    private final int interval;
+
+    /**
+     * identity of the indexed file, to notice a log file replaced by a new one
+     */
+    private final Object fileKey;
+
+    /**
+     * offsets[i] is the start offset of the line i * interval
+     */
+    private long[] offsets = new long[16];
+
+    private int size = 1;
+
+    /**
+     * start offset of the first line not indexed yet, it is not complete or not scanned
+     */
+    private long indexedLength;
+
+    /**
+     * complete lines before indexedLength
+     */
+    private int indexedLines;
+
+    LogFileIndex(int interval, Object fileKey) {
+        this.interval = interval;
+        this.fileKey = fileKey;
+    }
+
+    /**
+     * @return true if the index still describes the file
+     */
+    synchronized boolean matches(Object currentFileKey, long fileSize) {
+        return (fileKey == null || fileKey.equals(currentFileKey)) && fileSize >= indexedLength;
+    }
+
+    /**
+     * find the closest indexed line before the given line, the index is extended to it first
+     *
+     * @param channel channel of the file
+     * @param line line number, from 0
+     * @return {start offset, line number} of the indexed line
+     */
+    synchronized long[] locate(FileChannel channel, int line) throws IOException {
+        if (line >= indexedLines) {
+            extend(channel, line);
+        }
+        int entry = Math.min(line / interval, size - 1);
+        return new long[] {offsets[entry], (long) entry * interval};
+    }
+
+    synchronized int getIndexedLines() {
+        return indexedLines;
+    }
+
+    /**
+     * scan the bytes after the indexed part until the line is indexed or the end of the file
+     */
+    private void extend(FileChannel channel, int targetLine) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long position = indexedLength;
+        long lineStart = indexedLength;
+        int lines = indexedLines;
+        boolean carriageReturn = false;
+        while (lines <= targetLine) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            byte[] bytes = buffer.array();
+            for (int i = 0; i < read; i++) {
+                byte b = bytes[i];
+                if (carriageReturn) {
+                    carriageReturn = false;
+                    lineStart = b == '\n' ? position + i + 1 : position + i;
+                    lines = addLine(lines, lineStart);
+                    if (b == '\n') {
+                        continue;
+                    }
+                }
+                if (b == '\n') {
+                    lineStart = position + i + 1;
+                    lines = addLine(lines, lineStart);
+                } else if (b == '\r') {
+                    carriageReturn = true;
+                }
+            }
+            position += read;
+        }
+        // a \r at the end of the file may be followed by \n, that line is indexed by the next extension
+        indexedLength = lineStart;
+        indexedLines = lines;
+    }
+
+    private int addLine(int lines, long lineStart) {
+        int line = lines + 1;
+        if (line % interval == 0) {
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            offsets[size++] = lineStart;
+        }
+        return line;
+    }
+}
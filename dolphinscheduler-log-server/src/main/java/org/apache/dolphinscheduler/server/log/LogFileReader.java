@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * reads pages of log files from a byte offset, the offset of a line number is found by the sparse
+ * {@link LogFileIndex} of the file, so a page costs the page size and not the lines before it.
+ * the indexes of the recently read files are kept in a bounded lru cache.
+ */
+class LogFileReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogFileReader.class);
+
+    /**
+     * lines between two index entries
+     */
+    static final int DEFAULT_INDEX_INTERVAL = 1024;
+
+    /**
+     * indexed log files kept in the cache
+     */
+    static final int DEFAULT_MAX_INDEXED_FILES = 256;
+
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+
+    private final int indexInterval;
+
+    private final Map<String, LogFileIndex> indexes;
+
+    LogFileReader() {
+        this(DEFAULT_INDEX_INTERVAL, DEFAULT_MAX_INDEXED_FILES);
+    }
+
+    LogFileReader(int indexInterval, int maxIndexedFiles) {
+        this.indexInterval = indexInterval;
+        this.indexes = new LinkedHashMap<String, LogFileIndex>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LogFileIndex> eldest) {
+                return size() > maxIndexedFiles;
+            }
+        };
+    }
+
+    /**
+     * read lines of the file, the last line is returned even if it is not terminated yet
+     *
+     * @param filePath file path
+     * @param skipLine lines to skip
+     * @param limit max lines
+     * @return lines, the next offset is the start of the line after the last complete line returned
+     */
+    LogPage readLines(String filePath, int skipLine, int limit) {
+        Path path = Paths.get(filePath);
+        if (!isFile(path)) {
+            logger.info("file path: {} not exists", filePath);
+            return LogPage.EMPTY;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            LogFileIndex index = getIndex(filePath, path, channel.size());
+            long[] location = index.locate(channel, skipLine);
+            return read(channel, location[0], skipLine - (int) location[1], limit, true);
+        } catch (IOException e) {
+            logger.error("read file error", e);
+        }
+        return LogPage.EMPTY;
+    }
+
+    /**
+     * read the complete lines of the file from an offset, to follow a growing log like tail -f
+     *
+     * @param filePath file path
+     * @param offset offset of a line start, the file is read from the start if it is shorter than the offset
+     * @param limit max lines
+     * @return lines, the next offset is the start of the line after the last line returned
+     */
+    LogPage readFrom(String filePath, long offset, int limit) {
+        Path path = Paths.get(filePath);
+        if (!isFile(path)) {
+            logger.info("file path: {} not exists", filePath);
+            return LogPage.EMPTY;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long start = offset > channel.size() ? 0 : Math.max(offset, 0);
+            return read(channel, start, 0, limit, false);
+        } catch (IOException e) {
+            logger.error("read file error", e);
+        }
+        return LogPage.EMPTY;
+    }
+
+    /**
+     * drop the index of a removed file
+     *
+     * @param filePath file path
+     */
+    void invalidate(String filePath) {
+        synchronized (indexes) {
+            indexes.remove(filePath);
+        }
+    }
+
+    int getIndexedFileCount() {
+        synchronized (indexes) {
+            return indexes.size();
+        }
+    }
+
+    private boolean isFile(Path path) {
+        File file = path.toFile();
+        return file.exists() && file.isFile();
+    }
+
+    private LogFileIndex getIndex(String filePath, Path path, long fileSize) throws IOException {
+        Object fileKey = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+        synchronized (indexes) {
+            LogFileIndex index = indexes.get(filePath);
+            if (index == null || !index.matches(fileKey, fileSize)) {
+                index = new LogFileIndex(indexInterval, fileKey);
+                indexes.put(filePath, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * read lines from a line start
+     *
+     * @param includeUnterminated return the last line of the file when it is not terminated
+     */
+    private LogPage read(FileChannel channel, long start, int skip, int limit, boolean includeUnterminated)
+            throws IOException {
+        List<String> lines = new ArrayList<>(Math.max(0, Math.min(limit, 1024)));
+        if (limit <= 0) {
+            return new LogPage(lines, start);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+        long position = start;
+        long lineStart = start;
+        int skipped = 0;
+        // the last byte was a \r ending a line, a \n right after it belongs to the same line end
+        boolean carriageReturn = false;
+        read:
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            byte[] bytes = buffer.array();
+            for (int i = 0; i < read; i++) {
+                byte b = bytes[i];
+                long offset = position + i;
+                if (carriageReturn) {
+                    carriageReturn = false;
+                    lineStart = b == '\n' ? offset + 1 : offset;
+                    if (lines.size() == limit) {
+                        break read;
+                    }
+                    if (b == '\n') {
+                        continue;
+                    }
+                }
+                if (b == '\n' || b == '\r') {
+                    if (skipped < skip) {
+                        skipped++;
+                    } else {
+                        lines.add(new String(line.toByteArray(), StandardCharsets.UTF_8));
+                        line.reset();
+                    }
+                    if (b == '\r') {
+                        carriageReturn = true;
+                        continue;
+                    }
+                    lineStart = offset + 1;
+                    if (lines.size() == limit) {
+                        break read;
+                    }
+                } else if (skipped == skip) {
+                    line.write(b);
+                }
+            }
+            position += read;
+        }
+        if (carriageReturn) {
+            // the file ends with \r, the line is complete once the next byte is known
+            if (!includeUnterminated && skipped == skip) {
+                lines.remove(lines.size() - 1);
+            }
+        } else if (includeUnterminated && line.size() > 0 && lines.size() < limit) {
+            lines.add(new String(line.toByteArray(), StandardCharsets.UTF_8));
+        }
+        return new LogPage(lines, lineStart);
+    }
+
+    /**
+     * lines read from a log file
+     */
+    static final class LogPage {
+
+        static final LogPage EMPTY = new LogPage(Collections.emptyList(), 0);
+
+        private final List<String> lines;
+
+        private final long nextOffset;
+
+        LogPage(List<String> lines, long nextOffset) {
+            this.lines = lines;
+            this.nextOffset = nextOffset;
+        }
+
+        List<String> getLines() {
+            return lines;
+        }
+
+        long getNextOffset() {
+            return nextOffset;
+        }
+    }
+}
@@ -19,10 +19,12 @@ package org.apache.dolphinscheduler.server.log;
 
 import org.apache.dolphinscheduler.common.utils.JSONUtils;
 import org.apache.dolphinscheduler.common.utils.LoggerUtils;
+import org.apache.dolphinscheduler.remote.codec.NettyEncoder;
 import org.apache.dolphinscheduler.remote.command.Command;
 import org.apache.dolphinscheduler.remote.command.CommandType;
 import org.apache.dolphinscheduler.remote.command.log.GetLogBytesRequestCommand;
 import org.apache.dolphinscheduler.remote.command.log.GetLogBytesResponseCommand;
+import org.apache.dolphinscheduler.remote.command.log.GetLogChunkRequestCommand;
 import org.apache.dolphinscheduler.remote.command.log.RemoveTaskLogRequestCommand;
 import org.apache.dolphinscheduler.remote.command.log.RemoveTaskLogResponseCommand;
 import org.apache.dolphinscheduler.remote.command.log.RollViewLogRequestCommand;
@@ -37,19 +39,17 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.Collections;
-import java.util.List;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.netty.channel.Channel;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.FileRegion;
 
 /**
  * logger request process logic
@@ -58,10 +58,18 @@ public class LoggerRequestProcessor implements NettyRequestProcessor {
 
     private final Logger logger = LoggerFactory.getLogger(LoggerRequestProcessor.class);
 
+    /**
+     * max length of a log chunk
+     */
+    private static final int MAX_LOG_CHUNK_SIZE = 4 * 1024 * 1024;
+
     private final ExecutorService executor;
 
+    private final LogFileReader logFileReader;
+
     public LoggerRequestProcessor() {
         this.executor = Executors.newFixedThreadPool(Constants.CPUS * 2 + 1);
+        this.logFileReader = new LogFileReader();
     }
 
     @Override
@@ -80,6 +88,11 @@ public class LoggerRequestProcessor implements NettyRequestProcessor {
                 GetLogBytesResponseCommand getLogResponse = new GetLogBytesResponseCommand(bytes);
                 channel.writeAndFlush(getLogResponse.convert2Command(command.getOpaque()));
                 break;
+            case GET_LOG_CHUNK_REQUEST:
+                GetLogChunkRequestCommand getLogChunkRequest = JSONUtils.parseObject(
+                        command.getBody(), GetLogChunkRequestCommand.class);
+                writeLogChunk(channel, command.getOpaque(), getLogChunkRequest);
+                break;
             case VIEW_WHOLE_LOG_REQUEST:
                 ViewLogRequestCommand viewLogRequest = JSONUtils.parseObject(
                         command.getBody(), ViewLogRequestCommand.class);
@@ -90,13 +103,15 @@ public class LoggerRequestProcessor implements NettyRequestProcessor {
             case ROLL_VIEW_LOG_REQUEST:
                 RollViewLogRequestCommand rollViewLogRequest = JSONUtils.parseObject(
                         command.getBody(), RollViewLogRequestCommand.class);
-                List<String> lines = readPartFileContent(rollViewLogRequest.getPath(),
-                        rollViewLogRequest.getSkipLineNum(), rollViewLogRequest.getLimit());
+                LogFileReader.LogPage logPage = rollViewLogRequest.getOffset() < 0
+                        ? logFileReader.readLines(rollViewLogRequest.getPath(), rollViewLogRequest.getSkipLineNum(), rollViewLogRequest.getLimit())
+                        : logFileReader.readFrom(rollViewLogRequest.getPath(), rollViewLogRequest.getOffset(), rollViewLogRequest.getLimit());
                 StringBuilder builder = new StringBuilder();
-                for (String line : lines) {
-                    builder.append(line + "\r\n");
+                for (String line : logPage.getLines()) {
+                    builder.append(line).append("\r\n");
                 }
-                RollViewLogResponseCommand rollViewLogRequestResponse = new RollViewLogResponseCommand(builder.toString());
+                RollViewLogResponseCommand rollViewLogRequestResponse = new RollViewLogResponseCommand(builder.toString(),
+                        logPage.getNextOffset());
                 channel.writeAndFlush(rollViewLogRequestResponse.convert2Command(command.getOpaque()));
                 break;
             case REMOVE_TAK_LOG_REQUEST:
@@ -104,6 +119,7 @@ public class LoggerRequestProcessor implements NettyRequestProcessor {
                         command.getBody(), RemoveTaskLogRequestCommand.class);
 
                 String taskLogPath = removeTaskLogRequest.getPath();
+                logFileReader.invalidate(taskLogPath);
 
                 File taskLogFile = new File(taskLogPath);
                 Boolean status = true;
@@ -127,6 +143,56 @@ public class LoggerRequestProcessor implements NettyRequestProcessor {
         return this.executor;
     }
 
+    /**
+     * write a chunk of the log file, the chunk is sent from the file by a file region (sendfile when supported)
+     * right after the frame header, both are written in one event loop task so no other frame gets between them.
+     * the length is taken from the opened file, so the region matches the header even if the file is rolled meanwhile
+     *
+     * @param channel channel
+     * @param opaque request unique identification
+     * @param request chunk request
+     */
+    private void writeLogChunk(Channel channel, long opaque, GetLogChunkRequestCommand request) {
+        long offset = Math.max(request.getOffset(), 0);
+        FileChannel fileChannel = null;
+        int length = 0;
+        try {
+            File file = new File(request.getPath());
+            if (file.isFile()) {
+                fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                length = (int) Math.max(0, Math.min(Math.min(request.getLength(), MAX_LOG_CHUNK_SIZE), fileChannel.size() - offset));
+            }
+        } catch (IOException e) {
+            logger.error("open log file {} error", request.getPath(), e);
+        }
+        // the region owns the file channel and closes it once written
+        FileRegion region = length > 0 ? new DefaultFileRegion(fileChannel, offset, length) : null;
+        if (region == null) {
+            closeQuietly(fileChannel);
+        }
+        int chunkLength = length;
+        Command response = new Command(opaque);
+        response.setType(CommandType.GET_LOG_CHUNK_RESPONSE);
+        channel.eventLoop().execute(() -> {
+            channel.write(NettyEncoder.encodeHeader(channel.alloc(), response, chunkLength));
+            if (region != null) {
+                channel.write(region);
+            }
+            channel.flush();
+        });
+    }
+
+    private void closeQuietly(FileChannel fileChannel) {
+        if (fileChannel == null) {
+            return;
+        }
+        try {
+            fileChannel.close();
+        } catch (IOException e) {
+            logger.warn("close log file error", e);
+        }
+    }
+
     /**
      * get files content bytes，for down load file
      *
@@ -149,28 +215,4 @@ public class LoggerRequestProcessor implements NettyRequestProcessor {
         return new byte[0];
     }
 
-    /**
-     * read part file content，can skip any line and read some lines
-     *
-     * @param filePath file path
-     * @param skipLine skip line
-     * @param limit read lines limit
-     * @return part file content
-     */
-    private List<String> readPartFileContent(String filePath,
-                                             int skipLine,
-                                             int limit) {
-        File file = new File(filePath);
-        if (file.exists() && file.isFile()) {
-            try (Stream<String> stream = Files.lines(Paths.get(filePath))) {
-                return stream.skip(skipLine).limit(limit).collect(Collectors.toList());
-            } catch (IOException e) {
-                logger.error("read file error", e);
-            }
-        } else {
-            logger.info("file path: {} not exists", filePath);
-        }
-        return Collections.emptyList();
-    }
-
 }
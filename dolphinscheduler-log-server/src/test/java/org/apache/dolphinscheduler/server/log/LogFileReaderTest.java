@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.log;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LogFileReaderTest {
+
+    private Path logFile;
+
+    @Before
+    public void setUp() throws IOException {
+        logFile = Files.createTempFile("task", ".log");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(logFile);
+    }
+
+    @Test
+    public void testReadLinesLikeSkipFromStart() throws IOException {
+        StringBuilder content = new StringBuilder();
+        String[] terminators = {"\n", "\r\n", "\r"};
+        for (int i = 0; i < 500; i++) {
+            content.append("line ").append(i).append(terminators[i % terminators.length]);
+        }
+        content.append("unterminated");
+        write(content.toString());
+
+        LogFileReader reader = new LogFileReader(16, 4);
+        for (int skip : new int[] {0, 1, 15, 16, 17, 255, 498, 499, 500, 501, 600}) {
+            Assert.assertEquals("skip " + skip, skipFromStart(skip, 20), reader.readLines(logFile.toString(), skip, 20).getLines());
+        }
+    }
+
+    @Test
+    public void testReadLinesOfGrowingFile() throws IOException {
+        LogFileReader reader = new LogFileReader(8, 4);
+        for (int round = 0; round < 10; round++) {
+            List<String> lines = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                lines.add("round " + round + " line " + i);
+            }
+            append(String.join("\n", lines) + "\n");
+            int skip = round * 30 + 5;
+            LogFileReader.LogPage logPage = reader.readLines(logFile.toString(), skip, 10);
+            Assert.assertEquals(skipFromStart(skip, 10), logPage.getLines());
+        }
+    }
+
+    @Test
+    public void testReadFromOffset() throws IOException {
+        write("a\nb\r\nc");
+        LogFileReader reader = new LogFileReader();
+
+        LogFileReader.LogPage logPage = reader.readFrom(logFile.toString(), 0, 10);
+        Assert.assertEquals(Arrays.asList("a", "b"), logPage.getLines());
+        Assert.assertEquals(5, logPage.getNextOffset());
+
+        // the last line is returned once it is complete
+        append("\nd\n");
+        logPage = reader.readFrom(logFile.toString(), logPage.getNextOffset(), 1);
+        Assert.assertEquals(Collections.singletonList("c"), logPage.getLines());
+        logPage = reader.readFrom(logFile.toString(), logPage.getNextOffset(), 1);
+        Assert.assertEquals(Collections.singletonList("d"), logPage.getLines());
+        logPage = reader.readFrom(logFile.toString(), logPage.getNextOffset(), 1);
+        Assert.assertTrue(logPage.getLines().isEmpty());
+        Assert.assertEquals(Files.size(logFile), logPage.getNextOffset());
+    }
+
+    @Test
+    public void testIndexCacheBounded() throws IOException {
+        write("a\nb\n");
+        LogFileReader reader = new LogFileReader(16, 1);
+        reader.readLines(logFile.toString(), 1, 1);
+        Assert.assertEquals(1, reader.getIndexedFileCount());
+
+        Path other = Files.createTempFile("task", ".log");
+        try {
+            reader.readLines(other.toString(), 0, 1);
+            Assert.assertEquals(1, reader.getIndexedFileCount());
+            reader.invalidate(other.toString());
+            Assert.assertEquals(0, reader.getIndexedFileCount());
+        } finally {
+            Files.deleteIfExists(other);
+        }
+    }
+
+    @Test
+    public void testReadNotExistsFile() {
+        LogFileReader reader = new LogFileReader();
+        Assert.assertTrue(reader.readLines("/not/exists.log", 0, 10).getLines().isEmpty());
+        Assert.assertTrue(reader.readFrom("/not/exists.log", 0, 10).getLines().isEmpty());
+    }
+
+    private List<String> skipFromStart(int skip, int limit) throws IOException {
+        try (Stream<String> stream = Files.lines(logFile)) {
+            return stream.skip(skip).limit(limit).collect(Collectors.toList());
+        }
+    }
+
+    private void write(String content) throws IOException {
+        Files.write(logFile, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void append(String content) throws IOException {
+        Files.write(logFile, content.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    }
+}
@@ -21,8 +21,15 @@ import org.apache.dolphinscheduler.common.utils.JSONUtils;
 import org.apache.dolphinscheduler.common.utils.LoggerUtils;
 import org.apache.dolphinscheduler.remote.command.Command;
 import org.apache.dolphinscheduler.remote.command.CommandType;
+import org.apache.dolphinscheduler.remote.command.log.GetLogChunkRequestCommand;
 import org.apache.dolphinscheduler.remote.command.log.ViewLogRequestCommand;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mockito;
@@ -30,7 +37,10 @@ import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
+import io.netty.channel.FileRegion;
+import io.netty.channel.embedded.EmbeddedChannel;
 
 @RunWith(PowerMockRunner.class)
 @PrepareForTest({LoggerUtils.class})
@@ -52,4 +62,61 @@ public class LoggerRequestProcessorTest {
         LoggerRequestProcessor loggerRequestProcessor = new LoggerRequestProcessor();
         loggerRequestProcessor.process(channel, command);
     }
+
+    @Test
+    public void testProcessGetLogChunkRequest() throws IOException {
+        File logFile = File.createTempFile("task", ".log");
+        try {
+            Files.write(logFile.toPath(), "0123456789".getBytes(StandardCharsets.UTF_8));
+            EmbeddedChannel channel = new EmbeddedChannel();
+            Command command = new GetLogChunkRequestCommand(logFile.getPath(), 4, 4).convert2Command();
+
+            LoggerRequestProcessor loggerRequestProcessor = new LoggerRequestProcessor();
+            loggerRequestProcessor.process(channel, command);
+            channel.runPendingTasks();
+
+            ByteBuf header = channel.readOutbound();
+            Assert.assertEquals(CommandType.GET_LOG_CHUNK_RESPONSE.ordinal(), header.getByte(2));
+            Assert.assertEquals(command.getOpaque(), header.getLong(3));
+            Assert.assertEquals(4, header.getInt(header.writerIndex() - 4));
+            header.release();
+            FileRegion chunk = channel.readOutbound();
+            Assert.assertEquals(4, chunk.position());
+            Assert.assertEquals(4, chunk.count());
+            chunk.release();
+
+            // the last chunk is shorter than the requested length
+            command = new GetLogChunkRequestCommand(logFile.getPath(), 8, 4).convert2Command();
+            loggerRequestProcessor.process(channel, command);
+            channel.runPendingTasks();
+            header = channel.readOutbound();
+            Assert.assertEquals(2, header.getInt(header.writerIndex() - 4));
+            header.release();
+            chunk = channel.readOutbound();
+            Assert.assertEquals(2, chunk.count());
+            chunk.release();
+            channel.finish();
+        } finally {
+            Assert.assertTrue(logFile.delete());
+        }
+    }
+
+    @Test
+    public void testProcessGetLogChunkRequestWithoutFile() throws IOException {
+        File logFile = File.createTempFile("task", ".log");
+        Assert.assertTrue(logFile.delete());
+        EmbeddedChannel channel = new EmbeddedChannel();
+        Command command = new GetLogChunkRequestCommand(logFile.getPath(), 0, 4).convert2Command();
+
+        LoggerRequestProcessor loggerRequestProcessor = new LoggerRequestProcessor();
+        loggerRequestProcessor.process(channel, command);
+        channel.runPendingTasks();
+
+        // an empty chunk, no region follows the header
+        ByteBuf header = channel.readOutbound();
+        Assert.assertEquals(0, header.getInt(header.writerIndex() - 4));
+        header.release();
+        Assert.assertNull(channel.readOutbound());
+        channel.finish();
+    }
 }
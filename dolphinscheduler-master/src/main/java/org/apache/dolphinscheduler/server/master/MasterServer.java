@@ -31,7 +31,6 @@ import org.apache.dolphinscheduler.server.master.processor.TaskEventProcessor;
 import org.apache.dolphinscheduler.server.master.processor.TaskKillResponseProcessor;
 import org.apache.dolphinscheduler.server.master.processor.TaskResponseProcessor;
 import org.apache.dolphinscheduler.server.master.registry.MasterRegistryClient;
-import org.apache.dolphinscheduler.server.master.runner.EventExecuteService;
 import org.apache.dolphinscheduler.server.master.runner.MasterSchedulerService;
 import org.apache.dolphinscheduler.service.bean.SpringApplicationContext;
 
@@ -87,9 +86,6 @@ public class MasterServer implements IStoppable {
     @Autowired
     private CacheProcessor cacheProcessor;
 
-    @Autowired
-    private EventExecuteService eventExecuteService;
-
     public static void main(String[] args) {
         Thread.currentThread().setName(Constants.THREAD_NAME_MASTER_SERVER);
         SpringApplication.run(MasterServer.class);
@@ -121,8 +117,6 @@ public class MasterServer implements IStoppable {
         this.masterSchedulerService.init();
         this.masterSchedulerService.start();
 
-        this.eventExecuteService.start();
-
         this.scheduler.start();
 
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.master.cache;
+
+import org.apache.dolphinscheduler.common.enums.TaskDependType;
+import org.apache.dolphinscheduler.common.graph.DAG;
+import org.apache.dolphinscheduler.common.model.TaskNode;
+import org.apache.dolphinscheduler.common.model.TaskNodeRelation;
+import org.apache.dolphinscheduler.common.process.ProcessDag;
+import org.apache.dolphinscheduler.dao.entity.ProcessDefinition;
+import org.apache.dolphinscheduler.dao.entity.ProcessTaskRelation;
+import org.apache.dolphinscheduler.dao.entity.TaskDefinitionLog;
+import org.apache.dolphinscheduler.dao.utils.CompiledDag;
+import org.apache.dolphinscheduler.dao.utils.DagHelper;
+import org.apache.dolphinscheduler.service.process.ProcessService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * task nodes and dag of one process definition version, shared by all the instances of that version.
+ * nothing in it is modified after it is built, instances only derive their own dag from the task nodes
+ * when they start from given nodes or recover from failed nodes.
+ */
+public final class CachedProcessDag {
+
+    private final long processDefinitionCode;
+
+    private final int processDefinitionVersion;
+
+    private final List<TaskNode> taskNodeList;
+
+    private final Map<String, TaskNode> forbiddenTaskMap;
+
+    private final Set<Long> taskCodes;
+
+    /**
+     * dag of all the task nodes, null if the process has no task
+     */
+    private final DAG<String, TaskNode, TaskNodeRelation> dag;
+
+    private final CompiledDag compiledDag;
+
+    private CachedProcessDag(long processDefinitionCode, int processDefinitionVersion, List<TaskNode> taskNodeList) throws Exception {
+        this.processDefinitionCode = processDefinitionCode;
+        this.processDefinitionVersion = processDefinitionVersion;
+        this.taskNodeList = Collections.unmodifiableList(new ArrayList<>(taskNodeList));
+
+        Map<String, TaskNode> forbiddenTasks = new HashMap<>();
+        Set<Long> codes = new HashSet<>();
+        for (TaskNode taskNode : taskNodeList) {
+            codes.add(taskNode.getCode());
+            if (taskNode.isForbidden()) {
+                forbiddenTasks.put(Long.toString(taskNode.getCode()), taskNode);
+            }
+        }
+        this.forbiddenTaskMap = Collections.unmodifiableMap(forbiddenTasks);
+        this.taskCodes = Collections.unmodifiableSet(codes);
+
+        ProcessDag processDag = DagHelper.generateFlowDag(this.taskNodeList,
+                Collections.emptyList(), Collections.emptyList(), TaskDependType.TASK_POST);
+        if (processDag == null) {
+            this.dag = null;
+            this.compiledDag = null;
+        } else {
+            this.dag = DagHelper.buildDagGraph(processDag);
+            this.compiledDag = CompiledDag.compile(this.dag);
+        }
+    }
+
+    /**
+     * load the task nodes of the process definition and build its dag
+     *
+     * @param processService process service
+     * @param processDefinition process definition
+     * @return cached process dag
+     * @throws Exception if the dag can not be built
+     */
+    public static CachedProcessDag load(ProcessService processService, ProcessDefinition processDefinition) throws Exception {
+        List<ProcessTaskRelation> processTaskRelations = processService.findRelationByCode(processDefinition.getProjectCode(), processDefinition.getCode());
+        List<TaskDefinitionLog> taskDefinitionLogs = processService.getTaskDefineLogListByRelation(processTaskRelations);
+        List<TaskNode> taskNodeList = processService.transformTask(processTaskRelations, taskDefinitionLogs);
+        return new CachedProcessDag(processDefinition.getCode(), processDefinition.getVersion(), taskNodeList);
+    }
+
+    /**
+     * whether an instance started with these nodes runs the whole process, so it can use the shared dag
+     *
+     * @param startNodeNameList start node list of the instance
+     * @param recoveryNodeCodeList recovery node list of the instance
+     * @param taskDependType task depend type of the instance
+     * @return true if the shared dag can be used
+     */
+    public boolean isWholeProcess(List<String> startNodeNameList, List<String> recoveryNodeCodeList, TaskDependType taskDependType) {
+        return taskDependType == TaskDependType.TASK_POST
+                && (startNodeNameList == null || startNodeNameList.isEmpty())
+                && (recoveryNodeCodeList == null || recoveryNodeCodeList.isEmpty());
+    }
+
+    public long getProcessDefinitionCode() {
+        return processDefinitionCode;
+    }
+
+    public int getProcessDefinitionVersion() {
+        return processDefinitionVersion;
+    }
+
+    public List<TaskNode> getTaskNodeList() {
+        return taskNodeList;
+    }
+
+    public Map<String, TaskNode> getForbiddenTaskMap() {
+        return forbiddenTaskMap;
+    }
+
+    public boolean containsTask(long taskCode) {
+        return taskCodes.contains(taskCode);
+    }
+
+    public DAG<String, TaskNode, TaskNodeRelation> getDag() {
+        return dag;
+    }
+
+    public CompiledDag getCompiledDag() {
+        return compiledDag;
+    }
+}
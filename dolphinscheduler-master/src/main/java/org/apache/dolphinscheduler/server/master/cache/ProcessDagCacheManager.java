@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.master.cache;
+
+import org.apache.dolphinscheduler.dao.entity.ProcessDefinition;
+
+/**
+ * cache of the task nodes and dag of process definition versions
+ */
+public interface ProcessDagCacheManager {
+
+    /**
+     * get the dag of the process definition version, load it if it is not cached
+     *
+     * @param processDefinition process definition
+     * @return cached process dag
+     * @throws Exception if the dag can not be loaded
+     */
+    CachedProcessDag getProcessDag(ProcessDefinition processDefinition) throws Exception;
+
+    /**
+     * remove all the versions of the process definition
+     *
+     * @param processDefinitionCode processDefinitionCode
+     */
+    void removeByProcessDefinitionCode(long processDefinitionCode);
+
+    /**
+     * remove the process definition versions which contain the task
+     *
+     * @param taskCode taskCode
+     */
+    void removeByTaskCode(long taskCode);
+
+    /**
+     * remove all
+     */
+    void clear();
+
+    /**
+     * number of cached process definition versions
+     */
+    int size();
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.master.cache.impl;
+
+import org.apache.dolphinscheduler.dao.entity.ProcessDefinition;
+import org.apache.dolphinscheduler.server.master.cache.CachedProcessDag;
+import org.apache.dolphinscheduler.server.master.cache.ProcessDagCacheManager;
+import org.apache.dolphinscheduler.server.master.config.MasterConfig;
+import org.apache.dolphinscheduler.service.process.ProcessService;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * lru cache of process definition code and version to the process dag
+ */
+@Component
+public class ProcessDagCacheManagerImpl implements ProcessDagCacheManager {
+
+    private final Logger logger = LoggerFactory.getLogger(ProcessDagCacheManagerImpl.class);
+
+    @Autowired
+    private ProcessService processService;
+
+    @Autowired
+    private MasterConfig masterConfig;
+
+    /**
+     * access ordered, the eldest entry is the least recently used one
+     */
+    private final LinkedHashMap<Key, CachedProcessDag> processDagMap = new LinkedHashMap<Key, CachedProcessDag>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, CachedProcessDag> eldest) {
+            return size() > masterConfig.getProcessDagCacheSize();
+        }
+    };
+
+    /**
+     * increased by every removal, a dag loaded while a removal happened is not cached since it may be stale
+     */
+    private long generation;
+
+    @Override
+    public CachedProcessDag getProcessDag(ProcessDefinition processDefinition) throws Exception {
+        if (masterConfig.getProcessDagCacheSize() <= 0) {
+            return CachedProcessDag.load(processService, processDefinition);
+        }
+        Key key = new Key(processDefinition.getCode(), processDefinition.getVersion());
+        long loadGeneration;
+        synchronized (processDagMap) {
+            CachedProcessDag cachedProcessDag = processDagMap.get(key);
+            if (cachedProcessDag != null) {
+                return cachedProcessDag;
+            }
+            loadGeneration = generation;
+        }
+        // load outside the lock, two instances of a new version may both load it and the last one wins
+        CachedProcessDag cachedProcessDag = CachedProcessDag.load(processService, processDefinition);
+        synchronized (processDagMap) {
+            if (loadGeneration == generation) {
+                processDagMap.put(key, cachedProcessDag);
+            }
+        }
+        return cachedProcessDag;
+    }
+
+    @Override
+    public void removeByProcessDefinitionCode(long processDefinitionCode) {
+        synchronized (processDagMap) {
+            generation++;
+            processDagMap.keySet().removeIf(key -> key.processDefinitionCode == processDefinitionCode);
+        }
+        logger.info("process dag cache evict, process definition code:{}", processDefinitionCode);
+    }
+
+    @Override
+    public void removeByTaskCode(long taskCode) {
+        synchronized (processDagMap) {
+            generation++;
+            processDagMap.values().removeIf(cachedProcessDag -> cachedProcessDag.containsTask(taskCode));
+        }
+        logger.info("process dag cache evict, task code:{}", taskCode);
+    }
+
+    @Override
+    public void clear() {
+        synchronized (processDagMap) {
+            generation++;
+            processDagMap.clear();
+        }
+    }
+
+    @Override
+    public int size() {
+        synchronized (processDagMap) {
+            return processDagMap.size();
+        }
+    }
+
+    private static final class Key {
+
+        private final long processDefinitionCode;
+
+        private final int processDefinitionVersion;
+
+        Key(long processDefinitionCode, int processDefinitionVersion) {
+            this.processDefinitionCode = processDefinitionCode;
+            this.processDefinitionVersion = processDefinitionVersion;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return processDefinitionCode == key.processDefinitionCode
+                    && processDefinitionVersion == key.processDefinitionVersion;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(processDefinitionCode, processDefinitionVersion);
+        }
+    }
+}
@@ -17,8 +17,12 @@
 
 package org.apache.dolphinscheduler.server.master.config;
 
+import org.apache.dolphinscheduler.remote.command.CommandSerializer;
 import org.apache.dolphinscheduler.server.master.dispatch.host.assign.HostSelector;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.stereotype.Component;
@@ -29,14 +33,22 @@ import org.springframework.stereotype.Component;
 public class MasterConfig {
     private int listenPort;
     private int fetchCommandNum;
+    private CommandFetchStrategy commandFetchStrategy = CommandFetchStrategy.SLOT;
     private int preExecThreads;
     private int execThreads;
     private int dispatchTaskNumber;
+    private CommandSerializer dispatchSerializer = CommandSerializer.JSON;
+    private int taskQueueCapacity = 3000;
+    private Map<String, Integer> taskQueueGroupWeights = new HashMap<>();
     private HostSelector hostSelector;
     private int heartbeatInterval;
     private int taskCommitRetryTimes;
     private int taskCommitInterval;
     private int stateWheelInterval;
+    private int taskResponseWorkerNum = 4;
+    private int taskResponseBatchSize = 1;
+    private int taskResponseBatchWait = 10;
+    private int processDagCacheSize = 1000;
     private double maxCpuLoadAvg;
     private double reservedMemory;
     private boolean taskLogger;
@@ -57,6 +69,14 @@ public class MasterConfig {
         this.fetchCommandNum = fetchCommandNum;
     }
 
+    public CommandFetchStrategy getCommandFetchStrategy() {
+        return commandFetchStrategy;
+    }
+
+    public void setCommandFetchStrategy(CommandFetchStrategy commandFetchStrategy) {
+        this.commandFetchStrategy = commandFetchStrategy;
+    }
+
     public int getPreExecThreads() {
         return preExecThreads;
     }
@@ -81,6 +101,30 @@ public class MasterConfig {
         this.dispatchTaskNumber = dispatchTaskNumber;
     }
 
+    public CommandSerializer getDispatchSerializer() {
+        return dispatchSerializer;
+    }
+
+    public void setDispatchSerializer(CommandSerializer dispatchSerializer) {
+        this.dispatchSerializer = dispatchSerializer;
+    }
+
+    public int getTaskQueueCapacity() {
+        return taskQueueCapacity;
+    }
+
+    public void setTaskQueueCapacity(int taskQueueCapacity) {
+        this.taskQueueCapacity = taskQueueCapacity;
+    }
+
+    public Map<String, Integer> getTaskQueueGroupWeights() {
+        return taskQueueGroupWeights;
+    }
+
+    public void setTaskQueueGroupWeights(Map<String, Integer> taskQueueGroupWeights) {
+        this.taskQueueGroupWeights = taskQueueGroupWeights;
+    }
+
     public HostSelector getHostSelector() {
         return hostSelector;
     }
@@ -121,6 +165,38 @@ public class MasterConfig {
         this.stateWheelInterval = stateWheelInterval;
     }
 
+    public int getTaskResponseWorkerNum() {
+        return taskResponseWorkerNum;
+    }
+
+    public void setTaskResponseWorkerNum(int taskResponseWorkerNum) {
+        this.taskResponseWorkerNum = taskResponseWorkerNum;
+    }
+
+    public int getTaskResponseBatchSize() {
+        return taskResponseBatchSize;
+    }
+
+    public void setTaskResponseBatchSize(int taskResponseBatchSize) {
+        this.taskResponseBatchSize = taskResponseBatchSize;
+    }
+
+    public int getTaskResponseBatchWait() {
+        return taskResponseBatchWait;
+    }
+
+    public void setTaskResponseBatchWait(int taskResponseBatchWait) {
+        this.taskResponseBatchWait = taskResponseBatchWait;
+    }
+
+    public int getProcessDagCacheSize() {
+        return processDagCacheSize;
+    }
+
+    public void setProcessDagCacheSize(int processDagCacheSize) {
+        this.processDagCacheSize = processDagCacheSize;
+    }
+
     public double getMaxCpuLoadAvg() {
         return maxCpuLoadAvg > 0 ? maxCpuLoadAvg : Runtime.getRuntime().availableProcessors() * 2;
     }
@@ -26,15 +26,23 @@ import org.apache.dolphinscheduler.server.master.dispatch.ExecutorDispatcher;
 import org.apache.dolphinscheduler.server.master.dispatch.context.ExecutionContext;
 import org.apache.dolphinscheduler.server.master.dispatch.enums.ExecutorType;
 import org.apache.dolphinscheduler.server.master.dispatch.exceptions.ExecuteException;
+import org.apache.dolphinscheduler.server.master.metrics.MasterServerMetrics;
+import org.apache.dolphinscheduler.server.master.registry.ServerNodeManager;
 import org.apache.dolphinscheduler.service.exceptions.TaskPriorityQueueException;
 import org.apache.dolphinscheduler.service.process.ProcessService;
 import org.apache.dolphinscheduler.service.queue.TaskPriority;
-import org.apache.dolphinscheduler.service.queue.TaskPriorityQueue;
+import org.apache.dolphinscheduler.service.queue.TaskPriorityQueueImpl;
+import org.apache.dolphinscheduler.service.queue.WorkerGroupTaskPriorityQueue;
 import org.apache.dolphinscheduler.service.queue.entity.TaskExecutionContext;
 
-import java.util.ArrayList;
-import java.util.List;
+import org.apache.commons.collections.CollectionUtils;
+
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -61,7 +69,7 @@ public class TaskPriorityQueueConsumer extends Thread {
      * taskUpdateQueue
      */
     @Autowired
-    private TaskPriorityQueue<TaskPriority> taskPriorityQueue;
+    private WorkerGroupTaskPriorityQueue taskPriorityQueue;
 
     /**
      * processService
@@ -82,6 +90,17 @@ public class TaskPriorityQueueConsumer extends Thread {
     @Autowired
     private MasterConfig masterConfig;
 
+    /**
+     * server node manager
+     */
+    @Autowired
+    private ServerNodeManager serverNodeManager;
+
+    /**
+     * worker groups whose queue depth gauge is registered
+     */
+    private final Set<String> meteredWorkerGroups = new HashSet<>();
+
     /**
      * consumer thread pool
      */
@@ -90,6 +109,14 @@ public class TaskPriorityQueueConsumer extends Thread {
     @PostConstruct
     public void init() {
         this.consumerThreadPoolExecutor = (ThreadPoolExecutor) ThreadUtils.newDaemonFixedThreadExecutor("TaskUpdateQueueConsumerThread", masterConfig.getDispatchTaskNumber());
+        taskPriorityQueue.setCapacity(masterConfig.getTaskQueueCapacity());
+        if (masterConfig.getTaskQueueGroupWeights() != null) {
+            for (Map.Entry<String, Integer> entry : masterConfig.getTaskQueueGroupWeights().entrySet()) {
+                taskPriorityQueue.setWeight(entry.getKey(), entry.getValue());
+            }
+        }
+        // a parked worker group is resumed as soon as it has live workers again
+        serverNodeManager.addWorkerGroupListener(taskPriorityQueue::unpark);
         super.start();
     }
 
@@ -98,18 +125,20 @@ public class TaskPriorityQueueConsumer extends Thread {
         int fetchTaskNum = masterConfig.getDispatchTaskNumber();
         while (Stopper.isRunning()) {
             try {
-                List<TaskPriority> failedDispatchTasks = this.batchDispatch(fetchTaskNum);
+                Queue<TaskPriority> failedDispatchTasks = this.batchDispatch(fetchTaskNum);
 
                 if (!failedDispatchTasks.isEmpty()) {
                     for (TaskPriority dispatchFailedTask : failedDispatchTasks) {
                         taskPriorityQueue.put(dispatchFailedTask);
+                        parkIfNoWorker(dispatchFailedTask.getGroupName());
                     }
                     // If there are tasks in a cycle that cannot find the worker group,
-                    // sleep for 1 second
-                    if (taskPriorityQueue.size() <= failedDispatchTasks.size()) {
+                    // sleep for 1 second, the tasks of the parked groups can not be polled
+                    if (taskPriorityQueue.readySize() <= failedDispatchTasks.size()) {
                         TimeUnit.MILLISECONDS.sleep(Constants.SLEEP_TIME_MILLIS);
                     }
                 }
+                registerQueueDepthGauges();
             } catch (Exception e) {
                 logger.error("dispatcher task error", e);
             }
@@ -119,12 +148,13 @@ public class TaskPriorityQueueConsumer extends Thread {
     /**
      * batch dispatch with thread pool
      */
-    private List<TaskPriority> batchDispatch(int fetchTaskNum) throws TaskPriorityQueueException, InterruptedException {
-        List<TaskPriority> failedDispatchTasks = new ArrayList<>();
+    private Queue<TaskPriority> batchDispatch(int fetchTaskNum) throws TaskPriorityQueueException, InterruptedException {
+        Queue<TaskPriority> failedDispatchTasks = new ConcurrentLinkedQueue<>();
         CountDownLatch latch = new CountDownLatch(fetchTaskNum);
 
         for (int i = 0; i < fetchTaskNum; i++) {
-            TaskPriority taskPriority = taskPriorityQueue.poll(Constants.SLEEP_TIME_MILLIS, TimeUnit.MILLISECONDS);
+            // only wait for the first task, do not hold a partial batch back
+            TaskPriority taskPriority = taskPriorityQueue.poll(i == 0 ? Constants.SLEEP_TIME_MILLIS : 0, TimeUnit.MILLISECONDS);
             if (Objects.isNull(taskPriority)) {
                 latch.countDown();
                 continue;
@@ -134,6 +164,9 @@ public class TaskPriorityQueueConsumer extends Thread {
                 boolean dispatchResult = this.dispatchTask(taskPriority);
                 if (!dispatchResult) {
                     failedDispatchTasks.add(taskPriority);
+                } else {
+                    MasterServerMetrics.taskDispatchTimer(TaskPriorityQueueImpl.normalizeWorkerGroup(taskPriority.getGroupName()))
+                            .record(System.nanoTime() - taskPriority.getSubmitTime(), TimeUnit.NANOSECONDS);
                 }
                 latch.countDown();
             });
@@ -144,6 +177,32 @@ public class TaskPriorityQueueConsumer extends Thread {
         return failedDispatchTasks;
     }
 
+    /**
+     * park a worker group without live workers instead of spinning on its tasks, the other worker groups keep being
+     * dispatched. a group with live workers is retried, its dispatch may fail for other reasons
+     *
+     * @param workerGroup worker group
+     */
+    private void parkIfNoWorker(String workerGroup) {
+        if (taskPriorityQueue.isParked(workerGroup) || !CollectionUtils.isEmpty(serverNodeManager.getWorkerGroupNodes(workerGroup))) {
+            return;
+        }
+        logger.warn("no worker alive in worker group {}, park its tasks until a worker heartbeats", workerGroup);
+        taskPriorityQueue.park(workerGroup);
+        // a worker may have joined between the check and the park, its notification is already gone
+        if (!CollectionUtils.isEmpty(serverNodeManager.getWorkerGroupNodes(workerGroup))) {
+            taskPriorityQueue.unpark(workerGroup);
+        }
+    }
+
+    private void registerQueueDepthGauges() {
+        for (String workerGroup : taskPriorityQueue.getWorkerGroups()) {
+            if (meteredWorkerGroups.add(workerGroup)) {
+                MasterServerMetrics.registerTaskQueueDepthGauge(workerGroup, () -> taskPriorityQueue.size(workerGroup));
+            }
+        }
+    }
+
     /**
      * dispatch task
      *
@@ -154,7 +213,8 @@ public class TaskPriorityQueueConsumer extends Thread {
         boolean result = false;
         try {
             TaskExecutionContext context = taskPriority.getTaskExecutionContext();
-            ExecutionContext executionContext = new ExecutionContext(context.toCommand(), ExecutorType.WORKER, context.getWorkerGroup());
+            ExecutionContext executionContext = new ExecutionContext(context.toCommand(masterConfig.getDispatchSerializer()), ExecutorType.WORKER, context.getWorkerGroup());
+            executionContext.setTaskInstanceId(context.getTaskInstanceId());
 
             if (isTaskNeedToCheck(taskPriority)) {
                 if (taskInstanceIsFinalState(taskPriority.getTaskId())) {
@@ -25,10 +25,12 @@ import org.apache.dolphinscheduler.server.master.dispatch.exceptions.ExecuteExce
 import org.apache.dolphinscheduler.server.master.dispatch.executor.ExecutorManager;
 import org.apache.dolphinscheduler.server.master.dispatch.executor.NettyExecutorManager;
 import org.apache.dolphinscheduler.server.master.dispatch.host.HostManager;
+import org.apache.dolphinscheduler.server.master.metrics.MasterServerMetrics;
 
 import org.apache.commons.lang.StringUtils;
 
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -92,12 +94,30 @@ public class ExecutorDispatcher implements InitializingBean {
         }
         context.setHost(host);
         executorManager.beforeExecute(context);
+        // count the task on the host before sending it, a concurrent select sees it and the ack can not come first.
+        // the executor manager moves the count to another host of the group before falling back to it
+        boolean tracked = context.getTaskInstanceId() > 0;
+        if (tracked) {
+            hostManager.dispatched(context.getTaskInstanceId(), host);
+        }
+        long startTime = System.nanoTime();
+        boolean success = false;
         try {
             /**
              * task execute
              */
-            return executorManager.execute(context);
+            Boolean result = executorManager.execute(context);
+            success = Boolean.TRUE.equals(result);
+            return result;
         } finally {
+            MasterServerMetrics.taskExecuteTimer().record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            if (!success) {
+                if (tracked) {
+                    // roll back, the task is not on any worker
+                    hostManager.acknowledged(context.getTaskInstanceId());
+                }
+                MasterServerMetrics.taskExecuteFailureCounter().increment();
+            }
             executorManager.afterExecute(context);
         }
     }
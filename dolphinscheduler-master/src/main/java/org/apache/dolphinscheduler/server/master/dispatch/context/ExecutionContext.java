@@ -48,6 +48,11 @@ public class ExecutionContext {
      */
     private String workerGroup;
 
+    /**
+     *  task instance id, 0 if the command is not a task execute request
+     */
+    private int taskInstanceId;
+
 
     public ExecutionContext(Command command, ExecutorType executorType) {
         this(command, executorType, DEFAULT_WORKER_GROUP);
@@ -76,6 +81,14 @@ public class ExecutionContext {
         return this.workerGroup;
     }
 
+    public int getTaskInstanceId() {
+        return taskInstanceId;
+    }
+
+    public void setTaskInstanceId(int taskInstanceId) {
+        this.taskInstanceId = taskInstanceId;
+    }
+
     public Host getHost() {
         return host;
     }
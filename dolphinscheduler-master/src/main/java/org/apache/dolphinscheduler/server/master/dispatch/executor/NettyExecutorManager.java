@@ -26,6 +26,7 @@ import org.apache.dolphinscheduler.remote.utils.Host;
 import org.apache.dolphinscheduler.server.master.dispatch.context.ExecutionContext;
 import org.apache.dolphinscheduler.server.master.dispatch.enums.ExecutorType;
 import org.apache.dolphinscheduler.server.master.dispatch.exceptions.ExecuteException;
+import org.apache.dolphinscheduler.server.master.dispatch.host.HostManager;
 import org.apache.dolphinscheduler.server.master.processor.TaskAckProcessor;
 import org.apache.dolphinscheduler.server.master.processor.TaskKillResponseProcessor;
 import org.apache.dolphinscheduler.server.master.processor.TaskResponseProcessor;
@@ -65,6 +66,9 @@ public class NettyExecutorManager extends AbstractExecutorManager<Boolean>{
     @Autowired
     private TaskResponseProcessor taskResponseProcessor;
 
+    @Autowired
+    private HostManager hostManager;
+
     /**
      * netty remote client
      */
@@ -132,6 +136,10 @@ public class NettyExecutorManager extends AbstractExecutorManager<Boolean>{
                     if (remained != null && remained.size() > 0) {
                         host = Host.of(remained.iterator().next());
                         logger.error("retry execute command : {} host : {}", command, host);
+                        if (context.getTaskInstanceId() > 0) {
+                            // move the task to the new host before sending it, the ack can not come first
+                            hostManager.dispatched(context.getTaskInstanceId(), host);
+                        }
                     } else {
                         throw new ExecuteException("fail after try all nodes");
                     }
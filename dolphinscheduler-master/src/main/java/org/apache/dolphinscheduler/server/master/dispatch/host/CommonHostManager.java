@@ -26,7 +26,6 @@ import org.apache.dolphinscheduler.server.master.dispatch.host.assign.HostWorker
 import org.apache.dolphinscheduler.server.master.registry.ServerNodeManager;
 
 import org.apache.commons.collections.CollectionUtils;
-import org.apache.commons.lang.StringUtils;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -80,23 +79,12 @@ public abstract class CommonHostManager implements HostManager {
         Set<String> nodes = serverNodeManager.getWorkerGroupNodes(workerGroup);
         if (CollectionUtils.isNotEmpty(nodes)) {
             for (String node : nodes) {
-                String heartbeat = serverNodeManager.getWorkerNodeInfo(node);
-                int hostWeight = getWorkerHostWeightFromHeartbeat(heartbeat);
+                HeartBeat heartBeat = serverNodeManager.getWorkerHeartBeat(node);
+                int hostWeight = heartBeat == null ? Constants.DEFAULT_WORKER_HOST_WEIGHT : heartBeat.getWorkerHostWeight();
                 hostWorkers.add(HostWorker.of(node, hostWeight, workerGroup));
             }
         }
         return hostWorkers;
     }
 
-    protected int getWorkerHostWeightFromHeartbeat(String heartBeatInfo) {
-        int hostWeight = Constants.DEFAULT_WORKER_HOST_WEIGHT;
-        if (!StringUtils.isEmpty(heartBeatInfo)) {
-            HeartBeat heartBeat = HeartBeat.decodeHeartBeat(heartBeatInfo);
-            if (heartBeat != null) {
-                hostWeight = heartBeat.getWorkerHostWeight();
-            }
-        }
-        return hostWeight;
-    }
-
 }
@@ -32,4 +32,19 @@ public interface HostManager {
      */
     Host select(ExecutionContext context);
 
+    /**
+     *  the task is dispatched to the host
+     * @param taskInstanceId taskInstanceId
+     * @param host host
+     */
+    default void dispatched(int taskInstanceId, Host host) {
+    }
+
+    /**
+     *  the worker acknowledged the task, or sending it failed
+     * @param taskInstanceId taskInstanceId
+     */
+    default void acknowledged(int taskInstanceId) {
+    }
+
 }
@@ -24,14 +24,17 @@ import org.apache.dolphinscheduler.remote.utils.NamedThreadFactory;
 import org.apache.dolphinscheduler.server.master.dispatch.context.ExecutionContext;
 import org.apache.dolphinscheduler.server.master.dispatch.host.assign.HostWeight;
 import org.apache.dolphinscheduler.server.master.dispatch.host.assign.HostWorker;
-import org.apache.dolphinscheduler.server.master.dispatch.host.assign.LowerWeightRoundRobin;
-import org.apache.dolphinscheduler.spi.utils.StringUtils;
+import org.apache.dolphinscheduler.server.master.dispatch.host.assign.LowerLoadPowerOfTwoChoices;
+import org.apache.dolphinscheduler.server.master.registry.ServerNodeSnapshot;
 
 import org.apache.commons.collections.CollectionUtils;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -39,8 +42,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -50,25 +52,39 @@ import org.slf4j.LoggerFactory;
 
 /**
  * lower weight host manager
+ * <p>
+ * the host weights of each worker group are refreshed every second into an immutable snapshot, the dispatch threads
+ * read the snapshot without locking. the tasks dispatched to a host and not acknowledged yet are counted on top of
+ * the heartbeat weight, so a burst of dispatches is spread before the next heartbeat reflects it.
  */
 public class LowerWeightHostManager extends CommonHostManager {
 
     private final Logger logger = LoggerFactory.getLogger(LowerWeightHostManager.class);
 
+    /**
+     * a dispatched task not acknowledged within this time is not counted anymore, e.g. its worker is gone
+     */
+    private static final long IN_FLIGHT_TASK_TIMEOUT = 60 * 1000L;
+
     /**
      * selector
      */
-    private LowerWeightRoundRobin selector;
+    private LowerLoadPowerOfTwoChoices selector;
+
+    /**
+     * worker host weights snapshot, replaced as a whole on refresh
+     */
+    private volatile Map<String, List<HostWeight>> workerHostWeightsMap = Collections.emptyMap();
 
     /**
-     * worker host weights
+     * in-flight task counter of each worker address
      */
-    private ConcurrentHashMap<String, Set<HostWeight>> workerHostWeightsMap;
+    private final ConcurrentHashMap<String, AtomicInteger> inFlightTasks = new ConcurrentHashMap<>();
 
     /**
-     * worker group host lock
+     * dispatched tasks not acknowledged yet
      */
-    private Lock lock;
+    private final ConcurrentHashMap<Integer, InFlightTask> dispatchedTasks = new ConcurrentHashMap<>();
 
     /**
      * executor service
@@ -77,9 +93,7 @@ public class LowerWeightHostManager extends CommonHostManager {
 
     @PostConstruct
     public void init() {
-        this.selector = new LowerWeightRoundRobin();
-        this.workerHostWeightsMap = new ConcurrentHashMap<>();
-        this.lock = new ReentrantLock();
+        this.selector = new LowerLoadPowerOfTwoChoices();
         this.executorService = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("LowerWeightHostManagerExecutor"));
         this.executorService.scheduleWithFixedDelay(new RefreshResourceTask(), 0, 1, TimeUnit.SECONDS);
     }
@@ -97,7 +111,7 @@ public class LowerWeightHostManager extends CommonHostManager {
      */
     @Override
     public Host select(ExecutionContext context) {
-        Set<HostWeight> workerHostWeights = getWorkerHostWeights(context.getWorkerGroup());
+        List<HostWeight> workerHostWeights = workerHostWeightsMap.get(context.getWorkerGroup());
         if (CollectionUtils.isNotEmpty(workerHostWeights)) {
             return selector.select(workerHostWeights).getHost();
         }
@@ -109,60 +123,74 @@ public class LowerWeightHostManager extends CommonHostManager {
         throw new UnsupportedOperationException("not support");
     }
 
-    private void syncWorkerHostWeight(Map<String, Set<HostWeight>> workerHostWeights) {
-        lock.lock();
-        try {
-            workerHostWeightsMap.clear();
-            workerHostWeightsMap.putAll(workerHostWeights);
-        } finally {
-            lock.unlock();
+    @Override
+    public void dispatched(int taskInstanceId, Host host) {
+        AtomicInteger counter = inFlightTasks.computeIfAbsent(host.getAddress(), k -> new AtomicInteger());
+        counter.incrementAndGet();
+        InFlightTask former = dispatchedTasks.put(taskInstanceId, new InFlightTask(counter, System.currentTimeMillis()));
+        if (former != null) {
+            former.counter.decrementAndGet();
         }
     }
 
-    private Set<HostWeight> getWorkerHostWeights(String workerGroup) {
-        lock.lock();
-        try {
-            return workerHostWeightsMap.get(workerGroup);
-        } finally {
-            lock.unlock();
+    @Override
+    public void acknowledged(int taskInstanceId) {
+        InFlightTask inFlightTask = dispatchedTasks.remove(taskInstanceId);
+        if (inFlightTask != null) {
+            inFlightTask.counter.decrementAndGet();
         }
     }
 
+    /**
+     * stop counting the tasks never acknowledged
+     */
+    private void expireInFlightTasks() {
+        long expireTime = System.currentTimeMillis() - IN_FLIGHT_TASK_TIMEOUT;
+        dispatchedTasks.forEach((taskInstanceId, inFlightTask) -> {
+            if (inFlightTask.dispatchTime < expireTime && dispatchedTasks.remove(taskInstanceId, inFlightTask)) {
+                logger.warn("task instance {} is not acknowledged in {} ms", taskInstanceId, IN_FLIGHT_TASK_TIMEOUT);
+                inFlightTask.counter.decrementAndGet();
+            }
+        });
+    }
+
     class RefreshResourceTask implements Runnable {
 
         @Override
         public void run() {
             try {
-                Map<String, Set<HostWeight>> workerHostWeights = new HashMap<>();
-                Map<String, Set<String>> workerGroupNodes = serverNodeManager.getWorkerGroupNodes();
-                for (Map.Entry<String, Set<String>> entry : workerGroupNodes.entrySet()) {
+                expireInFlightTasks();
+                Map<String, List<HostWeight>> workerHostWeights = new HashMap<>();
+                Set<String> addresses = new HashSet<>();
+                ServerNodeSnapshot snapshot = serverNodeManager.getSnapshot();
+                for (Map.Entry<String, Set<String>> entry : snapshot.getWorkerGroupNodes().entrySet()) {
                     String workerGroup = entry.getKey();
                     Set<String> nodes = entry.getValue();
-                    Set<HostWeight> hostWeights = new HashSet<>(nodes.size());
+                    List<HostWeight> hostWeights = new ArrayList<>(nodes.size());
                     for (String node : nodes) {
-                        String heartbeat = serverNodeManager.getWorkerNodeInfo(node);
-                        Optional<HostWeight> hostWeightOpt = getHostWeight(node, workerGroup, heartbeat);
+                        Optional<HostWeight> hostWeightOpt = toHostWeight(node, workerGroup, snapshot.getWorkerHeartBeat(node));
                         if (hostWeightOpt.isPresent()) {
                             hostWeights.add(hostWeightOpt.get());
+                            addresses.add(node);
                         }
                     }
                     if (!hostWeights.isEmpty()) {
-                        workerHostWeights.put(workerGroup, hostWeights);
+                        workerHostWeights.put(workerGroup, Collections.unmodifiableList(hostWeights));
                     }
                 }
-                syncWorkerHostWeight(workerHostWeights);
+                workerHostWeightsMap = Collections.unmodifiableMap(workerHostWeights);
+                inFlightTasks.entrySet().removeIf(entry -> !addresses.contains(entry.getKey()) && entry.getValue().get() <= 0);
             } catch (Throwable ex) {
                 logger.error("RefreshResourceTask error", ex);
             }
         }
 
-        public Optional<HostWeight> getHostWeight(String addr, String workerGroup, String heartBeatInfo) {
-            if (StringUtils.isEmpty(heartBeatInfo)) {
-                logger.warn("worker {} in work group {} have not received the heartbeat", addr, workerGroup);
-                return Optional.empty();
-            }
-            HeartBeat heartBeat = HeartBeat.decodeHeartBeat(heartBeatInfo);
+        /**
+         * host weight of the worker from its decoded heartbeat, empty if the worker can not take tasks
+         */
+        Optional<HostWeight> toHostWeight(String addr, String workerGroup, HeartBeat heartBeat) {
             if (heartBeat == null) {
+                logger.warn("worker {} in work group {} have not received the heartbeat", addr, workerGroup);
                 return Optional.empty();
             }
             if (Constants.ABNORMAL_NODE_STATUS == heartBeat.getServerStatus()) {
@@ -178,8 +206,22 @@ public class LowerWeightHostManager extends CommonHostManager {
             return Optional.of(
                     new HostWeight(HostWorker.of(addr, heartBeat.getWorkerHostWeight(), workerGroup),
                             heartBeat.getCpuUsage(), heartBeat.getMemoryUsage(), heartBeat.getLoadAverage(),
-                            heartBeat.getStartupTime()));
+                            heartBeat.getStartupTime(), inFlightTasks.computeIfAbsent(addr, k -> new AtomicInteger())));
         }
     }
 
+    /**
+     * task dispatched to a host
+     */
+    private static final class InFlightTask {
+
+        private final AtomicInteger counter;
+
+        private final long dispatchTime;
+
+        private InFlightTask(AtomicInteger counter, long dispatchTime) {
+            this.counter = counter;
+            this.dispatchTime = dispatchTime;
+        }
+    }
 }
@@ -20,6 +20,8 @@ package org.apache.dolphinscheduler.server.master.dispatch.host.assign;
 import org.apache.dolphinscheduler.remote.utils.Constants;
 import org.apache.dolphinscheduler.remote.utils.Host;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * host weight
  */
@@ -37,10 +39,20 @@ public class HostWeight {
 
     private double currentWeight;
 
+    /**
+     * tasks dispatched to the host and not acknowledged yet, shared by the snapshots of the host
+     */
+    private final AtomicInteger inFlightTasks;
+
     public HostWeight(HostWorker hostWorker, double cpu, double memory, double loadAverage, long startTime) {
+        this(hostWorker, cpu, memory, loadAverage, startTime, new AtomicInteger());
+    }
+
+    public HostWeight(HostWorker hostWorker, double cpu, double memory, double loadAverage, long startTime, AtomicInteger inFlightTasks) {
         this.hostWorker = hostWorker;
         this.weight = calculateWeight(cpu, memory, loadAverage, startTime);
         this.currentWeight = this.weight;
+        this.inFlightTasks = inFlightTasks;
     }
 
     public double getWeight() {
@@ -55,6 +67,19 @@ public class HostWeight {
         this.currentWeight = currentWeight;
     }
 
+    public int getInFlightTasks() {
+        return inFlightTasks.get();
+    }
+
+    /**
+     * the heartbeat weight plus the in-flight tasks, each of them is expected to add one to the load average
+     *
+     * @return current load, lower is better
+     */
+    public double getLoad() {
+        return weight + inFlightTasks.get() * LOAD_AVERAGE_FACTOR;
+    }
+
     public HostWorker getHostWorker() {
         return hostWorker;
     }
@@ -69,6 +94,7 @@ public class HostWeight {
             + "hostWorker=" + hostWorker
             + ", weight=" + weight
             + ", currentWeight=" + currentWeight
+            + ", inFlightTasks=" + inFlightTasks
             + '}';
     }
 
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.master.dispatch.host.assign;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * power of two choices: picks the host with the lower {@link HostWeight#getLoad()} of two random hosts.
+ * it does not mutate the hosts, so it is safe to share one snapshot between the dispatch threads
+ */
+public class LowerLoadPowerOfTwoChoices extends AbstractSelector<HostWeight> {
+
+    @Override
+    protected HostWeight doSelect(Collection<HostWeight> source) {
+        List<HostWeight> hostWeights = source instanceof List && source instanceof RandomAccess
+                ? (List<HostWeight>) source : new ArrayList<>(source);
+        int size = hostWeights.size();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        // second index is drawn from the other size - 1 hosts
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        HostWeight firstHost = hostWeights.get(first);
+        HostWeight secondHost = hostWeights.get(second);
+        return firstHost.getLoad() <= secondHost.getLoad() ? firstHost : secondHost;
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.master.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * meters of the master server, registered in the global registry which is exposed by the prometheus endpoint
+ */
+public final class MasterServerMetrics {
+
+    private MasterServerMetrics() {
+        throw new UnsupportedOperationException("Construct MasterServerMetrics");
+    }
+
+    /**
+     * command pipeline stage: fetch commands from the database
+     */
+    public static final String COMMAND_STAGE_FETCH = "fetch";
+
+    /**
+     * command pipeline stage: wait for a prepare exec thread to handle the command
+     */
+    public static final String COMMAND_STAGE_HANDLE_WAIT = "handle_wait";
+
+    /**
+     * command pipeline stage: handle command to process instance
+     */
+    public static final String COMMAND_STAGE_HANDLE = "handle";
+
+    /**
+     * command pipeline stage: start the workflow execute thread
+     */
+    public static final String COMMAND_STAGE_START = "start";
+
+    private static final Timer COMMAND_FETCH_TIMER = commandPipelineTimer(COMMAND_STAGE_FETCH);
+
+    private static final Timer COMMAND_HANDLE_WAIT_TIMER = commandPipelineTimer(COMMAND_STAGE_HANDLE_WAIT);
+
+    private static final Timer COMMAND_HANDLE_TIMER = commandPipelineTimer(COMMAND_STAGE_HANDLE);
+
+    private static final Timer COMMAND_START_TIMER = commandPipelineTimer(COMMAND_STAGE_START);
+
+    private static Timer commandPipelineTimer(String stage) {
+        return Timer.builder("ds.master.command.pipeline.latency")
+                .description("latency of each stage of the command pipeline")
+                .tag("stage", stage)
+                .publishPercentiles(0.5, 0.75, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry);
+    }
+
+    public static Timer commandFetchTimer() {
+        return COMMAND_FETCH_TIMER;
+    }
+
+    public static Timer commandHandleWaitTimer() {
+        return COMMAND_HANDLE_WAIT_TIMER;
+    }
+
+    public static Timer commandHandleTimer() {
+        return COMMAND_HANDLE_TIMER;
+    }
+
+    public static Timer commandStartTimer() {
+        return COMMAND_START_TIMER;
+    }
+
+    /**
+     * register the queue size gauge of a command pipeline stage
+     *
+     * @param stage command pipeline stage
+     * @param queueSize queue size supplier
+     */
+    public static void registerCommandPipelineQueueSizeGauge(String stage, Supplier<Number> queueSize) {
+        Gauge.builder("ds.master.command.pipeline.queue.size", queueSize)
+                .description("number of commands waiting in each stage of the command pipeline")
+                .tag("stage", stage)
+                .register(Metrics.globalRegistry);
+    }
+
+    private static final DistributionSummary TASK_RESPONSE_FLUSH_SIZE = DistributionSummary.builder("ds.master.task.response.flush.size")
+            .description("number of task ack/result events persisted by one flush")
+            .publishPercentiles(0.5, 0.75, 0.95, 0.99)
+            .register(Metrics.globalRegistry);
+
+    private static final Timer TASK_RESPONSE_FLUSH_TIMER = Timer.builder("ds.master.task.response.flush.latency")
+            .description("latency of persisting and acknowledging one batch of task ack/result events")
+            .publishPercentiles(0.5, 0.75, 0.95, 0.99)
+            .publishPercentileHistogram()
+            .register(Metrics.globalRegistry);
+
+    public static DistributionSummary taskResponseFlushSize() {
+        return TASK_RESPONSE_FLUSH_SIZE;
+    }
+
+    public static Timer taskResponseFlushTimer() {
+        return TASK_RESPONSE_FLUSH_TIMER;
+    }
+
+    private static final Map<String, Timer> TASK_DISPATCH_TIMERS = new ConcurrentHashMap<>();
+
+    /**
+     * latency from the submission of a task to its dispatch to a worker, parked time included
+     *
+     * @param workerGroup worker group
+     * @return timer of the worker group
+     */
+    public static Timer taskDispatchTimer(String workerGroup) {
+        return TASK_DISPATCH_TIMERS.computeIfAbsent(workerGroup, group -> Timer.builder("ds.master.task.dispatch.latency")
+                .description("latency from the task submission to its dispatch")
+                .tag("worker_group", group)
+                .publishPercentiles(0.5, 0.75, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry));
+    }
+
+    /**
+     * register the depth gauge of the task queue of a worker group
+     *
+     * @param workerGroup worker group
+     * @param depth queue depth supplier
+     */
+    public static void registerTaskQueueDepthGauge(String workerGroup, Supplier<Number> depth) {
+        Gauge.builder("ds.master.task.queue.depth", depth)
+                .description("number of tasks waiting for dispatch in each worker group")
+                .tag("worker_group", workerGroup)
+                .register(Metrics.globalRegistry);
+    }
+
+    private static final Timer TASK_EXECUTE_TIMER = Timer.builder("ds.master.task.execute.latency")
+            .description("latency of sending one task to the selected worker")
+            .publishPercentiles(0.5, 0.75, 0.95, 0.99)
+            .publishPercentileHistogram()
+            .register(Metrics.globalRegistry);
+
+    private static final Counter TASK_EXECUTE_FAILURE_COUNTER = Counter.builder("ds.master.task.execute.failure")
+            .description("number of tasks which failed to be sent to a worker")
+            .register(Metrics.globalRegistry);
+
+    public static Timer taskExecuteTimer() {
+        return TASK_EXECUTE_TIMER;
+    }
+
+    public static Counter taskExecuteFailureCounter() {
+        return TASK_EXECUTE_FAILURE_COUNTER;
+    }
+
+    private static final Timer TASK_RESPONSE_ACK_PERSIST_TIMER = taskResponsePersistTimer("ack");
+
+    private static final Timer TASK_RESPONSE_RESULT_PERSIST_TIMER = taskResponsePersistTimer("result");
+
+    private static Timer taskResponsePersistTimer(String event) {
+        return Timer.builder("ds.master.task.response.persist.latency")
+                .description("latency of persisting one task ack/result event")
+                .tag("event", event)
+                .publishPercentiles(0.5, 0.75, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry);
+    }
+
+    public static Timer taskResponseAckPersistTimer() {
+        return TASK_RESPONSE_ACK_PERSIST_TIMER;
+    }
+
+    public static Timer taskResponseResultPersistTimer() {
+        return TASK_RESPONSE_RESULT_PERSIST_TIMER;
+    }
+
+    /**
+     * register the gauge of task ack/result events waiting to be persisted
+     *
+     * @param queueSize queue size supplier
+     */
+    public static void registerTaskResponseQueueSizeGauge(Supplier<Number> queueSize) {
+        Gauge.builder("ds.master.task.response.queue.size", queueSize)
+                .description("number of task ack/result events waiting to be persisted")
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * register the gauges of the workflow event backlog
+     *
+     * @param pendingEvents supplier of the state events not handled yet, summed over all workflows
+     * @param readyWorkflows supplier of the workflows waiting for an execute thread to handle their events
+     */
+    public static void registerWorkflowEventGauges(Supplier<Number> pendingEvents, Supplier<Number> readyWorkflows) {
+        Gauge.builder("ds.master.workflow.event.pending", pendingEvents)
+                .description("number of state events not handled yet")
+                .register(Metrics.globalRegistry);
+        Gauge.builder("ds.master.workflow.ready.size", readyWorkflows)
+                .description("number of workflows waiting for an execute thread to handle their events")
+                .register(Metrics.globalRegistry);
+    }
+
+    private static final Timer STATE_WHEEL_TICK_TIMER = Timer.builder("ds.master.state.wheel.tick.latency")
+            .description("latency of one tick of the state wheel, the due timeout and retry checks included")
+            .publishPercentiles(0.5, 0.75, 0.95, 0.99)
+            .publishPercentileHistogram()
+            .register(Metrics.globalRegistry);
+
+    public static Timer stateWheelTickTimer() {
+        return STATE_WHEEL_TICK_TIMER;
+    }
+
+    /**
+     * register the gauge of timeout and retry checks tracked by the state wheel
+     *
+     * @param checks tracked checks supplier
+     */
+    public static void registerStateWheelChecksGauge(Supplier<Number> checks) {
+        Gauge.builder("ds.master.state.wheel.checks", checks)
+                .description("number of timeout and retry checks tracked by the state wheel")
+                .register(Metrics.globalRegistry);
+    }
+}
@@ -23,6 +23,7 @@ import org.apache.dolphinscheduler.remote.command.CacheExpireCommand;
 import org.apache.dolphinscheduler.remote.command.Command;
 import org.apache.dolphinscheduler.remote.command.CommandType;
 import org.apache.dolphinscheduler.remote.processor.NettyRequestProcessor;
+import org.apache.dolphinscheduler.server.master.cache.ProcessDagCacheManager;
 import org.apache.dolphinscheduler.service.bean.SpringApplicationContext;
 
 import org.slf4j.Logger;
@@ -47,6 +48,9 @@ public class CacheProcessor implements NettyRequestProcessor {
     @Autowired
     private CacheManager cacheManager;
 
+    @Autowired
+    private ProcessDagCacheManager processDagCacheManager;
+
     @Override
     public void process(Channel channel, Command command) {
         Preconditions.checkArgument(CommandType.CACHE_EXPIRE == command.getType(), String.format("invalid command type: %s", command.getType()));
@@ -70,5 +74,33 @@ public class CacheProcessor implements NettyRequestProcessor {
             cache.evict(cacheExpireCommand.getCacheKey());
             logger.info("cache evict, type:{}, key:{}", cacheType.getCacheName(), cacheExpireCommand.getCacheKey());
         }
+        processDagCacheExpire(cacheType, cacheExpireCommand.getCacheKey());
+    }
+
+    /**
+     * the process dag cache is keyed by process definition code and version, evict every entry the changed row belongs to
+     */
+    private void processDagCacheExpire(CacheType cacheType, String cacheKey) {
+        try {
+            switch (cacheType) {
+                case PROCESS_DEFINITION:
+                    // key: processDefinitionCode
+                    processDagCacheManager.removeByProcessDefinitionCode(Long.parseLong(cacheKey));
+                    break;
+                case PROCESS_TASK_RELATION:
+                    // key: projectCode_processDefinitionCode
+                    processDagCacheManager.removeByProcessDefinitionCode(Long.parseLong(cacheKey.substring(cacheKey.lastIndexOf('_') + 1)));
+                    break;
+                case TASK_DEFINITION:
+                    // key: taskCode_version
+                    processDagCacheManager.removeByTaskCode(Long.parseLong(cacheKey.split("_")[0]));
+                    break;
+                default:
+                    break;
+            }
+        } catch (NumberFormatException e) {
+            logger.warn("unknown cache key, clear the process dag cache, type:{}, key:{}", cacheType.getCacheName(), cacheKey);
+            processDagCacheManager.clear();
+        }
     }
 }
@@ -20,12 +20,12 @@ package org.apache.dolphinscheduler.server.master.processor;
 import com.google.common.base.Preconditions;
 import io.netty.channel.Channel;
 import org.apache.dolphinscheduler.common.enums.ExecutionStatus;
-import org.apache.dolphinscheduler.common.utils.JSONUtils;
 import org.apache.dolphinscheduler.remote.command.Command;
 import org.apache.dolphinscheduler.remote.command.CommandType;
 import org.apache.dolphinscheduler.remote.command.TaskExecuteAckCommand;
 import org.apache.dolphinscheduler.remote.processor.NettyRequestProcessor;
 import org.apache.dolphinscheduler.remote.utils.ChannelUtils;
+import org.apache.dolphinscheduler.server.master.dispatch.host.HostManager;
 import org.apache.dolphinscheduler.server.master.processor.queue.TaskResponseEvent;
 import org.apache.dolphinscheduler.server.master.processor.queue.TaskResponseService;
 import org.slf4j.Logger;
@@ -44,6 +44,9 @@ public class TaskAckProcessor implements NettyRequestProcessor {
     @Autowired
     private TaskResponseService taskResponseService;
 
+    @Autowired
+    private HostManager hostManager;
+
     /**
      * task ack process
      *
@@ -53,9 +56,11 @@ public class TaskAckProcessor implements NettyRequestProcessor {
     @Override
     public void process(Channel channel, Command command) {
         Preconditions.checkArgument(CommandType.TASK_EXECUTE_ACK == command.getType(), String.format("invalid command type : %s", command.getType()));
-        TaskExecuteAckCommand taskAckCommand = JSONUtils.parseObject(command.getBody(), TaskExecuteAckCommand.class);
+        TaskExecuteAckCommand taskAckCommand = command.deserializeBody(TaskExecuteAckCommand.class);
         logger.info("taskAckCommand : {}", taskAckCommand);
 
+        hostManager.acknowledged(taskAckCommand.getTaskInstanceId());
+
         String workerAddress = ChannelUtils.toAddress(channel).getAddress();
 
         ExecutionStatus ackStatus = ExecutionStatus.of(taskAckCommand.getStatus());
@@ -26,20 +26,27 @@ import org.apache.dolphinscheduler.dao.entity.TaskInstance;
 import org.apache.dolphinscheduler.remote.command.DBTaskAckCommand;
 import org.apache.dolphinscheduler.remote.command.DBTaskResponseCommand;
 import org.apache.dolphinscheduler.server.master.cache.ProcessInstanceExecCacheManager;
+import org.apache.dolphinscheduler.server.master.config.MasterConfig;
+import org.apache.dolphinscheduler.server.master.metrics.MasterServerMetrics;
 import org.apache.dolphinscheduler.server.master.runner.WorkflowExecuteThread;
 import org.apache.dolphinscheduler.server.master.runner.WorkflowExecuteThreadPool;
 import org.apache.dolphinscheduler.service.process.ProcessService;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -57,9 +64,15 @@ public class TaskResponseService {
     private final Logger logger = LoggerFactory.getLogger(TaskResponseService.class);
 
     /**
-     * attemptQueue
+     * max time to wait for each task response worker to finish its current events on stop
      */
-    private final BlockingQueue<TaskResponseEvent> eventQueue = new LinkedBlockingQueue<>();
+    private static final long WORKER_STOP_TIMEOUT_MILLIS = 5000;
+
+    /**
+     * event queues, events are partitioned by process instance id so that
+     * events of one process instance are persisted in order by the same worker
+     */
+    private List<BlockingQueue<TaskResponseEvent>> eventQueues;
 
     /**
      * process service
@@ -68,9 +81,14 @@ public class TaskResponseService {
     private ProcessService processService;
 
     /**
-     * task response worker
+     * task response workers, one per event queue
      */
-    private Thread taskResponseWorker;
+    private List<Thread> taskResponseWorkers;
+
+    /**
+     * cleared by stop before the workers are interrupted
+     */
+    private volatile boolean running;
 
     @Autowired
     private ProcessInstanceExecCacheManager processInstanceExecCacheManager;
@@ -78,24 +96,63 @@ public class TaskResponseService {
     @Autowired
     private WorkflowExecuteThreadPool workflowExecuteThreadPool;
 
+    @Autowired
+    private MasterConfig masterConfig;
+
     @PostConstruct
     public void start() {
-        this.taskResponseWorker = new TaskResponseWorker();
-        this.taskResponseWorker.setName("StateEventResponseWorker");
-        this.taskResponseWorker.start();
+        int workerNum = Math.max(1, masterConfig.getTaskResponseWorkerNum());
+        this.eventQueues = new ArrayList<>(workerNum);
+        this.taskResponseWorkers = new ArrayList<>(workerNum);
+        for (int i = 0; i < workerNum; i++) {
+            BlockingQueue<TaskResponseEvent> eventQueue = new LinkedBlockingQueue<>();
+            Thread taskResponseWorker = new TaskResponseWorker(eventQueue);
+            taskResponseWorker.setName("StateEventResponseWorker-" + i);
+            this.eventQueues.add(eventQueue);
+            this.taskResponseWorkers.add(taskResponseWorker);
+        }
+        this.running = true;
+        this.taskResponseWorkers.forEach(Thread::start);
+        MasterServerMetrics.registerTaskResponseQueueSizeGauge(this::getEventQueueSize);
+    }
+
+    private int getEventQueueSize() {
+        int size = 0;
+        for (BlockingQueue<TaskResponseEvent> eventQueue : eventQueues) {
+            size += eventQueue.size();
+        }
+        return size;
     }
 
     @PreDestroy
     public void stop() {
         try {
-            this.taskResponseWorker.interrupt();
-            if (!eventQueue.isEmpty()) {
+            this.running = false;
+            this.taskResponseWorkers.forEach(Thread::interrupt);
+            // the events taken by a worker are persisted by the worker, wait for it before draining the queues
+            for (Thread taskResponseWorker : taskResponseWorkers) {
+                taskResponseWorker.join(WORKER_STOP_TIMEOUT_MILLIS);
+                if (taskResponseWorker.isAlive()) {
+                    logger.warn("{} is not stopped in {} ms", taskResponseWorker.getName(), WORKER_STOP_TIMEOUT_MILLIS);
+                }
+            }
+            for (BlockingQueue<TaskResponseEvent> eventQueue : eventQueues) {
+                if (eventQueue.isEmpty()) {
+                    continue;
+                }
                 List<TaskResponseEvent> remainEvents = new ArrayList<>(eventQueue.size());
                 eventQueue.drainTo(remainEvents);
-                for (TaskResponseEvent event : remainEvents) {
-                    this.persist(event);
+                if (isBatchEnabled()) {
+                    this.persist(remainEvents);
+                } else {
+                    for (TaskResponseEvent event : remainEvents) {
+                        this.persist(event);
+                    }
                 }
             }
+        } catch (InterruptedException e) {
+            logger.error("stop interrupted", e);
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             logger.error("stop error:", e);
         }
@@ -108,7 +165,8 @@ public class TaskResponseService {
      */
     public void addResponse(TaskResponseEvent taskResponseEvent) {
         try {
-            eventQueue.put(taskResponseEvent);
+            int partition = Math.floorMod(taskResponseEvent.getProcessInstanceId(), eventQueues.size());
+            eventQueues.get(partition).put(taskResponseEvent);
         } catch (InterruptedException e) {
             logger.error("put task : {} error :{}", taskResponseEvent, e);
             Thread.currentThread().interrupt();
@@ -120,14 +178,24 @@ public class TaskResponseService {
      */
     class TaskResponseWorker extends Thread {
 
+        private final BlockingQueue<TaskResponseEvent> eventQueue;
+
+        TaskResponseWorker(BlockingQueue<TaskResponseEvent> eventQueue) {
+            this.eventQueue = eventQueue;
+        }
+
         @Override
         public void run() {
 
-            while (Stopper.isRunning()) {
+            while (running && Stopper.isRunning()) {
                 try {
                     // if not task , blocking here
                     TaskResponseEvent taskResponseEvent = eventQueue.take();
-                    persist(taskResponseEvent);
+                    if (isBatchEnabled()) {
+                        persist(collectBatch(eventQueue, taskResponseEvent));
+                    } else {
+                        persist(taskResponseEvent);
+                    }
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
                     break;
@@ -135,8 +203,181 @@ public class TaskResponseService {
                     logger.error("persist task error", e);
                 }
             }
-            logger.info("StateEventResponseWorker stopped");
+            logger.info("{} stopped", getName());
+        }
+    }
+
+    private boolean isBatchEnabled() {
+        return masterConfig.getTaskResponseBatchSize() > 1;
+    }
+
+    /**
+     * collect events until the batch is full or the batch wait time elapsed
+     *
+     * @param eventQueue the event queue to collect from
+     * @param first the first event of the batch
+     * @return events of the batch in arrival order
+     */
+    private List<TaskResponseEvent> collectBatch(BlockingQueue<TaskResponseEvent> eventQueue, TaskResponseEvent first) {
+        int batchSize = masterConfig.getTaskResponseBatchSize();
+        List<TaskResponseEvent> events = new ArrayList<>(batchSize);
+        events.add(first);
+        eventQueue.drainTo(events, batchSize - events.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(masterConfig.getTaskResponseBatchWait());
+        while (events.size() < batchSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            TaskResponseEvent event;
+            try {
+                event = eventQueue.poll(remaining, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                // stopping, persist the events collected so far, the worker exits on its running check
+                break;
+            }
+            if (event == null) {
+                break;
+            }
+            events.add(event);
+            eventQueue.drainTo(events, batchSize - events.size());
         }
+        return events;
+    }
+
+    /**
+     * persist a batch of taskResponseEvents, events of the same task instance are applied in arrival order
+     * and merged into one update, all updates are written by one jdbc batch before acknowledging the workers.
+     * the events are applied to copies of the task instances, which are published to the cached task instances
+     * only after the batch is written. if the batch fails, fall back to persist events one by one so a bad event
+     * does not fail the others
+     *
+     * @param taskResponseEvents taskResponseEvents
+     */
+    void persist(List<TaskResponseEvent> taskResponseEvents) {
+        long startTime = System.nanoTime();
+        Map<Integer, TaskInstance> taskInstances = new HashMap<>();
+        Map<Integer, TaskInstance> taskInstanceCopies = new HashMap<>();
+        Map<Integer, TaskInstance> changedTaskInstances = new LinkedHashMap<>();
+        try {
+            for (TaskResponseEvent taskResponseEvent : taskResponseEvents) {
+                int taskInstanceId = taskResponseEvent.getTaskInstanceId();
+                if (!taskInstances.containsKey(taskInstanceId)) {
+                    TaskInstance taskInstance = findTaskInstance(taskResponseEvent);
+                    taskInstances.put(taskInstanceId, taskInstance);
+                    taskInstanceCopies.put(taskInstanceId, copyOf(taskInstance));
+                }
+                TaskInstance taskInstanceCopy = taskInstanceCopies.get(taskInstanceId);
+                if (applyEvent(taskResponseEvent, taskInstanceCopy)) {
+                    changedTaskInstances.put(taskInstanceId, taskInstanceCopy);
+                }
+            }
+            processService.batchUpdateTaskInstance(new ArrayList<>(changedTaskInstances.values()));
+        } catch (Exception e) {
+            logger.error("persist task response batch error, persist {} events one by one", taskResponseEvents.size(), e);
+            for (TaskResponseEvent taskResponseEvent : taskResponseEvents) {
+                try {
+                    persist(taskResponseEvent);
+                } catch (Exception ex) {
+                    logger.error("persist task error", ex);
+                }
+            }
+            return;
+        }
+
+        for (Map.Entry<Integer, TaskInstance> changed : changedTaskInstances.entrySet()) {
+            publish(changed.getValue(), taskInstances.get(changed.getKey()));
+        }
+        for (TaskResponseEvent taskResponseEvent : taskResponseEvents) {
+            // if taskInstance is null (maybe deleted) or finish. retry will be meaningless . so ack success
+            if (taskResponseEvent.getEvent() == Event.ACK) {
+                DBTaskAckCommand taskAckCommand = new DBTaskAckCommand(ExecutionStatus.SUCCESS.getCode(), taskResponseEvent.getTaskInstanceId());
+                taskResponseEvent.getChannel().writeAndFlush(taskAckCommand.convert2Command());
+            } else {
+                DBTaskResponseCommand taskResponseCommand = new DBTaskResponseCommand(ExecutionStatus.SUCCESS.getCode(), taskResponseEvent.getTaskInstanceId());
+                taskResponseEvent.getChannel().writeAndFlush(taskResponseCommand.convert2Command());
+            }
+            submitStateEvent(taskResponseEvent);
+        }
+        MasterServerMetrics.taskResponseFlushSize().record(taskResponseEvents.size());
+        MasterServerMetrics.taskResponseFlushTimer().record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    }
+
+    private static TaskInstance copyOf(TaskInstance taskInstance) {
+        if (taskInstance == null) {
+            return null;
+        }
+        TaskInstance copy = new TaskInstance();
+        BeanUtils.copyProperties(taskInstance, copy);
+        return copy;
+    }
+
+    /**
+     * publish the fields changed by the events to the task instance seen by the workflow
+     */
+    private static void publish(TaskInstance from, TaskInstance to) {
+        to.setState(from.getState());
+        to.setStartTime(from.getStartTime());
+        to.setHost(from.getHost());
+        to.setExecutePath(from.getExecutePath());
+        to.setLogPath(from.getLogPath());
+        to.setPid(from.getPid());
+        to.setAppLink(from.getAppLink());
+        to.setEndTime(from.getEndTime());
+        to.setVarPool(from.getVarPool());
+        to.setTaskParams(from.getTaskParams());
+    }
+
+    /**
+     * apply the event to the task instance without saving it
+     *
+     * @return true if the task instance changed
+     */
+    private boolean applyEvent(TaskResponseEvent taskResponseEvent, TaskInstance taskInstance) {
+        if (taskInstance == null) {
+            return false;
+        }
+        switch (taskResponseEvent.getEvent()) {
+            case ACK:
+                if (taskInstance.getState().typeIsFinished()) {
+                    logger.warn("task is finish, ack is meaningless, taskInstanceId:{}, state:{}", taskInstance.getId(), taskInstance.getState());
+                    return false;
+                }
+                taskInstance.setState(taskResponseEvent.getState());
+                taskInstance.setStartTime(taskResponseEvent.getStartTime());
+                taskInstance.setHost(taskResponseEvent.getWorkerAddress());
+                taskInstance.setExecutePath(taskResponseEvent.getExecutePath());
+                taskInstance.setLogPath(taskResponseEvent.getLogPath());
+                return true;
+            case RESULT:
+                taskInstance.setPid(taskResponseEvent.getProcessId());
+                taskInstance.setAppLink(taskResponseEvent.getAppIds());
+                taskInstance.setState(taskResponseEvent.getState());
+                taskInstance.setEndTime(taskResponseEvent.getEndTime());
+                taskInstance.setVarPool(taskResponseEvent.getVarPool());
+                processService.changeOutParam(taskInstance);
+                return true;
+            default:
+                throw new IllegalArgumentException("invalid event type : " + taskResponseEvent.getEvent());
+        }
+    }
+
+    private TaskInstance findTaskInstance(TaskResponseEvent taskResponseEvent) {
+        int taskInstanceId = taskResponseEvent.getTaskInstanceId();
+        WorkflowExecuteThread workflowExecuteThread = this.processInstanceExecCacheManager.getByProcessInstanceId(taskResponseEvent.getProcessInstanceId());
+        if (workflowExecuteThread != null && workflowExecuteThread.checkTaskInstanceById(taskInstanceId)) {
+            return workflowExecuteThread.getTaskInstance(taskInstanceId);
+        }
+        return processService.findTaskInstanceById(taskInstanceId);
+    }
+
+    private void submitStateEvent(TaskResponseEvent taskResponseEvent) {
+        StateEvent stateEvent = new StateEvent();
+        stateEvent.setProcessInstanceId(taskResponseEvent.getProcessInstanceId());
+        stateEvent.setTaskInstanceId(taskResponseEvent.getTaskInstanceId());
+        stateEvent.setExecutionStatus(taskResponseEvent.getState());
+        stateEvent.setType(StateEventType.TASK_STATE_CHANGE);
+        workflowExecuteThreadPool.submitStateEvent(stateEvent);
     }
 
     /**
@@ -145,35 +386,24 @@ public class TaskResponseService {
      * @param taskResponseEvent taskResponseEvent
      */
     private void persist(TaskResponseEvent taskResponseEvent) {
+        long startTime = System.nanoTime();
         Event event = taskResponseEvent.getEvent();
-        int taskInstanceId = taskResponseEvent.getTaskInstanceId();
-        int processInstanceId = taskResponseEvent.getProcessInstanceId();
-
-        TaskInstance taskInstance;
-        WorkflowExecuteThread workflowExecuteThread = this.processInstanceExecCacheManager.getByProcessInstanceId(processInstanceId);
-        if (workflowExecuteThread != null && workflowExecuteThread.checkTaskInstanceById(taskInstanceId)) {
-            taskInstance = workflowExecuteThread.getTaskInstance(taskInstanceId);
-        } else {
-            taskInstance = processService.findTaskInstanceById(taskInstanceId);
-        }
+        TaskInstance taskInstance = findTaskInstance(taskResponseEvent);
 
         switch (event) {
             case ACK:
                 handleAckEvent(taskResponseEvent, taskInstance);
+                MasterServerMetrics.taskResponseAckPersistTimer().record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
                 break;
             case RESULT:
                 handleResultEvent(taskResponseEvent, taskInstance);
+                MasterServerMetrics.taskResponseResultPersistTimer().record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
                 break;
             default:
                 throw new IllegalArgumentException("invalid event type : " + event);
         }
 
-        StateEvent stateEvent = new StateEvent();
-        stateEvent.setProcessInstanceId(taskResponseEvent.getProcessInstanceId());
-        stateEvent.setTaskInstanceId(taskResponseEvent.getTaskInstanceId());
-        stateEvent.setExecutionStatus(taskResponseEvent.getState());
-        stateEvent.setType(StateEventType.TASK_STATE_CHANGE);
-        workflowExecuteThreadPool.submitStateEvent(stateEvent);
+        submitStateEvent(taskResponseEvent);
     }
 
     /**
@@ -361,6 +361,11 @@ public class MasterRegistryClient {
             processService.processNeedFailoverProcessInstances(processInstance);
         }
 
+        int releasedCommandCount = processService.releaseClaimedCommands(masterHost);
+        if (releasedCommandCount > 0) {
+            logger.info("release {} commands claimed by master[{}]", releasedCommandCount, masterHost);
+        }
+
         logger.info("master[{}] failover end, useTime:{}ms", masterHost, System.currentTimeMillis() - startTime);
     }
 
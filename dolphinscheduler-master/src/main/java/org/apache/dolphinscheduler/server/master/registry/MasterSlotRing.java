@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.master.registry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * owner of the work among the masters by rendezvous hashing over a fixed number of slots.
+ * an id belongs to the slot id % SLOT_NUM, and a slot belongs to the master with the highest weighted score for it,
+ * so a master joining or leaving only moves the slots it wins or owned, about 1/N of the work.
+ * all the masters compute the same owners from the same members, no coordination is needed.
+ */
+public final class MasterSlotRing {
+
+    /**
+     * number of slots, much larger than the number of masters to keep the work balanced
+     */
+    public static final int SLOT_NUM = 1024;
+
+    static final MasterSlotRing EMPTY = new MasterSlotRing(Collections.emptyMap());
+
+    private final Map<String, Integer> weights;
+
+    /**
+     * owner of each slot, null if there is no master
+     */
+    private final String[] slotOwners;
+
+    private MasterSlotRing(Map<String, Integer> weights) {
+        this.weights = weights;
+        this.slotOwners = new String[SLOT_NUM];
+        if (weights.isEmpty()) {
+            return;
+        }
+        List<String> masters = new ArrayList<>(weights.keySet());
+        Collections.sort(masters);
+        long[] masterHashes = new long[masters.size()];
+        for (int i = 0; i < masterHashes.length; i++) {
+            masterHashes[i] = hash(masters.get(i));
+        }
+        for (int slot = 0; slot < SLOT_NUM; slot++) {
+            String owner = null;
+            double maxScore = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < masterHashes.length; i++) {
+                double score = score(masterHashes[i], slot, weights.get(masters.get(i)));
+                // masters are sorted, a tie is won by the first one on every master
+                if (score > maxScore) {
+                    maxScore = score;
+                    owner = masters.get(i);
+                }
+            }
+            slotOwners[slot] = owner;
+        }
+    }
+
+    /**
+     * ring of masters with the same weight
+     *
+     * @param masters master addresses
+     * @return ring
+     */
+    public static MasterSlotRing of(Collection<String> masters) {
+        Map<String, Integer> weights = new HashMap<>();
+        for (String master : masters) {
+            weights.put(master, 1);
+        }
+        return of(weights);
+    }
+
+    /**
+     * ring of weighted masters, a master owns about weight / total weight of the slots
+     *
+     * @param weights master address as key, positive weight as value
+     * @return ring
+     */
+    public static MasterSlotRing of(Map<String, Integer> weights) {
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            if (entry.getValue() == null || entry.getValue() <= 0) {
+                throw new IllegalArgumentException(String.format("weight of master %s must be positive: %s", entry.getKey(), entry.getValue()));
+            }
+        }
+        return new MasterSlotRing(Collections.unmodifiableMap(new HashMap<>(weights)));
+    }
+
+    public static int slotOf(long id) {
+        return (int) Math.floorMod(id, (long) SLOT_NUM);
+    }
+
+    public int size() {
+        return weights.size();
+    }
+
+    public boolean isEmpty() {
+        return weights.isEmpty();
+    }
+
+    public boolean contains(String master) {
+        return weights.containsKey(master);
+    }
+
+    /**
+     * @param slot slot
+     * @return owner of the slot, null if there is no master
+     */
+    public String getOwner(int slot) {
+        return slotOwners[slot];
+    }
+
+    /**
+     * @param id id of the work, e.g. command id
+     * @return owner of the id, null if there is no master
+     */
+    public String getOwnerOf(long id) {
+        return slotOwners[slotOf(id)];
+    }
+
+    public boolean isOwner(String master, long id) {
+        return master != null && master.equals(getOwnerOf(id));
+    }
+
+    /**
+     * @param master master address
+     * @return slots owned by the master
+     */
+    public List<Integer> getSlots(String master) {
+        List<Integer> slots = new ArrayList<>();
+        for (int slot = 0; slot < SLOT_NUM; slot++) {
+            if (slotOwners[slot] != null && slotOwners[slot].equals(master)) {
+                slots.add(slot);
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * weighted rendezvous score: -weight / ln(u), u uniform in (0, 1) from the hash of master and slot
+     */
+    private static double score(long masterHash, int slot, int weight) {
+        long h = mix(masterHash ^ (slot * 0x9E3779B97F4A7C15L));
+        double u = ((h >>> 11) + 0.5) / (double) (1L << 53);
+        return -weight / Math.log(u);
+    }
+
+    /**
+     * 64-bit FNV-1a of the master address, the rendezvous scores need a well mixed 64-bit hash
+     */
+    private static long hash(String master) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : master.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    /**
+     * finalizer of murmur3, spreads every input bit over the output
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe1a85ec9L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return "MasterSlotRing{masters=" + weights.keySet() + '}';
+    }
+}
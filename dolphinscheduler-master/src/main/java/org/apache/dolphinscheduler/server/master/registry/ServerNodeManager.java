@@ -22,22 +22,20 @@ import static org.apache.dolphinscheduler.common.Constants.REGISTRY_DOLPHINSCHED
 
 import org.apache.dolphinscheduler.common.Constants;
 import org.apache.dolphinscheduler.common.enums.NodeType;
-import org.apache.dolphinscheduler.common.model.Server;
-import org.apache.dolphinscheduler.common.utils.NetUtils;
+import org.apache.dolphinscheduler.common.utils.HeartBeat;
 import org.apache.dolphinscheduler.dao.AlertDao;
 import org.apache.dolphinscheduler.dao.entity.WorkerGroup;
 import org.apache.dolphinscheduler.dao.mapper.WorkerGroupMapper;
 import org.apache.dolphinscheduler.registry.api.Event;
 import org.apache.dolphinscheduler.registry.api.Event.Type;
+import org.apache.dolphinscheduler.registry.api.RegistryException;
 import org.apache.dolphinscheduler.registry.api.SubscribeListener;
 import org.apache.dolphinscheduler.remote.utils.NamedThreadFactory;
-import org.apache.dolphinscheduler.service.queue.MasterPriorityQueue;
 import org.apache.dolphinscheduler.service.registry.RegistryClient;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -45,12 +43,13 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 import javax.annotation.PreDestroy;
 
@@ -69,34 +68,19 @@ public class ServerNodeManager implements InitializingBean {
     private final Logger logger = LoggerFactory.getLogger(ServerNodeManager.class);
 
     /**
-     * master lock
+     * serializes the writers, readers only read the snapshot
      */
-    private final Lock masterLock = new ReentrantLock();
+    private final Lock updateLock = new ReentrantLock();
 
     /**
-     * worker group lock
+     * master nodes, worker group nodes and worker node info, replaced as a whole on every change
      */
-    private final Lock workerGroupLock = new ReentrantLock();
+    private volatile ServerNodeSnapshot snapshot = ServerNodeSnapshot.EMPTY;
 
     /**
-     * worker node info lock
+     * notified with the worker group when its nodes are synced and it has live workers
      */
-    private final Lock workerNodeInfoLock = new ReentrantLock();
-
-    /**
-     * worker group nodes
-     */
-    private final ConcurrentHashMap<String, Set<String>> workerGroupNodes = new ConcurrentHashMap<>();
-
-    /**
-     * master nodes
-     */
-    private final Set<String> masterNodes = new HashSet<>();
-
-    /**
-     * worker node info
-     */
-    private final Map<String, String> workerNodeInfo = new HashMap<>();
+    private final List<Consumer<String>> workerGroupListeners = new CopyOnWriteArrayList<>();
 
     /**
      * executor service
@@ -117,26 +101,12 @@ public class ServerNodeManager implements InitializingBean {
     @Autowired
     private WorkerGroupMapper workerGroupMapper;
 
-    private MasterPriorityQueue masterPriorityQueue = new MasterPriorityQueue();
-
     /**
      * alert dao
      */
     @Autowired
     private AlertDao alertDao;
 
-    public static volatile List<Integer> SLOT_LIST = new ArrayList<>();
-
-    public static volatile Integer MASTER_SIZE = 0;
-
-    public static Integer getSlot() {
-        if (SLOT_LIST.size() > 0) {
-            return SLOT_LIST.get(0);
-        }
-        return 0;
-    }
-
-
     /**
      * init listener
      *
@@ -173,12 +143,9 @@ public class ServerNodeManager implements InitializingBean {
         updateMasterNodes();
 
         /*
-         * worker group nodes from zookeeper
+         * worker group nodes and worker node info from zookeeper
          */
-        Collection<String> workerGroups = registryClient.getWorkerGroupDirectly();
-        for (String workerGroup : workerGroups) {
-            syncWorkerGroupNodes(workerGroup, registryClient.getWorkerGroupNodesDirectly(workerGroup));
-        }
+        syncAllWorkerNodes(Collections.emptyList());
     }
 
     /**
@@ -188,26 +155,11 @@ public class ServerNodeManager implements InitializingBean {
 
         @Override
         public void run() {
-            // sync worker node info
-            Map<String, String> newWorkerNodeInfo = registryClient.getServerMaps(NodeType.WORKER, true);
-            syncAllWorkerNodeInfo(newWorkerNodeInfo);
-
-            // sync worker group nodes from database
-            List<WorkerGroup> workerGroupList = workerGroupMapper.queryAllWorkerGroup();
-            if (CollectionUtils.isNotEmpty(workerGroupList)) {
-                for (WorkerGroup wg : workerGroupList) {
-                    String workerGroup = wg.getName();
-                    Set<String> nodes = new HashSet<>();
-                    String[] addrs = wg.getAddrList().split(Constants.COMMA);
-                    for (String addr : addrs) {
-                        if (newWorkerNodeInfo.containsKey(addr)) {
-                            nodes.add(addr);
-                        }
-                    }
-                    if (!nodes.isEmpty()) {
-                        syncWorkerGroupNodes(workerGroup, nodes);
-                    }
-                }
+            // worker events keep the snapshot up to date, this only repairs the events missed
+            try {
+                syncAllWorkerNodes(workerGroupMapper.queryAllWorkerGroup());
+            } catch (Exception e) {
+                logger.error("sync worker node info and worker group error", e);
             }
         }
     }
@@ -226,24 +178,14 @@ public class ServerNodeManager implements InitializingBean {
                 try {
                     if (type == Type.ADD) {
                         logger.info("worker group node : {} added.", path);
-                        String group = parseGroup(path);
-                        Collection<String> currentNodes = registryClient.getWorkerGroupNodesDirectly(group);
-                        logger.info("currentNodes : {}", currentNodes);
-                        syncWorkerGroupNodes(group, currentNodes);
+                        addWorkerNode(parseGroup(path), parseNode(path), data);
                     } else if (type == Type.REMOVE) {
                         logger.info("worker group node : {} down.", path);
-                        String group = parseGroup(path);
-                        Collection<String> currentNodes = registryClient.getWorkerGroupNodesDirectly(group);
-                        syncWorkerGroupNodes(group, currentNodes);
+                        removeWorkerNode(parseGroup(path), parseNode(path));
                         alertDao.sendServerStopedAlert(1, path, "WORKER");
                     } else if (type == Type.UPDATE) {
                         logger.debug("worker group node : {} update, data: {}", path, data);
-                        String group = parseGroup(path);
-                        Collection<String> currentNodes = registryClient.getWorkerGroupNodesDirectly(group);
-                        syncWorkerGroupNodes(group, currentNodes);
-
-                        String node = parseNode(path);
-                        syncSingleWorkerNodeInfo(node, data);
+                        addWorkerNode(parseGroup(path), parseNode(path), data);
                     }
                 } catch (IllegalArgumentException ex) {
                     logger.warn(ex.getMessage());
@@ -295,20 +237,20 @@ public class ServerNodeManager implements InitializingBean {
     }
 
     private void updateMasterNodes() {
-        SLOT_LIST.clear();
-        this.masterNodes.clear();
-        String nodeLock = Constants.REGISTRY_DOLPHINSCHEDULER_LOCK_MASTERS;
         try {
-            registryClient.getLock(nodeLock);
-            Collection<String> currentNodes = registryClient.getMasterNodesDirectly();
-            List<Server> masterNodes = registryClient.getServerList(NodeType.MASTER);
-            syncMasterNodes(currentNodes, masterNodes);
+            syncMasterNodes(registryClient.getMasterNodesDirectly());
         } catch (Exception e) {
             logger.error("update master nodes error", e);
-        } finally {
-            registryClient.releaseLock(nodeLock);
         }
+    }
 
+    /**
+     * get the current snapshot of the server nodes, all the reads of one snapshot are consistent
+     *
+     * @return server node snapshot
+     */
+    public ServerNodeSnapshot getSnapshot() {
+        return snapshot;
     }
 
     /**
@@ -317,12 +259,16 @@ public class ServerNodeManager implements InitializingBean {
      * @return master nodes
      */
     public Set<String> getMasterNodes() {
-        masterLock.lock();
-        try {
-            return Collections.unmodifiableSet(masterNodes);
-        } finally {
-            masterLock.unlock();
-        }
+        return snapshot.getMasterNodes();
+    }
+
+    /**
+     * get the slot ring of the current master nodes, every master derives the same owners from it
+     *
+     * @return master slot ring
+     */
+    public MasterSlotRing getMasterSlotRing() {
+        return snapshot.getMasterSlotRing();
     }
 
     /**
@@ -330,46 +276,132 @@ public class ServerNodeManager implements InitializingBean {
      *
      * @param nodes master nodes
      */
-    private void syncMasterNodes(Collection<String> nodes, List<Server> masterNodes) {
-        masterLock.lock();
+    private void syncMasterNodes(Collection<String> nodes) {
+        updateLock.lock();
         try {
-            this.masterNodes.addAll(nodes);
-            this.masterPriorityQueue.clear();
-            this.masterPriorityQueue.putList(masterNodes);
-            int index = masterPriorityQueue.getIndex(NetUtils.getHost());
-            if (index >= 0) {
-                MASTER_SIZE = nodes.size();
-                SLOT_LIST.add(masterPriorityQueue.getIndex(NetUtils.getHost()));
-            }
-            logger.info("update master nodes, master size: {}, slot: {}",
-                    MASTER_SIZE, SLOT_LIST.toString()
+            snapshot = snapshot.withMasterNodes(nodes);
+            logger.info("update master nodes, master size: {}, masters: {}",
+                    snapshot.getMasterSlotRing().size(), snapshot.getMasterNodes()
             );
         } finally {
-            masterLock.unlock();
+            updateLock.unlock();
         }
     }
 
     /**
-     * sync worker group nodes
+     * add the worker node to the worker group or update its heartbeat
      *
      * @param workerGroup worker group
-     * @param nodes worker nodes
+     * @param workerNode worker node
+     * @param info heartbeat of the worker node, ignored if empty
+     */
+    private void addWorkerNode(String workerGroup, String workerNode, String info) {
+        String group = workerGroup.toLowerCase();
+        updateLock.lock();
+        try {
+            snapshot = snapshot.withWorkerNode(group, workerNode, info);
+        } finally {
+            updateLock.unlock();
+        }
+        notifyWorkerGroupListeners(group);
+    }
+
+    /**
+     * remove the worker node from the worker group
+     *
+     * @param workerGroup worker group
+     * @param workerNode worker node
      */
-    private void syncWorkerGroupNodes(String workerGroup, Collection<String> nodes) {
-        workerGroupLock.lock();
+    private void removeWorkerNode(String workerGroup, String workerNode) {
+        updateLock.lock();
         try {
-            workerGroup = workerGroup.toLowerCase();
-            Set<String> workerNodes = workerGroupNodes.getOrDefault(workerGroup, new HashSet<>());
-            workerNodes.clear();
-            workerNodes.addAll(nodes);
-            workerGroupNodes.put(workerGroup, workerNodes);
+            snapshot = snapshot.withoutWorkerNode(workerGroup.toLowerCase(), workerNode);
         } finally {
-            workerGroupLock.unlock();
+            updateLock.unlock();
         }
     }
 
+    /**
+     * sync all the worker nodes with the registry, the snapshot is kept if the registry can not be read
+     *
+     * @param workerGroupList worker groups in the database, their live addresses are synced
+     */
+    private void syncAllWorkerNodes(List<WorkerGroup> workerGroupList) {
+        ServerNodeSnapshot newSnapshot;
+        updateLock.lock();
+        try {
+            // scan under the lock, the worker events applied during a scan must not be overwritten by its older view
+            Map<String, String> workerNodeMap;
+            try {
+                workerNodeMap = registryClient.loadServerMaps(NodeType.WORKER, false);
+            } catch (RegistryException e) {
+                logger.error("scan worker nodes failed, keep the current worker nodes", e);
+                return;
+            }
+            Map<String, String> newWorkerNodeInfo = new HashMap<>();
+            Map<String, Set<String>> newWorkerGroupNodes = new HashMap<>();
+            for (Map.Entry<String, String> entry : workerNodeMap.entrySet()) {
+                String[] parts = entry.getKey().split("/");
+                if (parts.length != 2) {
+                    continue;
+                }
+                newWorkerNodeInfo.putIfAbsent(parts[1], entry.getValue());
+                newWorkerGroupNodes.computeIfAbsent(parts[0].toLowerCase(), k -> new HashSet<>()).add(parts[1]);
+            }
+            if (CollectionUtils.isNotEmpty(workerGroupList)) {
+                for (WorkerGroup wg : workerGroupList) {
+                    Set<String> nodes = new HashSet<>();
+                    for (String addr : wg.getAddrList().split(Constants.COMMA)) {
+                        if (newWorkerNodeInfo.containsKey(addr)) {
+                            nodes.add(addr);
+                        }
+                    }
+                    if (!nodes.isEmpty()) {
+                        newWorkerGroupNodes.put(wg.getName().toLowerCase(), nodes);
+                    }
+                }
+            }
+
+            newSnapshot = snapshot.withAllWorkerNodeInfo(newWorkerNodeInfo);
+            for (Map.Entry<String, Set<String>> entry : newSnapshot.getWorkerGroupNodes().entrySet()) {
+                // worker groups not seen any more keep their live nodes only
+                if (!newWorkerGroupNodes.containsKey(entry.getKey())) {
+                    Set<String> nodes = new HashSet<>(entry.getValue());
+                    nodes.retainAll(newWorkerNodeInfo.keySet());
+                    newWorkerGroupNodes.put(entry.getKey(), nodes);
+                }
+            }
+            for (Map.Entry<String, Set<String>> entry : newWorkerGroupNodes.entrySet()) {
+                newSnapshot = newSnapshot.withWorkerGroupNodes(entry.getKey(), entry.getValue());
+            }
+            snapshot = newSnapshot;
+        } finally {
+            updateLock.unlock();
+        }
+        for (Map.Entry<String, Set<String>> entry : newSnapshot.getWorkerGroupNodes().entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                notifyWorkerGroupListeners(entry.getKey());
+            }
+        }
+    }
+
+    private void notifyWorkerGroupListeners(String workerGroup) {
+        for (Consumer<String> listener : workerGroupListeners) {
+            listener.accept(workerGroup);
+        }
+    }
+
+    /**
+     * add a listener notified with the worker group whenever it has live workers, e.g. a worker joins or heartbeats
+     *
+     * @param listener worker group listener
+     */
+    public void addWorkerGroupListener(Consumer<String> listener) {
+        workerGroupListeners.add(listener);
+    }
+
     public Map<String, Set<String>> getWorkerGroupNodes() {
-        return Collections.unmodifiableMap(workerGroupNodes);
+        return snapshot.getWorkerGroupNodes();
     }
 
     /**
@@ -379,20 +411,10 @@ public class ServerNodeManager implements InitializingBean {
      * @return worker nodes
      */
     public Set<String> getWorkerGroupNodes(String workerGroup) {
-        workerGroupLock.lock();
-        try {
-            if (StringUtils.isEmpty(workerGroup)) {
-                workerGroup = Constants.DEFAULT_WORKER_GROUP;
-            }
-            workerGroup = workerGroup.toLowerCase();
-            Set<String> nodes = workerGroupNodes.get(workerGroup);
-            if (CollectionUtils.isNotEmpty(nodes)) {
-                return Collections.unmodifiableSet(nodes);
-            }
-            return nodes;
-        } finally {
-            workerGroupLock.unlock();
+        if (StringUtils.isEmpty(workerGroup)) {
+            workerGroup = Constants.DEFAULT_WORKER_GROUP;
         }
+        return snapshot.getWorkerGroupNodes(workerGroup.toLowerCase());
     }
 
     /**
@@ -401,7 +423,7 @@ public class ServerNodeManager implements InitializingBean {
      * @return worker node info
      */
     public Map<String, String> getWorkerNodeInfo() {
-        return Collections.unmodifiableMap(workerNodeInfo);
+        return snapshot.getWorkerNodeInfo();
     }
 
     /**
@@ -411,39 +433,17 @@ public class ServerNodeManager implements InitializingBean {
      * @return worker node info
      */
     public String getWorkerNodeInfo(String workerNode) {
-        workerNodeInfoLock.lock();
-        try {
-            return workerNodeInfo.getOrDefault(workerNode, null);
-        } finally {
-            workerNodeInfoLock.unlock();
-        }
+        return snapshot.getWorkerNodeInfo(workerNode);
     }
 
     /**
-     * sync worker node info
+     * get the decoded heartbeat of the worker node
      *
-     * @param newWorkerNodeInfo new worker node info
-     */
-    private void syncAllWorkerNodeInfo(Map<String, String> newWorkerNodeInfo) {
-        workerNodeInfoLock.lock();
-        try {
-            workerNodeInfo.clear();
-            workerNodeInfo.putAll(newWorkerNodeInfo);
-        } finally {
-            workerNodeInfoLock.unlock();
-        }
-    }
-
-    /**
-     * sync single worker node info
+     * @param workerNode worker node
+     * @return heartbeat, null if the worker node has not reported a valid heartbeat
      */
-    private void syncSingleWorkerNodeInfo(String node, String info) {
-        workerNodeInfoLock.lock();
-        try {
-            workerNodeInfo.put(node, info);
-        } finally {
-            workerNodeInfoLock.unlock();
-        }
+    public HeartBeat getWorkerHeartBeat(String workerNode) {
+        return snapshot.getWorkerHeartBeat(workerNode);
     }
 
     /**
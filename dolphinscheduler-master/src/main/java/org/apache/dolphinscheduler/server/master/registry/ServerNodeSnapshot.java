@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.master.registry;
+
+import org.apache.dolphinscheduler.common.utils.HeartBeat;
+
+import org.apache.commons.lang.StringUtils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * immutable view of the master and worker nodes, a change builds a new snapshot with a greater version.
+ * worker heartbeats are decoded once when they change, readers never parse them.
+ */
+public final class ServerNodeSnapshot {
+
+    static final ServerNodeSnapshot EMPTY = new ServerNodeSnapshot(0, Collections.emptySet(), MasterSlotRing.EMPTY,
+            Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+
+    private final long version;
+
+    private final Set<String> masterNodes;
+
+    private final MasterSlotRing masterSlotRing;
+
+    /**
+     * worker group in lower case as key
+     */
+    private final Map<String, Set<String>> workerGroupNodes;
+
+    private final Map<String, String> workerNodeInfo;
+
+    private final Map<String, HeartBeat> workerHeartBeats;
+
+    private ServerNodeSnapshot(long version,
+                               Set<String> masterNodes,
+                               MasterSlotRing masterSlotRing,
+                               Map<String, Set<String>> workerGroupNodes,
+                               Map<String, String> workerNodeInfo,
+                               Map<String, HeartBeat> workerHeartBeats) {
+        this.version = version;
+        this.masterNodes = masterNodes;
+        this.masterSlotRing = masterSlotRing;
+        this.workerGroupNodes = workerGroupNodes;
+        this.workerNodeInfo = workerNodeInfo;
+        this.workerHeartBeats = workerHeartBeats;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Set<String> getMasterNodes() {
+        return masterNodes;
+    }
+
+    public MasterSlotRing getMasterSlotRing() {
+        return masterSlotRing;
+    }
+
+    public Map<String, Set<String>> getWorkerGroupNodes() {
+        return workerGroupNodes;
+    }
+
+    /**
+     * @param workerGroup worker group in lower case
+     * @return nodes of the worker group, null if the worker group is unknown
+     */
+    public Set<String> getWorkerGroupNodes(String workerGroup) {
+        return workerGroupNodes.get(workerGroup);
+    }
+
+    public Map<String, String> getWorkerNodeInfo() {
+        return workerNodeInfo;
+    }
+
+    public String getWorkerNodeInfo(String workerNode) {
+        return workerNodeInfo.get(workerNode);
+    }
+
+    public HeartBeat getWorkerHeartBeat(String workerNode) {
+        return workerHeartBeats.get(workerNode);
+    }
+
+    ServerNodeSnapshot withMasterNodes(Collection<String> nodes) {
+        Set<String> newMasterNodes = new HashSet<>(nodes);
+        if (newMasterNodes.equals(masterNodes)) {
+            return this;
+        }
+        return new ServerNodeSnapshot(version + 1, Collections.unmodifiableSet(newMasterNodes), MasterSlotRing.of(newMasterNodes),
+                workerGroupNodes, workerNodeInfo, workerHeartBeats);
+    }
+
+    ServerNodeSnapshot withWorkerGroupNodes(String workerGroup, Collection<String> nodes) {
+        Set<String> newNodes = new HashSet<>(nodes);
+        if (newNodes.equals(workerGroupNodes.get(workerGroup))) {
+            return this;
+        }
+        Map<String, Set<String>> newWorkerGroupNodes = new HashMap<>(workerGroupNodes);
+        newWorkerGroupNodes.put(workerGroup, Collections.unmodifiableSet(newNodes));
+        return new ServerNodeSnapshot(version + 1, masterNodes, masterSlotRing,
+                Collections.unmodifiableMap(newWorkerGroupNodes), workerNodeInfo, workerHeartBeats);
+    }
+
+    /**
+     * add the worker node to the worker group and update its heartbeat if the info is not empty
+     */
+    ServerNodeSnapshot withWorkerNode(String workerGroup, String workerNode, String info) {
+        ServerNodeSnapshot snapshot = this;
+        Set<String> nodes = workerGroupNodes.get(workerGroup);
+        if (nodes == null || !nodes.contains(workerNode)) {
+            Set<String> newNodes = nodes == null ? new HashSet<>() : new HashSet<>(nodes);
+            newNodes.add(workerNode);
+            snapshot = withWorkerGroupNodes(workerGroup, newNodes);
+        }
+        if (StringUtils.isNotEmpty(info)) {
+            snapshot = snapshot.withWorkerNodeInfo(workerNode, info);
+        }
+        return snapshot;
+    }
+
+    /**
+     * remove the worker node from the worker group, its heartbeat is dropped when no worker group contains it
+     */
+    ServerNodeSnapshot withoutWorkerNode(String workerGroup, String workerNode) {
+        Set<String> nodes = workerGroupNodes.get(workerGroup);
+        if (nodes == null || !nodes.contains(workerNode)) {
+            return this;
+        }
+        Set<String> newNodes = new HashSet<>(nodes);
+        newNodes.remove(workerNode);
+        ServerNodeSnapshot snapshot = withWorkerGroupNodes(workerGroup, newNodes);
+        for (Set<String> groupNodes : snapshot.workerGroupNodes.values()) {
+            if (groupNodes.contains(workerNode)) {
+                return snapshot;
+            }
+        }
+        if (!workerNodeInfo.containsKey(workerNode)) {
+            return snapshot;
+        }
+        Map<String, String> newWorkerNodeInfo = new HashMap<>(workerNodeInfo);
+        newWorkerNodeInfo.remove(workerNode);
+        Map<String, HeartBeat> newWorkerHeartBeats = new HashMap<>(workerHeartBeats);
+        newWorkerHeartBeats.remove(workerNode);
+        return new ServerNodeSnapshot(snapshot.version + 1, masterNodes, masterSlotRing, snapshot.workerGroupNodes,
+                Collections.unmodifiableMap(newWorkerNodeInfo), Collections.unmodifiableMap(newWorkerHeartBeats));
+    }
+
+    ServerNodeSnapshot withWorkerNodeInfo(String workerNode, String info) {
+        if (Objects.equals(info, workerNodeInfo.get(workerNode))) {
+            return this;
+        }
+        Map<String, String> newWorkerNodeInfo = new HashMap<>(workerNodeInfo);
+        newWorkerNodeInfo.put(workerNode, info);
+        Map<String, HeartBeat> newWorkerHeartBeats = new HashMap<>(workerHeartBeats);
+        putHeartBeat(newWorkerHeartBeats, workerNode, info);
+        return new ServerNodeSnapshot(version + 1, masterNodes, masterSlotRing, workerGroupNodes,
+                Collections.unmodifiableMap(newWorkerNodeInfo), Collections.unmodifiableMap(newWorkerHeartBeats));
+    }
+
+    /**
+     * replace the info of all the workers, heartbeats whose info is unchanged are not decoded again
+     */
+    ServerNodeSnapshot withAllWorkerNodeInfo(Map<String, String> allWorkerNodeInfo) {
+        if (allWorkerNodeInfo.equals(workerNodeInfo)) {
+            return this;
+        }
+        Map<String, HeartBeat> newWorkerHeartBeats = new HashMap<>();
+        for (Map.Entry<String, String> entry : allWorkerNodeInfo.entrySet()) {
+            String workerNode = entry.getKey();
+            if (workerHeartBeats.containsKey(workerNode) && Objects.equals(entry.getValue(), workerNodeInfo.get(workerNode))) {
+                newWorkerHeartBeats.put(workerNode, workerHeartBeats.get(workerNode));
+            } else {
+                putHeartBeat(newWorkerHeartBeats, workerNode, entry.getValue());
+            }
+        }
+        return new ServerNodeSnapshot(version + 1, masterNodes, masterSlotRing, workerGroupNodes,
+                Collections.unmodifiableMap(new HashMap<>(allWorkerNodeInfo)), Collections.unmodifiableMap(newWorkerHeartBeats));
+    }
+
+    private static void putHeartBeat(Map<String, HeartBeat> heartBeats, String workerNode, String info) {
+        HeartBeat heartBeat = null;
+        if (StringUtils.isNotEmpty(info)) {
+            try {
+                heartBeat = HeartBeat.decodeHeartBeat(info);
+            } catch (NumberFormatException e) {
+                // an invalid heartbeat is treated as a missing one
+            }
+        }
+        if (heartBeat == null) {
+            heartBeats.remove(workerNode);
+        } else {
+            heartBeats.put(workerNode, heartBeat);
+        }
+    }
+}
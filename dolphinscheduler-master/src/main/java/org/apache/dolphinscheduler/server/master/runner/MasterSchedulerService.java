@@ -26,9 +26,13 @@ import org.apache.dolphinscheduler.dao.entity.Command;
 import org.apache.dolphinscheduler.dao.entity.ProcessInstance;
 import org.apache.dolphinscheduler.remote.NettyRemotingClient;
 import org.apache.dolphinscheduler.remote.config.NettyClientConfig;
+import org.apache.dolphinscheduler.server.master.cache.ProcessDagCacheManager;
 import org.apache.dolphinscheduler.server.master.cache.ProcessInstanceExecCacheManager;
+import org.apache.dolphinscheduler.server.master.config.CommandFetchStrategy;
 import org.apache.dolphinscheduler.server.master.config.MasterConfig;
 import org.apache.dolphinscheduler.server.master.dispatch.executor.NettyExecutorManager;
+import org.apache.dolphinscheduler.server.master.metrics.MasterServerMetrics;
+import org.apache.dolphinscheduler.server.master.registry.MasterSlotRing;
 import org.apache.dolphinscheduler.server.master.registry.ServerNodeManager;
 import org.apache.dolphinscheduler.server.master.runner.task.TaskProcessorFactory;
 import org.apache.dolphinscheduler.service.alert.ProcessAlertManager;
@@ -37,10 +41,12 @@ import org.apache.dolphinscheduler.service.process.ProcessService;
 import org.apache.commons.collections4.CollectionUtils;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -89,6 +95,27 @@ public class MasterSchedulerService extends Thread {
      */
     private ThreadPoolExecutor masterPrepareExecService;
 
+    /**
+     * ids of the commands which are fetched and not handled yet, they are still in the command table
+     */
+    private final Set<Integer> handlingCommandIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * ids of the handled commands and the number of the last command scan started before their handle ended,
+     * a scan started earlier may have read them from the database before they were deleted
+     */
+    private final Map<Integer, Long> handledCommandIds = new ConcurrentHashMap<>();
+
+    /**
+     * number of the command scans started, only increased by the scheduler thread
+     */
+    private volatile long commandScanCount;
+
+    /**
+     * commands of the last fetch which were not handed over, they wait in the database for an idle handle slot
+     */
+    private volatile int waitingCommandCount;
+
     /**
      * workflow exec service
      */
@@ -101,11 +128,20 @@ public class MasterSchedulerService extends Thread {
     @Autowired
     private StateWheelExecuteThread stateWheelExecuteThread;
 
+    @Autowired
+    private ProcessDagCacheManager processDagCacheManager;
+
+    @Autowired
+    private ServerNodeManager serverNodeManager;
+
     /**
      * constructor of MasterSchedulerService
      */
     public void init() {
-        this.masterPrepareExecService = (ThreadPoolExecutor) ThreadUtils.newDaemonFixedThreadExecutor("Master-Pre-Exec-Thread", masterConfig.getPreExecThreads());
+        // the queue can hold all the handling commands, so that submitting never be rejected
+        this.masterPrepareExecService = ThreadUtils.newDaemonFixedThreadExecutor("Master-Pre-Exec-Thread", masterConfig.getPreExecThreads(), getHandleCapacity());
+        MasterServerMetrics.registerCommandPipelineQueueSizeGauge(MasterServerMetrics.COMMAND_STAGE_FETCH, () -> waitingCommandCount);
+        MasterServerMetrics.registerCommandPipelineQueueSizeGauge(MasterServerMetrics.COMMAND_STAGE_HANDLE, handlingCommandIds::size);
         NettyClientConfig clientConfig = new NettyClientConfig();
         this.nettyRemotingClient = new NettyRemotingClient(clientConfig);
     }
@@ -145,92 +181,124 @@ public class MasterSchedulerService extends Thread {
     /**
      * 1. get command by slot
      * 2. donot handle command if slot is empty
+     * 3. hand over each command to the prepare exec service, the workflow is started as soon as its process instance is created
      */
     private void scheduleProcess() throws Exception {
+        int idleCapacity = getHandleCapacity() - handlingCommandIds.size();
+        if (idleCapacity <= 0) {
+            // the handle stage is full, wait for the handling commands
+            Thread.sleep(Constants.SLEEP_TIME_MILLIS_SHORT);
+            return;
+        }
+
+        long fetchStartTime = System.nanoTime();
         List<Command> commands = findCommands();
+        MasterServerMetrics.commandFetchTimer().record(System.nanoTime() - fetchStartTime, TimeUnit.NANOSECONDS);
         if (CollectionUtils.isEmpty(commands)) {
+            waitingCommandCount = 0;
             //indicate that no command ,sleep for 1s
             Thread.sleep(Constants.SLEEP_TIME_MILLIS);
             return;
         }
 
-        List<ProcessInstance> processInstances = command2ProcessInstance(commands);
-        if (CollectionUtils.isEmpty(processInstances)) {
-            return;
-        }
-
-        for (ProcessInstance processInstance : processInstances) {
-            if (processInstance == null) {
+        int submittedCount = 0;
+        int waitingCount = 0;
+        for (Command command : commands) {
+            if (isFetched(command.getId())) {
                 continue;
             }
-
-            WorkflowExecuteThread workflowExecuteThread = new WorkflowExecuteThread(
-                    processInstance
-                    , processService
-                    , nettyExecutorManager
-                    , processAlertManager
-                    , masterConfig
-                    , stateWheelExecuteThread);
-
-            this.processInstanceExecCacheManager.cache(processInstance.getId(), workflowExecuteThread);
-            if (processInstance.getTimeout() > 0) {
-                stateWheelExecuteThread.addProcess4TimeoutCheck(processInstance);
+            if (submittedCount >= idleCapacity) {
+                waitingCount++;
+                continue;
             }
-            workflowExecuteThreadPool.startWorkflow(workflowExecuteThread);
+            handlingCommandIds.add(command.getId());
+            submittedCount++;
+            long submitTime = System.nanoTime();
+            this.masterPrepareExecService.execute(() -> handleCommand(command, submitTime));
+        }
+        waitingCommandCount = waitingCount;
+        if (submittedCount == 0) {
+            // all the found commands are being handled
+            Thread.sleep(Constants.SLEEP_TIME_MILLIS_SHORT);
         }
     }
 
-    private List<ProcessInstance> command2ProcessInstance(List<Command> commands) {
-        if (CollectionUtils.isEmpty(commands)) {
-            return null;
+    /**
+     * handle command to process instance, and start the workflow if the process instance is created
+     */
+    private void handleCommand(Command command, long submitTime) {
+        long handleStartTime = System.nanoTime();
+        MasterServerMetrics.commandHandleWaitTimer().record(handleStartTime - submitTime, TimeUnit.NANOSECONDS);
+        try {
+            // slot check again
+            if (!slotCheck(command)) {
+                return;
+            }
+            ProcessInstance processInstance = processService.handleCommand(logger,
+                    getLocalAddress(),
+                    command);
+            MasterServerMetrics.commandHandleTimer().record(System.nanoTime() - handleStartTime, TimeUnit.NANOSECONDS);
+            if (processInstance != null) {
+                logger.info("handle command command {} end, create process instance {}",
+                        command.getId(), processInstance.getId());
+                startWorkflow(processInstance);
+            }
+        } catch (Exception e) {
+            logger.error("scan command error ", e);
+            processService.moveToErrorCommand(command, e.toString());
+        } finally {
+            // keep the command away from the scans which might have read it before the handle ended
+            handledCommandIds.put(command.getId(), commandScanCount);
+            handlingCommandIds.remove(command.getId());
         }
+    }
 
-        ProcessInstance[] processInstances = new ProcessInstance[commands.size()];
-        CountDownLatch latch = new CountDownLatch(commands.size());
-        for (int i = 0; i < commands.size(); i++) {
-            int index = i;
-            this.masterPrepareExecService.execute(() -> {
-                Command command = commands.get(index);
-                // slot check again
-                if (!slotCheck(command)) {
-                    latch.countDown();
-                    return;
-                }
-
-                try {
-                    ProcessInstance processInstance = processService.handleCommand(logger,
-                            getLocalAddress(),
-                            command);
-                    if (processInstance != null) {
-                        processInstances[index] = processInstance;
-                        logger.info("handle command command {} end, create process instance {}",
-                                command.getId(), processInstance.getId());
-                    }
-                } catch (Exception e) {
-                    logger.error("scan command error ", e);
-                    processService.moveToErrorCommand(command, e.toString());
-                } finally {
-                    latch.countDown();
-                }
-            });
+    private void startWorkflow(ProcessInstance processInstance) {
+        WorkflowExecuteThread workflowExecuteThread = new WorkflowExecuteThread(
+                processInstance
+                , processService
+                , nettyExecutorManager
+                , processAlertManager
+                , masterConfig
+                , stateWheelExecuteThread
+                , processDagCacheManager);
+
+        this.processInstanceExecCacheManager.cache(processInstance.getId(), workflowExecuteThread);
+        if (processInstance.getTimeout() > 0) {
+            stateWheelExecuteThread.addProcess4TimeoutCheck(processInstance);
         }
+        workflowExecuteThreadPool.startWorkflow(workflowExecuteThread);
+    }
 
-        try {
-            // make sure to finish handling command each time before next scan
-            latch.await();
-        } catch (InterruptedException e) {
-            logger.error("countDownLatch await error ", e);
-        }
+    /**
+     * max number of commands waiting or being handled in the prepare exec service
+     */
+    private int getHandleCapacity() {
+        return masterConfig.getPreExecThreads() + masterConfig.getFetchCommandNum();
+    }
 
-        return Arrays.asList(processInstances);
+    /**
+     * whether the command is being handled, or is handled after the current command scan started
+     */
+    private boolean isFetched(int commandId) {
+        return handlingCommandIds.contains(commandId) || handledCommandIds.containsKey(commandId);
     }
 
     private List<Command> findCommands() {
+        long scanCount = ++commandScanCount;
+        // the commands handled before this scan started are deleted, this scan can not read them
+        handledCommandIds.values().removeIf(handledScanCount -> handledScanCount < scanCount);
+        if (masterConfig.getCommandFetchStrategy() == CommandFetchStrategy.CLAIM) {
+            return claimCommands();
+        }
         int pageNumber = 0;
         int pageSize = masterConfig.getFetchCommandNum();
         List<Command> result = new ArrayList<>();
+        String localAddress = getLocalAddress();
         while (Stopper.isRunning()) {
-            if (ServerNodeManager.MASTER_SIZE == 0) {
+            // one ring for the whole scan, a membership change is picked up by the next scan
+            MasterSlotRing masterSlotRing = serverNodeManager.getMasterSlotRing();
+            if (!masterSlotRing.contains(localAddress)) {
                 return result;
             }
             List<Command> commandList = processService.findCommandPage(pageSize, pageNumber);
@@ -238,12 +306,12 @@ public class MasterSchedulerService extends Thread {
                 return result;
             }
             for (Command command : commandList) {
-                if (slotCheck(command)) {
+                if (masterSlotRing.isOwner(localAddress, command.getId()) && !isFetched(command.getId())) {
                     result.add(command);
                 }
             }
             if (CollectionUtils.isNotEmpty(result)) {
-                logger.info("find {} commands, slot:{}", result.size(), ServerNodeManager.getSlot());
+                logger.info("find {} commands, masters:{}", result.size(), masterSlotRing.size());
                 break;
             }
             pageNumber += 1;
@@ -251,12 +319,25 @@ public class MasterSchedulerService extends Thread {
         return result;
     }
 
+    /**
+     * claim commands in the database, the fetch cost does not depend on the command backlog and master size
+     */
+    private List<Command> claimCommands() {
+        // the handling commands are still claimed by this master, claim new ones beyond them
+        List<Command> result = processService.claimCommands(getLocalAddress(), handlingCommandIds.size() + masterConfig.getFetchCommandNum());
+        result.removeIf(command -> isFetched(command.getId()));
+        if (CollectionUtils.isNotEmpty(result)) {
+            logger.info("claim {} commands, host:{}", result.size(), getLocalAddress());
+        }
+        return result;
+    }
+
     private boolean slotCheck(Command command) {
-        int slot = ServerNodeManager.getSlot();
-        if (ServerNodeManager.MASTER_SIZE != 0 && command.getId() % ServerNodeManager.MASTER_SIZE == slot) {
+        if (masterConfig.getCommandFetchStrategy() == CommandFetchStrategy.CLAIM) {
+            // claimed commands are owned by this master already
             return true;
         }
-        return false;
+        return serverNodeManager.getMasterSlotRing().isOwner(getLocalAddress(), command.getId());
     }
 
     private String getLocalAddress() {
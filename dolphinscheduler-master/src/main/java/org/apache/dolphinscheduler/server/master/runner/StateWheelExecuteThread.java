@@ -29,12 +29,15 @@ import org.apache.dolphinscheduler.dao.entity.TaskDefinition;
 import org.apache.dolphinscheduler.dao.entity.TaskInstance;
 import org.apache.dolphinscheduler.server.master.cache.ProcessInstanceExecCacheManager;
 import org.apache.dolphinscheduler.server.master.config.MasterConfig;
+import org.apache.dolphinscheduler.server.master.metrics.MasterServerMetrics;
+import org.apache.dolphinscheduler.server.master.runner.wheel.TimingWheel;
+import org.apache.dolphinscheduler.server.master.runner.wheel.TimingWheel.Timeout;
 
 import org.apache.hadoop.util.ThreadUtil;
 
-import java.util.Map.Entry;
+import java.util.Date;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,6 +47,9 @@ import org.springframework.stereotype.Component;
 /**
  * 1. timeout check wheel
  * 2. dependent task check wheel
+ *
+ * every check is scheduled in a timing wheel at the time it may take effect,
+ * so that each tick only touches the checks which are due.
  */
 @Component
 public class StateWheelExecuteThread extends Thread {
@@ -51,19 +57,40 @@ public class StateWheelExecuteThread extends Thread {
     private static final Logger logger = LoggerFactory.getLogger(StateWheelExecuteThread.class);
 
     /**
-     * process timeout check list
+     * tick of the timing wheel, the unit is millisecond
+     */
+    private static final long TICK_MILLIS = Constants.SLEEP_TIME_MILLIS_SHORT;
+
+    private static final int WHEEL_SIZE = 64;
+
+    private static final int WHEEL_LEVELS = 4;
+
+    /**
+     * returned by a check when it does not need to be checked any more
      */
-    private ConcurrentLinkedQueue<Integer> processInstanceTimeoutCheckList = new ConcurrentLinkedQueue<>();
+    private static final long NO_MORE_CHECK = -1L;
+
+    private final TimingWheel<CheckEntry> timingWheel = new TimingWheel<>(TICK_MILLIS, WHEEL_SIZE, WHEEL_LEVELS, System.currentTimeMillis());
+
+    /**
+     * process timeout check list, key is processInstanceId
+     */
+    private ConcurrentHashMap<Integer, Timeout<CheckEntry>> processInstanceTimeoutCheckList = new ConcurrentHashMap<>();
 
     /**
-     * task time out check list, key is taskInstanceId, value is processInstanceId
+     * task time out check list, key is taskInstanceId
      */
-    private ConcurrentHashMap<Integer, Integer> taskInstanceTimeoutCheckList = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<Integer, Timeout<CheckEntry>> taskInstanceTimeoutCheckList = new ConcurrentHashMap<>();
 
     /**
-     * task retry check list, key is taskInstanceId, value is processInstanceId
+     * task retry check list, key is taskInstanceId
      */
-    private ConcurrentHashMap<Integer, Integer> taskInstanceRetryCheckList = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<Integer, Timeout<CheckEntry>> taskInstanceRetryCheckList = new ConcurrentHashMap<>();
+
+    /**
+     * task dispatch check list, the tasks rejected by a full worker group queue, key is taskInstanceId
+     */
+    private ConcurrentHashMap<Integer, Timeout<CheckEntry>> taskInstanceDispatchCheckList = new ConcurrentHashMap<>();
 
     @Autowired
     private MasterConfig masterConfig;
@@ -76,24 +103,30 @@ public class StateWheelExecuteThread extends Thread {
 
     @Override
     public void run() {
+        MasterServerMetrics.registerStateWheelChecksGauge(() -> processInstanceTimeoutCheckList.size()
+                + taskInstanceTimeoutCheckList.size() + taskInstanceRetryCheckList.size() + taskInstanceDispatchCheckList.size());
         while (Stopper.isRunning()) {
+            long startTime = System.nanoTime();
             try {
-                checkTask4Timeout();
-                checkTask4Retry();
-                checkProcess4Timeout();
+                for (Timeout<CheckEntry> timeout : timingWheel.advance(System.currentTimeMillis())) {
+                    check(timeout);
+                }
             } catch (Exception e) {
                 logger.error("state wheel thread check error:", e);
             }
-            ThreadUtil.sleepAtLeastIgnoreInterrupts((long) masterConfig.getStateWheelInterval() * Constants.SLEEP_TIME_MILLIS);
+            MasterServerMetrics.stateWheelTickTimer().record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            ThreadUtil.sleepAtLeastIgnoreInterrupts(TICK_MILLIS);
         }
     }
 
     public void addProcess4TimeoutCheck(ProcessInstance processInstance) {
-        processInstanceTimeoutCheckList.add(processInstance.getId());
+        long timeoutSeconds = (long) processInstance.getTimeout() * Constants.SEC_2_MINUTES_TIME_UNIT;
+        addCheck(processInstanceTimeoutCheckList, new CheckEntry(CheckType.PROCESS_TIMEOUT, processInstance.getId(), 0),
+                getTimeoutCheckTime(processInstance.getStartTime(), timeoutSeconds));
     }
 
     public void removeProcess4TimeoutCheck(ProcessInstance processInstance) {
-        processInstanceTimeoutCheckList.remove(processInstance.getId());
+        removeCheck(processInstanceTimeoutCheckList, processInstance.getId());
     }
 
     public void addTask4TimeoutCheck(TaskInstance taskInstance) {
@@ -106,15 +139,14 @@ public class StateWheelExecuteThread extends Thread {
             return;
         }
         if (TimeoutFlag.OPEN == taskDefinition.getTimeoutFlag()) {
-            taskInstanceTimeoutCheckList.put(taskInstance.getId(), taskInstance.getProcessInstanceId());
-        }
-        if (taskInstance.isDependTask() || taskInstance.isSubProcess()) {
-            taskInstanceTimeoutCheckList.put(taskInstance.getId(), taskInstance.getProcessInstanceId());
+            long timeoutSeconds = (long) taskDefinition.getTimeout() * Constants.SEC_2_MINUTES_TIME_UNIT;
+            addCheck(taskInstanceTimeoutCheckList, new CheckEntry(CheckType.TASK_TIMEOUT, taskInstance.getProcessInstanceId(), taskInstance.getId()),
+                    getTimeoutCheckTime(taskInstance.getStartTime(), timeoutSeconds));
         }
     }
 
     public void removeTask4TimeoutCheck(TaskInstance taskInstance) {
-        taskInstanceTimeoutCheckList.remove(taskInstance.getId());
+        removeCheck(taskInstanceTimeoutCheckList, taskInstance.getId());
     }
 
     public void addTask4RetryCheck(TaskInstance taskInstance) {
@@ -126,101 +158,199 @@ public class StateWheelExecuteThread extends Thread {
             logger.error("taskDefinition is null, taskId:{}", taskInstance.getId());
             return;
         }
-        if (taskInstance.taskCanRetry()) {
-            taskInstanceRetryCheckList.put(taskInstance.getId(), taskInstance.getProcessInstanceId());
-        }
-
+        CheckEntry checkEntry = new CheckEntry(CheckType.TASK_RETRY, taskInstance.getProcessInstanceId(), taskInstance.getId());
         if (taskInstance.isDependTask() || taskInstance.isSubProcess()) {
-            taskInstanceRetryCheckList.put(taskInstance.getId(), taskInstance.getProcessInstanceId());
+            addCheck(taskInstanceRetryCheckList, checkEntry, getIntervalCheckTime());
+        } else if (taskInstance.taskCanRetry()) {
+            addCheck(taskInstanceRetryCheckList, checkEntry, getRetryCheckTime(taskInstance));
         }
     }
 
     public void removeTask4RetryCheck(TaskInstance taskInstance) {
-        taskInstanceRetryCheckList.remove(taskInstance.getId());
+        removeCheck(taskInstanceRetryCheckList, taskInstance.getId());
     }
 
-    private void checkTask4Timeout() {
-        if (taskInstanceTimeoutCheckList.isEmpty()) {
-            return;
+    /**
+     * run the processor of the task again after the check interval, to dispatch a task rejected by a full worker group queue
+     */
+    public void addTask4DispatchCheck(TaskInstance taskInstance) {
+        addCheck(taskInstanceDispatchCheckList, new CheckEntry(CheckType.TASK_DISPATCH, taskInstance.getProcessInstanceId(), taskInstance.getId()),
+                getIntervalCheckTime());
+    }
+
+    private void addCheck(ConcurrentHashMap<Integer, Timeout<CheckEntry>> checkList, CheckEntry checkEntry, long checkTime) {
+        checkList.computeIfAbsent(checkEntry.getKey(), key -> timingWheel.schedule(checkEntry, checkTime));
+    }
+
+    private void removeCheck(ConcurrentHashMap<Integer, Timeout<CheckEntry>> checkList, int key) {
+        Timeout<CheckEntry> timeout = checkList.remove(key);
+        if (timeout != null) {
+            timingWheel.cancel(timeout);
         }
-        for (Entry<Integer, Integer> entry : taskInstanceTimeoutCheckList.entrySet()) {
-            int processInstanceId = entry.getValue();
-            int taskInstanceId = entry.getKey();
+    }
 
-            WorkflowExecuteThread workflowExecuteThread = processInstanceExecCacheManager.getByProcessInstanceId(processInstanceId);
-            if (workflowExecuteThread == null) {
-                logger.warn("can not find workflowExecuteThread, this check event will remove, processInstanceId:{}, taskInstanceId:{}",
-                        processInstanceId, taskInstanceId);
-                taskInstanceTimeoutCheckList.remove(taskInstanceId);
-                continue;
-            }
-            TaskInstance taskInstance = workflowExecuteThread.getTaskInstance(taskInstanceId);
-            if (taskInstance == null) {
-                continue;
-            }
-            if (TimeoutFlag.OPEN == taskInstance.getTaskDefine().getTimeoutFlag()) {
-                long timeRemain = DateUtils.getRemainTime(taskInstance.getStartTime(), (long) taskInstance.getTaskDefine().getTimeout() * Constants.SEC_2_MINUTES_TIME_UNIT);
-                if (timeRemain < 0) {
-                    addTaskTimeoutEvent(taskInstance);
-                    taskInstanceTimeoutCheckList.remove(taskInstance.getId());
-                }
-            }
+    private ConcurrentHashMap<Integer, Timeout<CheckEntry>> getCheckList(CheckType checkType) {
+        switch (checkType) {
+            case PROCESS_TIMEOUT:
+                return processInstanceTimeoutCheckList;
+            case TASK_TIMEOUT:
+                return taskInstanceTimeoutCheckList;
+            case TASK_DISPATCH:
+                return taskInstanceDispatchCheckList;
+            default:
+                return taskInstanceRetryCheckList;
         }
     }
 
-    private void checkTask4Retry() {
-        if (taskInstanceRetryCheckList.isEmpty()) {
+    /**
+     * run the due check, and schedule it again if it needs to be checked later
+     */
+    private void check(Timeout<CheckEntry> timeout) {
+        CheckEntry checkEntry = timeout.getItem();
+        ConcurrentHashMap<Integer, Timeout<CheckEntry>> checkList = getCheckList(checkEntry.getType());
+        if (checkList.get(checkEntry.getKey()) != timeout) {
+            // removed or replaced after it is expired
             return;
         }
-        for (Entry<Integer, Integer> entry : taskInstanceRetryCheckList.entrySet()) {
-            int processInstanceId = entry.getValue();
-            int taskInstanceId = entry.getKey();
-
-            WorkflowExecuteThread workflowExecuteThread = processInstanceExecCacheManager.getByProcessInstanceId(processInstanceId);
-            if (workflowExecuteThread == null) {
-                logger.warn("can not find workflowExecuteThread, this check event will remove, processInstanceId:{}, taskInstanceId:{}",
-                        processInstanceId, taskInstanceId);
-                taskInstanceRetryCheckList.remove(taskInstanceId);
-                continue;
-            }
-            TaskInstance taskInstance = workflowExecuteThread.getTaskInstance(taskInstanceId);
-            if (taskInstance == null) {
-                continue;
+        long nextCheckTime;
+        try {
+            switch (checkEntry.getType()) {
+                case PROCESS_TIMEOUT:
+                    nextCheckTime = checkProcess4Timeout(checkEntry);
+                    break;
+                case TASK_TIMEOUT:
+                    nextCheckTime = checkTask4Timeout(checkEntry);
+                    break;
+                case TASK_DISPATCH:
+                    nextCheckTime = checkTask4Dispatch(checkEntry);
+                    break;
+                default:
+                    nextCheckTime = checkTask4Retry(checkEntry);
+                    break;
             }
+        } catch (Exception e) {
+            logger.error("state wheel check error, processInstanceId:{}, taskInstanceId:{}",
+                    checkEntry.getProcessInstanceId(), checkEntry.getTaskInstanceId(), e);
+            nextCheckTime = getIntervalCheckTime();
+        }
+        if (nextCheckTime == NO_MORE_CHECK) {
+            checkList.remove(checkEntry.getKey(), timeout);
+            return;
+        }
+        Timeout<CheckEntry> nextTimeout = timingWheel.schedule(checkEntry, nextCheckTime);
+        if (!checkList.replace(checkEntry.getKey(), timeout, nextTimeout)) {
+            timingWheel.cancel(nextTimeout);
+        }
+    }
 
-            if (!taskInstance.getState().typeIsFinished() && (taskInstance.isSubProcess() || taskInstance.isDependTask())) {
-                addTaskStateChangeEvent(taskInstance);
-            } else if (taskInstance.taskCanRetry() && taskInstance.retryTaskIntervalOverTime()) {
+    private long checkTask4Timeout(CheckEntry checkEntry) {
+        WorkflowExecuteThread workflowExecuteThread = getWorkflowExecuteThread(checkEntry);
+        if (workflowExecuteThread == null) {
+            return NO_MORE_CHECK;
+        }
+        TaskInstance taskInstance = workflowExecuteThread.getTaskInstance(checkEntry.getTaskInstanceId());
+        if (taskInstance == null) {
+            return getIntervalCheckTime();
+        }
+        if (TimeoutFlag.OPEN != taskInstance.getTaskDefine().getTimeoutFlag()) {
+            return NO_MORE_CHECK;
+        }
+        long timeoutSeconds = (long) taskInstance.getTaskDefine().getTimeout() * Constants.SEC_2_MINUTES_TIME_UNIT;
+        long timeRemain = DateUtils.getRemainTime(taskInstance.getStartTime(), timeoutSeconds);
+        if (timeRemain < 0) {
+            addTaskTimeoutEvent(taskInstance);
+            return NO_MORE_CHECK;
+        }
+        return getTimeoutCheckTime(taskInstance.getStartTime(), timeoutSeconds);
+    }
+
+    private long checkTask4Retry(CheckEntry checkEntry) {
+        WorkflowExecuteThread workflowExecuteThread = getWorkflowExecuteThread(checkEntry);
+        if (workflowExecuteThread == null) {
+            return NO_MORE_CHECK;
+        }
+        TaskInstance taskInstance = workflowExecuteThread.getTaskInstance(checkEntry.getTaskInstanceId());
+        if (taskInstance == null) {
+            return getIntervalCheckTime();
+        }
+        if (!taskInstance.getState().typeIsFinished() && (taskInstance.isSubProcess() || taskInstance.isDependTask())) {
+            addTaskStateChangeEvent(taskInstance);
+            return getIntervalCheckTime();
+        }
+        if (taskInstance.taskCanRetry()) {
+            if (taskInstance.retryTaskIntervalOverTime()) {
                 addTaskStateChangeEvent(taskInstance);
-                taskInstanceRetryCheckList.remove(taskInstance.getId());
+                return NO_MORE_CHECK;
             }
+            return getRetryCheckTime(taskInstance);
         }
+        return getIntervalCheckTime();
     }
 
-    private void checkProcess4Timeout() {
-        if (processInstanceTimeoutCheckList.isEmpty()) {
-            return;
+    private long checkTask4Dispatch(CheckEntry checkEntry) {
+        WorkflowExecuteThread workflowExecuteThread = getWorkflowExecuteThread(checkEntry);
+        if (workflowExecuteThread == null) {
+            return NO_MORE_CHECK;
         }
-        for (Integer processInstanceId : processInstanceTimeoutCheckList) {
-            if (processInstanceId == null) {
-                continue;
-            }
-            WorkflowExecuteThread workflowExecuteThread = processInstanceExecCacheManager.getByProcessInstanceId(processInstanceId);
-            if (workflowExecuteThread == null) {
-                logger.warn("can not find workflowExecuteThread, this check event will remove, processInstanceId:{}", processInstanceId);
-                processInstanceTimeoutCheckList.remove(processInstanceId);
-                continue;
-            }
-            ProcessInstance processInstance = workflowExecuteThread.getProcessInstance();
-            if (processInstance == null) {
-                continue;
-            }
-            long timeRemain = DateUtils.getRemainTime(processInstance.getStartTime(), (long) processInstance.getTimeout() * Constants.SEC_2_MINUTES_TIME_UNIT);
-            if (timeRemain < 0) {
-                addProcessTimeoutEvent(processInstance);
-                processInstanceTimeoutCheckList.remove(processInstance.getId());
-            }
+        TaskInstance taskInstance = workflowExecuteThread.getTaskInstance(checkEntry.getTaskInstanceId());
+        if (taskInstance == null) {
+            return getIntervalCheckTime();
+        }
+        // removed before the event, a dispatch rejected again schedules its own next check
+        taskInstanceDispatchCheckList.remove(checkEntry.getKey());
+        addTaskStateChangeEvent(taskInstance);
+        return NO_MORE_CHECK;
+    }
+
+    private long checkProcess4Timeout(CheckEntry checkEntry) {
+        WorkflowExecuteThread workflowExecuteThread = getWorkflowExecuteThread(checkEntry);
+        if (workflowExecuteThread == null) {
+            return NO_MORE_CHECK;
+        }
+        ProcessInstance processInstance = workflowExecuteThread.getProcessInstance();
+        if (processInstance == null) {
+            return getIntervalCheckTime();
+        }
+        long timeoutSeconds = (long) processInstance.getTimeout() * Constants.SEC_2_MINUTES_TIME_UNIT;
+        long timeRemain = DateUtils.getRemainTime(processInstance.getStartTime(), timeoutSeconds);
+        if (timeRemain < 0) {
+            addProcessTimeoutEvent(processInstance);
+            return NO_MORE_CHECK;
+        }
+        return getTimeoutCheckTime(processInstance.getStartTime(), timeoutSeconds);
+    }
+
+    private WorkflowExecuteThread getWorkflowExecuteThread(CheckEntry checkEntry) {
+        WorkflowExecuteThread workflowExecuteThread = processInstanceExecCacheManager.getByProcessInstanceId(checkEntry.getProcessInstanceId());
+        if (workflowExecuteThread == null) {
+            logger.warn("can not find workflowExecuteThread, this check event will remove, processInstanceId:{}, taskInstanceId:{}",
+                    checkEntry.getProcessInstanceId(), checkEntry.getTaskInstanceId());
+        }
+        return workflowExecuteThread;
+    }
+
+    /**
+     * the remain time is negative when more than timeoutSeconds whole seconds passed since the start time
+     */
+    private long getTimeoutCheckTime(Date startTime, long timeoutSeconds) {
+        if (startTime == null) {
+            return getIntervalCheckTime();
         }
+        return startTime.getTime() + (timeoutSeconds + 1) * Constants.SLEEP_TIME_MILLIS;
+    }
+
+    /**
+     * the retry interval is over time when more than retryInterval minutes passed since the end time
+     */
+    private long getRetryCheckTime(TaskInstance taskInstance) {
+        if (taskInstance.getEndTime() == null) {
+            return getIntervalCheckTime();
+        }
+        return taskInstance.getEndTime().getTime() + (long) taskInstance.getRetryInterval() * Constants.SEC_2_MINUTES_TIME_UNIT * Constants.SLEEP_TIME_MILLIS + 1;
+    }
+
+    private long getIntervalCheckTime() {
+        return System.currentTimeMillis() + (long) masterConfig.getStateWheelInterval() * Constants.SLEEP_TIME_MILLIS;
     }
 
     private void addTaskStateChangeEvent(TaskInstance taskInstance) {
@@ -247,4 +377,44 @@ public class StateWheelExecuteThread extends Thread {
         workflowExecuteThreadPool.submitStateEvent(stateEvent);
     }
 
+    private enum CheckType {
+        PROCESS_TIMEOUT,
+        TASK_TIMEOUT,
+        TASK_RETRY,
+        TASK_DISPATCH
+    }
+
+    private static final class CheckEntry {
+
+        private final CheckType type;
+
+        private final int processInstanceId;
+
+        private final int taskInstanceId;
+
+        private CheckEntry(CheckType type, int processInstanceId, int taskInstanceId) {
+            this.type = type;
+            this.processInstanceId = processInstanceId;
+            this.taskInstanceId = taskInstanceId;
+        }
+
+        public CheckType getType() {
+            return type;
+        }
+
+        public int getProcessInstanceId() {
+            return processInstanceId;
+        }
+
+        public int getTaskInstanceId() {
+            return taskInstanceId;
+        }
+
+        /**
+         * key in the check list
+         */
+        public int getKey() {
+            return type == CheckType.PROCESS_TIMEOUT ? processInstanceId : taskInstanceId;
+        }
+    }
 }
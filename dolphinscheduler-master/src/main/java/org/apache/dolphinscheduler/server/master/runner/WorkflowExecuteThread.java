@@ -51,16 +51,18 @@ import org.apache.dolphinscheduler.dao.entity.Command;
 import org.apache.dolphinscheduler.dao.entity.Environment;
 import org.apache.dolphinscheduler.dao.entity.ProcessDefinition;
 import org.apache.dolphinscheduler.dao.entity.ProcessInstance;
-import org.apache.dolphinscheduler.dao.entity.ProcessTaskRelation;
 import org.apache.dolphinscheduler.dao.entity.ProjectUser;
 import org.apache.dolphinscheduler.dao.entity.Schedule;
 import org.apache.dolphinscheduler.dao.entity.TaskDefinition;
-import org.apache.dolphinscheduler.dao.entity.TaskDefinitionLog;
 import org.apache.dolphinscheduler.dao.entity.TaskGroupQueue;
 import org.apache.dolphinscheduler.dao.entity.TaskInstance;
+import org.apache.dolphinscheduler.dao.utils.CompiledDag;
+import org.apache.dolphinscheduler.dao.utils.DagDependencyTracker;
 import org.apache.dolphinscheduler.dao.utils.DagHelper;
 import org.apache.dolphinscheduler.remote.command.HostUpdateCommand;
 import org.apache.dolphinscheduler.remote.utils.Host;
+import org.apache.dolphinscheduler.server.master.cache.CachedProcessDag;
+import org.apache.dolphinscheduler.server.master.cache.ProcessDagCacheManager;
 import org.apache.dolphinscheduler.server.master.config.MasterConfig;
 import org.apache.dolphinscheduler.server.master.dispatch.executor.NettyExecutorManager;
 import org.apache.dolphinscheduler.server.master.runner.task.ITaskProcessor;
@@ -76,7 +78,6 @@ import org.apache.commons.lang.StringUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -87,6 +88,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -123,6 +125,11 @@ public class WorkflowExecuteThread {
      */
     private NettyExecutorManager nettyExecutorManager;
 
+    /**
+     * cache of the process dag, null to load the dag of every instance from the database
+     */
+    private ProcessDagCacheManager processDagCacheManager;
+
     /**
      * process instance
      */
@@ -138,6 +145,16 @@ public class WorkflowExecuteThread {
      */
     private DAG<String, TaskNode, TaskNodeRelation> dag;
 
+    /**
+     * index based form of the dag
+     */
+    private CompiledDag compiledDag;
+
+    /**
+     * remaining dependencies of the task nodes in this run
+     */
+    private DagDependencyTracker dependencyTracker;
+
     /**
      * key of workflow
      */
@@ -146,7 +163,7 @@ public class WorkflowExecuteThread {
     /**
      * start flag, true: start nodes submit completely
      */
-    private boolean isStart = false;
+    private volatile boolean isStart = false;
 
     /**
      * submit failure nodes
@@ -203,6 +220,16 @@ public class WorkflowExecuteThread {
      */
     private ConcurrentLinkedQueue<StateEvent> stateEvents = new ConcurrentLinkedQueue<>();
 
+    /**
+     * true while this workflow is queued or running on the event executor, at most one handling at a time
+     */
+    private final AtomicBoolean eventScheduled = new AtomicBoolean(false);
+
+    /**
+     * puts this workflow on the event ready queue, invoked only by the caller who set eventScheduled
+     */
+    private volatile Consumer<WorkflowExecuteThread> eventScheduler;
+
     /**
      * ready to submit task queue
      */
@@ -229,6 +256,28 @@ public class WorkflowExecuteThread {
             , ProcessAlertManager processAlertManager
             , MasterConfig masterConfig
             , StateWheelExecuteThread stateWheelExecuteThread) {
+        this(processInstance, processService, nettyExecutorManager, processAlertManager, masterConfig, stateWheelExecuteThread, null);
+    }
+
+    /**
+     * constructor of WorkflowExecuteThread
+     *
+     * @param processInstance processInstance
+     * @param processService processService
+     * @param nettyExecutorManager nettyExecutorManager
+     * @param processAlertManager processAlertManager
+     * @param masterConfig masterConfig
+     * @param stateWheelExecuteThread stateWheelExecuteThread
+     * @param processDagCacheManager processDagCacheManager
+     */
+    public WorkflowExecuteThread(ProcessInstance processInstance
+            , ProcessService processService
+            , NettyExecutorManager nettyExecutorManager
+            , ProcessAlertManager processAlertManager
+            , MasterConfig masterConfig
+            , StateWheelExecuteThread stateWheelExecuteThread
+            , ProcessDagCacheManager processDagCacheManager) {
+        this.processDagCacheManager = processDagCacheManager;
         this.processService = processService;
         this.processInstance = processInstance;
         this.masterConfig = masterConfig;
@@ -282,9 +331,42 @@ public class WorkflowExecuteThread {
             return false;
         }
         this.stateEvents.add(stateEvent);
+        scheduleEvents();
         return true;
     }
 
+    public void setEventScheduler(Consumer<WorkflowExecuteThread> eventScheduler) {
+        this.eventScheduler = eventScheduler;
+    }
+
+    /**
+     * put this workflow on the event ready queue if it has pending events and is not queued or running yet,
+     * an idle workflow is never visited
+     */
+    public void scheduleEvents() {
+        Consumer<WorkflowExecuteThread> scheduler = this.eventScheduler;
+        if (scheduler == null || !isStart || this.stateEvents.isEmpty()) {
+            return;
+        }
+        if (!eventScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            scheduler.accept(this);
+        } catch (Exception e) {
+            eventScheduled.set(false);
+            logger.error("schedule events of process instance {} error", processInstance.getId(), e);
+        }
+    }
+
+    /**
+     * release the schedule flag after handleEvents, and schedule again if events arrived in the meantime
+     */
+    public void eventsHandled() {
+        eventScheduled.set(false);
+        scheduleEvents();
+    }
+
     public int eventSize() {
         return this.stateEvents.size();
     }
@@ -443,7 +525,7 @@ public class WorkflowExecuteThread {
             return;
         }
 
-        completeTaskMap.put(Long.toString(task.getTaskCode()), task.getId());
+        completeTask(task);
         activeTaskProcessorMaps.remove(task.getId());
         stateWheelExecuteThread.removeTask4TimeoutCheck(task);
         stateWheelExecuteThread.removeTask4RetryCheck(task);
@@ -714,21 +796,23 @@ public class WorkflowExecuteThread {
 
         List<TaskInstance> recoverNodeList = getStartTaskInstanceList(processInstance.getCommandParam());
 
-        List<ProcessTaskRelation> processTaskRelations = processService.findRelationByCode(processDefinition.getProjectCode(), processDefinition.getCode());
-        List<TaskDefinitionLog> taskDefinitionLogs = processService.getTaskDefineLogListByRelation(processTaskRelations);
-        List<TaskNode> taskNodeList = processService.transformTask(processTaskRelations, taskDefinitionLogs);
+        CachedProcessDag cachedProcessDag = processDagCacheManager == null
+                ? CachedProcessDag.load(processService, processDefinition)
+                : processDagCacheManager.getProcessDag(processDefinition);
         forbiddenTaskMap.clear();
-
-        taskNodeList.forEach(taskNode -> {
-            if (taskNode.isForbidden()) {
-                forbiddenTaskMap.put(Long.toString(taskNode.getCode()), taskNode);
-            }
-        });
+        forbiddenTaskMap.putAll(cachedProcessDag.getForbiddenTaskMap());
 
         // generate process to get DAG info
         List<String> recoveryNodeCodeList = getRecoveryNodeCodeList(recoverNodeList);
         List<String> startNodeNameList = parseStartNodeName(processInstance.getCommandParam());
-        ProcessDag processDag = generateFlowDag(taskNodeList,
+        if (cachedProcessDag.getDag() != null
+                && cachedProcessDag.isWholeProcess(startNodeNameList, recoveryNodeCodeList, processInstance.getTaskDependType())) {
+            // the whole process runs, share the dag of the process definition version
+            dag = cachedProcessDag.getDag();
+            compiledDag = cachedProcessDag.getCompiledDag();
+            return;
+        }
+        ProcessDag processDag = generateFlowDag(cachedProcessDag.getTaskNodeList(),
                 startNodeNameList, recoveryNodeCodeList, processInstance.getTaskDependType());
         if (processDag == null) {
             logger.error("processDag is null");
@@ -736,6 +820,7 @@ public class WorkflowExecuteThread {
         }
         // generate process dag
         dag = DagHelper.buildDagGraph(processDag);
+        compiledDag = CompiledDag.compile(dag);
     }
 
     /**
@@ -748,6 +833,7 @@ public class WorkflowExecuteThread {
         dependFailedTaskMap.clear();
         completeTaskMap.clear();
         errorTaskMap.clear();
+        dependencyTracker = new DagDependencyTracker(compiledDag, taskInstanceMap::get, skipTaskNodeMap);
 
         if (!isNewProcessInstance()) {
             List<TaskInstance> validTaskInstanceList = processService.findValidTaskListByProcessId(processInstance.getId());
@@ -756,7 +842,7 @@ public class WorkflowExecuteThread {
                 taskInstanceMap.put(task.getId(), task);
 
                 if (task.isTaskComplete()) {
-                    completeTaskMap.put(Long.toString(task.getTaskCode()), task.getId());
+                    completeTask(task);
                 }
                 if (task.isConditionsTask() || DagHelper.haveConditionsAfterNode(Long.toString(task.getTaskCode()), dag)) {
                     continue;
@@ -1014,15 +1100,11 @@ public class WorkflowExecuteThread {
     }
 
     /**
-     * get complete task instance map, taskCode as key
+     * put the task into the complete task map, its post nodes stop waiting for it
      */
-    private Map<String, TaskInstance> getCompleteTaskInstanceMap() {
-        Map<String, TaskInstance> completeTaskInstanceMap = new HashMap<>();
-        for (Integer taskInstanceId : completeTaskMap.values()) {
-            TaskInstance taskInstance = taskInstanceMap.get(taskInstanceId);
-            completeTaskInstanceMap.put(Long.toString(taskInstance.getTaskCode()), taskInstance);
-        }
-        return completeTaskInstanceMap;
+    private void completeTask(TaskInstance task) {
+        completeTaskMap.put(Long.toString(task.getTaskCode()), task.getId());
+        dependencyTracker.complete(Long.toString(task.getTaskCode()), task.getId());
     }
 
     /**
@@ -1037,10 +1119,10 @@ public class WorkflowExecuteThread {
     }
 
     private void submitPostNode(String parentNodeCode) {
-        Set<String> submitTaskNodeList = DagHelper.parsePostNodes(parentNodeCode, skipTaskNodeMap, dag, getCompleteTaskInstanceMap());
+        Set<String> submitTaskNodeList = dependencyTracker.parsePostNodes(parentNodeCode);
         List<TaskInstance> taskInstances = new ArrayList<>();
         for (String taskNode : submitTaskNodeList) {
-            TaskNode taskNodeObject = dag.getNode(taskNode);
+            TaskNode taskNodeObject = compiledDag.getNode(taskNode);
             if (checkTaskInstanceByCode(taskNodeObject.getCode())) {
                 continue;
             }
@@ -1077,15 +1159,14 @@ public class WorkflowExecuteThread {
      */
     private DependResult isTaskDepsComplete(String taskCode) {
 
-        Collection<String> startNodes = dag.getBeginNode();
         // if vertex,returns true directly
-        if (startNodes.contains(taskCode)) {
+        if (compiledDag.isBeginNode(taskCode)) {
             return DependResult.SUCCESS;
         }
-        TaskNode taskNode = dag.getNode(taskCode);
+        TaskNode taskNode = compiledDag.getNode(taskCode);
         List<String> depCodeList = taskNode.getDepList();
         for (String depsNode : depCodeList) {
-            if (!dag.containsNode(depsNode)
+            if (!compiledDag.containsNode(depsNode)
                     || forbiddenTaskMap.containsKey(depsNode)
                     || skipTaskNodeMap.containsKey(depsNode)) {
                 continue;
@@ -1115,9 +1196,9 @@ public class WorkflowExecuteThread {
      * depend node is completed, but here need check the condition task branch is the next node
      */
     private boolean dependTaskSuccess(String dependNodeName, String nextNodeName) {
-        if (dag.getNode(dependNodeName).isConditionsTask()) {
+        if (compiledDag.getNode(dependNodeName).isConditionsTask()) {
             //condition task need check the branch to run
-            List<String> nextTaskList = DagHelper.parseConditionTask(dependNodeName, skipTaskNodeMap, dag, getCompleteTaskInstanceMap());
+            List<String> nextTaskList = dependencyTracker.parseConditionTask(dependNodeName);
             if (!nextTaskList.contains(nextNodeName)) {
                 return false;
             }
@@ -1441,8 +1522,8 @@ public class WorkflowExecuteThread {
                         task.setState(retryTask.getState());
                         logger.info("task: {} has been forced success, put it into complete task list and stop retrying", task.getName());
                         removeTaskFromStandbyList(task);
-                        completeTaskMap.put(Long.toString(task.getTaskCode()), task.getId());
                         taskInstanceMap.put(task.getId(), task);
+                        completeTask(task);
                         submitPostNode(Long.toString(task.getTaskCode()));
                         continue;
                     }
@@ -28,12 +28,14 @@ import org.apache.dolphinscheduler.remote.command.StateEventChangeCommand;
 import org.apache.dolphinscheduler.remote.processor.StateEventCallbackService;
 import org.apache.dolphinscheduler.server.master.cache.ProcessInstanceExecCacheManager;
 import org.apache.dolphinscheduler.server.master.config.MasterConfig;
+import org.apache.dolphinscheduler.server.master.metrics.MasterServerMetrics;
 import org.apache.dolphinscheduler.service.process.ProcessService;
 
 import org.apache.commons.lang.StringUtils;
 
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.PostConstruct;
 
@@ -63,9 +65,9 @@ public class WorkflowExecuteThreadPool extends ThreadPoolTaskExecutor {
     private StateEventCallbackService stateEventCallbackService;
 
     /**
-     * multi-thread filter, avoid handling workflow at the same time
+     * number of workflows submitted to start but not started yet
      */
-    private ConcurrentHashMap<String, WorkflowExecuteThread> multiThreadFilterMap = new ConcurrentHashMap();
+    private final AtomicInteger startingWorkflowCount = new AtomicInteger();
 
     @PostConstruct
     private void init() {
@@ -73,6 +75,19 @@ public class WorkflowExecuteThreadPool extends ThreadPoolTaskExecutor {
         this.setThreadNamePrefix("Workflow-Execute-Thread-");
         this.setMaxPoolSize(masterConfig.getExecThreads());
         this.setCorePoolSize(masterConfig.getExecThreads());
+        MasterServerMetrics.registerCommandPipelineQueueSizeGauge(MasterServerMetrics.COMMAND_STAGE_START, startingWorkflowCount::get);
+        MasterServerMetrics.registerWorkflowEventGauges(this::getPendingEventCount, () -> getThreadPoolExecutor().getQueue().size());
+    }
+
+    /**
+     * state events not handled yet, only counted when the gauge is read
+     */
+    private int getPendingEventCount() {
+        int pendingEvents = 0;
+        for (WorkflowExecuteThread workflowExecuteThread : processInstanceExecCacheManager.getAll()) {
+            pendingEvents += workflowExecuteThread.eventSize();
+        }
+        return pendingEvents;
     }
 
     /**
@@ -91,29 +106,30 @@ public class WorkflowExecuteThreadPool extends ThreadPoolTaskExecutor {
      * start workflow
      */
     public void startWorkflow(WorkflowExecuteThread workflowExecuteThread) {
-        submit(workflowExecuteThread::startProcess);
+        startingWorkflowCount.incrementAndGet();
+        long submitTime = System.nanoTime();
+        workflowExecuteThread.setEventScheduler(this::executeEvent);
+        submit(() -> {
+            startingWorkflowCount.decrementAndGet();
+            MasterServerMetrics.commandStartTimer().record(System.nanoTime() - submitTime, TimeUnit.NANOSECONDS);
+            workflowExecuteThread.startProcess();
+            // events which arrived before the start nodes were submitted
+            workflowExecuteThread.scheduleEvents();
+        });
     }
 
     /**
-     * execute workflow
+     * handle the pending events of a workflow, called by the workflow once its schedule flag is set,
+     * so a workflow is never handled by two threads at the same time
      */
-    public void executeEvent(WorkflowExecuteThread workflowExecuteThread) {
-        if (!workflowExecuteThread.isStart() || workflowExecuteThread.eventSize() == 0) {
-            return;
-        }
-        if (multiThreadFilterMap.containsKey(workflowExecuteThread.getKey())) {
-            return;
-        }
+    private void executeEvent(WorkflowExecuteThread workflowExecuteThread) {
         int processInstanceId = workflowExecuteThread.getProcessInstance().getId();
-        ListenableFuture future = this.submitListenable(() -> {
-            workflowExecuteThread.handleEvents();
-            multiThreadFilterMap.put(workflowExecuteThread.getKey(), workflowExecuteThread);
-        });
+        ListenableFuture future = this.submitListenable(workflowExecuteThread::handleEvents);
         future.addCallback(new ListenableFutureCallback() {
             @Override
             public void onFailure(Throwable ex) {
                 logger.error("handle events {} failed", processInstanceId, ex);
-                multiThreadFilterMap.remove(workflowExecuteThread.getKey());
+                workflowExecuteThread.eventsHandled();
             }
 
             @Override
@@ -123,7 +139,7 @@ public class WorkflowExecuteThreadPool extends ThreadPoolTaskExecutor {
                     notifyProcessChanged(workflowExecuteThread.getProcessInstance());
                     logger.info("process instance {} finished.", processInstanceId);
                 }
-                multiThreadFilterMap.remove(workflowExecuteThread.getKey());
+                workflowExecuteThread.eventsHandled();
             }
         });
     }
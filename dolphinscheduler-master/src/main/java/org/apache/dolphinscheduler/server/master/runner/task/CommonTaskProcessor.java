@@ -28,25 +28,33 @@ import org.apache.dolphinscheduler.server.master.dispatch.context.ExecutionConte
 import org.apache.dolphinscheduler.server.master.dispatch.enums.ExecutorType;
 import org.apache.dolphinscheduler.server.master.dispatch.exceptions.ExecuteException;
 import org.apache.dolphinscheduler.server.master.dispatch.executor.NettyExecutorManager;
+import org.apache.dolphinscheduler.server.master.runner.StateWheelExecuteThread;
 import org.apache.dolphinscheduler.service.bean.SpringApplicationContext;
 import org.apache.dolphinscheduler.service.queue.TaskPriority;
-import org.apache.dolphinscheduler.service.queue.TaskPriorityQueue;
-import org.apache.dolphinscheduler.service.queue.TaskPriorityQueueImpl;
+import org.apache.dolphinscheduler.service.queue.WorkerGroupTaskPriorityQueue;
 import org.apache.dolphinscheduler.service.queue.entity.TaskExecutionContext;
 
 import org.apache.commons.lang.StringUtils;
 
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 /**
  * common task processor
  */
 public class CommonTaskProcessor extends BaseTaskProcessor {
 
-    private TaskPriorityQueue taskUpdateQueue;
+    private WorkerGroupTaskPriorityQueue taskUpdateQueue;
 
     private NettyExecutorManager nettyExecutorManager = SpringApplicationContext.getBean(NettyExecutorManager.class);
 
+    private StateWheelExecuteThread stateWheelExecuteThread = SpringApplicationContext.getBean(StateWheelExecuteThread.class);
+
+    /**
+     * the worker group queue was full when the task was dispatched, it is dispatched again on the next run
+     */
+    private boolean dispatchRejected;
+
     @Override
     public boolean submit(TaskInstance task, ProcessInstance processInstance, int maxRetryTimes, int commitInterval, boolean isTaskLogger) {
         this.processInstance = processInstance;
@@ -84,6 +92,9 @@ public class CommonTaskProcessor extends BaseTaskProcessor {
 
     @Override
     public void run() {
+        if (dispatchRejected) {
+            dispatchTask(taskInstance, processInstance);
+        }
     }
 
     @Override
@@ -122,14 +133,21 @@ public class CommonTaskProcessor extends BaseTaskProcessor {
             }
             logger.info("task ready to submit: {}", taskInstance);
 
+            // tasks are queued per worker group, a full worker group queue does not hold the workflow thread back
             TaskPriority taskPriority = new TaskPriority(processInstance.getProcessInstancePriority().getCode(),
                     processInstance.getId(), taskInstance.getProcessInstancePriority().getCode(),
-                    taskInstance.getId(), org.apache.dolphinscheduler.common.Constants.DEFAULT_WORKER_GROUP);
+                    taskInstance.getId(), taskInstance.getWorkerGroup());
 
             TaskExecutionContext taskExecutionContext = getTaskExecutionContext(taskInstance);
             taskPriority.setTaskExecutionContext(taskExecutionContext);
 
-            taskUpdateQueue.put(taskPriority);
+            dispatchRejected = !taskUpdateQueue.offer(taskPriority, 0, TimeUnit.MILLISECONDS);
+            if (dispatchRejected) {
+                // the state wheel runs this processor again after the check interval
+                logger.warn("task queue of worker group {} is full, dispatch task {} later", taskInstance.getWorkerGroup(), taskInstance.getName());
+                stateWheelExecuteThread.addTask4DispatchCheck(taskInstance);
+                return false;
+            }
             logger.info(String.format("master submit success, task : %s", taskInstance.getName()));
             return true;
         } catch (Exception e) {
@@ -140,7 +158,7 @@ public class CommonTaskProcessor extends BaseTaskProcessor {
     }
 
     public void initQueue() {
-        this.taskUpdateQueue = SpringApplicationContext.getBean(TaskPriorityQueueImpl.class);
+        this.taskUpdateQueue = SpringApplicationContext.getBean(WorkerGroupTaskPriorityQueue.class);
     }
 
     @Override
@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.master.runner.wheel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * hierarchical timing wheel, timeouts are ordered by their deadline,
+ * advancing the wheel only touches the timeouts which are due or cascaded from the upper levels.
+ *
+ * the level 0 wheel has {@code wheelSize} slots of one tick, the level n wheel has {@code wheelSize} slots of
+ * {@code wheelSize ^ n} ticks. a timeout whose deadline is beyond the top level is parked at the farthest slot
+ * and placed again when it is reached.
+ *
+ * @param <T> item type
+ */
+public class TimingWheel<T> {
+
+    private final long tickMillis;
+
+    private final int wheelBits;
+
+    private final long wheelMask;
+
+    private final int levels;
+
+    private final long maxSpanTicks;
+
+    private final Bucket<T>[][] buckets;
+
+    /**
+     * the last tick which has been processed
+     */
+    private long currentTick;
+
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tick millis must be positive: " + tickMillis);
+        }
+        if (wheelSize < 2 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheel size must be a power of two: " + wheelSize);
+        }
+        int bits = Integer.numberOfTrailingZeros(wheelSize);
+        if (levels <= 0 || bits * levels >= Long.SIZE - 2) {
+            throw new IllegalArgumentException("invalid wheel levels: " + levels);
+        }
+        this.tickMillis = tickMillis;
+        this.wheelBits = bits;
+        this.wheelMask = wheelSize - 1;
+        this.levels = levels;
+        this.maxSpanTicks = 1L << (bits * levels);
+        this.buckets = new Bucket[levels][wheelSize];
+        for (int level = 0; level < levels; level++) {
+            for (int slot = 0; slot < wheelSize; slot++) {
+                buckets[level][slot] = new Bucket<>();
+            }
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * schedule an item which expires at the deadline, a deadline in the past expires on the next tick
+     *
+     * @param item item
+     * @param deadlineMillis deadline, the unit is millisecond
+     * @return timeout which can be cancelled
+     */
+    public synchronized Timeout<T> schedule(T item, long deadlineMillis) {
+        long deadlineTick = Math.max(ceilDiv(deadlineMillis, tickMillis), currentTick + 1);
+        Timeout<T> timeout = new Timeout<>(item, deadlineTick);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * cancel the timeout
+     *
+     * @param timeout timeout
+     * @return false if the timeout is expired or cancelled already
+     */
+    public synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout == null || timeout.bucket == null) {
+            return false;
+        }
+        timeout.bucket.remove(timeout);
+        size--;
+        return true;
+    }
+
+    /**
+     * advance the wheel to the given time
+     *
+     * @param nowMillis now, the unit is millisecond
+     * @return the expired timeouts, ordered by deadline
+     */
+    public synchronized List<Timeout<T>> advance(long nowMillis) {
+        long nowTick = nowMillis / tickMillis;
+        List<Timeout<T>> expired = new ArrayList<>();
+        while (currentTick < nowTick) {
+            if (size == 0) {
+                currentTick = nowTick;
+                break;
+            }
+            currentTick++;
+            cascade();
+            Bucket<T> bucket = buckets[0][(int) (currentTick & wheelMask)];
+            Timeout<T> timeout;
+            while ((timeout = bucket.poll()) != null) {
+                if (timeout.deadlineTick > currentTick) {
+                    // parked timeout beyond the top level
+                    place(timeout);
+                    continue;
+                }
+                size--;
+                expired.add(timeout);
+            }
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * move the timeouts of the upper level slots which start at the current tick to the lower levels
+     */
+    private void cascade() {
+        for (int level = 1; level < levels; level++) {
+            int shift = wheelBits * level;
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+                break;
+            }
+            Bucket<T> bucket = buckets[level][(int) ((currentTick >>> shift) & wheelMask)];
+            Timeout<T> timeout;
+            while ((timeout = bucket.poll()) != null) {
+                place(timeout);
+            }
+        }
+    }
+
+    private void place(Timeout<T> timeout) {
+        long ticks = Math.min(timeout.deadlineTick - currentTick, maxSpanTicks - 1);
+        int level = 0;
+        while (level < levels - 1 && ticks >= (1L << (wheelBits * (level + 1)))) {
+            level++;
+        }
+        long placeTick = currentTick + ticks;
+        buckets[level][(int) ((placeTick >>> (wheelBits * level)) & wheelMask)].add(timeout);
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+
+    /**
+     * handle of a scheduled item
+     *
+     * @param <T> item type
+     */
+    public static final class Timeout<T> {
+
+        private final T item;
+
+        private final long deadlineTick;
+
+        private Bucket<T> bucket;
+
+        private Timeout<T> prev;
+
+        private Timeout<T> next;
+
+        private Timeout(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T getItem() {
+            return item;
+        }
+    }
+
+    /**
+     * doubly linked list of timeouts, so that cancel is O(1)
+     */
+    private static final class Bucket<T> {
+
+        private Timeout<T> head;
+
+        private Timeout<T> tail;
+
+        private void add(Timeout<T> timeout) {
+            timeout.bucket = this;
+            timeout.prev = tail;
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        private void remove(Timeout<T> timeout) {
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.prev;
+            } else {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        private Timeout<T> poll() {
+            Timeout<T> timeout = head;
+            if (timeout != null) {
+                remove(timeout);
+            }
+            return timeout;
+        }
+    }
+}
@@ -28,6 +28,8 @@ import org.apache.dolphinscheduler.common.enums.CommandType;
 import org.apache.dolphinscheduler.common.enums.ExecutionStatus;
 import org.apache.dolphinscheduler.common.enums.Flag;
 import org.apache.dolphinscheduler.common.enums.ProcessExecutionTypeEnum;
+import org.apache.dolphinscheduler.common.enums.StateEvent;
+import org.apache.dolphinscheduler.common.enums.StateEventType;
 import org.apache.dolphinscheduler.common.graph.DAG;
 import org.apache.dolphinscheduler.common.utils.DateUtils;
 import org.apache.dolphinscheduler.common.utils.JSONUtils;
@@ -53,6 +55,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -249,6 +252,39 @@ public class WorkflowExecuteThreadTest {
         }
     }
 
+    @Test
+    public void testScheduleEventsOnce() throws Exception {
+        Mockito.when(processInstance.getId()).thenReturn(225);
+        AtomicInteger scheduled = new AtomicInteger();
+        workflowExecuteThread.setEventScheduler(workflow -> scheduled.incrementAndGet());
+
+        // not started yet, events are kept until start
+        workflowExecuteThread.addStateEvent(newStateEvent(225));
+        Assert.assertEquals(0, scheduled.get());
+
+        Field isStart = WorkflowExecuteThread.class.getDeclaredField("isStart");
+        isStart.setAccessible(true);
+        isStart.set(workflowExecuteThread, true);
+        workflowExecuteThread.scheduleEvents();
+        workflowExecuteThread.addStateEvent(newStateEvent(225));
+        workflowExecuteThread.addStateEvent(newStateEvent(225));
+        Assert.assertEquals(1, scheduled.get());
+
+        // events are still pending after handling, so the workflow is scheduled again
+        workflowExecuteThread.eventsHandled();
+        Assert.assertEquals(2, scheduled.get());
+
+        Assert.assertFalse(workflowExecuteThread.addStateEvent(newStateEvent(1)));
+        Assert.assertEquals(2, scheduled.get());
+    }
+
+    private StateEvent newStateEvent(int processInstanceId) {
+        StateEvent stateEvent = new StateEvent();
+        stateEvent.setProcessInstanceId(processInstanceId);
+        stateEvent.setType(StateEventType.TASK_STATE_CHANGE);
+        return stateEvent;
+    }
+
     private List<Schedule> zeroSchedulerList() {
         return Collections.emptyList();
     }
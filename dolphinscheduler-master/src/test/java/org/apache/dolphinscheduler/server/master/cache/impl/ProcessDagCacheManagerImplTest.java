@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.master.cache.impl;
+
+import org.apache.dolphinscheduler.common.Constants;
+import org.apache.dolphinscheduler.common.model.TaskNode;
+import org.apache.dolphinscheduler.dao.entity.ProcessDefinition;
+import org.apache.dolphinscheduler.server.master.cache.CachedProcessDag;
+import org.apache.dolphinscheduler.server.master.config.MasterConfig;
+import org.apache.dolphinscheduler.service.process.ProcessService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ProcessDagCacheManagerImplTest {
+
+    @InjectMocks
+    private ProcessDagCacheManagerImpl processDagCacheManager;
+
+    @Mock
+    private ProcessService processService;
+
+    @Mock
+    private MasterConfig masterConfig;
+
+    @Before
+    public void before() {
+        Mockito.when(processService.findRelationByCode(Mockito.anyLong(), Mockito.anyLong())).thenReturn(new ArrayList<>());
+        Mockito.when(processService.getTaskDefineLogListByRelation(Mockito.anyList())).thenReturn(new ArrayList<>());
+        Mockito.when(processService.transformTask(Mockito.anyList(), Mockito.anyList())).thenReturn(Arrays.asList(
+                taskNode(1L, Collections.emptyList(), false),
+                taskNode(2L, Collections.singletonList("1"), true),
+                taskNode(3L, Collections.singletonList("2"), false)));
+    }
+
+    @Test
+    public void testGetProcessDag() throws Exception {
+        Mockito.when(masterConfig.getProcessDagCacheSize()).thenReturn(2);
+        CachedProcessDag cachedProcessDag = processDagCacheManager.getProcessDag(processDefinition(1L, 1));
+        Assert.assertEquals(3, cachedProcessDag.getTaskNodeList().size());
+        Assert.assertEquals(3, cachedProcessDag.getCompiledDag().size());
+        Assert.assertTrue(cachedProcessDag.getForbiddenTaskMap().containsKey("2"));
+        Assert.assertTrue(cachedProcessDag.containsTask(3L));
+
+        Assert.assertSame(cachedProcessDag, processDagCacheManager.getProcessDag(processDefinition(1L, 1)));
+        Assert.assertNotSame(cachedProcessDag, processDagCacheManager.getProcessDag(processDefinition(1L, 2)));
+        Mockito.verify(processService, Mockito.times(2)).transformTask(Mockito.anyList(), Mockito.anyList());
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() throws Exception {
+        Mockito.when(masterConfig.getProcessDagCacheSize()).thenReturn(2);
+        CachedProcessDag first = processDagCacheManager.getProcessDag(processDefinition(1L, 1));
+        processDagCacheManager.getProcessDag(processDefinition(2L, 1));
+        // touch the first one, the second one becomes the eldest
+        processDagCacheManager.getProcessDag(processDefinition(1L, 1));
+        processDagCacheManager.getProcessDag(processDefinition(3L, 1));
+
+        Assert.assertEquals(2, processDagCacheManager.size());
+        Assert.assertSame(first, processDagCacheManager.getProcessDag(processDefinition(1L, 1)));
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+        Mockito.when(masterConfig.getProcessDagCacheSize()).thenReturn(2);
+        processDagCacheManager.getProcessDag(processDefinition(1L, 1));
+        processDagCacheManager.getProcessDag(processDefinition(1L, 2));
+        processDagCacheManager.removeByProcessDefinitionCode(1L);
+        Assert.assertEquals(0, processDagCacheManager.size());
+
+        processDagCacheManager.getProcessDag(processDefinition(1L, 1));
+        processDagCacheManager.removeByTaskCode(4L);
+        Assert.assertEquals(1, processDagCacheManager.size());
+        processDagCacheManager.removeByTaskCode(3L);
+        Assert.assertEquals(0, processDagCacheManager.size());
+    }
+
+    @Test
+    public void testCacheDisabled() throws Exception {
+        Mockito.when(masterConfig.getProcessDagCacheSize()).thenReturn(0);
+        CachedProcessDag cachedProcessDag = processDagCacheManager.getProcessDag(processDefinition(1L, 1));
+        Assert.assertNotSame(cachedProcessDag, processDagCacheManager.getProcessDag(processDefinition(1L, 1)));
+        Assert.assertEquals(0, processDagCacheManager.size());
+    }
+
+    private ProcessDefinition processDefinition(long code, int version) {
+        ProcessDefinition processDefinition = new ProcessDefinition();
+        processDefinition.setProjectCode(1L);
+        processDefinition.setCode(code);
+        processDefinition.setVersion(version);
+        return processDefinition;
+    }
+
+    private TaskNode taskNode(long code, List<String> depList, boolean forbidden) {
+        TaskNode taskNode = new TaskNode();
+        taskNode.setCode(code);
+        taskNode.setName("task" + code);
+        taskNode.setDepList(depList);
+        taskNode.setRunFlag(forbidden ? Constants.FLOWNODE_RUN_FLAG_FORBIDDEN : Constants.FLOWNODE_RUN_FLAG_NORMAL);
+        return taskNode;
+    }
+}
@@ -17,8 +17,13 @@
 
 package org.apache.dolphinscheduler.server.master.dispatch.host;
 
+import org.apache.dolphinscheduler.common.Constants;
+import org.apache.dolphinscheduler.common.utils.HeartBeat;
+import org.apache.dolphinscheduler.server.master.dispatch.host.assign.HostWeight;
 import org.apache.dolphinscheduler.server.master.registry.ServerNodeManager;
 
+import java.util.Optional;
+
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -39,9 +44,31 @@ public class RefreshResourceTaskTest {
     LowerWeightHostManager lowerWeightHostManager;
 
     @Test
-    public void testGetHostWeightWithResult() {
-        Assert.assertTrue(!lowerWeightHostManager.new RefreshResourceTask()
-            .getHostWeight("192.168.1.1:22", "default", null)
+    public void testToHostWeightWithoutHeartBeat() {
+        Assert.assertFalse(lowerWeightHostManager.new RefreshResourceTask()
+            .toHostWeight("192.168.1.1:22", "default", null)
+            .isPresent());
+    }
+
+    @Test
+    public void testToHostWeightOfAbnormalWorker() {
+        HeartBeat heartBeat = new HeartBeat(System.currentTimeMillis(), 10, 1, 100, 8);
+        heartBeat.setServerStatus(Constants.ABNORMAL_NODE_STATUS);
+        Assert.assertFalse(lowerWeightHostManager.new RefreshResourceTask()
+            .toHostWeight("192.168.1.1:22", "default", heartBeat)
             .isPresent());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testToHostWeightWithResult() {
+        HeartBeat heartBeat = new HeartBeat(System.currentTimeMillis(), 10, 1, 100, 8);
+        heartBeat.setServerStatus(Constants.NORMAL_NODE_STATUS);
+        Optional<HostWeight> hostWeight = lowerWeightHostManager.new RefreshResourceTask()
+            .toHostWeight("192.168.1.1:22", "default", heartBeat);
+        Assert.assertTrue(hostWeight.isPresent());
+        Assert.assertEquals("192.168.1.1:22", hostWeight.get().getHost().getAddress());
+        Assert.assertEquals(100, hostWeight.get().getHostWorker().getHostWeight());
+        Assert.assertEquals("default", hostWeight.get().getHostWorker().getWorkerGroup());
+        Assert.assertEquals(0, hostWeight.get().getInFlightTasks());
+    }
+}
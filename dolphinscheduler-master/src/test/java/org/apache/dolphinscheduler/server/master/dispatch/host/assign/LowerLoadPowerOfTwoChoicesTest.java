@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.master.dispatch.host.assign;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LowerLoadPowerOfTwoChoicesTest {
+
+    private static final long STARTED = System.currentTimeMillis() - 60 * 60 * 1000;
+
+    @Test
+    public void testSelectLowerLoad() {
+        List<HostWeight> sources = new ArrayList<>();
+        sources.add(new HostWeight(HostWorker.of("192.158.2.1:11", 100, "default"), 0.06, 0.44, 3.84, STARTED));
+        sources.add(new HostWeight(HostWorker.of("192.158.2.2:22", 100, "default"), 0.06, 0.44, 0.5, STARTED));
+
+        LowerLoadPowerOfTwoChoices selector = new LowerLoadPowerOfTwoChoices();
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals("192.158.2.2", selector.select(sources).getHost().getIp());
+        }
+    }
+
+    @Test
+    public void testInFlightTasksSpreadLoad() {
+        List<AtomicInteger> inFlightTasks = new ArrayList<>();
+        List<HostWeight> sources = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            AtomicInteger counter = new AtomicInteger();
+            inFlightTasks.add(counter);
+            sources.add(new HostWeight(HostWorker.of("192.158.2." + i + ":1234", 100, "default"), 0.06, 0.44, 1, STARTED, counter));
+        }
+
+        // the heartbeat weights are equal, the dispatched tasks alone must keep the hosts balanced
+        LowerLoadPowerOfTwoChoices selector = new LowerLoadPowerOfTwoChoices();
+        Map<String, Integer> dispatched = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            HostWeight hostWeight = selector.select(sources);
+            inFlightTasks.get(sources.indexOf(hostWeight)).incrementAndGet();
+            dispatched.merge(hostWeight.getHost().getAddress(), 1, Integer::sum);
+        }
+        Assert.assertEquals(10, dispatched.size());
+        for (int count : dispatched.values()) {
+            Assert.assertTrue("unbalanced dispatch : " + dispatched, count > 80 && count < 120);
+        }
+    }
+}
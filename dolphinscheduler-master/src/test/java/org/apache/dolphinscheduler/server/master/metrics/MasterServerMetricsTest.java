@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.master.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * master server metrics test
+ */
+public class MasterServerMetricsTest {
+
+    private static final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeClass
+    public static void before() {
+        Metrics.addRegistry(registry);
+    }
+
+    @AfterClass
+    public static void after() {
+        Metrics.removeRegistry(registry);
+    }
+
+    @Test
+    public void testCommandPipelineTimers() {
+        MasterServerMetrics.commandFetchTimer().record(10, TimeUnit.MILLISECONDS);
+        MasterServerMetrics.commandHandleWaitTimer().record(15, TimeUnit.MILLISECONDS);
+        MasterServerMetrics.commandHandleTimer().record(20, TimeUnit.MILLISECONDS);
+        MasterServerMetrics.commandStartTimer().record(30, TimeUnit.MILLISECONDS);
+
+        assertRecorded(registry.get("ds.master.command.pipeline.latency").tag("stage", MasterServerMetrics.COMMAND_STAGE_FETCH).timer(), 10);
+        assertRecorded(registry.get("ds.master.command.pipeline.latency").tag("stage", MasterServerMetrics.COMMAND_STAGE_HANDLE_WAIT).timer(), 15);
+        assertRecorded(registry.get("ds.master.command.pipeline.latency").tag("stage", MasterServerMetrics.COMMAND_STAGE_HANDLE).timer(), 20);
+        assertRecorded(registry.get("ds.master.command.pipeline.latency").tag("stage", MasterServerMetrics.COMMAND_STAGE_START).timer(), 30);
+    }
+
+    @Test
+    public void testCommandPipelineQueueSizeGauge() {
+        MasterServerMetrics.registerCommandPipelineQueueSizeGauge("metrics-test", () -> 3);
+
+        Assert.assertEquals(3, registry.get("ds.master.command.pipeline.queue.size").tag("stage", "metrics-test").gauge().value(), 0);
+    }
+
+    @Test
+    public void testTaskDispatch() {
+        MasterServerMetrics.taskDispatchTimer("metrics-test").record(5, TimeUnit.MILLISECONDS);
+        MasterServerMetrics.registerTaskQueueDepthGauge("metrics-test", () -> 7);
+
+        assertRecorded(registry.get("ds.master.task.dispatch.latency").tag("worker_group", "metrics-test").timer(), 5);
+        Assert.assertEquals(7, registry.get("ds.master.task.queue.depth").tag("worker_group", "metrics-test").gauge().value(), 0);
+    }
+
+    @Test
+    public void testTaskExecute() {
+        double failures = MasterServerMetrics.taskExecuteFailureCounter().count();
+        MasterServerMetrics.taskExecuteTimer().record(2, TimeUnit.MILLISECONDS);
+        MasterServerMetrics.taskExecuteFailureCounter().increment();
+
+        Assert.assertTrue(registry.get("ds.master.task.execute.latency").timer().count() >= 1);
+        Assert.assertEquals(failures + 1, registry.get("ds.master.task.execute.failure").counter().count(), 0);
+    }
+
+    @Test
+    public void testTaskResponse() {
+        MasterServerMetrics.taskResponseFlushSize().record(4);
+        MasterServerMetrics.taskResponseFlushTimer().record(1, TimeUnit.MILLISECONDS);
+        MasterServerMetrics.taskResponseAckPersistTimer().record(1, TimeUnit.MILLISECONDS);
+        MasterServerMetrics.taskResponseResultPersistTimer().record(1, TimeUnit.MILLISECONDS);
+
+        Assert.assertTrue(registry.get("ds.master.task.response.flush.size").summary().count() >= 1);
+        Assert.assertTrue(registry.get("ds.master.task.response.flush.latency").timer().count() >= 1);
+        Assert.assertTrue(registry.get("ds.master.task.response.persist.latency").tag("event", "ack").timer().count() >= 1);
+        Assert.assertTrue(registry.get("ds.master.task.response.persist.latency").tag("event", "result").timer().count() >= 1);
+    }
+
+    @Test
+    public void testStateWheelTickTimer() {
+        MasterServerMetrics.stateWheelTickTimer().record(1, TimeUnit.MILLISECONDS);
+
+        Assert.assertTrue(registry.get("ds.master.state.wheel.tick.latency").timer().count() >= 1);
+    }
+
+    private void assertRecorded(Timer timer, long millis) {
+        Assert.assertTrue(timer.count() >= 1);
+        Assert.assertTrue(timer.max(TimeUnit.MILLISECONDS) >= millis);
+    }
+}
@@ -21,6 +21,7 @@ import org.apache.dolphinscheduler.common.enums.CacheType;
 import org.apache.dolphinscheduler.dao.entity.Tenant;
 import org.apache.dolphinscheduler.remote.command.CacheExpireCommand;
 import org.apache.dolphinscheduler.remote.command.Command;
+import org.apache.dolphinscheduler.server.master.cache.ProcessDagCacheManager;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -51,6 +52,9 @@ public class CacheProcessorTest {
     @Mock
     private Cache cache;
 
+    @Mock
+    private ProcessDagCacheManager processDagCacheManager;
+
     @Before
     public void before() {
         Mockito.when(cacheManager.getCache(CacheType.TENANT.getCacheName())).thenReturn(cache);
@@ -65,4 +69,19 @@ public class CacheProcessorTest {
 
         cacheProcessor.process(channel, command);
     }
+
+    @Test
+    public void testProcessDagCacheExpire() {
+        cacheProcessor.process(channel, new CacheExpireCommand(CacheType.PROCESS_DEFINITION, "10").convert2Command());
+        Mockito.verify(processDagCacheManager).removeByProcessDefinitionCode(10L);
+
+        cacheProcessor.process(channel, new CacheExpireCommand(CacheType.PROCESS_TASK_RELATION, "1_11").convert2Command());
+        Mockito.verify(processDagCacheManager).removeByProcessDefinitionCode(11L);
+
+        cacheProcessor.process(channel, new CacheExpireCommand(CacheType.TASK_DEFINITION, "12_1").convert2Command());
+        Mockito.verify(processDagCacheManager).removeByTaskCode(12L);
+
+        cacheProcessor.process(channel, new CacheExpireCommand(CacheType.PROCESS_DEFINITION, "unknown").convert2Command());
+        Mockito.verify(processDagCacheManager).clear();
+    }
 }
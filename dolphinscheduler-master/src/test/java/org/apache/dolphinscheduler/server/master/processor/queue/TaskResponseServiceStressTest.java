@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.master.processor.queue;
+
+import org.apache.dolphinscheduler.common.enums.ExecutionStatus;
+import org.apache.dolphinscheduler.common.enums.StateEvent;
+import org.apache.dolphinscheduler.dao.entity.TaskInstance;
+import org.apache.dolphinscheduler.server.master.cache.ProcessInstanceExecCacheManager;
+import org.apache.dolphinscheduler.server.master.config.MasterConfig;
+import org.apache.dolphinscheduler.server.master.runner.WorkflowExecuteThreadPool;
+import org.apache.dolphinscheduler.service.process.ProcessService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.netty.channel.Channel;
+
+/**
+ * stress test of the partitioned task response workers, every persist takes a fixed simulated database latency.
+ * the cost of a run is only logged, a wall clock comparison is not stable on a loaded build machine.
+ */
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class TaskResponseServiceStressTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskResponseServiceStressTest.class);
+
+    private static final int PROCESS_INSTANCE_NUM = 64;
+
+    private static final int EVENTS_PER_PROCESS_INSTANCE = 10;
+
+    private static final long PERSIST_LATENCY_MILLIS = 2;
+
+    @Mock
+    private ProcessService processService;
+
+    @Mock
+    private ProcessInstanceExecCacheManager processInstanceExecCacheManager;
+
+    @Mock
+    private WorkflowExecuteThreadPool workflowExecuteThreadPool;
+
+    @Mock
+    private MasterConfig masterConfig;
+
+    @Mock
+    private Channel channel;
+
+    @Test
+    public void testSingleWorker() throws InterruptedException {
+        runStress(1);
+    }
+
+    @Test
+    public void testPartitionedWorkers() throws InterruptedException {
+        runStress(4);
+    }
+
+    private void runStress(int workerNum) throws InterruptedException {
+        Mockito.reset(processService, workflowExecuteThreadPool, masterConfig);
+        Mockito.when(masterConfig.getTaskResponseWorkerNum()).thenReturn(workerNum);
+        Mockito.when(processService.findTaskInstanceById(Mockito.anyInt())).thenAnswer(invocation -> {
+            TaskInstance taskInstance = new TaskInstance();
+            taskInstance.setId(invocation.getArgument(0));
+            taskInstance.setState(ExecutionStatus.SUBMITTED_SUCCESS);
+            return taskInstance;
+        });
+        Mockito.doAnswer(invocation -> {
+            Thread.sleep(PERSIST_LATENCY_MILLIS);
+            return null;
+        }).when(processService).changeTaskState(Mockito.any(TaskInstance.class), Mockito.any(ExecutionStatus.class),
+                Mockito.any(Date.class), Mockito.anyString(), Mockito.anyString(), Mockito.anyString());
+
+        int eventNum = PROCESS_INSTANCE_NUM * EVENTS_PER_PROCESS_INSTANCE;
+        CountDownLatch latch = new CountDownLatch(eventNum);
+        Map<Integer, List<Integer>> persistedTaskInstanceIds = new ConcurrentHashMap<>();
+        Mockito.doAnswer(invocation -> {
+            StateEvent stateEvent = invocation.getArgument(0);
+            persistedTaskInstanceIds.computeIfAbsent(stateEvent.getProcessInstanceId(), k -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(stateEvent.getTaskInstanceId());
+            latch.countDown();
+            return null;
+        }).when(workflowExecuteThreadPool).submitStateEvent(Mockito.any(StateEvent.class));
+
+        TaskResponseService taskResponseService = new TaskResponseService();
+        ReflectionTestUtils.setField(taskResponseService, "processService", processService);
+        ReflectionTestUtils.setField(taskResponseService, "processInstanceExecCacheManager", processInstanceExecCacheManager);
+        ReflectionTestUtils.setField(taskResponseService, "workflowExecuteThreadPool", workflowExecuteThreadPool);
+        ReflectionTestUtils.setField(taskResponseService, "masterConfig", masterConfig);
+        taskResponseService.start();
+
+        long start = System.currentTimeMillis();
+        try {
+            for (int seq = 0; seq < EVENTS_PER_PROCESS_INSTANCE; seq++) {
+                for (int processInstanceId = 1; processInstanceId <= PROCESS_INSTANCE_NUM; processInstanceId++) {
+                    int taskInstanceId = processInstanceId * EVENTS_PER_PROCESS_INSTANCE + seq;
+                    taskResponseService.addResponse(TaskResponseEvent.newAck(ExecutionStatus.RUNNING_EXECUTION, new Date(),
+                            "127.0.0.1:1234", "path", "logPath", taskInstanceId, channel, processInstanceId));
+                }
+            }
+            Assert.assertTrue(latch.await(60, TimeUnit.SECONDS));
+        } finally {
+            taskResponseService.stop();
+        }
+        long cost = System.currentTimeMillis() - start;
+        logger.info("{} workers persisted {} events in {} ms, {} events/s", workerNum, eventNum, cost, eventNum * 1000L / Math.max(1, cost));
+
+        // events of one process instance are persisted in arrival order
+        Assert.assertEquals(PROCESS_INSTANCE_NUM, persistedTaskInstanceIds.size());
+        for (List<Integer> taskInstanceIds : persistedTaskInstanceIds.values()) {
+            Assert.assertEquals(EVENTS_PER_PROCESS_INSTANCE, taskInstanceIds.size());
+            for (int i = 1; i < taskInstanceIds.size(); i++) {
+                Assert.assertTrue(taskInstanceIds.get(i - 1) < taskInstanceIds.get(i));
+            }
+        }
+    }
+}
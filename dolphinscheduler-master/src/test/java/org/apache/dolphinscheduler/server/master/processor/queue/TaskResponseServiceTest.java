@@ -19,15 +19,23 @@ package org.apache.dolphinscheduler.server.master.processor.queue;
 
 import org.apache.dolphinscheduler.common.enums.ExecutionStatus;
 import org.apache.dolphinscheduler.dao.entity.TaskInstance;
+import org.apache.dolphinscheduler.remote.command.Command;
+import org.apache.dolphinscheduler.remote.command.CommandType;
 import org.apache.dolphinscheduler.server.master.cache.impl.ProcessInstanceExecCacheManagerImpl;
+import org.apache.dolphinscheduler.server.master.config.MasterConfig;
+import org.apache.dolphinscheduler.server.master.runner.WorkflowExecuteThreadPool;
 import org.apache.dolphinscheduler.service.process.ProcessService;
 
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 
 import org.junit.After;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -56,6 +64,12 @@ public class TaskResponseServiceTest {
     @Mock
     private ProcessInstanceExecCacheManagerImpl processInstanceExecCacheManager;
 
+    @Mock
+    private WorkflowExecuteThreadPool workflowExecuteThreadPool;
+
+    @Mock
+    private MasterConfig masterConfig;
+
     @Before
     public void before() {
         taskRspService.start();
@@ -91,6 +105,60 @@ public class TaskResponseServiceTest {
         taskRspService.addResponse(resultEvent);
     }
 
+    @Test
+    public void testPersistBatch() {
+        Mockito.when(processService.findTaskInstanceById(22)).thenReturn(taskInstance);
+        taskRspService.persist(Arrays.asList(ackEvent, resultEvent));
+
+        // ack and result of the same task instance are merged into one update
+        Mockito.verify(processService, Mockito.times(1)).findTaskInstanceById(22);
+        ArgumentCaptor<List<TaskInstance>> updated = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(processService, Mockito.times(1)).batchUpdateTaskInstance(updated.capture());
+        Assert.assertEquals(1, updated.getValue().size());
+        Assert.assertEquals(22, updated.getValue().get(0).getId());
+        Assert.assertEquals(ExecutionStatus.SUCCESS, updated.getValue().get(0).getState());
+        Assert.assertEquals(ExecutionStatus.SUCCESS, taskInstance.getState());
+        Assert.assertEquals("127.*.*.*", taskInstance.getHost());
+        Assert.assertEquals("ids", taskInstance.getAppLink());
+        Mockito.verify(channel, Mockito.times(2)).writeAndFlush(Mockito.any());
+        Mockito.verify(workflowExecuteThreadPool, Mockito.times(2)).submitStateEvent(Mockito.any());
+    }
+
+    @Test
+    public void testPersistBatchFallback() {
+        Mockito.when(processService.findTaskInstanceById(22)).thenReturn(taskInstance);
+        Mockito.doThrow(new RuntimeException("batch update error"))
+                .when(processService).batchUpdateTaskInstance(Mockito.anyList());
+        taskRspService.persist(Arrays.asList(ackEvent, resultEvent));
+
+        // the failed batch is not seen by the workflow, each event is persisted and acknowledged on its own
+        Assert.assertEquals(ExecutionStatus.RUNNING_EXECUTION, taskInstance.getState());
+        Mockito.verify(processService, Mockito.times(1)).changeTaskState(taskInstance, ExecutionStatus.RUNNING_EXECUTION,
+                ackEvent.getStartTime(), "127.*.*.*", "path", "logPath");
+        Mockito.verify(processService, Mockito.times(1)).changeTaskState(taskInstance, ExecutionStatus.SUCCESS,
+                resultEvent.getEndTime(), 1, "ids", "varPol");
+        ArgumentCaptor<Command> commands = ArgumentCaptor.forClass(Command.class);
+        Mockito.verify(channel, Mockito.times(2)).writeAndFlush(commands.capture());
+        Assert.assertEquals(CommandType.DB_TASK_ACK, commands.getAllValues().get(0).getType());
+        Assert.assertEquals(CommandType.DB_TASK_RESPONSE, commands.getAllValues().get(1).getType());
+        Mockito.verify(workflowExecuteThreadPool, Mockito.times(2)).submitStateEvent(Mockito.any());
+    }
+
+    @Test
+    public void testStop() {
+        Mockito.when(processService.findTaskInstanceById(22)).thenReturn(taskInstance);
+        taskRspService.addResponse(ackEvent);
+        taskRspService.addResponse(resultEvent);
+        taskRspService.stop();
+
+        // the events are persisted by the worker or by stop, and the worker is done when stop returns
+        Mockito.verify(processService, Mockito.times(1)).changeTaskState(taskInstance, ExecutionStatus.RUNNING_EXECUTION,
+                ackEvent.getStartTime(), "127.*.*.*", "path", "logPath");
+        Mockito.verify(processService, Mockito.times(1)).changeTaskState(taskInstance, ExecutionStatus.SUCCESS,
+                resultEvent.getEndTime(), 1, "ids", "varPol");
+        Mockito.verify(channel, Mockito.times(2)).writeAndFlush(Mockito.any());
+    }
+
     @After
     public void after() {
         if (taskRspService != null) {
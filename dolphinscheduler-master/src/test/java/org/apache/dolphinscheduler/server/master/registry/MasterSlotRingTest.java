@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.master.registry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * master slot ring test, simulates the work moved when masters join and leave
+ */
+public class MasterSlotRingTest {
+
+    private static final int COMMAND_NUM = 100000;
+
+    @Test
+    public void testEmpty() {
+        MasterSlotRing ring = MasterSlotRing.of(Collections.emptyList());
+        Assert.assertTrue(ring.isEmpty());
+        Assert.assertNull(ring.getOwnerOf(1));
+        Assert.assertFalse(ring.isOwner("192.168.1.1:5678", 1));
+    }
+
+    @Test
+    public void testSameOwnersOnEveryMaster() {
+        List<String> masters = masters(5);
+        MasterSlotRing ring = MasterSlotRing.of(masters);
+        Collections.reverse(masters);
+        MasterSlotRing reversed = MasterSlotRing.of(masters);
+        for (int slot = 0; slot < MasterSlotRing.SLOT_NUM; slot++) {
+            Assert.assertEquals(ring.getOwner(slot), reversed.getOwner(slot));
+        }
+        Assert.assertEquals(MasterSlotRing.slotOf(-1), MasterSlotRing.slotOf(MasterSlotRing.SLOT_NUM - 1));
+    }
+
+    @Test
+    public void testBalance() {
+        List<String> masters = masters(5);
+        MasterSlotRing ring = MasterSlotRing.of(masters);
+        int expected = MasterSlotRing.SLOT_NUM / masters.size();
+        for (String master : masters) {
+            int slots = ring.getSlots(master).size();
+            Assert.assertTrue(master + " owns " + slots + " slots", slots > expected * 0.7 && slots < expected * 1.3);
+        }
+    }
+
+    @Test
+    public void testScaleOut() {
+        for (int size = 1; size < 10; size++) {
+            List<String> masters = masters(size);
+            MasterSlotRing before = MasterSlotRing.of(masters);
+            String newMaster = "192.168.2.1:5678";
+            List<String> scaledOut = new ArrayList<>(masters);
+            scaledOut.add(newMaster);
+            MasterSlotRing after = MasterSlotRing.of(scaledOut);
+
+            int moved = 0;
+            int movedByModulo = 0;
+            for (long id = 0; id < COMMAND_NUM; id++) {
+                String owner = after.getOwnerOf(id);
+                if (!owner.equals(before.getOwnerOf(id))) {
+                    moved++;
+                    // work only moves to the new master
+                    Assert.assertEquals(newMaster, owner);
+                }
+                if (id % size != id % (size + 1)) {
+                    movedByModulo++;
+                }
+            }
+            double expected = 1.0 / (size + 1);
+            double movedRatio = (double) moved / COMMAND_NUM;
+            Assert.assertTrue(String.format("%d -> %d masters moved %.3f of the commands", size, size + 1, movedRatio),
+                    movedRatio > expected * 0.6 && movedRatio < expected * 1.4);
+            if (size > 1) {
+                Assert.assertTrue(moved < movedByModulo);
+            }
+        }
+    }
+
+    @Test
+    public void testScaleIn() {
+        List<String> masters = masters(6);
+        MasterSlotRing before = MasterSlotRing.of(masters);
+        String removed = masters.remove(2);
+        MasterSlotRing after = MasterSlotRing.of(masters);
+        for (int slot = 0; slot < MasterSlotRing.SLOT_NUM; slot++) {
+            if (!removed.equals(before.getOwner(slot))) {
+                // only the slots of the removed master move
+                Assert.assertEquals(before.getOwner(slot), after.getOwner(slot));
+            }
+        }
+        Assert.assertTrue(after.getSlots(removed).isEmpty());
+    }
+
+    @Test
+    public void testWeighted() {
+        Map<String, Integer> weights = new HashMap<>();
+        weights.put("192.168.1.1:5678", 1);
+        weights.put("192.168.1.2:5678", 3);
+        MasterSlotRing ring = MasterSlotRing.of(weights);
+        double ratio = (double) ring.getSlots("192.168.1.2:5678").size() / MasterSlotRing.SLOT_NUM;
+        Assert.assertTrue("weighted master owns " + ratio, ratio > 0.65 && ratio < 0.85);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidWeight() {
+        MasterSlotRing.of(Collections.singletonMap("192.168.1.1:5678", 0));
+    }
+
+    private List<String> masters(int size) {
+        List<String> masters = new ArrayList<>();
+        for (int i = 1; i <= size; i++) {
+            masters.add("192.168.1." + i + ":5678");
+        }
+        return masters;
+    }
+}
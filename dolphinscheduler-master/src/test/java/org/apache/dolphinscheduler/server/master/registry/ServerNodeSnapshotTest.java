@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.master.registry;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * server node snapshot test
+ */
+public class ServerNodeSnapshotTest {
+
+    private static final String HEARTBEAT = "0.35,0.58,3.09,6.47,5.0,1.0,1634033006749,1634033006857,0,29732,50,199,200";
+
+    private static final String NEXT_HEARTBEAT = "0.35,0.58,3.09,6.47,5.0,1.0,1634033006749,1634033016857,0,29732,50,199,200";
+
+    @Test
+    public void testWorkerNode() {
+        ServerNodeSnapshot snapshot = ServerNodeSnapshot.EMPTY
+                .withWorkerNode("default", "192.168.1.1:1234", HEARTBEAT)
+                .withWorkerNode("default", "192.168.1.2:1234", "");
+        Assert.assertEquals(2, snapshot.getWorkerGroupNodes("default").size());
+        Assert.assertEquals(50, snapshot.getWorkerHeartBeat("192.168.1.1:1234").getWorkerHostWeight());
+        Assert.assertNull(snapshot.getWorkerHeartBeat("192.168.1.2:1234"));
+        Assert.assertTrue(snapshot.getVersion() > ServerNodeSnapshot.EMPTY.getVersion());
+        Assert.assertNull(ServerNodeSnapshot.EMPTY.getWorkerGroupNodes("default"));
+
+        ServerNodeSnapshot removed = snapshot.withoutWorkerNode("default", "192.168.1.1:1234");
+        Assert.assertEquals(Collections.singleton("192.168.1.2:1234"), removed.getWorkerGroupNodes("default"));
+        Assert.assertNull(removed.getWorkerNodeInfo("192.168.1.1:1234"));
+        Assert.assertNull(removed.getWorkerHeartBeat("192.168.1.1:1234"));
+        // the previous snapshot is not changed
+        Assert.assertEquals(2, snapshot.getWorkerGroupNodes("default").size());
+    }
+
+    @Test
+    public void testWorkerNodeInOtherGroup() {
+        ServerNodeSnapshot snapshot = ServerNodeSnapshot.EMPTY
+                .withWorkerNode("default", "192.168.1.1:1234", HEARTBEAT)
+                .withWorkerNode("gpu", "192.168.1.1:1234", HEARTBEAT)
+                .withoutWorkerNode("default", "192.168.1.1:1234");
+        Assert.assertTrue(snapshot.getWorkerGroupNodes("default").isEmpty());
+        Assert.assertNotNull(snapshot.getWorkerHeartBeat("192.168.1.1:1234"));
+    }
+
+    @Test
+    public void testUnchanged() {
+        ServerNodeSnapshot snapshot = ServerNodeSnapshot.EMPTY
+                .withMasterNodes(Arrays.asList("192.168.1.1:5678"))
+                .withWorkerNode("default", "192.168.1.1:1234", HEARTBEAT);
+        Assert.assertSame(snapshot, snapshot.withMasterNodes(Arrays.asList("192.168.1.1:5678")));
+        Assert.assertSame(snapshot, snapshot.withWorkerNode("default", "192.168.1.1:1234", HEARTBEAT));
+        Assert.assertSame(snapshot, snapshot.withWorkerGroupNodes("default", Arrays.asList("192.168.1.1:1234")));
+        Assert.assertSame(snapshot, snapshot.withoutWorkerNode("gpu", "192.168.1.1:1234"));
+        Assert.assertSame(snapshot, snapshot.withAllWorkerNodeInfo(Collections.singletonMap("192.168.1.1:1234", HEARTBEAT)));
+    }
+
+    @Test
+    public void testAllWorkerNodeInfo() {
+        ServerNodeSnapshot snapshot = ServerNodeSnapshot.EMPTY
+                .withWorkerNode("default", "192.168.1.1:1234", HEARTBEAT)
+                .withWorkerNode("default", "192.168.1.2:1234", HEARTBEAT);
+
+        Map<String, String> workerNodeInfo = new HashMap<>();
+        workerNodeInfo.put("192.168.1.1:1234", HEARTBEAT);
+        workerNodeInfo.put("192.168.1.3:1234", NEXT_HEARTBEAT);
+        ServerNodeSnapshot synced = snapshot.withAllWorkerNodeInfo(workerNodeInfo);
+
+        // an unchanged heartbeat is not decoded again
+        Assert.assertSame(snapshot.getWorkerHeartBeat("192.168.1.1:1234"), synced.getWorkerHeartBeat("192.168.1.1:1234"));
+        Assert.assertNull(synced.getWorkerHeartBeat("192.168.1.2:1234"));
+        Assert.assertEquals(1634033016857L, synced.getWorkerHeartBeat("192.168.1.3:1234").getReportTime());
+    }
+
+    @Test
+    public void testInvalidHeartBeat() {
+        ServerNodeSnapshot snapshot = ServerNodeSnapshot.EMPTY
+                .withWorkerNodeInfo("192.168.1.1:1234", HEARTBEAT)
+                .withWorkerNodeInfo("192.168.1.1:1234", "invalid");
+        Assert.assertEquals("invalid", snapshot.getWorkerNodeInfo("192.168.1.1:1234"));
+        Assert.assertNull(snapshot.getWorkerHeartBeat("192.168.1.1:1234"));
+    }
+}
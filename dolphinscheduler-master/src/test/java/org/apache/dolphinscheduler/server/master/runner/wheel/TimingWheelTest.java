@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.master.runner.wheel;
+
+import org.apache.dolphinscheduler.server.master.runner.wheel.TimingWheel.Timeout;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * timing wheel test
+ */
+public class TimingWheelTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalWheelSize() {
+        new TimingWheel<Integer>(100, 100, 2, 0);
+    }
+
+    @Test
+    public void testExpireAtDeadline() {
+        TimingWheel<Long> timingWheel = new TimingWheel<>(1, 8, 2, 0);
+        Random random = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            // deadlines beyond the top level span are parked and placed again
+            long deadline = 1 + random.nextInt(500);
+            timingWheel.schedule(deadline, deadline);
+        }
+        for (long now = 1; now <= 500; now++) {
+            for (Timeout<Long> timeout : timingWheel.advance(now)) {
+                Assert.assertEquals(now, (long) timeout.getItem());
+            }
+        }
+        Assert.assertEquals(0, timingWheel.size());
+    }
+
+    @Test
+    public void testPastDeadlineExpiresOnNextTick() {
+        TimingWheel<String> timingWheel = new TimingWheel<>(100, 64, 4, 10_000);
+        timingWheel.schedule("past", 5_000);
+        Assert.assertTrue(timingWheel.advance(10_099).isEmpty());
+        List<String> expired = timingWheel.advance(10_100).stream().map(Timeout::getItem).collect(Collectors.toList());
+        Assert.assertEquals(1, expired.size());
+        Assert.assertEquals("past", expired.get(0));
+    }
+
+    @Test
+    public void testCancel() {
+        TimingWheel<String> timingWheel = new TimingWheel<>(100, 64, 4, 0);
+        Timeout<String> cancelled = timingWheel.schedule("cancelled", 60_000);
+        timingWheel.schedule("expired", 60_000);
+        Assert.assertEquals(2, timingWheel.size());
+        Assert.assertTrue(timingWheel.cancel(cancelled));
+        Assert.assertFalse(timingWheel.cancel(cancelled));
+        Assert.assertEquals(1, timingWheel.size());
+
+        List<Timeout<String>> expired = timingWheel.advance(60_000);
+        Assert.assertEquals(1, expired.size());
+        Assert.assertEquals("expired", expired.get(0).getItem());
+        Assert.assertFalse(timingWheel.cancel(expired.get(0)));
+        Assert.assertEquals(0, timingWheel.size());
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.microbench.master;
+
+import org.apache.dolphinscheduler.common.enums.ExecutionStatus;
+import org.apache.dolphinscheduler.common.enums.TaskType;
+import org.apache.dolphinscheduler.common.graph.DAG;
+import org.apache.dolphinscheduler.common.model.TaskNode;
+import org.apache.dolphinscheduler.common.model.TaskNodeRelation;
+import org.apache.dolphinscheduler.common.process.ProcessDag;
+import org.apache.dolphinscheduler.dao.entity.TaskInstance;
+import org.apache.dolphinscheduler.dao.utils.CompiledDag;
+import org.apache.dolphinscheduler.dao.utils.DagDependencyTracker;
+import org.apache.dolphinscheduler.dao.utils.DagHelper;
+import org.apache.dolphinscheduler.microbench.base.AbstractBaseBenchmark;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * successor resolution of a whole workflow run in the master: every task completion resolves the
+ * ready post nodes, by {@link DagHelper#parsePostNodes} over a complete task map rebuilt for each
+ * completion as the workflow did before, vs the counters of {@link DagDependencyTracker}.
+ * wide is one task fanning out to all the others which join in a last task, deep is a chain of
+ * layers of four tasks, each depending on the whole previous layer.
+ */
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 4, time = 2)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DagResolveBenchmark extends AbstractBaseBenchmark {
+
+    private static final int LAYER_WIDTH = 4;
+
+    @Param({"wide", "deep"})
+    private String shape;
+
+    @Param({"3000"})
+    private int nodes;
+
+    private DAG<String, TaskNode, TaskNodeRelation> dag;
+
+    private CompiledDag compiledDag;
+
+    private Map<Integer, TaskInstance> taskInstanceMap;
+
+    @Setup
+    public void setup() throws Exception {
+        List<TaskNode> taskNodes = new ArrayList<>(nodes);
+        List<TaskNodeRelation> relations = new ArrayList<>();
+        for (int i = 0; i < nodes; i++) {
+            List<String> depList = new ArrayList<>();
+            if ("wide".equals(shape)) {
+                if (i == nodes - 1) {
+                    for (int j = 1; j < nodes - 1; j++) {
+                        depList.add(Integer.toString(j));
+                    }
+                } else if (i > 0) {
+                    depList.add("0");
+                }
+            } else if (i >= LAYER_WIDTH) {
+                int layerStart = (i / LAYER_WIDTH - 1) * LAYER_WIDTH;
+                for (int j = layerStart; j < layerStart + LAYER_WIDTH; j++) {
+                    depList.add(Integer.toString(j));
+                }
+            }
+            TaskNode taskNode = new TaskNode();
+            taskNode.setCode(i);
+            taskNode.setName(Integer.toString(i));
+            taskNode.setType(TaskType.SHELL.getDesc());
+            taskNode.setDepList(depList);
+            taskNodes.add(taskNode);
+            for (String dep : depList) {
+                relations.add(new TaskNodeRelation(dep, Integer.toString(i)));
+            }
+        }
+        ProcessDag processDag = new ProcessDag();
+        processDag.setNodes(taskNodes);
+        processDag.setEdges(relations);
+        dag = DagHelper.buildDagGraph(processDag);
+        compiledDag = CompiledDag.compile(dag);
+
+        taskInstanceMap = new HashMap<>(nodes * 2);
+        for (int i = 0; i < nodes; i++) {
+            TaskInstance taskInstance = new TaskInstance();
+            taskInstance.setId(i);
+            taskInstance.setTaskCode(i);
+            taskInstance.setState(ExecutionStatus.SUCCESS);
+            taskInstanceMap.put(i, taskInstance);
+        }
+    }
+
+    @Benchmark
+    public int dagHelper() {
+        Map<String, Integer> completeTaskMap = new HashMap<>();
+        Map<String, TaskNode> skipTaskNodeMap = new HashMap<>();
+        Deque<String> ready = new ArrayDeque<>(DagHelper.parsePostNodes(null, skipTaskNodeMap, dag, Collections.emptyMap()));
+        int resolved = 0;
+        while (!ready.isEmpty()) {
+            String code = ready.poll();
+            completeTaskMap.put(code, Integer.parseInt(code));
+            Map<String, TaskInstance> completeTaskInstanceMap = new HashMap<>();
+            for (Integer taskInstanceId : completeTaskMap.values()) {
+                TaskInstance taskInstance = taskInstanceMap.get(taskInstanceId);
+                completeTaskInstanceMap.put(Long.toString(taskInstance.getTaskCode()), taskInstance);
+            }
+            for (String postNode : DagHelper.parsePostNodes(code, skipTaskNodeMap, dag, completeTaskInstanceMap)) {
+                ready.add(postNode);
+                resolved++;
+            }
+        }
+        return resolved;
+    }
+
+    @Benchmark
+    public int dependencyTracker() {
+        DagDependencyTracker tracker = new DagDependencyTracker(compiledDag, taskInstanceMap::get, new HashMap<>());
+        Deque<String> ready = new ArrayDeque<>(tracker.parsePostNodes(null));
+        int resolved = 0;
+        while (!ready.isEmpty()) {
+            String code = ready.poll();
+            tracker.complete(code, Integer.parseInt(code));
+            for (String postNode : tracker.parsePostNodes(code)) {
+                ready.add(postNode);
+                resolved++;
+            }
+        }
+        return resolved;
+    }
+}
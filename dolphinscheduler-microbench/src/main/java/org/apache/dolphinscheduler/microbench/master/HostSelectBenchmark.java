@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.microbench.master;
+
+import org.apache.dolphinscheduler.microbench.base.AbstractBaseBenchmark;
+import org.apache.dolphinscheduler.server.master.dispatch.host.assign.HostWeight;
+import org.apache.dolphinscheduler.server.master.dispatch.host.assign.HostWorker;
+import org.apache.dolphinscheduler.server.master.dispatch.host.assign.LowerLoadPowerOfTwoChoices;
+import org.apache.dolphinscheduler.server.master.dispatch.host.assign.LowerWeightRoundRobin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * dispatch rate of one worker group: locked snapshot read + lower weight round robin walking every host
+ * vs lock-free power of two choices over an immutable snapshot with in-flight accounting.
+ */
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 4, time = 1)
+@State(Scope.Benchmark)
+@Threads(4)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HostSelectBenchmark extends AbstractBaseBenchmark {
+
+    @Param({"50", "500"})
+    private int workers;
+
+    private final Lock lock = new ReentrantLock();
+
+    private Set<HostWeight> hostWeightSet;
+
+    private LowerWeightRoundRobin roundRobin;
+
+    private List<HostWeight> hostWeightSnapshot;
+
+    private Map<HostWeight, AtomicInteger> inFlightTasks;
+
+    private LowerLoadPowerOfTwoChoices powerOfTwoChoices;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1);
+        long startTime = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1);
+        hostWeightSet = new HashSet<>(workers);
+        List<HostWeight> snapshot = new ArrayList<>(workers);
+        inFlightTasks = new IdentityHashMap<>(workers);
+        for (int i = 0; i < workers; i++) {
+            HostWorker hostWorker = HostWorker.of("10.0." + (i / 250) + "." + (i % 250) + ":1234", 100, "default");
+            double cpu = random.nextDouble();
+            double memory = random.nextDouble();
+            double loadAverage = random.nextDouble() * 8;
+            AtomicInteger counter = new AtomicInteger();
+            hostWeightSet.add(new HostWeight(hostWorker, cpu, memory, loadAverage, startTime));
+            HostWeight hostWeight = new HostWeight(hostWorker, cpu, memory, loadAverage, startTime, counter);
+            snapshot.add(hostWeight);
+            inFlightTasks.put(hostWeight, counter);
+        }
+        hostWeightSnapshot = Collections.unmodifiableList(snapshot);
+        roundRobin = new LowerWeightRoundRobin();
+        powerOfTwoChoices = new LowerLoadPowerOfTwoChoices();
+    }
+
+    @Benchmark
+    public HostWeight lowerWeightRoundRobin() {
+        Set<HostWeight> hostWeights;
+        lock.lock();
+        try {
+            hostWeights = hostWeightSet;
+        } finally {
+            lock.unlock();
+        }
+        return roundRobin.select(hostWeights);
+    }
+
+    /**
+     * selects and accounts the dispatch, the ack of the task is simulated right away to keep the counters stable
+     */
+    @Benchmark
+    public HostWeight powerOfTwoChoices() {
+        HostWeight hostWeight = powerOfTwoChoices.select(hostWeightSnapshot);
+        AtomicInteger counter = inFlightTasks.get(hostWeight);
+        counter.incrementAndGet();
+        counter.decrementAndGet();
+        return hostWeight;
+    }
+}
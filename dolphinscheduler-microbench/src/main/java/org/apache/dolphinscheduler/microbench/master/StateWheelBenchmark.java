@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.microbench.master;
+
+import org.apache.dolphinscheduler.microbench.base.AbstractBaseBenchmark;
+import org.apache.dolphinscheduler.server.master.runner.wheel.TimingWheel;
+import org.apache.dolphinscheduler.server.master.runner.wheel.TimingWheel.Timeout;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * cost of one state wheel tick: scanning every tracked check vs advancing the timing wheel.
+ * the tracked checks are kept constant, every expired check is tracked again one deadline span later.
+ */
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 4, time = 1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StateWheelBenchmark extends AbstractBaseBenchmark {
+
+    private static final long TICK_MILLIS = 100L;
+
+    /**
+     * deadlines are spread over one hour
+     */
+    private static final long DEADLINE_SPAN_MILLIS = 3_600_000L;
+
+    @Param({"10000", "100000", "1000000"})
+    private int trackedEntries;
+
+    /**
+     * key is taskInstanceId, value is deadline
+     */
+    private Map<Integer, Long> checkList;
+
+    private TimingWheel<Integer> timingWheel;
+
+    private long now;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1);
+        checkList = new ConcurrentHashMap<>(trackedEntries);
+        timingWheel = new TimingWheel<>(TICK_MILLIS, 64, 4, 0);
+        for (int i = 0; i < trackedEntries; i++) {
+            long deadline = 1 + (long) (random.nextDouble() * DEADLINE_SPAN_MILLIS);
+            checkList.put(i, deadline);
+            timingWheel.schedule(i, deadline);
+        }
+        now = 0;
+    }
+
+    @Benchmark
+    public int fullScanTick() {
+        now += TICK_MILLIS;
+        int expired = 0;
+        for (Map.Entry<Integer, Long> entry : checkList.entrySet()) {
+            long timeRemain = entry.getValue() - now;
+            if (timeRemain <= 0) {
+                entry.setValue(now + DEADLINE_SPAN_MILLIS);
+                expired++;
+            }
+        }
+        return expired;
+    }
+
+    @Benchmark
+    public int timingWheelTick() {
+        now += TICK_MILLIS;
+        List<Timeout<Integer>> expired = timingWheel.advance(now);
+        for (Timeout<Integer> timeout : expired) {
+            timingWheel.schedule(timeout.getItem(), now + DEADLINE_SPAN_MILLIS);
+        }
+        return expired.size();
+    }
+}
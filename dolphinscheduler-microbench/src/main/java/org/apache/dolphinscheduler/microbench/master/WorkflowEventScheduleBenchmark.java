@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.microbench.master;
+
+import org.apache.dolphinscheduler.common.Constants;
+import org.apache.dolphinscheduler.microbench.base.AbstractBaseBenchmark;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * workflow event scheduling in the master: the former event service sweeping every live workflow
+ * each {@link Constants#SLEEP_TIME_MILLIS_SHORT} ms vs a workflow putting itself on the executor
+ * once per burst of events, guarded by its schedule flag.
+ * the workflows only model the scheduling protocol, handling an event is a counter increment.
+ * idleSweep is what the sweep burns every tick while no workflow has an event, the signal driven
+ * scheduler does no work at all in that case.
+ */
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 4, time = 1)
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WorkflowEventScheduleBenchmark extends AbstractBaseBenchmark {
+
+    private static final int EXEC_THREADS = 4;
+
+    @Param({"1000", "10000", "50000"})
+    private int workflows;
+
+    private Workflow[] liveWorkflows;
+
+    private Map<String, Workflow> multiThreadFilterMap;
+
+    private ExecutorService executor;
+
+    private Thread sweepThread;
+
+    private volatile boolean sweeping;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        liveWorkflows = new Workflow[workflows];
+        for (int i = 0; i < workflows; i++) {
+            liveWorkflows[i] = new Workflow(i);
+        }
+        multiThreadFilterMap = new ConcurrentHashMap<>();
+        executor = Executors.newFixedThreadPool(EXEC_THREADS);
+        sweeping = true;
+        sweepThread = new Thread(() -> {
+            while (sweeping) {
+                sweep();
+                try {
+                    TimeUnit.MILLISECONDS.sleep(Constants.SLEEP_TIME_MILLIS_SHORT);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }, "EventSweep");
+        sweepThread.setDaemon(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        sweeping = false;
+        sweepThread.interrupt();
+        executor.shutdownNow();
+        executor.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * one pass of the former event service over idle workflows
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public int idleSweep() {
+        return sweep();
+    }
+
+    /**
+     * event published to a random workflow until it is handled, picked up by the next sweep
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public long pollingEventLatency() {
+        ensureSweeping();
+        Workflow workflow = randomWorkflow();
+        long expected = workflow.publish();
+        return workflow.awaitHandled(expected);
+    }
+
+    /**
+     * event published to a random workflow until it is handled, the workflow schedules itself
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public long signalEventLatency() {
+        Workflow workflow = randomWorkflow();
+        long expected = workflow.publish();
+        if (workflow.scheduled.compareAndSet(false, true)) {
+            executor.execute(() -> handle(workflow));
+        }
+        return workflow.awaitHandled(expected);
+    }
+
+    private void handle(Workflow workflow) {
+        workflow.handleEvents();
+        workflow.scheduled.set(false);
+        if (!workflow.events.isEmpty() && workflow.scheduled.compareAndSet(false, true)) {
+            executor.execute(() -> handle(workflow));
+        }
+    }
+
+    private int sweep() {
+        int submitted = 0;
+        for (Workflow workflow : liveWorkflows) {
+            if (!workflow.started || workflow.events.isEmpty()) {
+                continue;
+            }
+            if (multiThreadFilterMap.containsKey(workflow.key)) {
+                continue;
+            }
+            multiThreadFilterMap.put(workflow.key, workflow);
+            executor.execute(() -> {
+                workflow.handleEvents();
+                multiThreadFilterMap.remove(workflow.key);
+            });
+            submitted++;
+        }
+        return submitted;
+    }
+
+    private void ensureSweeping() {
+        if (!sweepThread.isAlive()) {
+            synchronized (this) {
+                if (!sweepThread.isAlive()) {
+                    sweepThread.start();
+                }
+            }
+        }
+    }
+
+    private Workflow randomWorkflow() {
+        return liveWorkflows[ThreadLocalRandom.current().nextInt(workflows)];
+    }
+
+    private static final class Workflow {
+
+        private final String key;
+
+        private volatile boolean started = true;
+
+        private final Queue<Long> events = new ConcurrentLinkedQueue<>();
+
+        private final AtomicLong published = new AtomicLong();
+
+        private final AtomicLong handled = new AtomicLong();
+
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+        private Workflow(int id) {
+            this.key = String.format("%d_%d_%d", id, 1, id);
+        }
+
+        private long publish() {
+            long sequence = published.incrementAndGet();
+            events.add(sequence);
+            return sequence;
+        }
+
+        private void handleEvents() {
+            Long sequence;
+            while ((sequence = events.poll()) != null) {
+                handled.accumulateAndGet(sequence, Math::max);
+            }
+        }
+
+        private long awaitHandled(long sequence) {
+            long current;
+            while ((current = handled.get()) < sequence) {
+                Thread.yield();
+            }
+            return current;
+        }
+    }
+}
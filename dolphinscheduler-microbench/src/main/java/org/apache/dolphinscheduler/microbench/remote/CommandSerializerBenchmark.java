@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.microbench.remote;
+
+import org.apache.dolphinscheduler.common.utils.JSONUtils;
+import org.apache.dolphinscheduler.microbench.base.AbstractBaseBenchmark;
+import org.apache.dolphinscheduler.remote.command.Command;
+import org.apache.dolphinscheduler.remote.command.CommandSerializer;
+import org.apache.dolphinscheduler.remote.command.TaskExecuteRequestCommand;
+import org.apache.dolphinscheduler.service.queue.entity.TaskExecutionContext;
+import org.apache.dolphinscheduler.spi.task.request.DataxTaskExecutionContext;
+import org.apache.dolphinscheduler.spi.task.request.SQLTaskExecutionContext;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * cost of one task dispatch with each command body serializer: building the dispatch command on the master,
+ * and reading the task execution context back on the worker. the body size of each case is printed on setup.
+ */
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 4, time = 1)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CommandSerializerBenchmark extends AbstractBaseBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommandSerializerBenchmark.class);
+
+    @Param({"JSON", "PROTOSTUFF"})
+    private CommandSerializer serializer;
+
+    @Param({"SQL", "DATAX"})
+    private String taskType;
+
+    private TaskExecutionContext taskExecutionContext;
+
+    private Command command;
+
+    @Setup
+    public void setup() {
+        taskExecutionContext = "SQL".equals(taskType) ? sqlTaskContext() : dataxTaskContext();
+        command = taskExecutionContext.toCommand(serializer);
+        logger.info("{} task dispatched with {}: {} body bytes", taskType, serializer, command.getBody().length);
+    }
+
+    @Benchmark
+    public Command serialize() {
+        return taskExecutionContext.toCommand(serializer);
+    }
+
+    @Benchmark
+    public TaskExecutionContext deserialize() {
+        TaskExecuteRequestCommand requestCommand = command.deserializeBody(TaskExecuteRequestCommand.class);
+        return JSONUtils.parseObject(requestCommand.getTaskExecutionContext(), TaskExecutionContext.class);
+    }
+
+    private static TaskExecutionContext baseTaskContext(String type, String taskParams) {
+        TaskExecutionContext context = new TaskExecutionContext();
+        context.setTaskInstanceId(10086);
+        context.setTaskName("benchmark-" + type.toLowerCase());
+        context.setTaskType(type);
+        context.setFirstSubmitTime(new Date());
+        context.setStartTime(new Date());
+        context.setHost("192.168.1.10:1234");
+        context.setExecutePath("/tmp/dolphinscheduler/exec/process/1/2/3/10086");
+        context.setLogPath("/opt/dolphinscheduler/logs/1_2/3/10086.log");
+        context.setProcessInstanceId(3);
+        context.setProcessDefineCode(4295838209024L);
+        context.setProcessDefineVersion(1);
+        context.setProjectCode(4295828213504L);
+        context.setTenantCode("tenant");
+        context.setQueue("default");
+        context.setWorkerGroup("default");
+        context.setEnvironmentConfig("export JAVA_HOME=/opt/java\nexport HADOOP_HOME=/opt/hadoop\nexport PATH=$JAVA_HOME/bin:$HADOOP_HOME/bin:$PATH");
+        context.setGlobalParams("[{\"prop\":\"bizdate\",\"direct\":\"IN\",\"type\":\"VARCHAR\",\"value\":\"$[yyyyMMdd-1]\"}]");
+        context.setTaskParams(taskParams);
+        return context;
+    }
+
+    private static TaskExecutionContext sqlTaskContext() {
+        String taskParams = "{\"type\":\"MYSQL\",\"datasource\":1,\"sql\":\"insert into dws_order_daily select dt, shop_id, "
+                + "count(distinct order_id) as order_cnt, sum(amount) as gmv from dwd_order where dt = '${bizdate}' "
+                + "and status in ('PAID', 'SHIPPED', 'FINISHED') group by dt, shop_id\",\"udfs\":\"\",\"sqlType\":\"1\","
+                + "\"sendEmail\":false,\"displayRows\":10,\"title\":\"\",\"groupId\":0,\"preStatements\":[\"set session "
+                + "sql_mode='STRICT_TRANS_TABLES'\"],\"postStatements\":[],\"localParams\":[{\"prop\":\"bizdate\","
+                + "\"direct\":\"IN\",\"type\":\"VARCHAR\",\"value\":\"${bizdate}\"}],\"connParams\":\"\"}";
+        TaskExecutionContext context = baseTaskContext("SQL", taskParams);
+        SQLTaskExecutionContext sqlTaskExecutionContext = new SQLTaskExecutionContext();
+        sqlTaskExecutionContext.setWarningGroupId(1);
+        sqlTaskExecutionContext.setConnectionParams("{\"user\":\"ds\",\"password\":\"******\",\"address\":\"jdbc:mysql://192.168.1.20:3306\","
+                + "\"database\":\"dw\",\"jdbcUrl\":\"jdbc:mysql://192.168.1.20:3306/dw\",\"driverClassName\":\"com.mysql.cj.jdbc.Driver\","
+                + "\"validationQuery\":\"select 1\",\"props\":{\"useSSL\":\"false\"}}");
+        context.setSqlTaskExecutionContext(sqlTaskExecutionContext);
+        return context;
+    }
+
+    private static TaskExecutionContext dataxTaskContext() {
+        String taskParams = "{\"customConfig\":0,\"dsType\":\"MYSQL\",\"dataSource\":1,\"dtType\":\"POSTGRESQL\",\"dataTarget\":2,"
+                + "\"sql\":\"select id, shop_id, order_id, amount, status, created_at from dwd_order where dt = '${bizdate}'\","
+                + "\"targetTable\":\"ods_order\",\"preStatements\":[\"delete from ods_order where dt = '${bizdate}'\"],"
+                + "\"postStatements\":[],\"jobSpeedByte\":0,\"jobSpeedRecord\":1000,\"xms\":1,\"xmx\":1,"
+                + "\"localParams\":[{\"prop\":\"bizdate\",\"direct\":\"IN\",\"type\":\"VARCHAR\",\"value\":\"${bizdate}\"}]}";
+        TaskExecutionContext context = baseTaskContext("DATAX", taskParams);
+        DataxTaskExecutionContext dataxTaskExecutionContext = new DataxTaskExecutionContext();
+        dataxTaskExecutionContext.setDataSourceId(1);
+        dataxTaskExecutionContext.setSourcetype(0);
+        dataxTaskExecutionContext.setSourceConnectionParams("{\"user\":\"ds\",\"password\":\"******\",\"address\":\"jdbc:mysql://192.168.1.20:3306\","
+                + "\"database\":\"dw\",\"jdbcUrl\":\"jdbc:mysql://192.168.1.20:3306/dw\"}");
+        dataxTaskExecutionContext.setDataTargetId(2);
+        dataxTaskExecutionContext.setTargetType(1);
+        dataxTaskExecutionContext.setTargetConnectionParams("{\"user\":\"ds\",\"password\":\"******\",\"address\":\"jdbc:postgresql://192.168.1.21:5432\","
+                + "\"database\":\"ods\",\"jdbcUrl\":\"jdbc:postgresql://192.168.1.21:5432/ods\"}");
+        context.setDataxTaskExecutionContext(dataxTaskExecutionContext);
+        return context;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.microbench.remote;
+
+import org.apache.dolphinscheduler.common.utils.JSONUtils;
+import org.apache.dolphinscheduler.microbench.base.AbstractBaseBenchmark;
+import org.apache.dolphinscheduler.remote.codec.NettyDecoder;
+import org.apache.dolphinscheduler.remote.codec.NettyEncoder;
+import org.apache.dolphinscheduler.remote.command.Command;
+import org.apache.dolphinscheduler.remote.command.log.RollViewLogResponseCommand;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+/**
+ * encode/decode throughput of the remote command codec.
+ * run with the gc profiler (-prof gc) to get the bytes allocated per message from gc.alloc.rate.norm
+ */
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 4, time = 1)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class NettyCodecBenchmark extends AbstractBaseBenchmark {
+
+    @Param({"128", "4096", "65536"})
+    private int bodySize;
+
+    private EmbeddedChannel encoderChannel;
+
+    private EmbeddedChannel decoderChannel;
+
+    private Command command;
+
+    private ByteBuf frame;
+
+    @Setup
+    public void setup() {
+        StringBuilder msg = new StringBuilder(bodySize);
+        for (int i = 0; i < bodySize; i++) {
+            msg.append((char) ('a' + i % 26));
+        }
+        command = new RollViewLogResponseCommand(msg.toString()).convert2Command(1);
+        encoderChannel = new EmbeddedChannel(new NettyEncoder());
+        decoderChannel = new EmbeddedChannel(new NettyDecoder());
+        encoderChannel.writeOutbound(command);
+        frame = encoderChannel.readOutbound();
+    }
+
+    @TearDown
+    public void tearDown() {
+        frame.release();
+        encoderChannel.finishAndReleaseAll();
+        decoderChannel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public int encode() {
+        encoderChannel.writeOutbound(command);
+        ByteBuf out = encoderChannel.readOutbound();
+        int length = out.readableBytes();
+        out.release();
+        return length;
+    }
+
+    @Benchmark
+    public Command decode() {
+        decoderChannel.writeInbound(frame.retainedDuplicate());
+        return decoderChannel.readInbound();
+    }
+
+    @Benchmark
+    public RollViewLogResponseCommand decodeAndDeserialize() {
+        decoderChannel.writeInbound(frame.retainedDuplicate());
+        Command decoded = decoderChannel.readInbound();
+        return JSONUtils.parseObject(decoded.getBody(), RollViewLogResponseCommand.class);
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.microbench.worker;
+
+import org.apache.dolphinscheduler.microbench.base.AbstractBaseBenchmark;
+import org.apache.dolphinscheduler.plugin.task.api.ProcessOutputPump;
+import org.apache.dolphinscheduler.spi.task.TaskConstants;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * output handling of concurrent task processes on one worker: a reader thread and a flush thread per task
+ * vs the shared process output pump. the peak thread count (the jdk process reaper threads included in both)
+ * and the cpu time of the jvm are logged after each iteration.
+ */
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProcessOutputPumpBenchmark extends AbstractBaseBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcessOutputPumpBenchmark.class);
+
+    private static final String SET_VALUE_PREFIX = "${setValue(";
+
+    @Param({"100", "500"})
+    private int tasks;
+
+    /**
+     * a task printing 400 lines in bursts and a var pool entry at the end
+     */
+    private final String script = "for i in $(seq 1 400); do echo \"line $i of the task output\"; "
+            + "if [ $((i % 100)) -eq 0 ]; then sleep 1; fi; done; echo '${setValue(out=1)}'";
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    private final AtomicLong lines = new AtomicLong();
+
+    private long cpuTime;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        threadMXBean.resetPeakThreadCount();
+        lines.set(0);
+        cpuTime = processCpuTime();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        logger.info("tasks: {}, lines: {}, peak threads: {}, cpu time: {} ms",
+                tasks, lines.get(), threadMXBean.getPeakThreadCount(),
+                TimeUnit.NANOSECONDS.toMillis(processCpuTime() - cpuTime));
+    }
+
+    @Benchmark
+    public long threadsPerTask() throws Exception {
+        List<Future<?>> futures = new ArrayList<>(tasks * 2);
+        List<ExecutorService> executors = new ArrayList<>(tasks * 2);
+        for (int i = 0; i < tasks; i++) {
+            Process process = start();
+            LinkedBlockingQueue<String> logBuffer = new LinkedBlockingQueue<>();
+            AtomicBoolean outputEnded = new AtomicBoolean(false);
+            ExecutorService readExecutor = Executors.newSingleThreadExecutor();
+            ExecutorService flushExecutor = Executors.newSingleThreadExecutor();
+            executors.add(readExecutor);
+            executors.add(flushExecutor);
+            futures.add(readExecutor.submit(() -> {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (!line.startsWith(SET_VALUE_PREFIX)) {
+                            logBuffer.add(line);
+                        }
+                    }
+                } catch (IOException e) {
+                    logger.error(e.getMessage(), e);
+                }
+                outputEnded.set(true);
+            }));
+            futures.add(flushExecutor.submit(() -> {
+                long lastFlushTime = System.currentTimeMillis();
+                while (logBuffer.size() > 0 || !outputEnded.get()) {
+                    if (logBuffer.size() > 0) {
+                        long now = System.currentTimeMillis();
+                        if (logBuffer.size() >= TaskConstants.DEFAULT_LOG_ROWS_NUM
+                                || now - lastFlushTime > TaskConstants.DEFAULT_LOG_FLUSH_INTERVAL) {
+                            lastFlushTime = now;
+                            drain(logBuffer);
+                        }
+                    } else {
+                        Thread.sleep(TaskConstants.DEFAULT_LOG_FLUSH_INTERVAL);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executors.forEach(ExecutorService::shutdown);
+        return lines.get();
+    }
+
+    @Benchmark
+    public long sharedPump() throws Exception {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            LinkedBlockingQueue<String> logBuffer = new LinkedBlockingQueue<>();
+            futures.add(ProcessOutputPump.getInstance().pump(start(), new ProcessOutputPump.OutputHandler() {
+                @Override
+                public void onLine(String line) {
+                    if (!line.startsWith(SET_VALUE_PREFIX)) {
+                        logBuffer.add(line);
+                    }
+                }
+
+                @Override
+                public int pendingLines() {
+                    return logBuffer.size();
+                }
+
+                @Override
+                public void flush() {
+                    drain(logBuffer);
+                }
+
+                @Override
+                public void onClose() {
+                    // nothing to release
+                }
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+        return lines.get();
+    }
+
+    private Process start() throws IOException {
+        return new ProcessBuilder("sh", "-c", script).redirectErrorStream(true).start();
+    }
+
+    private void drain(LinkedBlockingQueue<String> logBuffer) {
+        List<String> batch = new ArrayList<>(logBuffer.size());
+        logBuffer.drainTo(batch);
+        lines.addAndGet(batch.size());
+    }
+
+    private static long processCpuTime() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+    }
+}
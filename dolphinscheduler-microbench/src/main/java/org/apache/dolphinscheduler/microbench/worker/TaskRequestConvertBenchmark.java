@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.microbench.worker;
+
+import org.apache.dolphinscheduler.common.enums.DataType;
+import org.apache.dolphinscheduler.common.enums.Direct;
+import org.apache.dolphinscheduler.common.process.Property;
+import org.apache.dolphinscheduler.common.utils.JSONUtils;
+import org.apache.dolphinscheduler.microbench.base.AbstractBaseBenchmark;
+import org.apache.dolphinscheduler.service.queue.entity.TaskExecutionContext;
+import org.apache.dolphinscheduler.service.queue.entity.TaskRequestConverter;
+import org.apache.dolphinscheduler.spi.task.request.DataxTaskExecutionContext;
+import org.apache.dolphinscheduler.spi.task.request.TaskRequest;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * task start overhead of the worker: building the task request of the plugins (done when the task is cached
+ * and again when it runs) by a json round trip of the task execution context vs the direct conversion.
+ */
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 4, time = 1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskRequestConvertBenchmark extends AbstractBaseBenchmark {
+
+    /**
+     * size of the task params and of the var pool, in bytes
+     */
+    @Param({"1024", "65536"})
+    private int paramsSize;
+
+    private TaskExecutionContext taskExecutionContext;
+
+    @Setup
+    public void setup() {
+        Date now = new Date();
+        taskExecutionContext = new TaskExecutionContext();
+        taskExecutionContext.setTaskInstanceId(1);
+        taskExecutionContext.setTaskName("datax");
+        taskExecutionContext.setTaskType("DATAX");
+        taskExecutionContext.setFirstSubmitTime(now);
+        taskExecutionContext.setStartTime(now);
+        taskExecutionContext.setScheduleTime(now);
+        taskExecutionContext.setProcessInstanceId(2);
+        taskExecutionContext.setProcessDefineCode(3L);
+        taskExecutionContext.setTenantCode("tenant");
+        taskExecutionContext.setExecutePath("/tmp/dolphinscheduler/exec/process/1/2/3/1");
+        taskExecutionContext.setTaskParams("{\"json\":\"" + filler(paramsSize) + "\"}");
+        taskExecutionContext.setVarPool("[{\"prop\":\"out\",\"value\":\"" + filler(paramsSize) + "\"}]");
+        Map<String, String> resources = new HashMap<>();
+        Map<String, String> definedParams = new HashMap<>();
+        Map<String, Property> paramsMap = new HashMap<>();
+        for (int i = 0; i < 50; i++) {
+            resources.put("/resources/jars/udf-" + i + ".jar", "tenant");
+            definedParams.put("param" + i, "value" + i);
+            paramsMap.put("param" + i, new Property("param" + i, Direct.IN, DataType.VARCHAR, "value" + i));
+        }
+        taskExecutionContext.setResources(resources);
+        taskExecutionContext.setDefinedParams(definedParams);
+        taskExecutionContext.setParamsMap(paramsMap);
+        DataxTaskExecutionContext dataxTaskExecutionContext = new DataxTaskExecutionContext();
+        dataxTaskExecutionContext.setSourcetype(0);
+        dataxTaskExecutionContext.setSourceConnectionParams("{\"address\":\"jdbc:mysql://127.0.0.1:3306\"}");
+        dataxTaskExecutionContext.setTargetType(0);
+        dataxTaskExecutionContext.setTargetConnectionParams("{\"address\":\"jdbc:mysql://127.0.0.1:3306\"}");
+        taskExecutionContext.setDataxTaskExecutionContext(dataxTaskExecutionContext);
+    }
+
+    @Benchmark
+    public TaskRequest jsonRoundTrip() {
+        return JSONUtils.parseObject(JSONUtils.toJsonString(taskExecutionContext), TaskRequest.class);
+    }
+
+    @Benchmark
+    public TaskRequest directConvert() {
+        return TaskRequestConverter.toTaskRequest(taskExecutionContext);
+    }
+
+    private static String filler(int size) {
+        StringBuilder builder = new StringBuilder(size);
+        while (builder.length() < size) {
+            builder.append("select * from t where id = 1;");
+        }
+        return builder.substring(0, size);
+    }
+}
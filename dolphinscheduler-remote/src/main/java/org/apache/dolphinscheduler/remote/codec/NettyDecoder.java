@@ -19,29 +19,43 @@ package org.apache.dolphinscheduler.remote.codec;
 
 import org.apache.dolphinscheduler.remote.command.Command;
 import org.apache.dolphinscheduler.remote.command.CommandContext;
-import org.apache.dolphinscheduler.remote.command.CommandHeader;
+import org.apache.dolphinscheduler.remote.command.CommandSerializer;
 import org.apache.dolphinscheduler.remote.command.CommandType;
 
 import java.util.List;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.ReplayingDecoder;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
 
 /**
  * netty decoder
+ * <p>
+ * frame: magic(1) | version(1) | command type(1) | [serializer(1)] | opaque(8) | context length(4) | context | body length(4) | body.
+ * the serializer id is only present in frames of {@link Command#VERSION_WITH_SERIALIZER}, older frames are json.
+ * the lengths are peeked without moving the reader index, a frame is only decoded once it arrived completely,
+ * so partial frames are never parsed twice. the context is parsed straight from the cumulation buffer,
+ * the body is copied exactly once.
  */
-public class NettyDecoder extends ReplayingDecoder<NettyDecoder.State> {
-    private static final Logger logger = LoggerFactory.getLogger(NettyDecoder.class);
+public class NettyDecoder extends ByteToMessageDecoder {
 
-    public NettyDecoder() {
-        super(State.MAGIC);
-    }
+    /**
+     * command types indexed by ordinal, CommandType.values() clones the array on every call
+     */
+    private static final CommandType[] COMMAND_TYPES = CommandType.values();
+
+    /**
+     * magic + version + command type + opaque + context length
+     */
+    private static final int HEADER_LENGTH = 15;
+
+    /**
+     * the serializer id of a versioned frame is one more byte of header
+     */
+    private static final int SERIALIZER_LENGTH = 1;
 
-    private final CommandHeader commandHeader = new CommandHeader();
+    private static final int LENGTH_FIELD_LENGTH = 4;
 
     /**
      * decode
@@ -51,54 +65,43 @@ public class NettyDecoder extends ReplayingDecoder<NettyDecoder.State> {
      * @param out out content
      */
     @Override
-    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
-        switch (state()) {
-            case MAGIC:
-                checkMagic(in.readByte());
-                checkpoint(State.VERSION);
-                // fallthru
-            case VERSION:
-                checkVersion(in.readByte());
-                checkpoint(State.COMMAND);
-                // fallthru
-            case COMMAND:
-                commandHeader.setType(in.readByte());
-                checkpoint(State.OPAQUE);
-                // fallthru
-            case OPAQUE:
-                commandHeader.setOpaque(in.readLong());
-                checkpoint(State.CONTEXT_LENGTH);
-                // fallthru
-            case CONTEXT_LENGTH:
-                commandHeader.setContextLength(in.readInt());
-                checkpoint(State.CONTEXT);
-                // fallthru
-            case CONTEXT:
-                byte[] context = new byte[commandHeader.getContextLength()];
-                in.readBytes(context);
-                commandHeader.setContext(context);
-                checkpoint(State.BODY_LENGTH);
-                // fallthru
-            case BODY_LENGTH:
-                commandHeader.setBodyLength(in.readInt());
-                checkpoint(State.BODY);
-                // fallthru
-            case BODY:
-                byte[] body = new byte[commandHeader.getBodyLength()];
-                in.readBytes(body);
-                //
-                Command packet = new Command();
-                packet.setType(commandType(commandHeader.getType()));
-                packet.setOpaque(commandHeader.getOpaque());
-                packet.setContext(CommandContext.valueOf(commandHeader.getContext()));
-                packet.setBody(body);
-                out.add(packet);
-                //
-                checkpoint(State.MAGIC);
-                break;
-            default:
-                logger.warn("unknown decoder state {}", state());
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+        int readableBytes = in.readableBytes();
+        if (readableBytes < HEADER_LENGTH) {
+            return;
         }
+        int start = in.readerIndex();
+        checkMagic(in.getByte(start));
+        byte version = in.getByte(start + 1);
+        checkVersion(version);
+        int headerLength = version == Command.VERSION ? HEADER_LENGTH : HEADER_LENGTH + SERIALIZER_LENGTH;
+        if (readableBytes < headerLength) {
+            return;
+        }
+        int contextLength = checkLength(in.getInt(start + headerLength - LENGTH_FIELD_LENGTH), "context");
+        long bodyLengthOffset = (long) headerLength + contextLength;
+        if (readableBytes < bodyLengthOffset + LENGTH_FIELD_LENGTH) {
+            return;
+        }
+        int bodyLength = checkLength(in.getInt(start + (int) bodyLengthOffset), "body");
+        if (readableBytes < bodyLengthOffset + LENGTH_FIELD_LENGTH + bodyLength) {
+            return;
+        }
+
+        in.skipBytes(2);
+        Command packet = new Command(0);
+        packet.setType(commandType(in.readByte()));
+        if (version == Command.VERSION_WITH_SERIALIZER) {
+            packet.setSerializer(CommandSerializer.of(in.readByte()));
+        }
+        packet.setOpaque(in.readLong());
+        in.skipBytes(LENGTH_FIELD_LENGTH);
+        packet.setContext(CommandContext.valueOf(in.readSlice(contextLength)));
+        in.skipBytes(LENGTH_FIELD_LENGTH);
+        byte[] body = new byte[bodyLength];
+        in.readBytes(body);
+        packet.setBody(body);
+        out.add(packet);
     }
 
     /**
@@ -107,12 +110,7 @@ public class NettyDecoder extends ReplayingDecoder<NettyDecoder.State> {
      * @param type type
      */
     private CommandType commandType(byte type) {
-        for (CommandType ct : CommandType.values()) {
-            if (ct.ordinal() == type) {
-                return ct;
-            }
-        }
-        return null;
+        return type >= 0 && type < COMMAND_TYPES.length ? COMMAND_TYPES[type] : null;
     }
 
     /**
@@ -130,19 +128,18 @@ public class NettyDecoder extends ReplayingDecoder<NettyDecoder.State> {
      * check version
      */
     private void checkVersion(byte version) {
-        if (version != Command.VERSION) {
+        if (version != Command.VERSION && version != Command.VERSION_WITH_SERIALIZER) {
             throw new IllegalArgumentException("illegal protocol [version]" + version);
         }
     }
 
-    enum State {
-        MAGIC,
-        VERSION,
-        COMMAND,
-        OPAQUE,
-        CONTEXT_LENGTH,
-        CONTEXT,
-        BODY_LENGTH,
-        BODY;
+    /**
+     * check length field
+     */
+    private int checkLength(int length, String field) {
+        if (length < 0) {
+            throw new CorruptedFrameException("illegal packet [" + field + " length]" + length);
+        }
+        return length;
     }
 }
@@ -18,19 +18,44 @@
 package org.apache.dolphinscheduler.remote.codec;
 
 import org.apache.dolphinscheduler.remote.command.Command;
+import org.apache.dolphinscheduler.remote.command.CommandSerializer;
 import org.apache.dolphinscheduler.remote.exceptions.RemotingException;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.ChannelHandler.Sharable;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
 
 /**
  * netty encoder
+ * <p>
+ * the frame is written into one pooled direct buffer sized for the whole command up front,
+ * so the buffer never has to grow while writing
  */
 @Sharable
 public class NettyEncoder extends MessageToByteEncoder<Command> {
 
+    /**
+     * magic + version + command type + serializer + opaque + context length + body length
+     */
+    private static final int FIXED_LENGTH = 20;
+
+    /**
+     * estimated length of the serialized context, most commands carry an empty context
+     */
+    private static final int ESTIMATED_CONTEXT_LENGTH = 64;
+
+    public NettyEncoder() {
+        super(true);
+    }
+
+    @Override
+    protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, Command msg, boolean preferDirect) {
+        int bodyLength = msg == null || msg.getBody() == null ? 0 : msg.getBody().length;
+        return ctx.alloc().ioBuffer(FIXED_LENGTH + ESTIMATED_CONTEXT_LENGTH + bodyLength);
+    }
+
     /**
      * encode
      *
@@ -43,19 +68,44 @@ public class NettyEncoder extends MessageToByteEncoder<Command> {
         if (msg == null) {
             throw new RemotingException("encode msg is null");
         }
+        writeHeader(msg, msg.getBody().length, out);
+        out.writeBytes(msg.getBody());
+    }
+
+    /**
+     * encode the frame of a command without its body, the body of the given length is written next,
+     * e.g. as a file region so that it is sent from the file without being copied into the heap
+     *
+     * @param allocator allocator
+     * @param msg command, its body is ignored
+     * @param bodyLength length of the body following the header
+     * @return frame header
+     */
+    public static ByteBuf encodeHeader(ByteBufAllocator allocator, Command msg, int bodyLength) {
+        ByteBuf out = allocator.ioBuffer(FIXED_LENGTH + ESTIMATED_CONTEXT_LENGTH);
+        writeHeader(msg, bodyLength, out);
+        return out;
+    }
+
+    private static void writeHeader(Command msg, int bodyLength, ByteBuf out) {
         out.writeByte(Command.MAGIC);
-        out.writeByte(Command.VERSION);
-        out.writeByte(msg.getType().ordinal());
+        if (msg.getSerializer() == CommandSerializer.JSON) {
+            // json frames stay in the original layout so that older peers can read them
+            out.writeByte(Command.VERSION);
+            out.writeByte(msg.getType().ordinal());
+        } else {
+            out.writeByte(Command.VERSION_WITH_SERIALIZER);
+            out.writeByte(msg.getType().ordinal());
+            out.writeByte(msg.getSerializer().getId());
+        }
         out.writeLong(msg.getOpaque());
         writeContext(msg, out);
-        out.writeInt(msg.getBody().length);
-        out.writeBytes(msg.getBody());
+        out.writeInt(bodyLength);
     }
 
-    private void writeContext(Command msg, ByteBuf out) {
+    private static void writeContext(Command msg, ByteBuf out) {
         byte[] headerBytes = msg.getContext().toBytes();
         out.writeInt(headerBytes.length);
         out.writeBytes(headerBytes);
     }
 }
-
@@ -30,6 +30,11 @@ public class Command implements Serializable {
     public static final byte MAGIC = (byte) 0xbabe;
     public static final byte VERSION = 0;
 
+    /**
+     * frames of this version carry the body serializer id after the command type
+     */
+    public static final byte VERSION_WITH_SERIALIZER = 1;
+
     public Command(){
         this.opaque = REQUEST_ID.getAndIncrement();
     }
@@ -58,6 +63,11 @@ public class Command implements Serializable {
      */
     private byte[] body;
 
+    /**
+     * serializer of the body
+     */
+    private CommandSerializer serializer = CommandSerializer.JSON;
+
     public CommandType getType() {
         return type;
     }
@@ -82,6 +92,25 @@ public class Command implements Serializable {
         this.body = body;
     }
 
+    public CommandSerializer getSerializer() {
+        return serializer;
+    }
+
+    public void setSerializer(CommandSerializer serializer) {
+        this.serializer = serializer;
+    }
+
+    /**
+     * deserialize the body with the serializer it was written with
+     *
+     * @param clazz body class
+     * @param <T> body type
+     * @return body
+     */
+    public <T> T deserializeBody(Class<T> clazz) {
+        return serializer.deserialize(body, clazz);
+    }
+
     public CommandContext getContext() {
         return context;
     }
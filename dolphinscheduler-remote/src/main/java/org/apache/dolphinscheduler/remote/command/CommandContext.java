@@ -23,6 +23,9 @@ import java.io.Serializable;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+
 /**
  *  command context
  */
@@ -53,4 +56,11 @@ public class CommandContext implements Serializable {
     public static CommandContext valueOf(byte[] src) {
         return JSONUtils.parseObject(src, CommandContext.class);
     }
+
+    /**
+     * parse the context straight from the buffer, the reader index of the buffer is not changed
+     */
+    public static CommandContext valueOf(ByteBuf src) {
+        return JSONUtils.parseObject(new ByteBufInputStream(src.duplicate()), CommandContext.class);
+    }
 }
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.remote.command;
+
+import org.apache.dolphinscheduler.common.utils.JSONUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.protostuff.LinkedBuffer;
+import io.protostuff.ProtostuffIOUtil;
+import io.protostuff.Schema;
+import io.protostuff.runtime.RuntimeSchema;
+
+/**
+ * serializer of the command body, the id is carried in the command header so the receiver
+ * decodes the body with the serializer the sender used
+ */
+public enum CommandSerializer {
+
+    /**
+     * json, readable by every version
+     */
+    JSON((byte) 0) {
+        @Override
+        public <T> byte[] serialize(T obj) {
+            return JSONUtils.toJsonByteArray(obj);
+        }
+
+        @Override
+        public <T> T deserialize(byte[] src, Class<T> clazz) {
+            return JSONUtils.parseObject(src, clazz);
+        }
+    },
+
+    /**
+     * protostuff, fields are matched by declaration order, so both sides must run the same version
+     */
+    PROTOSTUFF((byte) 1) {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> byte[] serialize(T obj) {
+            Schema<T> schema = schema((Class<T>) obj.getClass());
+            LinkedBuffer buffer = BUFFERS.get();
+            try {
+                return ProtostuffIOUtil.toByteArray(obj, schema, buffer);
+            } finally {
+                buffer.clear();
+            }
+        }
+
+        @Override
+        public <T> T deserialize(byte[] src, Class<T> clazz) {
+            if (src == null) {
+                return null;
+            }
+            Schema<T> schema = schema(clazz);
+            T obj = schema.newMessage();
+            ProtostuffIOUtil.mergeFrom(src, obj, schema);
+            return obj;
+        }
+    };
+
+    /**
+     * protostuff buffers are not thread safe, keep one per thread
+     */
+    private static final ThreadLocal<LinkedBuffer> BUFFERS = ThreadLocal.withInitial(() -> LinkedBuffer.allocate(LinkedBuffer.DEFAULT_BUFFER_SIZE));
+
+    private static final Map<Class<?>, Schema<?>> SCHEMAS = new ConcurrentHashMap<>();
+
+    private static final CommandSerializer[] SERIALIZERS = values();
+
+    private final byte id;
+
+    CommandSerializer(byte id) {
+        this.id = id;
+    }
+
+    public byte getId() {
+        return id;
+    }
+
+    public abstract <T> byte[] serialize(T obj);
+
+    public abstract <T> T deserialize(byte[] src, Class<T> clazz);
+
+    /**
+     * get serializer by id
+     *
+     * @param id serializer id
+     * @return serializer
+     * @throws IllegalArgumentException if the id is unknown
+     */
+    public static CommandSerializer of(byte id) {
+        for (CommandSerializer serializer : SERIALIZERS) {
+            if (serializer.id == id) {
+                return serializer;
+            }
+        }
+        throw new IllegalArgumentException("unknown command serializer : " + id);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Schema<T> schema(Class<T> clazz) {
+        return (Schema<T>) SCHEMAS.computeIfAbsent(clazz, RuntimeSchema::createFrom);
+    }
+}
@@ -148,5 +148,15 @@ public enum CommandType {
     /**
      * task state event request
      */
-    TASK_WAKEUP_EVENT_REQUEST;
+    TASK_WAKEUP_EVENT_REQUEST,
+
+    /**
+     * get log chunk request
+     */
+    GET_LOG_CHUNK_REQUEST,
+
+    /**
+     * get log chunk response, the body is the raw chunk of the log file
+     */
+    GET_LOG_CHUNK_RESPONSE;
 }
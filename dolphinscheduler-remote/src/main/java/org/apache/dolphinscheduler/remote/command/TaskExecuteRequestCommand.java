@@ -17,8 +17,6 @@
 
 package org.apache.dolphinscheduler.remote.command;
 
-import org.apache.dolphinscheduler.common.utils.JSONUtils;
-
 import java.io.Serializable;
 
 /**
@@ -52,10 +50,20 @@ public class TaskExecuteRequestCommand implements Serializable {
      * @return command
      */
     public Command convert2Command() {
+        return convert2Command(CommandSerializer.JSON);
+    }
+
+    /**
+     * package command with the given body serializer
+     *
+     * @param serializer body serializer
+     * @return command
+     */
+    public Command convert2Command(CommandSerializer serializer) {
         Command command = new Command();
         command.setType(CommandType.TASK_EXECUTE_REQUEST);
-        byte[] body = JSONUtils.toJsonByteArray(this);
-        command.setBody(body);
+        command.setSerializer(serializer);
+        command.setBody(serializer.serialize(this));
         return command;
     }
 
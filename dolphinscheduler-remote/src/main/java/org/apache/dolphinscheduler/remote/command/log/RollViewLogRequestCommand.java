@@ -43,6 +43,11 @@ public class RollViewLogRequestCommand implements Serializable {
      */
     private int limit;
 
+    /**
+     *  offset of the line to read from, the skip line number is used when it is negative
+     */
+    private long offset = -1;
+
     public RollViewLogRequestCommand() {
     }
 
@@ -76,6 +81,14 @@ public class RollViewLogRequestCommand implements Serializable {
         this.limit = limit;
     }
 
+    public long getOffset() {
+        return offset;
+    }
+
+    public void setOffset(long offset) {
+        this.offset = offset;
+    }
+
     /**
      * package request command
      *
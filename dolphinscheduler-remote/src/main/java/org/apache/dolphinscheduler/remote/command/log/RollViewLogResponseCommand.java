@@ -33,6 +33,11 @@ public class RollViewLogResponseCommand implements Serializable {
      */
     private String msg;
 
+    /**
+     *  offset of the line after the last complete line returned
+     */
+    private long nextOffset;
+
     public RollViewLogResponseCommand() {
     }
 
@@ -40,6 +45,11 @@ public class RollViewLogResponseCommand implements Serializable {
         this.msg = msg;
     }
 
+    public RollViewLogResponseCommand(String msg, long nextOffset) {
+        this.msg = msg;
+        this.nextOffset = nextOffset;
+    }
+
     public String getMsg() {
         return msg;
     }
@@ -48,6 +58,14 @@ public class RollViewLogResponseCommand implements Serializable {
         this.msg = msg;
     }
 
+    public long getNextOffset() {
+        return nextOffset;
+    }
+
+    public void setNextOffset(long nextOffset) {
+        this.nextOffset = nextOffset;
+    }
+
     /**
      * package response command
      *
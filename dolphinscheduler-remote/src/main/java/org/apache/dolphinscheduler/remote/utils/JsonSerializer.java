@@ -18,7 +18,7 @@
 package org.apache.dolphinscheduler.remote.utils;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,6 +26,9 @@ import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+
 /**
  * json serialize or deserialize
  */
@@ -45,14 +48,13 @@ public class JsonSerializer {
      * @return byte array
      */
     public static <T> byte[] serialize(T obj) {
-        String json = "";
         try {
-            json = objectMapper.writeValueAsString(obj);
+            return objectMapper.writeValueAsBytes(obj);
         } catch (JsonProcessingException e) {
             logger.error("serializeToString exception!", e);
         }
 
-        return json.getBytes(Constants.UTF8);
+        return new byte[0];
     }
 
     /**
@@ -82,15 +84,29 @@ public class JsonSerializer {
      * @return deserialize type
      */
     public static <T> T deserialize(byte[] src, Class<T> clazz) {
-
-        String json = new String(src, StandardCharsets.UTF_8);
         try {
-            return objectMapper.readValue(json, clazz);
+            return objectMapper.readValue(src, clazz);
         } catch (IOException e) {
             logger.error("deserialize exception!", e);
             return null;
         }
+    }
 
+    /**
+     * deserialize straight from the buffer, the reader index of the buffer is not changed
+     *
+     * @param src byte buffer
+     * @param clazz class
+     * @param <T> deserialize type
+     * @return deserialize type
+     */
+    public static <T> T deserialize(ByteBuf src, Class<T> clazz) {
+        try (ByteBufInputStream in = new ByteBufInputStream(src.duplicate())) {
+            return objectMapper.readValue((InputStream) in, clazz);
+        } catch (IOException e) {
+            logger.error("deserialize exception!", e);
+            return null;
+        }
     }
 
 }
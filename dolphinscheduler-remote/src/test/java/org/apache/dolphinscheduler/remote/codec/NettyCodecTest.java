@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.remote.codec;
+
+import org.apache.dolphinscheduler.remote.command.Command;
+import org.apache.dolphinscheduler.remote.command.CommandSerializer;
+import org.apache.dolphinscheduler.remote.command.CommandType;
+import org.apache.dolphinscheduler.remote.command.TaskExecuteAckCommand;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.DecoderException;
+
+/**
+ * NettyCodecTest
+ */
+public class NettyCodecTest {
+
+    @Test
+    public void testEncodeDecode() {
+        Command command = newCommand("hello");
+        Command decoded = decode(encode(command));
+
+        Assert.assertEquals(CommandType.PING, decoded.getType());
+        Assert.assertEquals(command.getOpaque(), decoded.getOpaque());
+        Assert.assertEquals("v", decoded.getContext().get("k"));
+        Assert.assertEquals("hello", new String(decoded.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testJsonFrameKeepsOriginalLayout() {
+        ByteBuf encoded = encode(newCommand("hello"));
+        Assert.assertEquals(Command.VERSION, encoded.getByte(1));
+        Assert.assertEquals(CommandSerializer.JSON, decode(encoded).getSerializer());
+    }
+
+    @Test
+    public void testEncodeDecodeWithSerializer() {
+        TaskExecuteAckCommand ackCommand = new TaskExecuteAckCommand();
+        ackCommand.setTaskInstanceId(1);
+        ackCommand.setProcessInstanceId(2);
+        ackCommand.setHost("127.0.0.1:1234");
+        ackCommand.setStartTime(new Date(1000L));
+        Command command = ackCommand.convert2Command(CommandSerializer.PROTOSTUFF);
+        ByteBuf encoded = encode(command);
+        Assert.assertEquals(Command.VERSION_WITH_SERIALIZER, encoded.getByte(1));
+
+        Command decoded = decode(encoded);
+        Assert.assertEquals(CommandType.TASK_EXECUTE_ACK, decoded.getType());
+        Assert.assertEquals(command.getOpaque(), decoded.getOpaque());
+        Assert.assertEquals(CommandSerializer.PROTOSTUFF, decoded.getSerializer());
+        TaskExecuteAckCommand decodedAck = decoded.deserializeBody(TaskExecuteAckCommand.class);
+        Assert.assertEquals(1, decodedAck.getTaskInstanceId());
+        Assert.assertEquals(2, decodedAck.getProcessInstanceId());
+        Assert.assertEquals("127.0.0.1:1234", decodedAck.getHost());
+        Assert.assertEquals(new Date(1000L), decodedAck.getStartTime());
+    }
+
+    @Test
+    public void testDecodeFragmentedFrames() {
+        Command first = newCommand("first");
+        Command second = newCommand("second");
+        second.setSerializer(CommandSerializer.PROTOSTUFF);
+        ByteBuf frames = Unpooled.buffer();
+        ByteBuf encoded = encode(first);
+        frames.writeBytes(encoded);
+        encoded.release();
+        encoded = encode(second);
+        frames.writeBytes(encoded);
+        encoded.release();
+
+        EmbeddedChannel channel = new EmbeddedChannel(new NettyDecoder());
+        while (frames.isReadable()) {
+            channel.writeInbound(frames.readRetainedSlice(1));
+        }
+        frames.release();
+
+        Command decoded = channel.readInbound();
+        Assert.assertEquals(first.getOpaque(), decoded.getOpaque());
+        Assert.assertEquals("first", new String(decoded.getBody(), StandardCharsets.UTF_8));
+        decoded = channel.readInbound();
+        Assert.assertEquals(second.getOpaque(), decoded.getOpaque());
+        Assert.assertEquals("second", new String(decoded.getBody(), StandardCharsets.UTF_8));
+        Assert.assertNull(channel.readInbound());
+        Assert.assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testEncodeHeaderWithSeparateBody() {
+        Command command = newCommand("");
+        ByteBuf frame = NettyEncoder.encodeHeader(UnpooledByteBufAllocator.DEFAULT, command, 5);
+        frame.writeBytes("chunk".getBytes(StandardCharsets.UTF_8));
+
+        Command decoded = decode(frame);
+        Assert.assertEquals(command.getOpaque(), decoded.getOpaque());
+        Assert.assertEquals("v", decoded.getContext().get("k"));
+        Assert.assertEquals("chunk", new String(decoded.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test(expected = DecoderException.class)
+    public void testDecodeIllegalMagic() {
+        ByteBuf encoded = encode(newCommand("hello"));
+        encoded.setByte(0, 0);
+        decode(encoded);
+    }
+
+    private Command newCommand(String body) {
+        Command command = new Command();
+        command.setType(CommandType.PING);
+        command.getContext().put("k", "v");
+        command.setBody(body.getBytes(StandardCharsets.UTF_8));
+        return command;
+    }
+
+    private ByteBuf encode(Command command) {
+        EmbeddedChannel channel = new EmbeddedChannel(new NettyEncoder());
+        Assert.assertTrue(channel.writeOutbound(command));
+        ByteBuf encoded = channel.readOutbound();
+        channel.finish();
+        return encoded;
+    }
+
+    private Command decode(ByteBuf encoded) {
+        EmbeddedChannel channel = new EmbeddedChannel(new NettyDecoder());
+        Assert.assertTrue(channel.writeInbound(encoded));
+        Command decoded = channel.readInbound();
+        channel.finish();
+        return decoded;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.service.log;
+
+import org.apache.dolphinscheduler.remote.NettyRemotingClient;
+import org.apache.dolphinscheduler.remote.command.Command;
+import org.apache.dolphinscheduler.remote.command.log.GetLogChunkRequestCommand;
+import org.apache.dolphinscheduler.remote.exceptions.RemotingException;
+import org.apache.dolphinscheduler.remote.utils.Host;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.InputStream;
+
+/**
+ * stream of a remote log file, fetched chunk by chunk from the log server.
+ * the next chunk is only requested when the previous one was read, so a download holds one chunk at a time
+ * and goes as fast as its reader. The channel to the log server belongs to the client and is left open.
+ */
+class LogChunkInputStream extends InputStream {
+
+    private static final byte[] EMPTY_CHUNK = new byte[0];
+
+    /**
+     * a chunk is requested again once, as the client connects again if the channel went inactive
+     */
+    private static final int MAX_FETCH_ATTEMPTS = 2;
+
+    private final NettyRemotingClient client;
+
+    private final Host address;
+
+    private final String path;
+
+    private final int chunkSize;
+
+    private final long timeoutMillis;
+
+    private byte[] chunk = EMPTY_CHUNK;
+
+    private int position;
+
+    /**
+     * offset of the next chunk in the log file
+     */
+    private long offset;
+
+    private boolean lastChunk;
+
+    private boolean closed;
+
+    LogChunkInputStream(NettyRemotingClient client, Host address, String path, int chunkSize, long timeoutMillis) {
+        this.client = client;
+        this.address = address;
+        this.path = path;
+        this.chunkSize = chunkSize;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return chunk[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int length = Math.min(len, chunk.length - position);
+        System.arraycopy(chunk, position, b, off, length);
+        position += length;
+        return length;
+    }
+
+    @Override
+    public int available() {
+        return chunk.length - position;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        chunk = EMPTY_CHUNK;
+    }
+
+    /**
+     * @return false at the end of the file
+     */
+    private boolean fill() throws IOException {
+        if (closed) {
+            throw new IOException("stream closed");
+        }
+        while (position == chunk.length) {
+            if (lastChunk) {
+                return false;
+            }
+            chunk = fetch();
+            position = 0;
+            offset += chunk.length;
+            lastChunk = chunk.length < chunkSize;
+        }
+        return true;
+    }
+
+    private byte[] fetch() throws IOException {
+        GetLogChunkRequestCommand request = new GetLogChunkRequestCommand(path, offset, chunkSize);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Command response = client.sendSync(address, request.convert2Command(), timeoutMillis);
+                return response.getBody() == null ? EMPTY_CHUNK : response.getBody();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("get log chunk interrupted");
+            } catch (RemotingException e) {
+                if (attempt >= MAX_FETCH_ATTEMPTS) {
+                    throw new IOException(String.format("get log chunk of %s at %d from %s failed", path, offset, address), e);
+                }
+            }
+        }
+    }
+}
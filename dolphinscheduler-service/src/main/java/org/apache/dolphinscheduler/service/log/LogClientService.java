@@ -33,6 +33,8 @@ import org.apache.dolphinscheduler.remote.command.log.ViewLogResponseCommand;
 import org.apache.dolphinscheduler.remote.config.NettyClientConfig;
 import org.apache.dolphinscheduler.remote.utils.Host;
 
+import java.io.InputStream;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,6 +49,11 @@ public class LogClientService implements AutoCloseable {
 
     private final NettyRemotingClient client;
 
+    /**
+     * client of the log streams, its channels stay open as the other requests close the channels of the client
+     */
+    private final NettyRemotingClient streamClient;
+
     private volatile boolean isRunning;
 
     /**
@@ -54,6 +61,11 @@ public class LogClientService implements AutoCloseable {
      */
     private static final long LOG_REQUEST_TIMEOUT = 10 * 1000L;
 
+    /**
+     * size of the chunks of a log stream
+     */
+    private static final int LOG_CHUNK_SIZE = 1024 * 1024;
+
     /**
      * construct client
      */
@@ -61,6 +73,7 @@ public class LogClientService implements AutoCloseable {
         this.clientConfig = new NettyClientConfig();
         this.clientConfig.setWorkerThreads(4);
         this.client = new NettyRemotingClient(clientConfig);
+        this.streamClient = new NettyRemotingClient(clientConfig);
         this.isRunning = true;
     }
 
@@ -70,6 +83,7 @@ public class LogClientService implements AutoCloseable {
     @Override
     public void close() {
         this.client.close();
+        this.streamClient.close();
         this.isRunning = false;
         logger.info("logger client closed");
     }
@@ -105,6 +119,35 @@ public class LogClientService implements AutoCloseable {
         return result;
     }
 
+    /**
+     * tail log, reads the complete lines after an offset
+     *
+     * @param host host
+     * @param port port
+     * @param path path
+     * @param offset offset of the line to read from, the next offset of the previous response or 0
+     * @param limit limit
+     * @return log content and the offset to read the following lines from
+     */
+    public RollViewLogResponseCommand tailLog(String host, int port, String path, long offset, int limit) {
+        logger.info("tail log, host : {}, port : {}, path {}, offset {} ,limit {}", host, port, path, offset, limit);
+        RollViewLogRequestCommand request = new RollViewLogRequestCommand(path, 0, limit);
+        request.setOffset(Math.max(offset, 0));
+        final Host address = new Host(host, port);
+        try {
+            Command command = request.convert2Command();
+            Command response = this.client.sendSync(address, command, LOG_REQUEST_TIMEOUT);
+            if (response != null) {
+                return JSONUtils.parseObject(response.getBody(), RollViewLogResponseCommand.class);
+            }
+        } catch (Exception e) {
+            logger.error("tail log error", e);
+        } finally {
+            this.client.closeChannel(address);
+        }
+        return new RollViewLogResponseCommand("", offset);
+    }
+
     /**
      * view log
      *
@@ -166,6 +209,19 @@ public class LogClientService implements AutoCloseable {
         return new byte[0];
     }
 
+    /**
+     * get log stream, the log is fetched chunk by chunk while the stream is read
+     *
+     * @param host host
+     * @param port port
+     * @param path log path
+     * @return log content stream, it must be closed
+     */
+    public InputStream getLogStream(String host, int port, String path) {
+        logger.info("log stream path {}", path);
+        return new LogChunkInputStream(this.streamClient, new Host(host, port), path, LOG_CHUNK_SIZE, LOG_REQUEST_TIMEOUT);
+    }
+
     /**
      * remove task log
      *
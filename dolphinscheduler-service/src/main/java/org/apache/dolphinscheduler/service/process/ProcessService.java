@@ -116,6 +116,7 @@ import org.apache.dolphinscheduler.spi.enums.ResourceType;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
+import org.apache.ibatis.session.SqlSession;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -136,6 +137,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.baomidou.mybatisplus.extension.toolkit.SqlHelper;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.collect.Lists;
@@ -154,6 +156,11 @@ public class ProcessService {
             ExecutionStatus.READY_PAUSE.ordinal(),
             ExecutionStatus.READY_STOP.ordinal()};
 
+    /**
+     * max attempts to claim commands in one fetch, other masters may claim the same candidates concurrently
+     */
+    private static final int CLAIM_COMMAND_MAX_ATTEMPTS = 3;
+
     @Autowired
     private UserMapper userMapper;
 
@@ -365,6 +372,40 @@ public class ProcessService {
         return commandMapper.queryCommandPage(pageSize, pageNumber * pageSize);
     }
 
+    /**
+     * claim commands for the given master host and return the commands owned by it.
+     * the commands claimed before but not handled yet (e.g. the master restarted) will be returned first.
+     *
+     * @param host master host
+     * @param fetchNum max command number to return
+     * @return commands claimed by the host
+     */
+    public List<Command> claimCommands(String host, int fetchNum) {
+        List<Command> claimedCommands = commandMapper.queryClaimedCommands(host, fetchNum);
+        int attempts = 0;
+        while (claimedCommands.size() < fetchNum && attempts++ < CLAIM_COMMAND_MAX_ATTEMPTS) {
+            List<Integer> candidateIds = commandMapper.queryUnclaimedCommandIds(fetchNum - claimedCommands.size());
+            if (CollectionUtils.isEmpty(candidateIds)) {
+                break;
+            }
+            // candidates may be claimed by other masters at the same time, retry if none of them is claimed
+            if (commandMapper.claimCommands(host, new Date(), candidateIds) > 0) {
+                claimedCommands = commandMapper.queryClaimedCommands(host, fetchNum);
+            }
+        }
+        return claimedCommands;
+    }
+
+    /**
+     * release the commands claimed by the given master host, so that other masters can claim them
+     *
+     * @param host master host
+     * @return released command count
+     */
+    public int releaseClaimedCommands(String host) {
+        return commandMapper.releaseClaimedCommands(host);
+    }
+
     /**
      * check the input command exists in queue list
      *
@@ -1528,6 +1569,26 @@ public class ProcessService {
         return count > 0;
     }
 
+    /**
+     * update task instances with one jdbc batch in one transaction
+     *
+     * @param taskInstances task instances
+     */
+    @Transactional(rollbackFor = RuntimeException.class)
+    public void batchUpdateTaskInstance(List<TaskInstance> taskInstances) {
+        if (CollectionUtils.isEmpty(taskInstances)) {
+            return;
+        }
+        try (SqlSession batchSqlSession = SqlHelper.sqlSessionBatch(TaskInstance.class)) {
+            TaskInstanceMapper batchMapper = batchSqlSession.getMapper(TaskInstanceMapper.class);
+            for (TaskInstance taskInstance : taskInstances) {
+                batchMapper.updateById(taskInstance);
+            }
+            batchSqlSession.flushStatements();
+            batchSqlSession.commit();
+        }
+    }
+
     /**
      * find task instance by id
      *
@@ -57,6 +57,11 @@ public class TaskPriority implements Comparable<TaskPriority> {
      */
     private String groupName;
 
+    /**
+     * submit time in nanos of this jvm, kept when the task is put back into the queue
+     */
+    private final long submitTime = System.nanoTime();
+
     /**
      * context
      */
@@ -127,6 +132,10 @@ public class TaskPriority implements Comparable<TaskPriority> {
         this.groupName = groupName;
     }
 
+    public long getSubmitTime() {
+        return submitTime;
+    }
+
     public void setContext(Map<String, String> context) {
         this.context = context;
     }
@@ -17,37 +17,111 @@
 
 package org.apache.dolphinscheduler.service.queue;
 
+import org.apache.dolphinscheduler.common.Constants;
 import org.apache.dolphinscheduler.service.exceptions.TaskPriorityQueueException;
 
-import java.util.concurrent.PriorityBlockingQueue;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.springframework.stereotype.Service;
 
 /**
- * A singleton of a task queue implemented using PriorityBlockingQueue
+ * A singleton of a task queue with one priority queue per worker group.
+ * <p>
+ * the groups are polled in a weighted round robin, a group is served up to its weight of tasks in a row.
+ * each group holds at most capacity tasks, {@link #offer} waits a bounded time for the group to have room, so a stuck
+ * group pushes back on the producers of this group only. a group without live workers can be parked, its tasks are
+ * kept but not polled until the group is unparked.
  */
 @Service
-public class TaskPriorityQueueImpl implements TaskPriorityQueue<TaskPriority> {
+public class TaskPriorityQueueImpl implements WorkerGroupTaskPriorityQueue {
     /**
-     * queue size
+     * default max tasks of one worker group
      */
     private static final Integer QUEUE_MAX_SIZE = 3000;
 
+    private static final int DEFAULT_GROUP_WEIGHT = 1;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * signaled when a task can be polled
+     */
+    private final Condition notEmpty = lock.newCondition();
+
+    /**
+     * all groups, key is the lower case worker group
+     */
+    private final Map<String, GroupQueue> groups = new HashMap<>();
+
+    /**
+     * not empty and not parked groups in round robin order, the head is served
+     */
+    private final Deque<GroupQueue> readyGroups = new ArrayDeque<>();
+
     /**
-     * queue
+     * tasks served in a row from the head of the ready groups
      */
-    private PriorityBlockingQueue<TaskPriority> queue = new PriorityBlockingQueue<>(QUEUE_MAX_SIZE);
+    private int served;
+
+    private int size;
+
+    private volatile int capacity = QUEUE_MAX_SIZE;
 
     /**
-     * put task takePriorityInfo
+     * put task takePriorityInfo, it does not wait for the group capacity, used to put back a task which failed to dispatch
      *
      * @param taskPriorityInfo takePriorityInfo
      * @throws TaskPriorityQueueException
      */
     @Override
     public void put(TaskPriority taskPriorityInfo) throws TaskPriorityQueueException {
-        queue.put(taskPriorityInfo);
+        lock.lock();
+        try {
+            enqueue(getGroup(taskPriorityInfo.getGroupName()), taskPriorityInfo);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * put task takePriorityInfo, waits at most the timeout while the worker group of the task is full
+     *
+     * @param taskPriorityInfo takePriorityInfo
+     * @param timeout max time to wait
+     * @param unit unit of the timeout
+     * @return false if the worker group is still full after the timeout
+     * @throws TaskPriorityQueueException
+     * @throws InterruptedException
+     */
+    @Override
+    public boolean offer(TaskPriority taskPriorityInfo, long timeout, TimeUnit unit) throws TaskPriorityQueueException, InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            GroupQueue group = getGroup(taskPriorityInfo.getGroupName());
+            while (group.tasks.size() >= capacity) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = group.notFull.awaitNanos(nanos);
+            }
+            enqueue(group, taskPriorityInfo);
+            return true;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -58,7 +132,15 @@ public class TaskPriorityQueueImpl implements TaskPriorityQueue<TaskPriority> {
      */
     @Override
     public TaskPriority take() throws TaskPriorityQueueException, InterruptedException {
-        return queue.take();
+        lock.lockInterruptibly();
+        try {
+            while (readyGroups.isEmpty()) {
+                notEmpty.await();
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -72,17 +154,227 @@ public class TaskPriorityQueueImpl implements TaskPriorityQueue<TaskPriority> {
      */
     @Override
     public TaskPriority poll(long timeout, TimeUnit unit) throws TaskPriorityQueueException, InterruptedException {
-        return queue.poll(timeout,unit);
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (readyGroups.isEmpty()) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
-     * queue size
+     * queue size, parked tasks included
      *
      * @return size
      * @throws TaskPriorityQueueException
      */
     @Override
     public int size() throws TaskPriorityQueueException {
-        return queue.size();
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * size of a worker group
+     *
+     * @param workerGroup worker group
+     * @return size
+     */
+    @Override
+    public int size(String workerGroup) {
+        lock.lock();
+        try {
+            GroupQueue group = groups.get(normalizeWorkerGroup(workerGroup));
+            return group == null ? 0 : group.tasks.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * queue size, parked tasks excluded
+     *
+     * @return size
+     */
+    @Override
+    public int readySize() {
+        lock.lock();
+        try {
+            int readySize = 0;
+            for (GroupQueue group : readyGroups) {
+                readySize += group.tasks.size();
+            }
+            return readySize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the worker groups seen so far
+     */
+    @Override
+    public List<String> getWorkerGroups() {
+        lock.lock();
+        try {
+            return Collections.unmodifiableList(new ArrayList<>(groups.keySet()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * stop polling the tasks of the worker group
+     *
+     * @param workerGroup worker group
+     */
+    @Override
+    public void park(String workerGroup) {
+        lock.lock();
+        try {
+            GroupQueue group = getGroup(workerGroup);
+            if (group.parked) {
+                return;
+            }
+            group.parked = true;
+            if (readyGroups.peekFirst() == group) {
+                served = 0;
+            }
+            readyGroups.remove(group);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * resume polling the tasks of the worker group
+     *
+     * @param workerGroup worker group
+     */
+    @Override
+    public void unpark(String workerGroup) {
+        lock.lock();
+        try {
+            GroupQueue group = groups.get(normalizeWorkerGroup(workerGroup));
+            if (group == null || !group.parked) {
+                return;
+            }
+            group.parked = false;
+            if (!group.tasks.isEmpty()) {
+                readyGroups.addLast(group);
+                notEmpty.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isParked(String workerGroup) {
+        lock.lock();
+        try {
+            GroupQueue group = groups.get(normalizeWorkerGroup(workerGroup));
+            return group != null && group.parked;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param capacity max tasks of one worker group
+     */
+    @Override
+    public void setCapacity(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("task priority queue capacity must be positive");
+        }
+        lock.lock();
+        try {
+            this.capacity = capacity;
+            for (GroupQueue group : groups.values()) {
+                group.notFull.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param workerGroup worker group
+     * @param weight tasks polled in a row from the group
+     */
+    @Override
+    public void setWeight(String workerGroup, int weight) {
+        lock.lock();
+        try {
+            getGroup(workerGroup).weight = Math.max(1, weight);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(GroupQueue group, TaskPriority taskPriorityInfo) {
+        boolean wasEmpty = group.tasks.isEmpty();
+        group.tasks.offer(taskPriorityInfo);
+        size++;
+        if (wasEmpty && !group.parked) {
+            readyGroups.addLast(group);
+            notEmpty.signal();
+        }
+    }
+
+    private TaskPriority dequeue() {
+        GroupQueue group = readyGroups.peekFirst();
+        TaskPriority taskPriority = group.tasks.poll();
+        size--;
+        served++;
+        if (group.tasks.isEmpty()) {
+            readyGroups.pollFirst();
+            served = 0;
+        } else if (served >= group.weight) {
+            readyGroups.addLast(readyGroups.pollFirst());
+            served = 0;
+        }
+        group.notFull.signal();
+        if (!readyGroups.isEmpty()) {
+            notEmpty.signal();
+        }
+        return taskPriority;
+    }
+
+    private GroupQueue getGroup(String workerGroup) {
+        return groups.computeIfAbsent(normalizeWorkerGroup(workerGroup), key -> new GroupQueue());
+    }
+
+    /**
+     * worker groups are case insensitive, same as the registry
+     */
+    public static String normalizeWorkerGroup(String workerGroup) {
+        return StringUtils.isEmpty(workerGroup) ? Constants.DEFAULT_WORKER_GROUP : workerGroup.toLowerCase();
+    }
+
+    /**
+     * tasks of one worker group
+     */
+    private final class GroupQueue {
+
+        private final PriorityQueue<TaskPriority> tasks = new PriorityQueue<>();
+
+        private final Condition notFull = lock.newCondition();
+
+        private int weight = DEFAULT_GROUP_WEIGHT;
+
+        private boolean parked;
     }
 }
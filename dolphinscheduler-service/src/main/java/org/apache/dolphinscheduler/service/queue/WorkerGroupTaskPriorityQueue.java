@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.service.queue;
+
+import org.apache.dolphinscheduler.service.exceptions.TaskPriorityQueueException;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * task priority queue with one bounded queue per worker group, the groups can be weighted and parked
+ */
+public interface WorkerGroupTaskPriorityQueue extends TaskPriorityQueue<TaskPriority> {
+
+    /**
+     * put task info, waits at most the timeout while the worker group of the task is full
+     *
+     * @param taskInfo taskInfo
+     * @param timeout max time to wait
+     * @param unit unit of the timeout
+     * @return false if the worker group is still full after the timeout
+     * @throws TaskPriorityQueueException
+     * @throws InterruptedException
+     */
+    boolean offer(TaskPriority taskInfo, long timeout, TimeUnit unit) throws TaskPriorityQueueException, InterruptedException;
+
+    /**
+     * size of a worker group
+     *
+     * @param workerGroup worker group
+     * @return size
+     */
+    int size(String workerGroup);
+
+    /**
+     * number of tasks which can be polled, the tasks of the parked groups excluded
+     *
+     * @return size
+     */
+    int readySize();
+
+    /**
+     * @return the worker groups seen so far
+     */
+    List<String> getWorkerGroups();
+
+    /**
+     * stop polling the tasks of the worker group
+     *
+     * @param workerGroup worker group
+     */
+    void park(String workerGroup);
+
+    /**
+     * resume polling the tasks of the worker group
+     *
+     * @param workerGroup worker group
+     */
+    void unpark(String workerGroup);
+
+    /**
+     * @param workerGroup worker group
+     * @return true if the tasks of the worker group are not polled
+     */
+    boolean isParked(String workerGroup);
+
+    /**
+     * @param capacity max tasks of one worker group
+     */
+    void setCapacity(int capacity);
+
+    /**
+     * @param workerGroup worker group
+     * @param weight tasks polled in a row from the group
+     */
+    void setWeight(String workerGroup, int weight);
+}
@@ -22,6 +22,7 @@ import org.apache.dolphinscheduler.common.enums.TaskTimeoutStrategy;
 import org.apache.dolphinscheduler.common.process.Property;
 import org.apache.dolphinscheduler.common.utils.JSONUtils;
 import org.apache.dolphinscheduler.remote.command.Command;
+import org.apache.dolphinscheduler.remote.command.CommandSerializer;
 import org.apache.dolphinscheduler.remote.command.TaskExecuteRequestCommand;
 import org.apache.dolphinscheduler.spi.task.request.DataxTaskExecutionContext;
 import org.apache.dolphinscheduler.spi.task.request.ProcedureTaskExecutionContext;
@@ -33,6 +34,7 @@ import java.util.Date;
 import java.util.Map;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 /**
  * master/worker task transport
@@ -255,6 +257,12 @@ public class TaskExecutionContext implements Serializable {
      */
     private ProcedureTaskExecutionContext procedureTaskExecutionContext;
 
+    /**
+     * serializer of the commands exchanged for this task, the worker answers with the serializer the master dispatched with
+     */
+    @JsonIgnore
+    private CommandSerializer commandSerializer = CommandSerializer.JSON;
+
     public int getTaskInstanceId() {
         return taskInstanceId;
     }
@@ -528,9 +536,21 @@ public class TaskExecutionContext implements Serializable {
     }
 
     public Command toCommand() {
+        return toCommand(CommandSerializer.JSON);
+    }
+
+    public Command toCommand(CommandSerializer serializer) {
         TaskExecuteRequestCommand requestCommand = new TaskExecuteRequestCommand();
         requestCommand.setTaskExecutionContext(JSONUtils.toJsonString(this));
-        return requestCommand.convert2Command();
+        return requestCommand.convert2Command(serializer);
+    }
+
+    public CommandSerializer getCommandSerializer() {
+        return commandSerializer;
+    }
+
+    public void setCommandSerializer(CommandSerializer commandSerializer) {
+        this.commandSerializer = commandSerializer;
     }
 
     public DependenceTaskExecutionContext getDependenceTaskExecutionContext() {
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.service.queue.entity;
+
+import org.apache.dolphinscheduler.common.enums.TaskTimeoutStrategy;
+import org.apache.dolphinscheduler.spi.enums.DataType;
+import org.apache.dolphinscheduler.spi.task.Direct;
+import org.apache.dolphinscheduler.spi.task.Property;
+import org.apache.dolphinscheduler.spi.task.request.TaskRequest;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * field by field conversion between the {@link TaskExecutionContext} received by the worker and the
+ * {@link TaskRequest} handed to the task plugins, instead of a json round trip.
+ * <p>
+ * the sub contexts are shared and the maps are shared as read only views, neither side may modify them.
+ */
+public final class TaskRequestConverter {
+
+    private TaskRequestConverter() {
+        throw new UnsupportedOperationException("Construct TaskRequestConverter");
+    }
+
+    /**
+     * convert the task execution context to the task request of the task plugins
+     *
+     * @param context task execution context
+     * @return task request
+     */
+    public static TaskRequest toTaskRequest(TaskExecutionContext context) {
+        TaskRequest request = new TaskRequest();
+        request.setTaskInstanceId(context.getTaskInstanceId());
+        request.setTaskName(context.getTaskName());
+        request.setFirstSubmitTime(context.getFirstSubmitTime());
+        request.setStartTime(context.getStartTime());
+        request.setTaskType(context.getTaskType());
+        request.setHost(context.getHost());
+        request.setExecutePath(context.getExecutePath());
+        request.setLogPath(context.getLogPath());
+        request.setTaskJson(context.getTaskJson());
+        request.setProcessId(context.getProcessId());
+        request.setAppIds(context.getAppIds());
+        request.setProcessInstanceId(context.getProcessInstanceId());
+        request.setScheduleTime(context.getScheduleTime());
+        request.setGlobalParams(context.getGlobalParams());
+        request.setExecutorId(context.getExecutorId());
+        request.setCmdTypeIfComplement(context.getCmdTypeIfComplement());
+        request.setTenantCode(context.getTenantCode());
+        request.setQueue(context.getQueue());
+        request.setTaskParams(context.getTaskParams());
+        request.setEnvFile(context.getEnvFile());
+        request.setEnvironmentConfig(context.getEnvironmentConfig());
+        request.setDefinedParams(readOnly(context.getDefinedParams()));
+        request.setTaskAppId(context.getTaskAppId());
+        if (context.getTaskTimeoutStrategy() != null) {
+            request.setTaskTimeoutStrategy(org.apache.dolphinscheduler.spi.enums.TaskTimeoutStrategy.valueOf(context.getTaskTimeoutStrategy().name()));
+        }
+        request.setTaskTimeout(context.getTaskTimeout());
+        request.setWorkerGroup(context.getWorkerGroup());
+        request.setDelayTime(context.getDelayTime());
+        request.setResources(readOnly(context.getResources()));
+        request.setParamsMap(toProperties(context.getParamsMap()));
+        request.setSqlTaskExecutionContext(context.getSqlTaskExecutionContext());
+        request.setDataxTaskExecutionContext(context.getDataxTaskExecutionContext());
+        request.setProcedureTaskExecutionContext(context.getProcedureTaskExecutionContext());
+        request.setSqoopTaskExecutionContext(context.getSqoopTaskExecutionContext());
+        return request;
+    }
+
+    /**
+     * convert the task request back to a task execution context, only the fields known by the task request are set
+     *
+     * @param request task request
+     * @return task execution context
+     */
+    public static TaskExecutionContext toTaskExecutionContext(TaskRequest request) {
+        TaskExecutionContext context = new TaskExecutionContext();
+        context.setTaskInstanceId(request.getTaskInstanceId());
+        context.setTaskName(request.getTaskName());
+        context.setFirstSubmitTime(request.getFirstSubmitTime());
+        context.setStartTime(request.getStartTime());
+        context.setTaskType(request.getTaskType());
+        context.setHost(request.getHost());
+        context.setExecutePath(request.getExecutePath());
+        context.setLogPath(request.getLogPath());
+        context.setTaskJson(request.getTaskJson());
+        context.setProcessId(request.getProcessId());
+        context.setAppIds(request.getAppIds());
+        context.setProcessInstanceId(request.getProcessInstanceId());
+        context.setScheduleTime(request.getScheduleTime());
+        context.setGlobalParams(request.getGlobalParams());
+        context.setExecutorId(request.getExecutorId());
+        context.setCmdTypeIfComplement(request.getCmdTypeIfComplement());
+        context.setTenantCode(request.getTenantCode());
+        context.setQueue(request.getQueue());
+        context.setTaskParams(request.getTaskParams());
+        context.setEnvFile(request.getEnvFile());
+        context.setEnvironmentConfig(request.getEnvironmentConfig());
+        context.setDefinedParams(readOnly(request.getDefinedParams()));
+        context.setTaskAppId(request.getTaskAppId());
+        if (request.getTaskTimeoutStrategy() != null) {
+            context.setTaskTimeoutStrategy(TaskTimeoutStrategy.valueOf(request.getTaskTimeoutStrategy().name()));
+        }
+        context.setTaskTimeout(request.getTaskTimeout());
+        context.setWorkerGroup(request.getWorkerGroup());
+        context.setDelayTime(request.getDelayTime());
+        context.setResources(readOnly(request.getResources()));
+        context.setParamsMap(toCommonProperties(request.getParamsMap()));
+        context.setSqlTaskExecutionContext(request.getSqlTaskExecutionContext());
+        context.setDataxTaskExecutionContext(request.getDataxTaskExecutionContext());
+        context.setProcedureTaskExecutionContext(request.getProcedureTaskExecutionContext());
+        context.setSqoopTaskExecutionContext(request.getSqoopTaskExecutionContext());
+        return context;
+    }
+
+    private static <K, V> Map<K, V> readOnly(Map<K, V> map) {
+        return map == null ? null : Collections.unmodifiableMap(map);
+    }
+
+    private static Map<String, Property> toProperties(Map<String, org.apache.dolphinscheduler.common.process.Property> properties) {
+        if (properties == null) {
+            return null;
+        }
+        Map<String, Property> converted = new LinkedHashMap<>();
+        for (Map.Entry<String, org.apache.dolphinscheduler.common.process.Property> entry : properties.entrySet()) {
+            org.apache.dolphinscheduler.common.process.Property property = entry.getValue();
+            converted.put(entry.getKey(), property == null ? null : new Property(property.getProp(),
+                    property.getDirect() == null ? null : Direct.valueOf(property.getDirect().name()),
+                    property.getType() == null ? null : DataType.valueOf(property.getType().name()),
+                    property.getValue()));
+        }
+        return converted;
+    }
+
+    private static Map<String, org.apache.dolphinscheduler.common.process.Property> toCommonProperties(Map<String, Property> properties) {
+        if (properties == null) {
+            return null;
+        }
+        Map<String, org.apache.dolphinscheduler.common.process.Property> converted = new LinkedHashMap<>();
+        for (Map.Entry<String, Property> entry : properties.entrySet()) {
+            Property property = entry.getValue();
+            converted.put(entry.getKey(), property == null ? null : new org.apache.dolphinscheduler.common.process.Property(property.getProp(),
+                    property.getDirect() == null ? null : org.apache.dolphinscheduler.common.enums.Direct.valueOf(property.getDirect().name()),
+                    property.getType() == null ? null : org.apache.dolphinscheduler.common.enums.DataType.valueOf(property.getType().name()),
+                    property.getValue()));
+        }
+        return converted;
+    }
+}
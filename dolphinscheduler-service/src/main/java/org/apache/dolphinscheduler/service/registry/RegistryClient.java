@@ -122,6 +122,23 @@ public class RegistryClient {
     }
 
     public Map<String, String> getServerMaps(NodeType nodeType, boolean hostOnly) {
+        try {
+            return loadServerMaps(nodeType, hostOnly);
+        } catch (RegistryException e) {
+            logger.error("get server list failed", e);
+            return new HashMap<>();
+        }
+    }
+
+    /**
+     * get the heartbeat of the server nodes, a failed registry read is thrown instead of returning a partial map
+     *
+     * @param nodeType node type
+     * @param hostOnly only the host as key, without the worker group
+     * @return heartbeat of the server nodes
+     * @throws RegistryException if the registry can not be read
+     */
+    public Map<String, String> loadServerMaps(NodeType nodeType, boolean hostOnly) {
         Map<String, String> serverMap = new HashMap<>();
         try {
             String path = rootNodePath(nodeType);
@@ -134,9 +151,8 @@ public class RegistryClient {
                 serverMap.putIfAbsent(host, get(path + SINGLE_SLASH + server));
             }
         } catch (Exception e) {
-            logger.error("get server list failed", e);
+            throw new RegistryException("Failed to get server maps: " + nodeType, e);
         }
-
         return serverMap;
     }
 
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.service.log;
+
+import org.apache.dolphinscheduler.common.utils.JSONUtils;
+import org.apache.dolphinscheduler.remote.NettyRemotingClient;
+import org.apache.dolphinscheduler.remote.command.Command;
+import org.apache.dolphinscheduler.remote.command.log.GetLogChunkRequestCommand;
+import org.apache.dolphinscheduler.remote.exceptions.RemotingException;
+import org.apache.dolphinscheduler.remote.exceptions.RemotingTimeoutException;
+import org.apache.dolphinscheduler.remote.utils.Host;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class LogChunkInputStreamTest {
+
+    private final Host address = new Host("localhost", 1234);
+
+    @Test
+    public void testReadChunks() throws Exception {
+        NettyRemotingClient client = Mockito.mock(NettyRemotingClient.class);
+        List<Long> offsets = new ArrayList<>();
+        Mockito.when(client.sendSync(Mockito.eq(address), Mockito.any(Command.class), Mockito.anyLong())).thenAnswer(invocation -> {
+            Command request = invocation.getArgument(1);
+            GetLogChunkRequestCommand chunkRequest = JSONUtils.parseObject(request.getBody(), GetLogChunkRequestCommand.class);
+            offsets.add(chunkRequest.getOffset());
+            return chunk(offsets.size() == 1 ? "0123" : offsets.size() == 2 ? "4567" : "89");
+        });
+
+        try (InputStream in = new LogChunkInputStream(client, address, "/tmp/log", 4, 1000)) {
+            Assert.assertEquals("0123456789", readAll(in));
+            Assert.assertEquals(-1, in.read());
+        }
+        Assert.assertEquals(3, offsets.size());
+        Assert.assertEquals(Long.valueOf(8), offsets.get(2));
+        Mockito.verify(client, Mockito.never()).closeChannel(address);
+    }
+
+    @Test
+    public void testRetryChunk() throws Exception {
+        NettyRemotingClient client = Mockito.mock(NettyRemotingClient.class);
+        Mockito.when(client.sendSync(Mockito.eq(address), Mockito.any(Command.class), Mockito.anyLong()))
+                .thenReturn(chunk("0123"))
+                .thenThrow(new RemotingException("channel inactive"))
+                .thenReturn(chunk("45"));
+
+        try (InputStream in = new LogChunkInputStream(client, address, "/tmp/log", 4, 1000)) {
+            Assert.assertEquals("012345", readAll(in));
+        }
+        Mockito.verify(client, Mockito.times(3)).sendSync(Mockito.eq(address), Mockito.any(Command.class), Mockito.anyLong());
+    }
+
+    @Test
+    public void testReadEmptyLog() throws Exception {
+        NettyRemotingClient client = Mockito.mock(NettyRemotingClient.class);
+        Mockito.when(client.sendSync(Mockito.eq(address), Mockito.any(Command.class), Mockito.anyLong())).thenReturn(chunk(""));
+
+        try (InputStream in = new LogChunkInputStream(client, address, "/tmp/log", 4, 1000)) {
+            Assert.assertEquals(-1, in.read());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadTimeout() throws Exception {
+        NettyRemotingClient client = Mockito.mock(NettyRemotingClient.class);
+        Mockito.when(client.sendSync(Mockito.eq(address), Mockito.any(Command.class), Mockito.anyLong()))
+                .thenThrow(new RemotingTimeoutException("timeout"));
+
+        try (InputStream in = new LogChunkInputStream(client, address, "/tmp/log", 4, 1000)) {
+            in.read();
+        } finally {
+            Mockito.verify(client, Mockito.times(2)).sendSync(Mockito.eq(address), Mockito.any(Command.class), Mockito.anyLong());
+        }
+    }
+
+    private Command chunk(String content) {
+        Command command = new Command();
+        command.setBody(content.getBytes(StandardCharsets.UTF_8));
+        return command;
+    }
+
+    private String readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[3];
+        int length;
+        while ((length = in.read(buffer)) != -1) {
+            out.write(buffer, 0, length);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -105,6 +105,22 @@ public class LogClientServiceTest {
         Assert.assertNotNull(msg);
     }
 
+    @Test
+    public void testTailLog() throws Exception {
+        NettyRemotingClient remotingClient = PowerMockito.mock(NettyRemotingClient.class);
+        PowerMockito.whenNew(NettyRemotingClient.class).withAnyArguments().thenReturn(remotingClient);
+
+        Command command = new Command();
+        command.setBody(JSONUtils.toJsonByteArray(new RollViewLogResponseCommand("success\r\n", 8)));
+        PowerMockito.when(remotingClient.sendSync(Mockito.any(Host.class), Mockito.any(Command.class), Mockito.anyLong()))
+                .thenReturn(command);
+
+        LogClientService logClientService = new LogClientService();
+        RollViewLogResponseCommand response = logClientService.tailLog("localhost", 1234, "/tmp/log", 0, 10);
+        Assert.assertEquals("success\r\n", response.getMsg());
+        Assert.assertEquals(8, response.getNextOffset());
+    }
+
     @Test
     public void testGetLogBytes() throws Exception {
         NettyRemotingClient remotingClient = PowerMockito.mock(NettyRemotingClient.class);
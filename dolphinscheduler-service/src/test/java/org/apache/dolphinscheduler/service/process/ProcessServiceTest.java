@@ -223,6 +223,31 @@ public class ProcessServiceTest {
         Assert.assertTrue(processService.verifyIsNeedCreateCommand(command2));
     }
 
+    @Test
+    public void testClaimCommands() {
+        String host = "127.0.0.1:5678";
+        Command command = new Command();
+        command.setId(1);
+        command.setClaimHost(host);
+        List<Integer> candidateIds = Arrays.asList(1, 2);
+        Mockito.when(commandMapper.queryClaimedCommands(host, 2))
+                .thenReturn(new ArrayList<>())
+                .thenReturn(Arrays.asList(command));
+        Mockito.when(commandMapper.queryUnclaimedCommandIds(Mockito.anyInt())).thenReturn(candidateIds);
+        // the first claim is lost to another master, the second claims one of the candidates
+        Mockito.when(commandMapper.claimCommands(Mockito.eq(host), any(Date.class), Mockito.eq(candidateIds)))
+                .thenReturn(0)
+                .thenReturn(1)
+                .thenReturn(0);
+
+        List<Command> commands = processService.claimCommands(host, 2);
+        Assert.assertEquals(1, commands.size());
+        Mockito.verify(commandMapper, Mockito.times(3)).claimCommands(Mockito.eq(host), any(Date.class), Mockito.eq(candidateIds));
+
+        Mockito.when(commandMapper.queryUnclaimedCommandIds(Mockito.anyInt())).thenReturn(new ArrayList<>());
+        Assert.assertEquals(1, processService.claimCommands(host, 2).size());
+    }
+
     @Test
     public void testCreateRecoveryWaitingThreadCommand() {
         int id = 123;
@@ -22,6 +22,7 @@ import org.apache.dolphinscheduler.common.enums.Priority;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.Assert;
@@ -111,6 +112,72 @@ public class TaskPriorityQueueImplTest {
         Assert.assertTrue(getPriorityQueue().size() == 2);
     }
 
+    @Test
+    public void testWeightedFairPoll() throws Exception {
+        TaskPriorityQueueImpl queue = new TaskPriorityQueueImpl();
+        queue.setWeight("g1", 2);
+        for (int i = 0; i < 4; i++) {
+            queue.put(new TaskPriority(0, 0, 0, i, "g1"));
+            queue.put(new TaskPriority(0, 0, 0, 10 + i, "G2"));
+        }
+        StringBuilder order = new StringBuilder();
+        for (int i = 0; i < 8; i++) {
+            order.append(queue.poll(0, TimeUnit.MILLISECONDS).getGroupName().toLowerCase()).append(' ');
+        }
+        Assert.assertEquals("g1 g1 g2 g1 g1 g2 g2 g2 ", order.toString());
+        Assert.assertNull(queue.poll(0, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testPark() throws Exception {
+        TaskPriorityQueueImpl queue = new TaskPriorityQueueImpl();
+        queue.put(new TaskPriority(0, 0, 0, 1, "parked"));
+        queue.put(new TaskPriority(0, 0, 0, 2, "default"));
+        queue.park("parked");
+        Assert.assertEquals(2, queue.size());
+        Assert.assertEquals(1, queue.readySize());
+
+        Assert.assertEquals(2, queue.poll(0, TimeUnit.MILLISECONDS).getTaskId());
+        Assert.assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(1, queue.size());
+
+        queue.unpark("PARKED");
+        Assert.assertEquals(1, queue.poll(0, TimeUnit.MILLISECONDS).getTaskId());
+    }
+
+    @Test
+    public void testCapacity() throws Exception {
+        TaskPriorityQueueImpl queue = new TaskPriorityQueueImpl();
+        queue.setCapacity(1);
+        Assert.assertTrue(queue.offer(new TaskPriority(0, 0, 0, 1, "default"), 0, TimeUnit.MILLISECONDS));
+        // other groups are not blocked by a full group
+        Assert.assertTrue(queue.offer(new TaskPriority(0, 0, 0, 2, "other"), 0, TimeUnit.MILLISECONDS));
+
+        // the offer to a full group gives up after the timeout
+        Assert.assertFalse(queue.offer(new TaskPriority(0, 0, 0, 3, "default"), 50, TimeUnit.MILLISECONDS));
+
+        CountDownLatch submitted = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            try {
+                if (queue.offer(new TaskPriority(0, 0, 0, 3, "default"), 10, TimeUnit.SECONDS)) {
+                    submitted.countDown();
+                }
+            } catch (Exception e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        Assert.assertFalse(submitted.await(100, TimeUnit.MILLISECONDS));
+
+        // a failed dispatch is put back without waiting
+        queue.put(new TaskPriority(0, 0, 0, 4, "other"));
+        Assert.assertEquals(3, queue.size());
+
+        Assert.assertEquals(1, queue.poll(0, TimeUnit.MILLISECONDS).getTaskId());
+        Assert.assertTrue(submitted.await(1, TimeUnit.SECONDS));
+        Assert.assertEquals(3, queue.size());
+    }
+
     /**
      * get queue
      *
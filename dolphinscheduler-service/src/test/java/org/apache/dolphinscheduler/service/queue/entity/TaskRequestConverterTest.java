@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.service.queue.entity;
+
+import org.apache.dolphinscheduler.common.enums.DataType;
+import org.apache.dolphinscheduler.common.enums.Direct;
+import org.apache.dolphinscheduler.common.enums.TaskTimeoutStrategy;
+import org.apache.dolphinscheduler.common.process.Property;
+import org.apache.dolphinscheduler.common.utils.JSONUtils;
+import org.apache.dolphinscheduler.spi.task.request.SQLTaskExecutionContext;
+import org.apache.dolphinscheduler.spi.task.request.TaskRequest;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TaskRequestConverterTest {
+
+    @Test
+    public void testToTaskRequest() {
+        TaskExecutionContext context = newTaskExecutionContext();
+        TaskRequest expected = JSONUtils.parseObject(JSONUtils.toJsonString(context), TaskRequest.class);
+        TaskRequest request = TaskRequestConverter.toTaskRequest(context);
+
+        Assert.assertEquals(JSONUtils.toJsonString(expected), JSONUtils.toJsonString(request));
+        Assert.assertSame(context.getSqlTaskExecutionContext(), request.getSqlTaskExecutionContext());
+    }
+
+    @Test
+    public void testToTaskExecutionContext() {
+        TaskRequest request = TaskRequestConverter.toTaskRequest(newTaskExecutionContext());
+        TaskExecutionContext expected = JSONUtils.parseObject(JSONUtils.toJsonString(request), TaskExecutionContext.class);
+        TaskExecutionContext context = TaskRequestConverter.toTaskExecutionContext(request);
+
+        Assert.assertEquals(JSONUtils.toJsonString(expected), JSONUtils.toJsonString(context));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSharedMapsAreReadOnly() {
+        TaskRequest request = TaskRequestConverter.toTaskRequest(newTaskExecutionContext());
+        request.getResources().put("other.jar", "tenant");
+    }
+
+    private TaskExecutionContext newTaskExecutionContext() {
+        // whole seconds, the json date format has no millis
+        Date now = new Date(System.currentTimeMillis() / 1000 * 1000);
+        TaskExecutionContext context = new TaskExecutionContext();
+        context.setTaskInstanceId(1);
+        context.setTaskName("sql");
+        context.setFirstSubmitTime(now);
+        context.setStartTime(now);
+        context.setScheduleTime(now);
+        context.setTaskType("SQL");
+        context.setHost("127.0.0.1:1234");
+        context.setExecutePath("/tmp/exec");
+        context.setLogPath("/tmp/log");
+        context.setProcessId(100);
+        context.setProcessInstanceId(2);
+        context.setProcessDefineCode(3L);
+        context.setProcessDefineVersion(1);
+        context.setGlobalParams("[]");
+        context.setExecutorId(4);
+        context.setTenantCode("tenant");
+        context.setQueue("default");
+        context.setTaskParams("{\"sql\":\"select 1\"}");
+        context.setEnvFile("/opt/env.sh");
+        context.setTaskAppId("2_1");
+        context.setTaskTimeoutStrategy(TaskTimeoutStrategy.WARNFAILED);
+        context.setTaskTimeout(60);
+        context.setWorkerGroup("default");
+        context.setDelayTime(5);
+        context.setVarPool("[]");
+        Map<String, String> definedParams = new HashMap<>();
+        definedParams.put("day", "20211201");
+        context.setDefinedParams(definedParams);
+        Map<String, String> resources = new HashMap<>();
+        resources.put("udf.jar", "tenant");
+        context.setResources(resources);
+        Map<String, Property> paramsMap = new HashMap<>();
+        paramsMap.put("day", new Property("day", Direct.IN, DataType.VARCHAR, "20211201"));
+        context.setParamsMap(paramsMap);
+        SQLTaskExecutionContext sqlTaskExecutionContext = new SQLTaskExecutionContext();
+        sqlTaskExecutionContext.setWarningGroupId(1);
+        sqlTaskExecutionContext.setConnectionParams("{}");
+        context.setSqlTaskExecutionContext(sqlTaskExecutionContext);
+        return context;
+    }
+}
@@ -25,6 +25,16 @@ public class TaskConstants {
 
     public static final String APPLICATION_REGEX = "application_\\d+_\\d+";
 
+    /**
+     * regexes of the application ids extracted from the task output, separated by ';'
+     */
+    public static final String TASK_APPLICATION_REGEX = "task.application.regex";
+
+    /**
+     * separator of the application id regexes
+     */
+    public static final String APPLICATION_REGEX_SEPARATOR = ";";
+
     /**
      * string false
      */
@@ -194,4 +194,21 @@ public class Constants {
     public static final String DATASOURCE_ENCRYPTION_SALT_DEFAULT = "!@#$%^&*";
     public static final String DATASOURCE_ENCRYPTION_ENABLE = "datasource.encryption.enable";
     public static final String DATASOURCE_ENCRYPTION_SALT = "datasource.encryption.salt";
+
+    /**
+     * pools of the datasources used by tasks, the sizes can be overridden per datasource type by appending the type, e.g. datasource.pool.max.size.mysql,
+     * and per datasource by appending its unique id, e.g. datasource.pool.max.size.mysql@root@jdbc:mysql://127.0.0.1:3306/test
+     */
+    public static final String DATASOURCE_POOL_MIN_IDLE = "datasource.pool.min.idle";
+    public static final String DATASOURCE_POOL_MAX_SIZE = "datasource.pool.max.size";
+
+    /**
+     * sum of the maximum sizes of all datasource pools in one process
+     */
+    public static final String DATASOURCE_POOL_MAX_TOTAL = "datasource.pool.max.total";
+
+    /**
+     * seconds a datasource pool lends no connection before it is closed
+     */
+    public static final String DATASOURCE_POOL_IDLE_TIMEOUT = "datasource.pool.idle.timeout";
 }
@@ -24,31 +24,30 @@ import org.apache.dolphinscheduler.plugin.task.util.OSUtils;
 import org.apache.dolphinscheduler.spi.task.TaskConstants;
 import org.apache.dolphinscheduler.spi.task.TaskExecutionContextCacheManager;
 import org.apache.dolphinscheduler.spi.task.request.TaskRequest;
+import org.apache.dolphinscheduler.spi.utils.PropertyUtils;
 import org.apache.dolphinscheduler.spi.utils.StringUtils;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.lang.reflect.Field;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import org.slf4j.Logger;
-
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.LoggerFactory;
 
 /**
  * abstract command executor
@@ -59,12 +58,31 @@ public abstract class AbstractCommandExecutor {
      */
     protected static final Pattern APPLICATION_REGEX = Pattern.compile(TaskConstants.APPLICATION_REGEX);
 
-    protected StringBuilder varPool = new StringBuilder();
+    /**
+     * max time to wait for the rest of the output after the process exited, in seconds
+     */
+    private static final long OUTPUT_END_WAIT_SECONDS = 10;
+
+    /**
+     * var pool, appended on the output pump thread and read on the thread running the command
+     */
+    protected final StringBuffer varPool = new StringBuffer();
+
     /**
      * process
      */
     private Process process;
 
+    /**
+     * completed when the output of the process is read and flushed
+     */
+    private CompletableFuture<Void> processOutput;
+
+    /**
+     * application ids found in the output
+     */
+    private final Set<String> appIds = Collections.synchronizedSet(new LinkedHashSet<>());
+
     /**
      * log handler
      */
@@ -80,12 +98,12 @@ public abstract class AbstractCommandExecutor {
      */
     protected LinkedBlockingQueue<String> logBuffer;
 
-    protected boolean logOutputIsSuccess = false;
+    protected volatile boolean logOutputIsSuccess = false;
 
     /*
-     * SHELL result string
+     * SHELL result string, set on the output pump thread
      */
-    protected String taskResultString;
+    protected volatile String taskResultString;
 
     /**
      * taskRequest
@@ -169,6 +187,7 @@ public abstract class AbstractCommandExecutor {
         boolean updateTaskExecutionContextStatus = TaskExecutionContextCacheManager.updateTaskExecutionContext(taskRequest);
         if (Boolean.FALSE.equals(updateTaskExecutionContextStatus)) {
             ProcessUtils.kill(taskRequest);
+            awaitProcessOutput();
             result.setExitStatusCode(EXIT_CODE_KILL);
             return result;
         }
@@ -183,9 +202,11 @@ public abstract class AbstractCommandExecutor {
 
         // if SHELL task exit
         if (status) {
+            // the var pool and the app ids are parsed from the output, it may still be read after the exit
+            awaitProcessOutput();
+
             // set appIds
-            List<String> appIds = getAppIds(taskRequest.getLogPath());
-            result.setAppIds(String.join(TaskConstants.COMMA, appIds));
+            result.setAppIds(String.join(TaskConstants.COMMA, getAppIds()));
 
             // SHELL task state
             result.setExitStatusCode(process.exitValue());
@@ -194,6 +215,7 @@ public abstract class AbstractCommandExecutor {
             logger.error("process has failure , exitStatusCode:{}, processExitValue:{}, ready to kill ...",
                     result.getExitStatusCode(), process.exitValue());
             ProcessUtils.kill(taskRequest);
+            awaitProcessOutput();
             result.setExitStatusCode(EXIT_CODE_FAILURE);
         }
 
@@ -302,117 +324,130 @@ public abstract class AbstractCommandExecutor {
     }
 
     /**
-     * get the standard output of the process
+     * get the standard output of the process, the output is read and flushed by the shared {@link ProcessOutputPump}
      *
      * @param process process
      */
     private void parseProcessOutput(Process process) {
-        String threadLoggerInfoName = String.format(TaskConstants.TASK_LOGGER_THREAD_NAME + "-%s", taskRequest.getTaskAppId());
-        ExecutorService getOutputLogService = newDaemonSingleThreadExecutor(threadLoggerInfoName + "-" + "getOutputLogService");
-        getOutputLogService.submit(() -> {
-            try (BufferedReader inReader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-                String line;
-                logBuffer.add("welcome to use bigdata scheduling system...");
-                while ((line = inReader.readLine()) != null) {
-                    if (line.startsWith("${setValue(")) {
-                        varPool.append(line, "${setValue(".length(), line.length() - 2);
-                        varPool.append("$VarPool$");
-                    } else {
-                        logBuffer.add(line);
-                        taskResultString = line;
-                    }
+        logBuffer.add("welcome to use bigdata scheduling system...");
+        processOutput = ProcessOutputPump.getInstance().pump(process, new ProcessOutputPump.OutputHandler() {
+            @Override
+            public void onLine(String line) {
+                if (line.startsWith("${setValue(")) {
+                    // one append, a reader never sees half of a var
+                    varPool.append(line.substring("${setValue(".length(), line.length() - 2) + "$VarPool$");
+                } else {
+                    logBuffer.add(line);
+                    taskResultString = line;
+                    findAppIds(line);
                 }
-                logOutputIsSuccess = true;
-            } catch (Exception e) {
-                logger.error(e.getMessage(), e);
-                logOutputIsSuccess = true;
             }
-        });
 
-        getOutputLogService.shutdown();
+            @Override
+            public int pendingLines() {
+                return logBuffer.size();
+            }
 
-        ExecutorService parseProcessOutputExecutorService = newDaemonSingleThreadExecutor(threadLoggerInfoName);
-        parseProcessOutputExecutorService.submit(() -> {
-            try {
-                long lastFlushTime = System.currentTimeMillis();
-                while (logBuffer.size() > 0 || !logOutputIsSuccess) {
-                    if (logBuffer.size() > 0) {
-                        lastFlushTime = flush(lastFlushTime);
-                    } else {
-                        Thread.sleep(TaskConstants.DEFAULT_LOG_FLUSH_INTERVAL);
-                    }
+            @Override
+            public void flush() {
+                // hand over a batch, lines added while the handler runs wait for the next flush
+                LinkedBlockingQueue<String> lines = new LinkedBlockingQueue<>();
+                logBuffer.drainTo(lines);
+                if (!lines.isEmpty()) {
+                    logHandler.accept(lines);
                 }
-            } catch (Exception e) {
-                Thread.currentThread().interrupt();
-                logger.error(e.getMessage(), e);
-            } finally {
+            }
+
+            @Override
+            public void onClose() {
+                logOutputIsSuccess = true;
                 clear();
             }
         });
-        parseProcessOutputExecutorService.shutdown();
     }
 
     /**
-     * get app links
+     * wait for the rest of the output after the process exited, at most {@link #OUTPUT_END_WAIT_SECONDS}
+     */
+    private void awaitProcessOutput() throws InterruptedException {
+        try {
+            processOutput.get(OUTPUT_END_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            logger.warn("wait for the end of the process output failed, the var pool and the app ids may be incomplete", e);
+        }
+    }
+
+    /**
+     * get the application ids found in the output
      *
-     * @param logPath log path
      * @return app id list
      */
-    private List<String> getAppIds(String logPath) {
-        List<String> logs = convertFile2List(logPath);
-
-        List<String> appIds = new ArrayList<>();
-        /*
-         * analysis log?get submited yarn application id
-         */
-        for (String log : logs) {
-            String appId = findAppId(log);
-            if (StringUtils.isNotEmpty(appId) && !appIds.contains(appId)) {
-                logger.info("find app id: {}", appId);
-                appIds.add(appId);
-            }
+    private List<String> getAppIds() {
+        List<String> appIdList;
+        synchronized (appIds) {
+            appIdList = new ArrayList<>(appIds);
+        }
+        for (String appId : appIdList) {
+            logger.info("find app id: {}", appId);
         }
-        return appIds;
+        return appIdList;
     }
 
     /**
-     * convert file to list
+     * find the application ids in a line of the output
      *
-     * @param filename file name
-     * @return line list
+     * @param line line
      */
-    private List<String> convertFile2List(String filename) {
-        List<String> lineList = new ArrayList<>(100);
-        File file = new File(filename);
-
-        if (!file.exists()) {
-            return lineList;
-        }
+    private void findAppIds(String line) {
+        findAppIds(ApplicationPatterns.PATTERNS, line, appIds);
+    }
 
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(filename), StandardCharsets.UTF_8))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                lineList.add(line);
+    /**
+     * add the application ids matched in the line to the ids, in the order they appear
+     *
+     * @param patterns application id patterns
+     * @param line line
+     * @param appIds found application ids
+     */
+    static void findAppIds(List<Pattern> patterns, String line, Set<String> appIds) {
+        for (Pattern pattern : patterns) {
+            Matcher matcher = pattern.matcher(line);
+            while (matcher.find()) {
+                appIds.add(matcher.group());
             }
-        } catch (Exception e) {
-            logger.error(String.format("read file: %s failed : ", filename), e);
         }
-
-        return lineList;
     }
 
     /**
-     * find app id
+     * compile the application id patterns, an invalid pattern is skipped and the default one is used if none is left
      *
-     * @param line line
-     * @return appid
+     * @param regexes patterns separated by {@link TaskConstants#APPLICATION_REGEX_SEPARATOR}
+     * @return application id patterns
      */
-    private String findAppId(String line) {
-        Matcher matcher = APPLICATION_REGEX.matcher(line);
-        if (matcher.find()) {
-            return matcher.group();
+    static List<Pattern> compileApplicationPatterns(String regexes) {
+        if (StringUtils.isEmpty(regexes)) {
+            return Collections.singletonList(APPLICATION_REGEX);
         }
-        return null;
+        List<Pattern> patterns = new ArrayList<>();
+        for (String regex : regexes.split(TaskConstants.APPLICATION_REGEX_SEPARATOR)) {
+            if (StringUtils.isEmpty(regex.trim())) {
+                continue;
+            }
+            try {
+                patterns.add(Pattern.compile(regex.trim()));
+            } catch (PatternSyntaxException e) {
+                LoggerFactory.getLogger(AbstractCommandExecutor.class).error("invalid application regex: {}", regex, e);
+            }
+        }
+        return patterns.isEmpty() ? Collections.singletonList(APPLICATION_REGEX) : patterns;
+    }
+
+    /**
+     * patterns of the application ids picked from the output, configured by task.application.regex and loaded on first use
+     */
+    private static final class ApplicationPatterns {
+
+        private static final List<Pattern> PATTERNS = compileApplicationPatterns(PropertyUtils.getString(TaskConstants.TASK_APPLICATION_REGEX));
     }
 
     /**
@@ -452,38 +487,9 @@ public abstract class AbstractCommandExecutor {
         return processId;
     }
 
-    /**
-     * when log buffer siz or flush time reach condition , then flush
-     *
-     * @param lastFlushTime last flush time
-     * @return last flush time
-     */
-    private long flush(long lastFlushTime) {
-        long now = System.currentTimeMillis();
-
-        /*
-         * when log buffer siz or flush time reach condition , then flush
-         */
-        if (logBuffer.size() >= TaskConstants.DEFAULT_LOG_ROWS_NUM || now - lastFlushTime > TaskConstants.DEFAULT_LOG_FLUSH_INTERVAL) {
-            lastFlushTime = now;
-            logHandler.accept(logBuffer);
-
-            logBuffer.clear();
-        }
-        return lastFlushTime;
-    }
-
     protected abstract String buildCommandFilePath();
 
     protected abstract void createCommandFileIfNotExists(String execCommand, String commandFile) throws IOException;
 
-    ExecutorService newDaemonSingleThreadExecutor(String threadName) {
-        ThreadFactory threadFactory = new ThreadFactoryBuilder()
-                .setDaemon(true)
-                .setNameFormat(threadName)
-                .build();
-        return Executors.newSingleThreadExecutor(threadFactory);
-    }
-
     protected abstract String commandInterpreter();
 }
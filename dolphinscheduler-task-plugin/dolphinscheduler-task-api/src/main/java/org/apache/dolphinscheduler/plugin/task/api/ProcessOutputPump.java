@@ -0,0 +1,381 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.plugin.task.api;
+
+import org.apache.dolphinscheduler.spi.task.TaskConstants;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * reads the output of all the task processes of this jvm on a few shared threads.
+ * a pump thread sweeps its processes and only reads the bytes already in the pipe, so it never blocks on one process.
+ * lines are flushed in batches on a separate flush pool, and an output is not read while it has too many lines
+ * waiting for the flush, the process then blocks on the full pipe until the log catches up.
+ * once the process exited the rest of its output is read to the end on a drain thread,
+ * a child process may keep the pipe open and that read blocks.
+ */
+public final class ProcessOutputPump {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcessOutputPump.class);
+
+    /**
+     * pump threads, each one handles hundreds of processes
+     */
+    public static final int PUMP_THREAD_NUM = 2;
+
+    /**
+     * flush threads, they write the task logs
+     */
+    public static final int FLUSH_THREAD_NUM = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+
+    /**
+     * lines of one output waiting for the flush, reading the output pauses when it is reached
+     */
+    public static final int MAX_PENDING_LINES = 16 * TaskConstants.DEFAULT_LOG_ROWS_NUM;
+
+    /**
+     * max bytes read from one output in a sweep, one chatty process can not starve the others
+     */
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * pause of a pump thread after a sweep without any data
+     */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final ProcessOutputPump INSTANCE = new ProcessOutputPump(PUMP_THREAD_NUM, FLUSH_THREAD_NUM);
+
+    private final PumpThread[] pumpThreads;
+
+    private final ExecutorService flushExecutor;
+
+    private final ExecutorService drainExecutor;
+
+    private final AtomicInteger outputCount = new AtomicInteger();
+
+    ProcessOutputPump(int pumpThreadNum, int flushThreadNum) {
+        this.flushExecutor = Executors.newFixedThreadPool(flushThreadNum, new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat(TaskConstants.TASK_LOGGER_THREAD_NAME + "-OutputFlush-%d")
+                .build());
+        this.drainExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat(TaskConstants.TASK_LOGGER_THREAD_NAME + "-OutputDrain-%d")
+                .build());
+        this.pumpThreads = new PumpThread[pumpThreadNum];
+        for (int i = 0; i < pumpThreadNum; i++) {
+            pumpThreads[i] = new PumpThread(TaskConstants.TASK_LOGGER_THREAD_NAME + "-OutputPump-" + i);
+            pumpThreads[i].start();
+        }
+    }
+
+    public static ProcessOutputPump getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * pump the standard output of the process until its end
+     *
+     * @param process process
+     * @param handler handler of the lines
+     * @return completed after the last flush of the output
+     */
+    public CompletableFuture<Void> pump(Process process, OutputHandler handler) {
+        PumpedOutput output = new PumpedOutput(process, process.getInputStream(), handler);
+        PumpThread pumpThread = pumpThreads[0];
+        for (PumpThread thread : pumpThreads) {
+            if (thread.outputNum.get() < pumpThread.outputNum.get()) {
+                pumpThread = thread;
+            }
+        }
+        outputCount.incrementAndGet();
+        pumpThread.outputNum.incrementAndGet();
+        pumpThread.inbox.add(output);
+        LockSupport.unpark(pumpThread);
+        return output.done;
+    }
+
+    /**
+     * @return outputs being pumped
+     */
+    public int getOutputCount() {
+        return outputCount.get();
+    }
+
+    /**
+     * handler of one process output
+     */
+    public interface OutputHandler {
+
+        /**
+         * a line of the output, called on a pump thread so it must not block
+         */
+        void onLine(String line);
+
+        /**
+         * @return lines received and not flushed yet
+         */
+        int pendingLines();
+
+        /**
+         * flush the pending lines, called on a flush thread and never concurrently for one output
+         */
+        void flush();
+
+        /**
+         * the output ended, called after the last flush
+         */
+        void onClose();
+    }
+
+    private final class PumpThread extends Thread {
+
+        private final LinkedBlockingQueue<PumpedOutput> inbox = new LinkedBlockingQueue<>();
+
+        private final AtomicInteger outputNum = new AtomicInteger();
+
+        private final List<PumpedOutput> outputs = new ArrayList<>();
+
+        private final byte[] buffer = new byte[READ_BUFFER_SIZE];
+
+        private PumpThread(String name) {
+            super(name);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                try {
+                    if (outputs.isEmpty()) {
+                        outputs.add(inbox.take());
+                    }
+                    inbox.drainTo(outputs);
+                    if (!sweep()) {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Throwable e) {
+                    logger.error("process output pump error", e);
+                }
+            }
+        }
+
+        /**
+         * @return true if any output had data
+         */
+        private boolean sweep() {
+            boolean progressed = false;
+            long now = System.currentTimeMillis();
+            Iterator<PumpedOutput> iterator = outputs.iterator();
+            while (iterator.hasNext()) {
+                PumpedOutput output = iterator.next();
+                progressed |= output.read(buffer);
+                if (output.scheduleFlush(now)) {
+                    iterator.remove();
+                    outputNum.decrementAndGet();
+                    outputCount.decrementAndGet();
+                }
+            }
+            return progressed;
+        }
+    }
+
+    private final class PumpedOutput {
+
+        private final Process process;
+
+        private final InputStream inputStream;
+
+        private final OutputHandler handler;
+
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private final AtomicBoolean flushing = new AtomicBoolean(false);
+
+        /**
+         * bytes of the line being read
+         */
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+
+        private boolean skipLineFeed;
+
+        /**
+         * the process exited and the rest of the output is read on a drain thread
+         */
+        private boolean draining;
+
+        private volatile boolean ended;
+
+        private long lastFlushTime = System.currentTimeMillis();
+
+        private PumpedOutput(Process process, InputStream inputStream, OutputHandler handler) {
+            this.process = process;
+            this.inputStream = inputStream;
+            this.handler = handler;
+        }
+
+        /**
+         * read the bytes available without blocking
+         *
+         * @return true if any byte was read
+         */
+        private boolean read(byte[] buffer) {
+            if (ended || draining || handler.pendingLines() >= MAX_PENDING_LINES) {
+                return false;
+            }
+            try {
+                int available = inputStream.available();
+                if (available <= 0) {
+                    if (!process.isAlive()) {
+                        // the line buffer is owned by the drain thread from now on
+                        draining = true;
+                        drainExecutor.execute(this::drain);
+                    }
+                    return false;
+                }
+                int length = inputStream.read(buffer, 0, Math.min(available, buffer.length));
+                if (length < 0) {
+                    end();
+                    return false;
+                }
+                accept(buffer, length);
+                return length > 0;
+            } catch (IOException e) {
+                // the stream is closed when the process is killed
+                logger.debug("read process output error", e);
+                end();
+                return false;
+            }
+        }
+
+        /**
+         * read the output of the exited process until its end, the flushes are still scheduled by the pump thread
+         */
+        private void drain() {
+            byte[] buffer = new byte[READ_BUFFER_SIZE];
+            try {
+                while (true) {
+                    while (handler.pendingLines() >= MAX_PENDING_LINES) {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                    int length = inputStream.read(buffer);
+                    if (length < 0) {
+                        break;
+                    }
+                    accept(buffer, length);
+                }
+            } catch (IOException e) {
+                logger.debug("read process output error", e);
+            } finally {
+                end();
+            }
+        }
+
+        /**
+         * split the bytes into lines like BufferedReader.readLine
+         */
+        private void accept(byte[] buffer, int length) {
+            for (int i = 0; i < length; i++) {
+                byte b = buffer[i];
+                if (b == '\n' && skipLineFeed) {
+                    skipLineFeed = false;
+                    continue;
+                }
+                skipLineFeed = false;
+                if (b == '\n' || b == '\r') {
+                    skipLineFeed = b == '\r';
+                    emitLine();
+                } else {
+                    line.write(b);
+                }
+            }
+        }
+
+        private void emitLine() {
+            String text = new String(line.toByteArray(), Charset.defaultCharset());
+            line.reset();
+            try {
+                handler.onLine(text);
+            } catch (Throwable e) {
+                logger.error("handle process output line error", e);
+            }
+        }
+
+        private void end() {
+            if (line.size() > 0) {
+                emitLine();
+            }
+            ended = true;
+        }
+
+        /**
+         * submit a flush when enough lines are pending, the flush interval passed or the output ended
+         *
+         * @return true if the last flush is submitted and the output can be dropped
+         */
+        private boolean scheduleFlush(long now) {
+            int pendingLines = handler.pendingLines();
+            boolean due = ended
+                    || pendingLines >= TaskConstants.DEFAULT_LOG_ROWS_NUM
+                    || (pendingLines > 0 && now - lastFlushTime >= TaskConstants.DEFAULT_LOG_FLUSH_INTERVAL);
+            if (!due || !flushing.compareAndSet(false, true)) {
+                return false;
+            }
+            lastFlushTime = now;
+            boolean last = ended;
+            flushExecutor.execute(() -> {
+                try {
+                    handler.flush();
+                    if (last) {
+                        handler.onClose();
+                    }
+                } catch (Throwable e) {
+                    logger.error("flush process output error", e);
+                } finally {
+                    flushing.set(false);
+                    if (last) {
+                        done.complete(null);
+                    }
+                }
+            });
+            return last;
+        }
+    }
+}
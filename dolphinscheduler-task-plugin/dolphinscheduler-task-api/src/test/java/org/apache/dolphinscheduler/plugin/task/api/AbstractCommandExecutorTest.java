@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.plugin.task.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AbstractCommandExecutorTest {
+
+    @Test
+    public void testCompileApplicationPatterns() {
+        List<Pattern> patterns = AbstractCommandExecutor.compileApplicationPatterns("application_\\d+_\\d+; job_\\d+_\\d+ ;;");
+        Assert.assertEquals(Arrays.asList("application_\\d+_\\d+", "job_\\d+_\\d+"), patternStrings(patterns));
+    }
+
+    @Test
+    public void testCompileApplicationPatternsDefault() {
+        Assert.assertEquals(Collections.singletonList("application_\\d+_\\d+"), patternStrings(AbstractCommandExecutor.compileApplicationPatterns(null)));
+        Assert.assertEquals(Collections.singletonList("application_\\d+_\\d+"), patternStrings(AbstractCommandExecutor.compileApplicationPatterns("")));
+    }
+
+    @Test
+    public void testCompileApplicationPatternsInvalid() {
+        // the invalid pattern is skipped
+        Assert.assertEquals(Collections.singletonList("job_\\d+"), patternStrings(AbstractCommandExecutor.compileApplicationPatterns("job_(\\d+;job_\\d+")));
+        // nothing valid is left, the default is used
+        Assert.assertEquals(Collections.singletonList("application_\\d+_\\d+"), patternStrings(AbstractCommandExecutor.compileApplicationPatterns("job_(\\d+")));
+    }
+
+    @Test
+    public void testFindAppIds() {
+        List<Pattern> patterns = AbstractCommandExecutor.compileApplicationPatterns(null);
+        Set<String> appIds = new LinkedHashSet<>();
+        AbstractCommandExecutor.findAppIds(patterns, "Submitted application application_1548381669007_1234", appIds);
+        AbstractCommandExecutor.findAppIds(patterns, "no application id here, application_abc_1 neither", appIds);
+        AbstractCommandExecutor.findAppIds(patterns, "application_1548381669007_1235 and application_1548381669007_1234 again", appIds);
+        Assert.assertEquals(Arrays.asList("application_1548381669007_1234", "application_1548381669007_1235"), new ArrayList<>(appIds));
+    }
+
+    @Test
+    public void testFindAppIdsWithPatterns() {
+        List<Pattern> patterns = AbstractCommandExecutor.compileApplicationPatterns("application_\\d+_\\d+;job_\\d+_\\d+");
+        Set<String> appIds = new LinkedHashSet<>();
+        AbstractCommandExecutor.findAppIds(patterns, "job_1_2 runs application_3_4", appIds);
+        AbstractCommandExecutor.findAppIds(patterns, "job_5_6", appIds);
+        AbstractCommandExecutor.findAppIds(patterns, "job_1_2", appIds);
+        // the ids of a line are grouped by pattern, the lines keep their order
+        Assert.assertEquals(Arrays.asList("application_3_4", "job_1_2", "job_5_6"), new ArrayList<>(appIds));
+    }
+
+    private List<String> patternStrings(List<Pattern> patterns) {
+        List<String> regexes = new ArrayList<>();
+        for (Pattern pattern : patterns) {
+            regexes.add(pattern.pattern());
+        }
+        return regexes;
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.plugin.task.api;
+
+import org.apache.dolphinscheduler.spi.task.TaskConstants;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ProcessOutputPumpTest {
+
+    private ProcessOutputPump pump;
+
+    @Before
+    public void before() {
+        pump = new ProcessOutputPump(1, 1);
+    }
+
+    @Test(timeout = 30000)
+    public void testSplitLines() throws Exception {
+        Process process = start("printf 'a\\r\\nb\\rc\\n\\nd'");
+        CollectingHandler handler = new CollectingHandler(process);
+        pump.pump(process, handler).get(10, TimeUnit.SECONDS);
+
+        Assert.assertTrue(handler.closed);
+        Assert.assertEquals(Arrays.asList("a", "b", "c", "", "d"), handler.lines);
+        Assert.assertEquals(0, handler.pendingLines());
+    }
+
+    @Test(timeout = 30000)
+    public void testFlushByLineCount() throws Exception {
+        long start = System.currentTimeMillis();
+        Process process = start("i=0; while [ $i -lt " + TaskConstants.DEFAULT_LOG_ROWS_NUM + " ]; do echo line$i; i=$((i+1)); done; sleep 3");
+        CollectingHandler handler = new CollectingHandler(process);
+        pump.pump(process, handler).get(10, TimeUnit.SECONDS);
+
+        Flush first = handler.flushes.get(0);
+        Assert.assertEquals(TaskConstants.DEFAULT_LOG_ROWS_NUM, first.lines);
+        Assert.assertTrue(first.processAlive);
+        Assert.assertTrue(first.time - start < TaskConstants.DEFAULT_LOG_FLUSH_INTERVAL);
+    }
+
+    @Test(timeout = 30000)
+    public void testFlushByInterval() throws Exception {
+        long start = System.currentTimeMillis();
+        Process process = start("echo one; sleep 3");
+        CollectingHandler handler = new CollectingHandler(process);
+        pump.pump(process, handler).get(10, TimeUnit.SECONDS);
+
+        Flush first = handler.flushes.get(0);
+        Assert.assertEquals(1, first.lines);
+        Assert.assertTrue(first.processAlive);
+        Assert.assertTrue(first.time - start >= TaskConstants.DEFAULT_LOG_FLUSH_INTERVAL);
+        Assert.assertEquals(Collections.singletonList("one"), handler.lines);
+    }
+
+    @Test(timeout = 30000)
+    public void testPauseAtMaxPendingLines() throws Exception {
+        int lineNum = 100000;
+        Process process = start("yes | head -n " + lineNum);
+        CountDownLatch flushLatch = new CountDownLatch(1);
+        CollectingHandler handler = new CollectingHandler(process);
+        handler.flushLatch = flushLatch;
+        pump.pump(process, handler);
+
+        Thread.sleep(1000);
+        // the flush is blocked, the reading paused and the process waits on the full pipe
+        Assert.assertTrue(process.isAlive());
+        Assert.assertTrue(handler.pendingLines() >= ProcessOutputPump.MAX_PENDING_LINES);
+        Assert.assertTrue(handler.pendingLines() < lineNum);
+
+        flushLatch.countDown();
+        Assert.assertTrue(process.waitFor(10, TimeUnit.SECONDS));
+        handler.closeLatch.await(10, TimeUnit.SECONDS);
+        Assert.assertEquals(lineNum, handler.lines.size());
+    }
+
+    @Test(timeout = 30000)
+    public void testReadAfterExit() throws Exception {
+        int lineNum = 5000;
+        Process process = start("i=0; while [ $i -lt " + lineNum + " ]; do echo $i; i=$((i+1)); done");
+        CountDownLatch flushLatch = new CountDownLatch(1);
+        CollectingHandler handler = new CollectingHandler(process);
+        handler.flushLatch = flushLatch;
+        CompletableFuture<Void> done = pump.pump(process, handler);
+
+        // the reading paused and the rest of the output is still in the pipe when the process exits
+        Assert.assertTrue(process.waitFor(10, TimeUnit.SECONDS));
+        Assert.assertTrue(handler.pendingLines() < lineNum);
+        Assert.assertFalse(done.isDone());
+
+        flushLatch.countDown();
+        done.get(10, TimeUnit.SECONDS);
+        Assert.assertTrue(handler.closed);
+        Assert.assertEquals(lineNum, handler.lines.size());
+        for (int i = 0; i < lineNum; i++) {
+            Assert.assertEquals(String.valueOf(i), handler.lines.get(i));
+        }
+    }
+
+    private Process start(String command) throws IOException {
+        return new ProcessBuilder("sh", "-c", command).redirectErrorStream(true).start();
+    }
+
+    private static final class Flush {
+
+        private final int lines;
+
+        private final long time;
+
+        private final boolean processAlive;
+
+        private Flush(int lines, long time, boolean processAlive) {
+            this.lines = lines;
+            this.time = time;
+            this.processAlive = processAlive;
+        }
+    }
+
+    private static final class CollectingHandler implements ProcessOutputPump.OutputHandler {
+
+        private final Process process;
+
+        private final LinkedBlockingQueue<String> pending = new LinkedBlockingQueue<>();
+
+        private final List<String> lines = Collections.synchronizedList(new ArrayList<>());
+
+        private final List<Flush> flushes = Collections.synchronizedList(new ArrayList<>());
+
+        private final CountDownLatch closeLatch = new CountDownLatch(1);
+
+        private volatile CountDownLatch flushLatch;
+
+        private volatile boolean closed;
+
+        private CollectingHandler(Process process) {
+            this.process = process;
+        }
+
+        @Override
+        public void onLine(String line) {
+            pending.add(line);
+        }
+
+        @Override
+        public int pendingLines() {
+            return pending.size();
+        }
+
+        @Override
+        public void flush() {
+            if (flushLatch != null) {
+                try {
+                    flushLatch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            List<String> batch = new ArrayList<>();
+            pending.drainTo(batch);
+            flushes.add(new Flush(batch.size(), System.currentTimeMillis(), process.isAlive()));
+            lines.addAll(batch);
+        }
+
+        @Override
+        public void onClose() {
+            closed = true;
+            closeLatch.countDown();
+        }
+    }
+}
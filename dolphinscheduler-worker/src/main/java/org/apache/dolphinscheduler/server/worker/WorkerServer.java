@@ -21,10 +21,17 @@ import org.apache.dolphinscheduler.common.Constants;
 import org.apache.dolphinscheduler.common.IStoppable;
 import org.apache.dolphinscheduler.common.enums.NodeType;
 import org.apache.dolphinscheduler.common.thread.Stopper;
+import org.apache.dolphinscheduler.common.utils.CommonUtils;
+import org.apache.dolphinscheduler.common.utils.PropertyUtils;
 import org.apache.dolphinscheduler.remote.NettyRemotingServer;
 import org.apache.dolphinscheduler.remote.command.CommandType;
 import org.apache.dolphinscheduler.remote.config.NettyServerConfig;
+import org.apache.dolphinscheduler.server.worker.cache.HdfsResourceStorage;
+import org.apache.dolphinscheduler.server.worker.cache.ReportJournal;
+import org.apache.dolphinscheduler.server.worker.cache.ResourceCache;
+import org.apache.dolphinscheduler.server.worker.cache.ResponceCache;
 import org.apache.dolphinscheduler.server.worker.config.WorkerConfig;
+import org.apache.dolphinscheduler.server.worker.metrics.WorkerServerMetrics;
 import org.apache.dolphinscheduler.server.worker.plugin.TaskPluginManager;
 import org.apache.dolphinscheduler.server.worker.processor.DBTaskAckProcessor;
 import org.apache.dolphinscheduler.server.worker.processor.DBTaskResponseProcessor;
@@ -32,11 +39,14 @@ import org.apache.dolphinscheduler.server.worker.processor.HostUpdateProcessor;
 import org.apache.dolphinscheduler.server.worker.processor.TaskExecuteProcessor;
 import org.apache.dolphinscheduler.server.worker.processor.TaskKillProcessor;
 import org.apache.dolphinscheduler.server.worker.registry.WorkerRegistryClient;
+import org.apache.dolphinscheduler.server.worker.runner.ExecutePathReclaimer;
 import org.apache.dolphinscheduler.server.worker.runner.RetryReportTaskStatusThread;
 import org.apache.dolphinscheduler.server.worker.runner.WorkerManagerThread;
 import org.apache.dolphinscheduler.service.alert.AlertClientService;
 import org.apache.dolphinscheduler.service.bean.SpringApplicationContext;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Set;
 
 import javax.annotation.PostConstruct;
@@ -82,12 +92,25 @@ public class WorkerServer implements IStoppable {
      */
     private AlertClientService alertClientService;
 
+    /**
+     * journal of the task reports not acknowledged by master
+     */
+    private ReportJournal reportJournal;
+
+    /**
+     * local cache of the task resources, null if disabled
+     */
+    private ResourceCache resourceCache;
+
     @Autowired
     private RetryReportTaskStatusThread retryReportTaskStatusThread;
 
     @Autowired
     private WorkerManagerThread workerManagerThread;
 
+    @Autowired
+    private ExecutePathReclaimer execPathReclaimer;
+
     /**
      * worker registry
      */
@@ -116,11 +139,35 @@ public class WorkerServer implements IStoppable {
         alertClientService = new AlertClientService(workerConfig.getAlertListenHost(),
                                                     workerConfig.getAlertListenPort());
 
+        // replay the task reports of the former run before accepting master requests
+        try {
+            this.reportJournal = new ReportJournal(new File(workerConfig.getReportJournalDir()),
+                    workerConfig.getReportJournalSegmentSize() * 1024 * 1024, workerConfig.getReportJournalMaxSegments());
+            ResponceCache.get().open(reportJournal);
+        } catch (IOException e) {
+            logger.error("open report journal error, task reports are kept in memory only", e);
+        }
+
+        if (workerConfig.isResourceCacheEnable() && PropertyUtils.getResUploadStartupState()) {
+            try {
+                this.resourceCache = new ResourceCache(new File(workerConfig.getResourceCacheDir()),
+                        workerConfig.getResourceCacheSize() * 1024L * 1024L, new HdfsResourceStorage(), workerConfig.getResourceDownloadThreads());
+                WorkerServerMetrics.registerResourceCacheGauges(resourceCache::getCachedBytes, resourceCache::getCachedFiles);
+            } catch (IOException e) {
+                logger.error("open resource cache error, resources are downloaded for each task", e);
+            }
+        }
+
+        // no task of this worker is running yet, its trash and execute paths left by the former run are orphans
+        if (!CommonUtils.isDevelopMode()) {
+            this.execPathReclaimer.reclaimOrphans();
+        }
+
         // init remoting server
         NettyServerConfig serverConfig = new NettyServerConfig();
         serverConfig.setListenPort(workerConfig.getListenPort());
         this.nettyRemotingServer = new NettyRemotingServer(serverConfig);
-        this.nettyRemotingServer.registerProcessor(CommandType.TASK_EXECUTE_REQUEST, new TaskExecuteProcessor(alertClientService, taskPluginManager));
+        this.nettyRemotingServer.registerProcessor(CommandType.TASK_EXECUTE_REQUEST, new TaskExecuteProcessor(alertClientService, taskPluginManager, resourceCache));
         this.nettyRemotingServer.registerProcessor(CommandType.TASK_KILL_REQUEST, new TaskKillProcessor());
         this.nettyRemotingServer.registerProcessor(CommandType.DB_TASK_ACK, new DBTaskAckProcessor());
         this.nettyRemotingServer.registerProcessor(CommandType.DB_TASK_RESPONSE, new DBTaskResponseProcessor());
@@ -178,6 +225,13 @@ public class WorkerServer implements IStoppable {
             this.nettyRemotingServer.close();
             this.workerRegistryClient.unRegistry();
             this.alertClientService.close();
+            if (this.reportJournal != null) {
+                this.reportJournal.close();
+            }
+            if (this.resourceCache != null) {
+                this.resourceCache.close();
+            }
+            this.execPathReclaimer.close();
             this.springApplicationContext.close();
         } catch (Exception e) {
             logger.error("worker server stop exception ", e);
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.worker.cache;
+
+import org.apache.dolphinscheduler.common.utils.HadoopUtils;
+
+import org.apache.hadoop.fs.FileStatus;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * resource storage backed by hdfs/s3, the version of a resource is its modification time and length
+ */
+public class HdfsResourceStorage implements ResourceStorage {
+
+    @Override
+    public String getVersion(String path) throws IOException {
+        FileStatus status = HadoopUtils.getInstance().getFileStatus(path);
+        return status.getModificationTime() + "-" + status.getLen();
+    }
+
+    @Override
+    public void download(String path, File localFile) throws IOException {
+        if (!HadoopUtils.getInstance().copyHdfsToLocal(path, localFile.getPath(), false, true)) {
+            throw new IOException(String.format("copy %s to %s failed", path, localFile));
+        }
+    }
+}
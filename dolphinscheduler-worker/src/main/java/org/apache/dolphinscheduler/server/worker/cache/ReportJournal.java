@@ -0,0 +1,410 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.worker.cache;
+
+import org.apache.dolphinscheduler.common.enums.Event;
+import org.apache.dolphinscheduler.remote.command.Command;
+import org.apache.dolphinscheduler.remote.command.CommandContext;
+import org.apache.dolphinscheduler.remote.command.CommandSerializer;
+import org.apache.dolphinscheduler.remote.command.CommandType;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * write-ahead journal of the task reports not acknowledged by the master yet.
+ * <p>
+ * records are appended to fixed size memory-mapped segment files, a PUT record stores a report and a REMOVE record
+ * drops it. only the location of the live reports is kept in memory, the reports are read back from the mapped
+ * segments when they are resent. the journal is replayed when it is opened, so the reports survive a worker restart.
+ * sealed segments without live reports are deleted, once the segment limit is reached the live reports of the oldest
+ * segment are copied to the new active segment.
+ * <p>
+ * writes land in the page cache, they survive a crash of the worker process but are not forced to the disk.
+ */
+public class ReportJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJournal.class);
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private static final byte PUT = 1;
+
+    private static final byte REMOVE = 2;
+
+    /**
+     * payload length + payload crc
+     */
+    private static final int RECORD_HEADER_LENGTH = 8;
+
+    private static final CommandType[] COMMAND_TYPES = CommandType.values();
+
+    private static final Event[] EVENTS = Event.values();
+
+    private final File dir;
+
+    private final int segmentSize;
+
+    private final int maxSegments;
+
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+
+    /**
+     * location of the live reports, key is taskInstanceId and event
+     */
+    private final Map<Long, Location> index = new HashMap<>();
+
+    private Segment active;
+
+    /**
+     * open the journal and replay the segments in the directory
+     *
+     * @param dir journal directory
+     * @param segmentSize size of one segment file in bytes
+     * @param maxSegments max segment files
+     * @throws IOException if the journal can not be opened
+     */
+    public ReportJournal(File dir, int segmentSize, int maxSegments) throws IOException {
+        if (segmentSize <= RECORD_HEADER_LENGTH || maxSegments < 2) {
+            throw new IllegalArgumentException("segment size must be positive and at least 2 segments are required");
+        }
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("create report journal dir error : " + dir);
+        }
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        replay();
+    }
+
+    /**
+     * all live reports in journal order
+     */
+    public synchronized List<TaskReport> reports() {
+        List<Map.Entry<Long, Location>> locations = new ArrayList<>(index.entrySet());
+        locations.sort((l1, l2) -> l1.getValue().compareTo(l2.getValue()));
+        List<TaskReport> reports = new ArrayList<>(locations.size());
+        for (Map.Entry<Long, Location> entry : locations) {
+            reports.add(decodeReport(entry.getValue().payload()));
+        }
+        return reports;
+    }
+
+    /**
+     * persist the report, it replaces the former report of the same task instance and event
+     */
+    public synchronized void put(TaskReport report) throws IOException {
+        Location location = append(encodeReport(report));
+        location.segment.liveRecords++;
+        Location former = index.put(key(report.getTaskInstanceId(), report.getEvent()), location);
+        if (former != null) {
+            release(former);
+        }
+    }
+
+    /**
+     * read the report, null if it is not in the journal
+     */
+    public synchronized TaskReport get(int taskInstanceId, Event event) {
+        Location location = index.get(key(taskInstanceId, event));
+        return location == null ? null : decodeReport(location.payload());
+    }
+
+    /**
+     * remove the report
+     */
+    public synchronized void remove(int taskInstanceId, Event event) throws IOException {
+        long key = key(taskInstanceId, event);
+        if (!index.containsKey(key)) {
+            return;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(6);
+        payload.put(REMOVE).putInt(taskInstanceId).put((byte) event.ordinal());
+        append(payload.array());
+        release(index.remove(key));
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        for (Segment segment : segments.values()) {
+            segment.buffer.force();
+        }
+        segments.clear();
+        index.clear();
+        active = null;
+    }
+
+    private void replay() throws IOException {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(SEGMENT_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                try {
+                    long id = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                    segments.put(id, mapSegment(id, file));
+                } catch (NumberFormatException e) {
+                    logger.warn("skip unknown report journal file : {}", file);
+                }
+            }
+        }
+        for (Segment segment : segments.values()) {
+            replay(segment);
+        }
+        if (segments.isEmpty()) {
+            active = createSegment(0);
+        } else {
+            active = segments.lastEntry().getValue();
+        }
+        deleteDeadSegments();
+        logger.info("report journal {} opened, {} segments, {} pending reports", dir, segments.size(), index.size());
+    }
+
+    private void replay(Segment segment) {
+        ByteBuffer buffer = segment.buffer;
+        int offset = 0;
+        while (offset + RECORD_HEADER_LENGTH <= segmentSize) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + RECORD_HEADER_LENGTH + length > segmentSize) {
+                break;
+            }
+            Location location = new Location(segment, offset);
+            ByteBuffer payload = location.payload();
+            if (crc(payload.duplicate()) != buffer.getInt(offset + 4)) {
+                logger.warn("report journal segment {} is torn at offset {}, the rest of it is ignored", segment.file, offset);
+                break;
+            }
+            byte op = payload.get(payload.position());
+            int taskInstanceId = payload.getInt(payload.position() + 1);
+            Event event = EVENTS[payload.get(payload.position() + 5)];
+            long key = key(taskInstanceId, event);
+            Location former;
+            if (op == PUT) {
+                segment.liveRecords++;
+                former = index.put(key, location);
+            } else {
+                former = index.remove(key);
+            }
+            if (former != null) {
+                former.segment.liveRecords--;
+            }
+            offset += RECORD_HEADER_LENGTH + length;
+        }
+        segment.buffer.position(offset);
+    }
+
+    private Location append(byte[] payload) throws IOException {
+        if (active == null) {
+            throw new IOException("report journal is closed");
+        }
+        int recordLength = RECORD_HEADER_LENGTH + payload.length;
+        if (recordLength > segmentSize) {
+            throw new IOException("task report of " + recordLength + " bytes exceeds the report journal segment size");
+        }
+        if (active.buffer.remaining() < recordLength) {
+            rollover();
+            if (active.buffer.remaining() < recordLength) {
+                throw new IOException("report journal is full, " + index.size() + " pending reports");
+            }
+        }
+        return write(active, payload);
+    }
+
+    /**
+     * the length is written last, so a torn record ends the segment on replay
+     */
+    private Location write(Segment segment, byte[] payload) {
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = buffer.position();
+        CRC32 crc32 = new CRC32();
+        crc32.update(payload, 0, payload.length);
+        buffer.position(offset + RECORD_HEADER_LENGTH);
+        buffer.put(payload);
+        buffer.putInt(offset + 4, (int) crc32.getValue());
+        buffer.putInt(offset, payload.length);
+        return new Location(segment, offset);
+    }
+
+    private void rollover() throws IOException {
+        Segment sealed = active;
+        active = createSegment(sealed.id + 1);
+        deleteDeadSegments();
+        if (segments.size() > maxSegments) {
+            // the oldest segment holds at most one segment of live reports, they fit into the new active segment
+            Segment oldest = segments.firstEntry().getValue();
+            for (Map.Entry<Long, Location> entry : index.entrySet()) {
+                Location location = entry.getValue();
+                if (location.segment == oldest) {
+                    ByteBuffer payload = location.payload();
+                    byte[] bytes = new byte[payload.remaining()];
+                    payload.get(bytes);
+                    Location moved = write(active, bytes);
+                    active.liveRecords++;
+                    oldest.liveRecords--;
+                    entry.setValue(moved);
+                }
+            }
+            deleteDeadSegments();
+        }
+    }
+
+    private void release(Location location) {
+        location.segment.liveRecords--;
+        deleteDeadSegments();
+    }
+
+    /**
+     * delete the oldest segments without live reports, a dead segment behind a live one is kept,
+     * as its remove records still cancel the former reports of the older segments on replay
+     */
+    private void deleteDeadSegments() {
+        while (!segments.isEmpty()) {
+            Segment oldest = segments.firstEntry().getValue();
+            if (oldest == active || oldest.liveRecords > 0) {
+                return;
+            }
+            segments.remove(oldest.id);
+            if (!oldest.file.delete()) {
+                logger.warn("delete report journal segment error : {}", oldest.file);
+            }
+        }
+    }
+
+    private Segment createSegment(long id) throws IOException {
+        Segment segment = mapSegment(id, new File(dir, String.format("%020d%s", id, SEGMENT_SUFFIX)));
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private Segment mapSegment(long id, File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(segmentSize);
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            return new Segment(id, file, buffer);
+        }
+    }
+
+    private static long key(int taskInstanceId, Event event) {
+        return ((long) taskInstanceId << 1) | event.ordinal();
+    }
+
+    private static int crc(ByteBuffer payload) {
+        CRC32 crc32 = new CRC32();
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        crc32.update(bytes, 0, bytes.length);
+        return (int) crc32.getValue();
+    }
+
+    private static byte[] encodeReport(TaskReport report) {
+        Command command = report.getCommand();
+        byte[] host = report.getHost() == null ? new byte[0] : report.getHost().getBytes(StandardCharsets.UTF_8);
+        byte[] context = command.getContext().toBytes();
+        byte[] body = command.getBody() == null ? new byte[0] : command.getBody();
+        ByteBuffer payload = ByteBuffer.allocate(1 + 4 + 1 + 4 + host.length + 1 + 8 + 1 + 4 + context.length + 4 + body.length);
+        payload.put(PUT).putInt(report.getTaskInstanceId()).put((byte) report.getEvent().ordinal());
+        payload.putInt(host.length).put(host);
+        payload.put((byte) command.getType().ordinal()).putLong(command.getOpaque()).put(command.getSerializer().getId());
+        payload.putInt(context.length).put(context);
+        payload.putInt(body.length).put(body);
+        return payload.array();
+    }
+
+    private static TaskReport decodeReport(ByteBuffer payload) {
+        payload.get();
+        int taskInstanceId = payload.getInt();
+        Event event = EVENTS[payload.get()];
+        byte[] host = new byte[payload.getInt()];
+        payload.get(host);
+        Command command = new Command(0);
+        command.setType(COMMAND_TYPES[payload.get()]);
+        command.setOpaque(payload.getLong());
+        command.setSerializer(CommandSerializer.of(payload.get()));
+        byte[] context = new byte[payload.getInt()];
+        payload.get(context);
+        command.setContext(CommandContext.valueOf(context));
+        byte[] body = new byte[payload.getInt()];
+        payload.get(body);
+        command.setBody(body);
+        return new TaskReport(taskInstanceId, event, host.length == 0 ? null : new String(host, StandardCharsets.UTF_8), command);
+    }
+
+    private static final class Segment {
+
+        private final long id;
+
+        private final File file;
+
+        private final MappedByteBuffer buffer;
+
+        private int liveRecords;
+
+        private Segment(long id, File file, MappedByteBuffer buffer) {
+            this.id = id;
+            this.file = file;
+            this.buffer = buffer;
+        }
+    }
+
+    private static final class Location implements Comparable<Location> {
+
+        private final Segment segment;
+
+        private final int offset;
+
+        private Location(Segment segment, int offset) {
+            this.segment = segment;
+            this.offset = offset;
+        }
+
+        /**
+         * payload of the record, positioned at the payload start
+         */
+        private ByteBuffer payload() {
+            ByteBuffer buffer = segment.buffer.duplicate();
+            int length = buffer.getInt(offset);
+            buffer.limit(offset + RECORD_HEADER_LENGTH + length);
+            buffer.position(offset + RECORD_HEADER_LENGTH);
+            return buffer.slice();
+        }
+
+        @Override
+        public int compareTo(Location other) {
+            int bySegment = Long.compare(segment.id, other.segment.id);
+            return bySegment != 0 ? bySegment : Integer.compare(offset, other.offset);
+        }
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.worker.cache;
+
+import org.apache.dolphinscheduler.common.thread.ThreadUtils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * on-disk cache of the task resources, shared by the tasks of the worker.
+ * <p>
+ * a cached file is named by the digest of the resource path and its version in the storage, so a changed resource
+ * is downloaded again and the stale file ages out. the files are hard linked into the execute path of the tasks
+ * (copied if the link fails), deleting the execute path or evicting the cached file does not affect the other side.
+ * the cached files are read only, a task can not change the content seen by the other tasks.
+ * <p>
+ * concurrent requests of the same resource share one download, the least recently used files are evicted once
+ * the cache is over its size. the cache survives a worker restart.
+ */
+public class ResourceCache implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResourceCache.class);
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File cacheDir;
+
+    private final long maxBytes;
+
+    private final ResourceStorage storage;
+
+    private final ExecutorService downloadExecutor;
+
+    /**
+     * cached file name -> file size, in least recently used order
+     */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * total size of the cached files, guarded by entries
+     */
+    private long cachedBytes;
+
+    /**
+     * downloads in progress, by cached file name
+     */
+    private final Map<String, CompletableFuture<File>> downloads = new ConcurrentHashMap<>();
+
+    /**
+     * open the cache, the files left by the former run are kept
+     *
+     * @param cacheDir cache directory
+     * @param maxBytes max total size of the cached files
+     * @param storage resource storage
+     * @param downloadThreads number of resources downloaded in parallel
+     * @throws IOException if the cache directory can not be created
+     */
+    public ResourceCache(File cacheDir, long maxBytes, ResourceStorage storage, int downloadThreads) throws IOException {
+        if (!cacheDir.isDirectory() && !cacheDir.mkdirs()) {
+            throw new IOException("create resource cache dir " + cacheDir + " failed");
+        }
+        this.cacheDir = cacheDir;
+        this.maxBytes = maxBytes;
+        this.storage = storage;
+        this.downloadExecutor = ThreadUtils.newDaemonFixedThreadExecutor("Worker-Resource-Download-%d", Math.max(1, downloadThreads));
+        restore();
+    }
+
+    /**
+     * put the resources in place, the resources which are not cached are downloaded in parallel
+     *
+     * @param resources resource path in the storage -> local file
+     * @throws IOException if a resource can not be put in place
+     */
+    public void fetch(Map<String, File> resources) throws IOException {
+        if (resources.size() == 1) {
+            Map.Entry<String, File> resource = resources.entrySet().iterator().next();
+            link(resource.getKey(), resource.getValue());
+            return;
+        }
+        List<Future<?>> futures = new ArrayList<>(resources.size());
+        for (Map.Entry<String, File> resource : resources.entrySet()) {
+            futures.add(downloadExecutor.submit(() -> {
+                link(resource.getKey(), resource.getValue());
+                return null;
+            }));
+        }
+        IOException failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("fetch resources interrupted");
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * put a resource in place
+     *
+     * @param path resource path in the storage
+     * @param target local file
+     * @throws IOException if the resource can not be put in place
+     */
+    public void link(String path, File target) throws IOException {
+        File parent = target.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("create dir " + parent + " failed");
+        }
+        try {
+            linkOrCopy(get(path), target);
+        } catch (NoSuchFileException e) {
+            // evicted or deleted between the lookup and the link, the lookup drops the entry of a missing file
+            linkOrCopy(get(path), target);
+        }
+    }
+
+    /**
+     * get the cached file of a resource, downloading it if needed
+     *
+     * @param path resource path in the storage
+     * @return cached file
+     * @throws IOException if the resource can not be downloaded
+     */
+    File get(String path) throws IOException {
+        String name = fileName(path, storage.getVersion(path));
+        File file = new File(cacheDir, name);
+        if (touch(name, file)) {
+            return file;
+        }
+        CompletableFuture<File> download = new CompletableFuture<>();
+        CompletableFuture<File> inProgress = downloads.putIfAbsent(name, download);
+        if (inProgress != null) {
+            return await(inProgress);
+        }
+        try {
+            // another download of the same file may have completed since the lookup
+            if (!touch(name, file)) {
+                download(path, file);
+            }
+            download.complete(file);
+            return file;
+        } catch (IOException | RuntimeException e) {
+            download.completeExceptionally(e);
+            throw e;
+        } finally {
+            downloads.remove(name, download);
+        }
+    }
+
+    public long getCachedBytes() {
+        synchronized (entries) {
+            return cachedBytes;
+        }
+    }
+
+    public int getCachedFiles() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public void close() {
+        downloadExecutor.shutdownNow();
+    }
+
+    private boolean touch(String name, File file) {
+        synchronized (entries) {
+            if (entries.get(name) == null) {
+                return false;
+            }
+            if (!file.isFile()) {
+                // deleted behind the cache, it is downloaded again
+                logger.warn("cached resource {} is missing, download it again", file);
+                cachedBytes -= entries.remove(name);
+                return false;
+            }
+        }
+        // keep the access order across restarts
+        file.setLastModified(System.currentTimeMillis());
+        return true;
+    }
+
+    private void download(String path, File file) throws IOException {
+        File temp = File.createTempFile(file.getName(), TEMP_SUFFIX, cacheDir);
+        try {
+            long startTime = System.currentTimeMillis();
+            storage.download(path, temp);
+            temp.setReadable(true, false);
+            temp.setWritable(false, false);
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            logger.info("resource {} cached as {}, size: {}, cost: {}ms", path, file.getName(), file.length(),
+                    System.currentTimeMillis() - startTime);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+        synchronized (entries) {
+            Long former = entries.put(file.getName(), file.length());
+            cachedBytes += file.length() - (former == null ? 0 : former);
+            evict(file.getName());
+        }
+    }
+
+    /**
+     * evict the least recently used files until the cache fits, the newest file is kept even if it alone is bigger
+     */
+    private void evict(String newest) {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (cachedBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            if (entry.getKey().equals(newest)) {
+                continue;
+            }
+            iterator.remove();
+            cachedBytes -= entry.getValue();
+            File file = new File(cacheDir, entry.getKey());
+            if (!file.delete() && file.exists()) {
+                logger.warn("delete evicted resource {} failed", file);
+            }
+        }
+    }
+
+    private void restore() throws IOException {
+        File[] files = cacheDir.listFiles();
+        if (files == null) {
+            throw new IOException("list resource cache dir " + cacheDir + " failed");
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        synchronized (entries) {
+            for (File file : files) {
+                if (file.getName().endsWith(TEMP_SUFFIX)) {
+                    Files.deleteIfExists(file.toPath());
+                } else if (file.isFile()) {
+                    entries.put(file.getName(), file.length());
+                    cachedBytes += file.length();
+                }
+            }
+            evict(null);
+        }
+        logger.info("resource cache {} opened, files: {}, size: {}", cacheDir, entries.size(), cachedBytes);
+    }
+
+    private static void linkOrCopy(File cached, File target) throws IOException {
+        try {
+            Files.createLink(target.toPath(), cached.toPath());
+        } catch (NoSuchFileException e) {
+            throw e;
+        } catch (IOException | UnsupportedOperationException e) {
+            // another file system, or no hard link support
+            Files.copy(cached.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static File await(CompletableFuture<File> download) throws IOException {
+        try {
+            return download.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("wait for resource download interrupted");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        }
+    }
+
+    private static String fileName(String path, String version) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((path + '\n' + version).getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return name.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.worker.cache;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * remote storage of the task resources
+ */
+public interface ResourceStorage {
+
+    /**
+     * version of a resource, changes whenever its content changes
+     *
+     * @param path resource path in the storage
+     * @return version
+     * @throws IOException if the resource can not be read
+     */
+    String getVersion(String path) throws IOException;
+
+    /**
+     * download a resource
+     *
+     * @param path resource path in the storage
+     * @param localFile local file to write, overwritten if it exists
+     * @throws IOException if the download fails
+     */
+    void download(String path, File localFile) throws IOException;
+}
@@ -20,14 +20,33 @@ package org.apache.dolphinscheduler.server.worker.cache;
 import org.apache.dolphinscheduler.common.enums.Event;
 import org.apache.dolphinscheduler.remote.command.Command;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 /**
  * Responce Cache : cache worker send master result
+ * <p>
+ * once the {@link ReportJournal} is opened the reports are kept in the journal and only their retry schedule is kept
+ * in memory, before that (or if the journal fails) the reports are kept in memory.
+ * the journal of a report is only written under the map lock of its entry, so a removed report is never written back.
  */
 public class ResponceCache {
 
+    private static final Logger logger = LoggerFactory.getLogger(ResponceCache.class);
+
+    /**
+     * first retry interval, doubled on every retry
+     */
+    private static final long INITIAL_RETRY_INTERVAL = 2000L;
+
+    private static final long MAX_RETRY_INTERVAL = 60 * 1000L;
+
     private static final ResponceCache instance = new ResponceCache();
 
     private ResponceCache(){}
@@ -36,36 +55,96 @@ public class ResponceCache {
         return instance;
     }
 
-    private Map<Integer,Command> ackCache = new ConcurrentHashMap<>();
-    private Map<Integer,Command> responseCache = new ConcurrentHashMap<>();
+    private Map<Integer,PendingReport> ackCache = new ConcurrentHashMap<>();
+    private Map<Integer,PendingReport> responseCache = new ConcurrentHashMap<>();
+
+    private volatile ReportJournal journal;
 
+    /**
+     * persist the reports to the journal, the reports replayed from the journal are retried immediately
+     * @param journal journal
+     */
+    public synchronized void open(ReportJournal journal) {
+        for (TaskReport report : journal.reports()) {
+            getCache(report.getEvent()).putIfAbsent(report.getTaskInstanceId(), new PendingReport(null, 0L));
+        }
+        for (Event event : new Event[] {Event.ACK, Event.RESULT}) {
+            for (Map.Entry<Integer, PendingReport> entry : getCache(event).entrySet()) {
+                TaskReport report = entry.getValue().report;
+                if (report != null && persist(journal, report)) {
+                    entry.setValue(new PendingReport(null, 0L));
+                }
+            }
+        }
+        this.journal = journal;
+    }
 
     /**
      * cache response
      * @param taskInstanceId taskInstanceId
      * @param command command
      * @param event event ACK/RESULT
+     * @param host master the command is sent to
      */
-    public void cache(Integer taskInstanceId, Command command, Event event){
-        switch (event){
-            case ACK:
-                ackCache.put(taskInstanceId,command);
-                break;
-            case RESULT:
-                responseCache.put(taskInstanceId,command);
-                break;
-            default:
-                throw new IllegalArgumentException("invalid event type : " + event);
+    public void cache(Integer taskInstanceId, Command command, Event event, String host){
+        TaskReport report = new TaskReport(taskInstanceId, event, host, command);
+        getCache(event).compute(taskInstanceId,
+                (id, former) -> new PendingReport(store(report), System.currentTimeMillis() + INITIAL_RETRY_INTERVAL));
+    }
+
+    /**
+     * the master handling the task changed, resend the reports to it right away
+     * @param taskInstanceId taskInstanceId
+     * @param host new master
+     */
+    public void changeHost(int taskInstanceId, String host) {
+        for (Event event : new Event[] {Event.ACK, Event.RESULT}) {
+            Map<Integer, PendingReport> cache = getCache(event);
+            PendingReport pending = cache.get(taskInstanceId);
+            TaskReport report = pending == null ? null : load(taskInstanceId, event, pending);
+            if (report != null) {
+                TaskReport changed = new TaskReport(taskInstanceId, event, host, report.getCommand());
+                // journaled only if the report is neither acknowledged nor replaced since it was loaded
+                cache.computeIfPresent(taskInstanceId,
+                        (id, current) -> current == pending ? new PendingReport(store(changed), System.currentTimeMillis()) : current);
+            }
         }
     }
 
+    /**
+     * reports due for a retry, their next retry is scheduled with an exponential backoff
+     * @param now current time millis
+     * @return due reports
+     */
+    public List<TaskReport> pollDueReports(long now) {
+        List<TaskReport> reports = new ArrayList<>();
+        for (Event event : new Event[] {Event.ACK, Event.RESULT}) {
+            Map<Integer, PendingReport> cache = getCache(event);
+            for (Map.Entry<Integer, PendingReport> entry : cache.entrySet()) {
+                PendingReport pending = entry.getValue();
+                if (pending.nextRetryTime > now) {
+                    continue;
+                }
+                TaskReport report = load(entry.getKey(), event, pending);
+                if (report == null) {
+                    // removed from the journal meanwhile
+                    cache.remove(entry.getKey(), pending);
+                    continue;
+                }
+                pending.attempts++;
+                pending.nextRetryTime = now + Math.min(MAX_RETRY_INTERVAL, INITIAL_RETRY_INTERVAL << Math.min(pending.attempts, 16));
+                reports.add(report);
+            }
+        }
+        return reports;
+    }
 
     /**
      * remove ack cache
      * @param taskInstanceId taskInstanceId
      */
     public void removeAckCache(Integer taskInstanceId){
-        ackCache.remove(taskInstanceId);
+        remove(taskInstanceId, Event.ACK);
     }
 
     /**
@@ -73,22 +152,95 @@ public class ResponceCache {
      * @param taskInstanceId taskInstanceId
      */
     public void removeResponseCache(Integer taskInstanceId){
-        responseCache.remove(taskInstanceId);
+        remove(taskInstanceId, Event.RESULT);
     }
 
     /**
-     * getAckCache
-     * @return getAckCache
+     * number of reports waiting for the master
+     * @return pending reports
      */
-    public Map<Integer,Command> getAckCache(){
-        return ackCache;
+    public int size() {
+        return ackCache.size() + responseCache.size();
     }
 
     /**
-     * getResponseCache
-     * @return getResponseCache
+     * number of reports of an event waiting for the master
+     * @param event ACK/RESULT
+     * @return pending reports
      */
-    public Map<Integer,Command> getResponseCache(){
-        return responseCache;
+    public int size(Event event) {
+        return getCache(event).size();
+    }
+
+    private void remove(Integer taskInstanceId, Event event) {
+        getCache(event).computeIfPresent(taskInstanceId, (id, pending) -> {
+            ReportJournal reportJournal = journal;
+            if (reportJournal != null) {
+                try {
+                    reportJournal.remove(taskInstanceId, event);
+                } catch (IOException e) {
+                    logger.warn("remove task {} {} report from journal error", taskInstanceId, event, e);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * @return null if the report is in the journal, else the report itself to keep it in memory
+     */
+    private TaskReport store(TaskReport report) {
+        ReportJournal reportJournal = journal;
+        return reportJournal != null && persist(reportJournal, report) ? null : report;
+    }
+
+    private TaskReport load(int taskInstanceId, Event event, PendingReport pending) {
+        if (pending.report != null) {
+            return pending.report;
+        }
+        ReportJournal reportJournal = journal;
+        return reportJournal == null ? null : reportJournal.get(taskInstanceId, event);
+    }
+
+    private boolean persist(ReportJournal reportJournal, TaskReport report) {
+        try {
+            reportJournal.put(report);
+            return true;
+        } catch (IOException e) {
+            logger.warn("write task {} {} report to journal error, keep it in memory",
+                    report.getTaskInstanceId(), report.getEvent(), e);
+            return false;
+        }
+    }
+
+    private Map<Integer, PendingReport> getCache(Event event) {
+        switch (event){
+            case ACK:
+                return ackCache;
+            case RESULT:
+                return responseCache;
+            default:
+                throw new IllegalArgumentException("invalid event type : " + event);
+        }
+    }
+
+    /**
+     * retry schedule of a report
+     */
+    private static final class PendingReport {
+
+        /**
+         * null if the report is in the journal
+         */
+        private final TaskReport report;
+
+        private volatile int attempts;
+
+        private volatile long nextRetryTime;
+
+        private PendingReport(TaskReport report, long nextRetryTime) {
+            this.report = report;
+            this.nextRetryTime = nextRetryTime;
+        }
     }
 }
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.worker.cache;
+
+import org.apache.dolphinscheduler.common.enums.Event;
+import org.apache.dolphinscheduler.remote.command.Command;
+
+/**
+ * task ack/result report waiting for the master to acknowledge it
+ */
+public class TaskReport {
+
+    private final int taskInstanceId;
+
+    private final Event event;
+
+    /**
+     * address of the master the report is sent to, null if unknown
+     */
+    private final String host;
+
+    private final Command command;
+
+    public TaskReport(int taskInstanceId, Event event, String host, Command command) {
+        this.taskInstanceId = taskInstanceId;
+        this.event = event;
+        this.host = host;
+        this.command = command;
+    }
+
+    public int getTaskInstanceId() {
+        return taskInstanceId;
+    }
+
+    public Event getEvent() {
+        return event;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public Command getCommand() {
+        return command;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskReport{"
+                + "taskInstanceId=" + taskInstanceId
+                + ", event=" + event
+                + ", host='" + host + '\''
+                + ", command=" + command
+                + '}';
+    }
+}
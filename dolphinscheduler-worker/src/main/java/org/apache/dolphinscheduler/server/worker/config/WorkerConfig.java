@@ -17,6 +17,10 @@
 
 package org.apache.dolphinscheduler.server.worker.config;
 
+import org.apache.dolphinscheduler.common.utils.FileUtils;
+
+import org.apache.commons.lang.StringUtils;
+
 import java.util.Set;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -37,6 +41,14 @@ public class WorkerConfig {
     private Set<String> groups;
     private String alertListenHost;
     private int alertListenPort;
+    private String reportJournalDir;
+    private int reportJournalSegmentSize = 64;
+    private int reportJournalMaxSegments = 4;
+    private boolean resourceCacheEnable = false;
+    private String resourceCacheDir;
+    private int resourceCacheSize = 1024;
+    private int resourceDownloadThreads = 4;
+    private int execPathCleanThreads = 2;
 
     public int getListenPort() {
         return listenPort;
@@ -117,4 +129,68 @@ public class WorkerConfig {
     public void setAlertListenPort(final int alertListenPort) {
         this.alertListenPort = alertListenPort;
     }
+
+    public String getReportJournalDir() {
+        return StringUtils.isEmpty(reportJournalDir) ? FileUtils.DATA_BASEDIR + "/report-journal" : reportJournalDir;
+    }
+
+    public void setReportJournalDir(String reportJournalDir) {
+        this.reportJournalDir = reportJournalDir;
+    }
+
+    public int getReportJournalSegmentSize() {
+        return reportJournalSegmentSize;
+    }
+
+    public void setReportJournalSegmentSize(int reportJournalSegmentSize) {
+        this.reportJournalSegmentSize = reportJournalSegmentSize;
+    }
+
+    public int getReportJournalMaxSegments() {
+        return reportJournalMaxSegments;
+    }
+
+    public void setReportJournalMaxSegments(int reportJournalMaxSegments) {
+        this.reportJournalMaxSegments = reportJournalMaxSegments;
+    }
+
+    public boolean isResourceCacheEnable() {
+        return resourceCacheEnable;
+    }
+
+    public void setResourceCacheEnable(boolean resourceCacheEnable) {
+        this.resourceCacheEnable = resourceCacheEnable;
+    }
+
+    public String getResourceCacheDir() {
+        return StringUtils.isEmpty(resourceCacheDir) ? FileUtils.DATA_BASEDIR + "/resource-cache" : resourceCacheDir;
+    }
+
+    public void setResourceCacheDir(String resourceCacheDir) {
+        this.resourceCacheDir = resourceCacheDir;
+    }
+
+    public int getResourceCacheSize() {
+        return resourceCacheSize;
+    }
+
+    public void setResourceCacheSize(int resourceCacheSize) {
+        this.resourceCacheSize = resourceCacheSize;
+    }
+
+    public int getResourceDownloadThreads() {
+        return resourceDownloadThreads;
+    }
+
+    public void setResourceDownloadThreads(int resourceDownloadThreads) {
+        this.resourceDownloadThreads = resourceDownloadThreads;
+    }
+
+    public int getExecPathCleanThreads() {
+        return execPathCleanThreads;
+    }
+
+    public void setExecPathCleanThreads(int execPathCleanThreads) {
+        this.execPathCleanThreads = execPathCleanThreads;
+    }
 }
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.worker.metrics;
+
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * meters of the worker server, registered in the global registry which is exposed by the prometheus endpoint
+ */
+public final class WorkerServerMetrics {
+
+    private WorkerServerMetrics() {
+        throw new UnsupportedOperationException("Construct WorkerServerMetrics");
+    }
+
+    /**
+     * register the gauges of the task execute pipeline
+     *
+     * @param delayQueueSize supplier of the tasks waiting for their delay time
+     * @param execQueueSize supplier of the tasks waiting for an execute thread
+     * @param execActiveCount supplier of the execute threads running a task
+     */
+    public static void registerTaskExecuteGauges(Supplier<Number> delayQueueSize, Supplier<Number> execQueueSize, Supplier<Number> execActiveCount) {
+        Gauge.builder("ds.worker.task.delay.queue.size", delayQueueSize)
+                .description("number of tasks waiting for their delay time")
+                .register(Metrics.globalRegistry);
+        Gauge.builder("ds.worker.task.exec.queue.size", execQueueSize)
+                .description("number of tasks waiting for an execute thread")
+                .register(Metrics.globalRegistry);
+        Gauge.builder("ds.worker.task.exec.active", execActiveCount)
+                .description("number of execute threads running a task")
+                .register(Metrics.globalRegistry);
+    }
+
+    private static final Timer TASK_EXEC_WAIT_TIMER = Timer.builder("ds.worker.task.exec.wait.latency")
+            .description("latency from the end of the task delay to the start of its execution")
+            .publishPercentiles(0.5, 0.75, 0.95, 0.99)
+            .publishPercentileHistogram()
+            .register(Metrics.globalRegistry);
+
+    public static Timer taskExecWaitTimer() {
+        return TASK_EXEC_WAIT_TIMER;
+    }
+
+    /**
+     * register the gauge of the task reports waiting for the master
+     *
+     * @param event ack or result
+     * @param pendingReports pending reports supplier
+     */
+    public static void registerPendingReportGauge(String event, Supplier<Number> pendingReports) {
+        Gauge.builder("ds.worker.report.pending", pendingReports)
+                .description("number of task ack/result reports waiting for the master")
+                .tag("event", event)
+                .register(Metrics.globalRegistry);
+    }
+
+    private static final Counter REPORT_RETRY_COUNTER = Counter.builder("ds.worker.report.retry")
+            .description("number of task ack/result reports sent again to the master")
+            .register(Metrics.globalRegistry);
+
+    public static Counter reportRetryCounter() {
+        return REPORT_RETRY_COUNTER;
+    }
+
+    /**
+     * register the gauges of the local resource cache
+     *
+     * @param cachedBytes supplier of the total size of the cached resources
+     * @param cachedFiles supplier of the number of cached resources
+     */
+    public static void registerResourceCacheGauges(Supplier<Number> cachedBytes, Supplier<Number> cachedFiles) {
+        Gauge.builder("ds.worker.resource.cache.size", cachedBytes)
+                .description("total size of the cached task resources in bytes")
+                .register(Metrics.globalRegistry);
+        Gauge.builder("ds.worker.resource.cache.files", cachedFiles)
+                .description("number of cached task resources")
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * register the gauge of the execute paths waiting to be deleted
+     *
+     * @param pendingPaths pending paths supplier
+     */
+    public static void registerExecPathReclaimGauge(Supplier<Number> pendingPaths) {
+        Gauge.builder("ds.worker.exec.path.reclaim.pending", pendingPaths)
+                .description("number of task execute paths waiting to be deleted")
+                .register(Metrics.globalRegistry);
+    }
+}
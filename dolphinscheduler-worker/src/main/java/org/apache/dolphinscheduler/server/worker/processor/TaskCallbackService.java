@@ -19,6 +19,8 @@ package org.apache.dolphinscheduler.server.worker.processor;
 
 import static org.apache.dolphinscheduler.common.Constants.SLEEP_TIME_MILLIS;
 
+import java.util.Collection;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.dolphinscheduler.remote.NettyRemotingClient;
@@ -26,10 +28,13 @@ import org.apache.dolphinscheduler.remote.command.Command;
 import org.apache.dolphinscheduler.remote.command.CommandType;
 import org.apache.dolphinscheduler.remote.config.NettyClientConfig;
 import org.apache.dolphinscheduler.remote.processor.NettyRemoteChannel;
+import org.apache.dolphinscheduler.remote.utils.Host;
+import org.apache.dolphinscheduler.server.worker.cache.ResponceCache;
 import org.apache.dolphinscheduler.service.registry.RegistryClient;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import io.netty.channel.Channel;
@@ -56,6 +61,9 @@ public class TaskCallbackService {
      */
     private final NettyRemotingClient nettyRemotingClient;
 
+    @Autowired
+    private RegistryClient registryClient;
+
     public TaskCallbackService() {
         final NettyClientConfig clientConfig = new NettyClientConfig();
         this.nettyRemotingClient = new NettyRemotingClient(clientConfig);
@@ -81,6 +89,55 @@ public class TaskCallbackService {
             REMOTE_CHANNELS.remove(taskInstanceId);
         }
         REMOTE_CHANNELS.put(taskInstanceId, channel);
+        ResponceCache.get().changeHost(taskInstanceId, channel.getHost().getAddress());
+    }
+
+    /**
+     * get the address of the master the task reports to
+     *
+     * @param taskInstanceId taskInstanceId
+     * @return master address, null if there is no callback channel
+     */
+    public String getRemoteHost(int taskInstanceId) {
+        NettyRemoteChannel nettyRemoteChannel = REMOTE_CHANNELS.get(taskInstanceId);
+        return nettyRemoteChannel == null ? null : nettyRemoteChannel.getHost().getAddress();
+    }
+
+    /**
+     * restore the callback channel of a task whose channel is lost, e.g. after a worker restart.
+     * only the master which owns the workflow of the task is used, the host is the remote address of its connection,
+     * so the master with the same address or else the same ip is taken. When that master is gone the report waits
+     * until failover moves the workflow to another master, which updates the host of the task.
+     *
+     * @param taskInstanceId taskInstanceId
+     * @param host           master address the task reported to
+     * @return true if the channel is available
+     */
+    public boolean restoreRemoteChannel(int taskInstanceId, String host) {
+        NettyRemoteChannel nettyRemoteChannel = REMOTE_CHANNELS.get(taskInstanceId);
+        if (nettyRemoteChannel != null && nettyRemoteChannel.isActive()) {
+            return true;
+        }
+        if (host == null) {
+            return false;
+        }
+        Collection<String> masters = registryClient.getMasterNodesDirectly();
+        if (masters == null || masters.isEmpty()) {
+            return false;
+        }
+        String ip = Host.of(host).getIp();
+        Optional<String> master = masters.contains(host)
+                ? Optional.of(host)
+                : masters.stream().filter(address -> Host.of(address).getIp().equals(ip)).findFirst();
+        if (!master.isPresent()) {
+            return false;
+        }
+        Channel channel = nettyRemotingClient.getChannel(Host.of(master.get()));
+        if (channel == null) {
+            return false;
+        }
+        getRemoteChannel(channel, taskInstanceId);
+        return true;
     }
 
     /**
@@ -34,14 +34,18 @@ import org.apache.dolphinscheduler.remote.command.TaskExecuteRequestCommand;
 import org.apache.dolphinscheduler.remote.processor.NettyRemoteChannel;
 import org.apache.dolphinscheduler.remote.processor.NettyRequestProcessor;
 import org.apache.dolphinscheduler.server.utils.LogUtils;
+import org.apache.dolphinscheduler.server.worker.cache.ResourceCache;
 import org.apache.dolphinscheduler.server.worker.cache.ResponceCache;
 import org.apache.dolphinscheduler.server.worker.config.WorkerConfig;
 import org.apache.dolphinscheduler.server.worker.plugin.TaskPluginManager;
+import org.apache.dolphinscheduler.server.worker.runner.ExecutePathContext;
+import org.apache.dolphinscheduler.server.worker.runner.ExecutePathReclaimer;
 import org.apache.dolphinscheduler.server.worker.runner.TaskExecuteThread;
 import org.apache.dolphinscheduler.server.worker.runner.WorkerManagerThread;
 import org.apache.dolphinscheduler.service.alert.AlertClientService;
 import org.apache.dolphinscheduler.service.bean.SpringApplicationContext;
 import org.apache.dolphinscheduler.service.queue.entity.TaskExecutionContext;
+import org.apache.dolphinscheduler.service.queue.entity.TaskRequestConverter;
 import org.apache.dolphinscheduler.spi.task.TaskExecutionContextCacheManager;
 import org.apache.dolphinscheduler.spi.task.request.TaskRequest;
 
@@ -78,15 +82,26 @@ public class TaskExecuteProcessor implements NettyRequestProcessor {
 
     private TaskPluginManager taskPluginManager;
 
+    /**
+     * resource cache, null if disabled
+     */
+    private ResourceCache resourceCache;
+
     /*
      * task execute manager
      */
     private final WorkerManagerThread workerManager;
 
+    /**
+     * reclaimer of the execute paths of the finished tasks
+     */
+    private final ExecutePathReclaimer execPathReclaimer;
+
     public TaskExecuteProcessor() {
         this.taskCallbackService = SpringApplicationContext.getBean(TaskCallbackService.class);
         this.workerConfig = SpringApplicationContext.getBean(WorkerConfig.class);
         this.workerManager = SpringApplicationContext.getBean(WorkerManagerThread.class);
+        this.execPathReclaimer = SpringApplicationContext.getBean(ExecutePathReclaimer.class);
     }
 
     /**
@@ -97,7 +112,7 @@ public class TaskExecuteProcessor implements NettyRequestProcessor {
     private void setTaskCache(TaskExecutionContext taskExecutionContext) {
         TaskExecutionContext preTaskCache = new TaskExecutionContext();
         preTaskCache.setTaskInstanceId(taskExecutionContext.getTaskInstanceId());
-        TaskRequest taskRequest = JSONUtils.parseObject(JSONUtils.toJsonString(taskExecutionContext), TaskRequest.class);
+        TaskRequest taskRequest = TaskRequestConverter.toTaskRequest(taskExecutionContext);
         TaskExecutionContextCacheManager.cacheTaskExecutionContext(taskRequest);
     }
 
@@ -107,13 +122,17 @@ public class TaskExecuteProcessor implements NettyRequestProcessor {
         this.taskPluginManager = taskPluginManager;
     }
 
+    public TaskExecuteProcessor(AlertClientService alertClientService, TaskPluginManager taskPluginManager, ResourceCache resourceCache) {
+        this(alertClientService, taskPluginManager);
+        this.resourceCache = resourceCache;
+    }
+
     @Override
     public void process(Channel channel, Command command) {
         Preconditions.checkArgument(CommandType.TASK_EXECUTE_REQUEST == command.getType(),
                 String.format("invalid command type : %s", command.getType()));
 
-        TaskExecuteRequestCommand taskRequestCommand = JSONUtils.parseObject(
-                command.getBody(), TaskExecuteRequestCommand.class);
+        TaskExecuteRequestCommand taskRequestCommand = command.deserializeBody(TaskExecuteRequestCommand.class);
 
         logger.info("received command : {}", taskRequestCommand);
 
@@ -129,6 +148,8 @@ public class TaskExecuteProcessor implements NettyRequestProcessor {
             logger.error("task execution context is null");
             return;
         }
+        // answer the master with the serializer it dispatched with
+        taskExecutionContext.setCommandSerializer(command.getSerializer());
 
         setTaskCache(taskExecutionContext);
         // todo custom logger
@@ -143,6 +164,10 @@ public class TaskExecuteProcessor implements NettyRequestProcessor {
             taskExecutionContext.setExecutePath(execLocalPath);
 
             try {
+                if (execPathReclaimer != null && !CommonUtils.isDevelopMode()) {
+                    // recorded before it is created, so a crash never leaves it unknown to the next startup
+                    execPathReclaimer.register(execLocalPath);
+                }
                 FileUtils.createWorkDirIfAbsent(execLocalPath);
                 if (CommonUtils.isSudoEnable() && workerConfig.isTenantAutoCreate()) {
                     OSUtils.createUserIfAbsent(taskExecutionContext.getTenantCode());
@@ -170,7 +195,8 @@ public class TaskExecuteProcessor implements NettyRequestProcessor {
         this.doAck(taskExecutionContext);
 
         // submit task to manager
-        if (!workerManager.offer(new TaskExecuteThread(taskExecutionContext, taskCallbackService, alertClientService, taskPluginManager))) {
+        if (!workerManager.offer(new TaskExecuteThread(taskExecutionContext, taskCallbackService, alertClientService, taskPluginManager,
+                new ExecutePathContext(resourceCache, execPathReclaimer)))) {
             logger.info("submit task to manager error, queue is full, queue size is {}", workerManager.getDelayQueueSize());
         }
     }
@@ -178,8 +204,9 @@ public class TaskExecuteProcessor implements NettyRequestProcessor {
     private void doAck(TaskExecutionContext taskExecutionContext) {
         // tell master that task is in executing
         TaskExecuteAckCommand ackCommand = buildAckCommand(taskExecutionContext);
-        ResponceCache.get().cache(taskExecutionContext.getTaskInstanceId(), ackCommand.convert2Command(), Event.ACK);
-        taskCallbackService.sendAck(taskExecutionContext.getTaskInstanceId(), ackCommand.convert2Command());
+        ResponceCache.get().cache(taskExecutionContext.getTaskInstanceId(), ackCommand.convert2Command(taskExecutionContext.getCommandSerializer()), Event.ACK,
+                taskCallbackService.getRemoteHost(taskExecutionContext.getTaskInstanceId()));
+        taskCallbackService.sendAck(taskExecutionContext.getTaskInstanceId(), ackCommand.convert2Command(taskExecutionContext.getCommandSerializer()));
     }
 
     /**
@@ -37,6 +37,7 @@ import org.apache.dolphinscheduler.server.worker.runner.WorkerManagerThread;
 import org.apache.dolphinscheduler.service.bean.SpringApplicationContext;
 import org.apache.dolphinscheduler.service.log.LogClientService;
 import org.apache.dolphinscheduler.service.queue.entity.TaskExecutionContext;
+import org.apache.dolphinscheduler.service.queue.entity.TaskRequestConverter;
 import org.apache.dolphinscheduler.spi.task.TaskExecutionContextCacheManager;
 import org.apache.dolphinscheduler.spi.task.request.TaskRequest;
 
@@ -112,7 +113,7 @@ public class TaskKillProcessor implements NettyRequestProcessor {
         List<String> appIds = Collections.emptyList();
         int taskInstanceId = killCommand.getTaskInstanceId();
         TaskRequest taskRequest = TaskExecutionContextCacheManager.getByTaskInstanceId(taskInstanceId);
-        TaskExecutionContext taskExecutionContext = JSONUtils.parseObject(JSONUtils.toJsonString(taskRequest), TaskExecutionContext.class);
+        TaskExecutionContext taskExecutionContext = TaskRequestConverter.toTaskExecutionContext(taskRequest);
 
         try {
             Integer processId = taskExecutionContext.getProcessId();
@@ -159,7 +160,7 @@ public class TaskKillProcessor implements NettyRequestProcessor {
         if (taskRequest == null) {
             return taskKillResponseCommand;
         }
-        TaskExecutionContext taskExecutionContext = JSONUtils.parseObject(JSONUtils.toJsonString(taskRequest), TaskExecutionContext.class);
+        TaskExecutionContext taskExecutionContext = TaskRequestConverter.toTaskExecutionContext(taskRequest);
         if (taskExecutionContext != null) {
             taskKillResponseCommand.setTaskInstanceId(taskExecutionContext.getTaskInstanceId());
             taskKillResponseCommand.setHost(taskExecutionContext.getHost());
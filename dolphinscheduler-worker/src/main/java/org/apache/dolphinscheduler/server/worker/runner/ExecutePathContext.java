@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.worker.runner;
+
+import org.apache.dolphinscheduler.server.worker.cache.ResourceCache;
+
+/**
+ * the worker services around the execute path of a task: the resource cache which puts the resources into the path
+ * and the reclaimer which deletes the path once the task is finished.
+ */
+public class ExecutePathContext {
+
+    /**
+     * resource cache, null if the resources are downloaded into the execute path directly
+     */
+    private final ResourceCache resourceCache;
+
+    /**
+     * reclaimer of the execute path, null if the path is deleted by the execute thread
+     */
+    private final ExecutePathReclaimer execPathReclaimer;
+
+    public ExecutePathContext(ResourceCache resourceCache, ExecutePathReclaimer execPathReclaimer) {
+        this.resourceCache = resourceCache;
+        this.execPathReclaimer = execPathReclaimer;
+    }
+
+    public ResourceCache getResourceCache() {
+        return resourceCache;
+    }
+
+    public ExecutePathReclaimer getExecPathReclaimer() {
+        return execPathReclaimer;
+    }
+}
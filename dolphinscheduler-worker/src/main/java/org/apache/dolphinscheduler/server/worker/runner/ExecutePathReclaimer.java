@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.worker.runner;
+
+import org.apache.dolphinscheduler.common.thread.ThreadUtils;
+import org.apache.dolphinscheduler.common.utils.FileUtils;
+import org.apache.dolphinscheduler.server.worker.config.WorkerConfig;
+import org.apache.dolphinscheduler.server.worker.metrics.WorkerServerMetrics;
+
+import org.apache.commons.lang.StringUtils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * reclaim the execute paths of the finished tasks off the execute threads.
+ * the path is renamed into a trash directory next to it, which is atomic and cheap,
+ * then deleted by a small pool of cleaner threads. the trash directory survives a crash,
+ * so whatever is left there is deleted on the next startup. the execute base directory is shared
+ * by the workers on the same host, so each worker has its own trash directory, named by its listen port,
+ * and records the execute paths of its running tasks in a manifest next to it. the paths left in the manifest
+ * by a crash are moved into the trash on the next startup.
+ */
+@Component
+public class ExecutePathReclaimer implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutePathReclaimer.class);
+
+    /**
+     * trash directory under the execute base directory, on the same file system as the execute paths
+     */
+    private static final String TRASH_DIR = ".trash";
+
+    /**
+     * suffix of the manifest of the running execute paths, next to the trash directory of the worker
+     */
+    private static final String MANIFEST_SUFFIX = ".running";
+
+    private final File execBaseDir;
+
+    private final File trashDir;
+
+    private final File manifest;
+
+    /**
+     * execute paths of the running tasks, guarded by this
+     */
+    private final Set<String> runningPaths = new LinkedHashSet<>();
+
+    private final ExecutorService cleanExecutor;
+
+    private final AtomicInteger pendingPaths = new AtomicInteger();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Autowired
+    public ExecutePathReclaimer(WorkerConfig workerConfig) {
+        this(new File(new File(FileUtils.DATA_BASEDIR, "exec"), TRASH_DIR + File.separator + workerConfig.getListenPort()),
+                workerConfig.getExecPathCleanThreads());
+        WorkerServerMetrics.registerExecPathReclaimGauge(this::getPendingPaths);
+    }
+
+    ExecutePathReclaimer(File trashDir, int cleanThreads) {
+        this.trashDir = trashDir;
+        this.execBaseDir = trashDir.getParentFile().getParentFile();
+        this.manifest = new File(trashDir.getParentFile(), trashDir.getName() + MANIFEST_SUFFIX);
+        this.cleanExecutor = ThreadUtils.newDaemonFixedThreadExecutor("Worker-Exec-Path-Cleaner", Math.max(1, cleanThreads));
+    }
+
+    /**
+     * move the execute path of a finished task aside and delete it in the background,
+     * the path is deleted in place if it can not be moved
+     *
+     * @param execPath execute path
+     */
+    public void reclaim(String execPath) {
+        move(execPath);
+        unregister(execPath);
+    }
+
+    /**
+     * record the execute path of a task before it runs, so that it is reclaimed on the next startup if the worker
+     * crashes before the task is finished
+     *
+     * @param execPath execute path
+     */
+    public synchronized void register(String execPath) {
+        if (runningPaths.add(execPath)) {
+            writeManifest();
+        }
+    }
+
+    private synchronized void unregister(String execPath) {
+        if (runningPaths.remove(execPath)) {
+            writeManifest();
+        }
+    }
+
+    private void move(String execPath) {
+        File dir = new File(execPath);
+        if (!dir.exists()) {
+            return;
+        }
+        File trash = new File(trashDir, dir.getName() + "-" + System.currentTimeMillis() + "-" + sequence.incrementAndGet());
+        try {
+            Files.createDirectories(trashDir.toPath());
+            Files.move(dir.toPath(), trash.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("move exec path {} to trash failed, delete it in place: {}", execPath, e.getMessage());
+            delete(dir);
+            return;
+        }
+        submit(trash);
+    }
+
+    /**
+     * reclaim the paths left by a former run of this worker: the trash not deleted yet and the execute paths
+     * in the manifest, which belong to the tasks killed with the worker. the other execute paths are kept,
+     * other workers on the host run their tasks under the same process directory.
+     * must be called before the worker accepts tasks.
+     */
+    public void reclaimOrphans() {
+        // list the trash before the orphans are moved into it, so they are submitted once
+        File[] leftovers = trashDir.listFiles();
+        if (leftovers != null) {
+            logger.info("reclaim {} exec paths left in {}", leftovers.length, trashDir);
+            for (File leftover : leftovers) {
+                submit(leftover);
+            }
+        }
+        for (String orphan : readManifest()) {
+            if (isUnderExecBaseDir(orphan)) {
+                logger.info("reclaim orphaned exec path {}", orphan);
+                move(orphan);
+            } else {
+                logger.warn("skip exec path {} of the manifest, it is not under {}", orphan, execBaseDir);
+            }
+        }
+        synchronized (this) {
+            runningPaths.clear();
+            writeManifest();
+        }
+    }
+
+    private List<String> readManifest() {
+        if (!manifest.exists()) {
+            return Collections.emptyList();
+        }
+        try {
+            return Files.readAllLines(manifest.toPath(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            logger.error("read exec path manifest {} error", manifest, e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * replace the manifest by the running paths, a crash leaves either the former or the new manifest
+     */
+    private void writeManifest() {
+        File tmp = new File(manifest.getPath() + ".tmp");
+        try {
+            Files.createDirectories(manifest.getParentFile().toPath());
+            Files.write(tmp.toPath(), runningPaths, StandardCharsets.UTF_8);
+            Files.move(tmp.toPath(), manifest.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.error("write exec path manifest {} error", manifest, e);
+        }
+    }
+
+    private boolean isUnderExecBaseDir(String path) {
+        if (StringUtils.isEmpty(path)) {
+            return false;
+        }
+        try {
+            return new File(path).getCanonicalPath().startsWith(execBaseDir.getCanonicalPath() + File.separator);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void submit(File dir) {
+        pendingPaths.incrementAndGet();
+        try {
+            cleanExecutor.execute(() -> {
+                try {
+                    delete(dir);
+                } finally {
+                    pendingPaths.decrementAndGet();
+                }
+            });
+        } catch (RuntimeException e) {
+            // rejected after close, it is deleted on the next startup
+            pendingPaths.decrementAndGet();
+            logger.warn("exec path {} is left in trash: {}", dir, e.getMessage());
+        }
+    }
+
+    private void delete(File dir) {
+        try {
+            org.apache.commons.io.FileUtils.deleteDirectory(dir);
+            logger.debug("exec path: {} cleared.", dir);
+        } catch (IOException e) {
+            logger.error("delete exec dir failed : {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return number of paths waiting to be deleted
+     */
+    public int getPendingPaths() {
+        return pendingPaths.get();
+    }
+
+    @Override
+    public void close() {
+        cleanExecutor.shutdown();
+    }
+}
@@ -17,20 +17,19 @@
 
 package org.apache.dolphinscheduler.server.worker.runner;
 
+import org.apache.dolphinscheduler.common.enums.Event;
 import org.apache.dolphinscheduler.common.thread.Stopper;
 
 import org.apache.dolphinscheduler.common.thread.ThreadUtils;
-import org.apache.dolphinscheduler.remote.command.Command;
 import org.apache.dolphinscheduler.server.worker.cache.ResponceCache;
+import org.apache.dolphinscheduler.server.worker.cache.TaskReport;
+import org.apache.dolphinscheduler.server.worker.metrics.WorkerServerMetrics;
 import org.apache.dolphinscheduler.server.worker.processor.TaskCallbackService;
-import org.apache.dolphinscheduler.service.bean.SpringApplicationContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
-
 /**
  * Retry Report Task Status Thread
  */
@@ -40,14 +39,16 @@ public class RetryReportTaskStatusThread implements Runnable {
     private final Logger logger = LoggerFactory.getLogger(RetryReportTaskStatusThread.class);
 
     /**
-     * every 5 minutes
+     * every second, each report is retried on its own backoff schedule
      */
-    private static long RETRY_REPORT_TASK_STATUS_INTERVAL = 5 * 60 * 1000L;
+    private static long RETRY_REPORT_TASK_STATUS_INTERVAL = 1000L;
 
     @Autowired
     private TaskCallbackService taskCallbackService;
 
     public void start(){
+        WorkerServerMetrics.registerPendingReportGauge("ack", () -> ResponceCache.get().size(Event.ACK));
+        WorkerServerMetrics.registerPendingReportGauge("result", () -> ResponceCache.get().size(Event.RESULT));
         Thread thread = new Thread(this,"RetryReportTaskStatusThread");
         thread.setDaemon(true);
         thread.start();
@@ -62,29 +63,24 @@ public class RetryReportTaskStatusThread implements Runnable {
 
         while (Stopper.isRunning()){
 
-            // sleep 5 minutes
             ThreadUtils.sleep(RETRY_REPORT_TASK_STATUS_INTERVAL);
 
-            try {
-                if (!responceCache.getAckCache().isEmpty()){
-                    Map<Integer,Command> ackCache =  responceCache.getAckCache();
-                    for (Map.Entry<Integer, Command> entry : ackCache.entrySet()){
-                        Integer taskInstanceId = entry.getKey();
-                        Command ackCommand = entry.getValue();
-                        taskCallbackService.sendAck(taskInstanceId,ackCommand);
+            for (TaskReport report : responceCache.pollDueReports(System.currentTimeMillis())) {
+                try {
+                    int taskInstanceId = report.getTaskInstanceId();
+                    if (!taskCallbackService.restoreRemoteChannel(taskInstanceId, report.getHost())) {
+                        logger.warn("master {} of task {} is not available to report {}, wait for failover", report.getHost(), taskInstanceId, report.getEvent());
+                        continue;
                     }
-                }
-
-                if (!responceCache.getResponseCache().isEmpty()){
-                    Map<Integer,Command> responseCache =  responceCache.getResponseCache();
-                    for (Map.Entry<Integer, Command> entry : responseCache.entrySet()){
-                        Integer taskInstanceId = entry.getKey();
-                        Command responseCommand = entry.getValue();
-                        taskCallbackService.sendResult(taskInstanceId,responseCommand);
+                    WorkerServerMetrics.reportRetryCounter().increment();
+                    if (report.getEvent() == Event.ACK) {
+                        taskCallbackService.sendAck(taskInstanceId, report.getCommand());
+                    } else {
+                        taskCallbackService.sendResult(taskInstanceId, report.getCommand());
                     }
+                } catch (Exception e) {
+                    logger.warn("retry report task status error, report : {}", report, e);
                 }
-            }catch (Exception e){
-                logger.warn("retry report task status error", e);
             }
         }
     }
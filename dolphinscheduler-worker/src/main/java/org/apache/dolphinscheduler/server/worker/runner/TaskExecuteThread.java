@@ -36,11 +36,13 @@ import org.apache.dolphinscheduler.remote.command.Command;
 import org.apache.dolphinscheduler.remote.command.TaskExecuteAckCommand;
 import org.apache.dolphinscheduler.remote.command.TaskExecuteResponseCommand;
 import org.apache.dolphinscheduler.server.utils.ProcessUtils;
+import org.apache.dolphinscheduler.server.worker.cache.ResourceCache;
 import org.apache.dolphinscheduler.server.worker.cache.ResponceCache;
 import org.apache.dolphinscheduler.server.worker.plugin.TaskPluginManager;
 import org.apache.dolphinscheduler.server.worker.processor.TaskCallbackService;
 import org.apache.dolphinscheduler.service.alert.AlertClientService;
 import org.apache.dolphinscheduler.service.queue.entity.TaskExecutionContext;
+import org.apache.dolphinscheduler.service.queue.entity.TaskRequestConverter;
 import org.apache.dolphinscheduler.spi.task.AbstractTask;
 import org.apache.dolphinscheduler.spi.task.TaskAlertInfo;
 import org.apache.dolphinscheduler.spi.task.TaskChannel;
@@ -99,6 +101,16 @@ public class TaskExecuteThread implements Runnable, Delayed {
 
     private TaskPluginManager taskPluginManager;
 
+    /**
+     * resource cache, null if the resources are downloaded into the execute path directly
+     */
+    private ResourceCache resourceCache;
+
+    /**
+     * reclaimer of the execute path, null if the path is deleted by the execute thread
+     */
+    private ExecutePathReclaimer execPathReclaimer;
+
     /**
      * constructor
      *
@@ -123,6 +135,16 @@ public class TaskExecuteThread implements Runnable, Delayed {
         this.taskPluginManager = taskPluginManager;
     }
 
+    public TaskExecuteThread(TaskExecutionContext taskExecutionContext,
+                             TaskCallbackService taskCallbackService,
+                             AlertClientService alertClientService,
+                             TaskPluginManager taskPluginManager,
+                             ExecutePathContext executePathContext) {
+        this(taskExecutionContext, taskCallbackService, alertClientService, taskPluginManager);
+        this.resourceCache = executePathContext.getResourceCache();
+        this.execPathReclaimer = executePathContext.getExecPathReclaimer();
+    }
+
     @Override
     public void run() {
         TaskExecuteResponseCommand responseCommand = new TaskExecuteResponseCommand(taskExecutionContext.getTaskInstanceId(), taskExecutionContext.getProcessInstanceId());
@@ -130,15 +152,16 @@ public class TaskExecuteThread implements Runnable, Delayed {
             responseCommand.setStatus(ExecutionStatus.SUCCESS.getCode());
             responseCommand.setEndTime(new Date());
             TaskExecutionContextCacheManager.removeByTaskInstanceId(taskExecutionContext.getTaskInstanceId());
-            ResponceCache.get().cache(taskExecutionContext.getTaskInstanceId(), responseCommand.convert2Command(), Event.RESULT);
-            taskCallbackService.sendResult(taskExecutionContext.getTaskInstanceId(), responseCommand.convert2Command());
+            ResponceCache.get().cache(taskExecutionContext.getTaskInstanceId(), responseCommand.convert2Command(taskExecutionContext.getCommandSerializer()), Event.RESULT,
+                    taskCallbackService.getRemoteHost(taskExecutionContext.getTaskInstanceId()));
+            taskCallbackService.sendResult(taskExecutionContext.getTaskInstanceId(), responseCommand.convert2Command(taskExecutionContext.getCommandSerializer()));
             return;
         }
 
         try {
             logger.info("script path : {}", taskExecutionContext.getExecutePath());
             // check if the OS user exists
-            if (!OSUtils.getUserList().contains(taskExecutionContext.getTenantCode())) {
+            if (!OSUtils.existsUser(taskExecutionContext.getTenantCode())) {
                 String errorLog = String.format("tenantCode: %s does not exist", taskExecutionContext.getTenantCode());
                 logger.error(errorLog);
                 responseCommand.setStatus(ExecutionStatus.FAILURE.getCode());
@@ -170,7 +193,7 @@ public class TaskExecuteThread implements Runnable, Delayed {
             if (null == taskChannel) {
                 throw new RuntimeException(String.format("%s Task Plugin Not Found,Please Check Config File.", taskExecutionContext.getTaskType()));
             }
-            TaskRequest taskRequest = JSONUtils.parseObject(JSONUtils.toJsonString(taskExecutionContext), TaskRequest.class);
+            TaskRequest taskRequest = TaskRequestConverter.toTaskRequest(taskExecutionContext);
             String taskLogName = LoggerUtils.buildTaskId(LoggerUtils.TASK_LOGGER_INFO_PREFIX,
                     taskExecutionContext.getFirstSubmitTime(),
                     taskExecutionContext.getProcessDefineCode(),
@@ -210,8 +233,9 @@ public class TaskExecuteThread implements Runnable, Delayed {
             responseCommand.setAppIds(task.getAppIds());
         } finally {
             TaskExecutionContextCacheManager.removeByTaskInstanceId(taskExecutionContext.getTaskInstanceId());
-            ResponceCache.get().cache(taskExecutionContext.getTaskInstanceId(), responseCommand.convert2Command(), Event.RESULT);
-            taskCallbackService.sendResult(taskExecutionContext.getTaskInstanceId(), responseCommand.convert2Command());
+            ResponceCache.get().cache(taskExecutionContext.getTaskInstanceId(), responseCommand.convert2Command(taskExecutionContext.getCommandSerializer()), Event.RESULT,
+                    taskCallbackService.getRemoteHost(taskExecutionContext.getTaskInstanceId()));
+            taskCallbackService.sendResult(taskExecutionContext.getTaskInstanceId(), responseCommand.convert2Command(taskExecutionContext.getCommandSerializer()));
             clearTaskExecPath();
         }
     }
@@ -240,6 +264,12 @@ public class TaskExecuteThread implements Runnable, Delayed {
                 return;
             }
 
+            if (execPathReclaimer != null) {
+                execPathReclaimer.reclaim(execLocalPath);
+                logger.info("exec local path: {} moved to trash.", execLocalPath);
+                return;
+            }
+
             try {
                 org.apache.commons.io.FileUtils.deleteDirectory(new File(execLocalPath));
                 logger.info("exec local path: {} cleared.", execLocalPath);
@@ -294,6 +324,29 @@ public class TaskExecuteThread implements Runnable, Delayed {
 
         Set<Map.Entry<String, String>> resEntries = projectRes.entrySet();
 
+        if (resourceCache != null) {
+            Map<String, File> resources = new HashMap<>();
+            for (Map.Entry<String, String> resource : resEntries) {
+                File resFile = new File(execLocalPath, resource.getKey());
+                if (resFile.exists()) {
+                    logger.info("file : {} exists ", resFile.getName());
+                    continue;
+                }
+                resources.put(HadoopUtils.getHdfsResourceFileName(resource.getValue(), resource.getKey()), resFile);
+            }
+            if (resources.isEmpty()) {
+                return;
+            }
+            try {
+                logger.info("get resource files from cache :{}", resources.keySet());
+                resourceCache.fetch(resources);
+            } catch (Exception e) {
+                logger.error(e.getMessage(), e);
+                throw new RuntimeException(e.getMessage());
+            }
+            return;
+        }
+
         for (Map.Entry<String, String> resource : resEntries) {
             String fullName = resource.getKey();
             String tenantCode = resource.getValue();
@@ -320,7 +373,7 @@ public class TaskExecuteThread implements Runnable, Delayed {
      */
     private void changeTaskExecutionStatusToRunning() {
         taskExecutionContext.setCurrentExecutionStatus(ExecutionStatus.RUNNING_EXECUTION);
-        Command ackCommand = buildAckCommand().convert2Command();
+        Command ackCommand = buildAckCommand().convert2Command(taskExecutionContext.getCommandSerializer());
         try {
             RetryerUtils.retryCall(() -> {
                 taskCallbackService.sendAck(taskExecutionContext.getTaskInstanceId(), ackCommand);
@@ -21,18 +21,20 @@ import org.apache.dolphinscheduler.common.enums.Event;
 import org.apache.dolphinscheduler.common.enums.ExecutionStatus;
 import org.apache.dolphinscheduler.common.thread.Stopper;
 import org.apache.dolphinscheduler.common.thread.ThreadUtils;
-import org.apache.dolphinscheduler.common.utils.JSONUtils;
 import org.apache.dolphinscheduler.remote.command.TaskExecuteResponseCommand;
 import org.apache.dolphinscheduler.server.worker.cache.ResponceCache;
 import org.apache.dolphinscheduler.server.worker.config.WorkerConfig;
+import org.apache.dolphinscheduler.server.worker.metrics.WorkerServerMetrics;
 import org.apache.dolphinscheduler.server.worker.processor.TaskCallbackService;
 import org.apache.dolphinscheduler.service.queue.entity.TaskExecutionContext;
+import org.apache.dolphinscheduler.service.queue.entity.TaskRequestConverter;
 import org.apache.dolphinscheduler.spi.task.TaskExecutionContextCacheManager;
 import org.apache.dolphinscheduler.spi.task.request.TaskRequest;
 
 import java.util.concurrent.DelayQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -65,6 +67,8 @@ public class WorkerManagerThread implements Runnable {
 
     public WorkerManagerThread(WorkerConfig workerConfig) {
         workerExecService = ThreadUtils.newDaemonFixedThreadExecutor("Worker-Execute-Thread", workerConfig.getExecThreads());
+        WorkerServerMetrics.registerTaskExecuteGauges(this::getDelayQueueSize, this::getThreadPoolQueueSize,
+                ((ThreadPoolExecutor) workerExecService)::getActiveCount);
     }
 
     /**
@@ -104,10 +108,11 @@ public class WorkerManagerThread implements Runnable {
         if (taskRequest == null) {
             return;
         }
-        TaskExecutionContext taskExecutionContext = JSONUtils.parseObject(JSONUtils.toJsonString(taskRequest), TaskExecutionContext.class);
+        TaskExecutionContext taskExecutionContext = TaskRequestConverter.toTaskExecutionContext(taskRequest);
         TaskExecuteResponseCommand responseCommand = new TaskExecuteResponseCommand(taskExecutionContext.getTaskInstanceId(), taskExecutionContext.getProcessInstanceId());
         responseCommand.setStatus(ExecutionStatus.KILL.getCode());
-        ResponceCache.get().cache(taskExecutionContext.getTaskInstanceId(), responseCommand.convert2Command(), Event.RESULT);
+        ResponceCache.get().cache(taskExecutionContext.getTaskInstanceId(), responseCommand.convert2Command(), Event.RESULT,
+                taskCallbackService.getRemoteHost(taskExecutionContext.getTaskInstanceId()));
         taskCallbackService.sendResult(taskExecutionContext.getTaskInstanceId(), responseCommand.convert2Command());
     }
 
@@ -121,6 +126,14 @@ public class WorkerManagerThread implements Runnable {
         return workerExecuteQueue.offer(taskExecuteThread);
     }
 
+    private void submit(TaskExecuteThread taskExecuteThread) {
+        long submitTime = System.nanoTime();
+        workerExecService.submit(() -> {
+            WorkerServerMetrics.taskExecWaitTimer().record(System.nanoTime() - submitTime, TimeUnit.NANOSECONDS);
+            taskExecuteThread.run();
+        });
+    }
+
     public void start() {
         Thread thread = new Thread(this, this.getClass().getName());
         thread.setDaemon(true);
@@ -134,7 +147,7 @@ public class WorkerManagerThread implements Runnable {
         while (Stopper.isRunning()) {
             try {
                 taskExecuteThread = workerExecuteQueue.take();
-                workerExecService.submit(taskExecuteThread);
+                submit(taskExecuteThread);
             } catch (Exception e) {
                 logger.error("An unexpected interrupt is happened, "
                     + "the exception will be ignored and this thread will continue to run", e);
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.worker.cache;
+
+import org.apache.dolphinscheduler.common.enums.Event;
+import org.apache.dolphinscheduler.remote.command.Command;
+import org.apache.dolphinscheduler.remote.command.CommandSerializer;
+import org.apache.dolphinscheduler.remote.command.CommandType;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * report journal test
+ */
+public class ReportJournalTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testPutAndReplay() throws IOException {
+        File dir = folder.newFolder();
+        ReportJournal journal = new ReportJournal(dir, SEGMENT_SIZE, 4);
+        journal.put(report(1, Event.ACK, "ack-1"));
+        journal.put(report(1, Event.RESULT, "result-1"));
+        journal.put(report(2, Event.RESULT, "result-2"));
+        journal.put(report(2, Event.RESULT, "result-2-again"));
+        journal.remove(1, Event.ACK);
+        journal.close();
+
+        ReportJournal reopened = new ReportJournal(dir, SEGMENT_SIZE, 4);
+        Assert.assertEquals(2, reopened.size());
+        Assert.assertNull(reopened.get(1, Event.ACK));
+        TaskReport report = reopened.get(2, Event.RESULT);
+        Assert.assertEquals("127.0.0.1:5678", report.getHost());
+        Assert.assertEquals(CommandType.TASK_EXECUTE_RESPONSE, report.getCommand().getType());
+        Assert.assertEquals(2L, report.getCommand().getOpaque());
+        Assert.assertEquals(CommandSerializer.PROTOSTUFF, report.getCommand().getSerializer());
+        Assert.assertEquals("result-2-again", new String(report.getCommand().getBody(), StandardCharsets.UTF_8));
+
+        List<TaskReport> reports = reopened.reports();
+        Assert.assertEquals(1, reports.get(0).getTaskInstanceId());
+        Assert.assertEquals(2, reports.get(1).getTaskInstanceId());
+        reopened.close();
+    }
+
+    @Test
+    public void testTornRecordIsIgnored() throws IOException {
+        File dir = folder.newFolder();
+        ReportJournal journal = new ReportJournal(dir, SEGMENT_SIZE, 4);
+        journal.put(report(1, Event.RESULT, "result-1"));
+        journal.close();
+
+        // a record whose length was written but whose payload is garbage
+        File segment = dir.listFiles()[0];
+        try (RandomAccessFile raf = new RandomAccessFile(segment, "rw")) {
+            raf.seek(0);
+            int length = raf.readInt();
+            raf.seek(8L + length);
+            raf.writeInt(16);
+            raf.writeInt(0);
+        }
+
+        ReportJournal reopened = new ReportJournal(dir, SEGMENT_SIZE, 4);
+        Assert.assertEquals(1, reopened.size());
+        reopened.put(report(2, Event.RESULT, "result-2"));
+        reopened.close();
+        Assert.assertEquals(2, new ReportJournal(dir, SEGMENT_SIZE, 4).size());
+    }
+
+    @Test
+    public void testSegmentsAreBounded() throws IOException {
+        File dir = folder.newFolder();
+        ReportJournal journal = new ReportJournal(dir, SEGMENT_SIZE, 3);
+        // every sealed segment keeps a pending report, they are moved forward by compaction
+        journal.put(report(0, Event.ACK, "pending"));
+        for (int i = 1; i <= 1000; i++) {
+            journal.put(report(i, Event.RESULT, "result-" + i));
+            if (i % 50 != 0) {
+                journal.remove(i, Event.RESULT);
+            }
+            Assert.assertTrue(dir.listFiles().length <= 3);
+        }
+        Assert.assertEquals(21, journal.size());
+        journal.close();
+
+        ReportJournal reopened = new ReportJournal(dir, SEGMENT_SIZE, 3);
+        Assert.assertEquals(21, reopened.size());
+        Assert.assertEquals("pending", new String(reopened.get(0, Event.ACK).getCommand().getBody(), StandardCharsets.UTF_8));
+        Assert.assertEquals("result-1000", new String(reopened.get(1000, Event.RESULT).getCommand().getBody(), StandardCharsets.UTF_8));
+        reopened.close();
+    }
+
+    @Test
+    public void testRemovedReportStaysRemoved() throws IOException {
+        File dir = folder.newFolder();
+        ReportJournal journal = new ReportJournal(dir, SEGMENT_SIZE, 4);
+        journal.put(report(1, Event.RESULT, "result-1"));
+        journal.put(report(2, Event.RESULT, "result-2"));
+        rollover(journal, dir, 1);
+        journal.remove(1, Event.RESULT);
+        // the segment of the remove record has no live report once it is sealed
+        rollover(journal, dir, 2);
+        journal.close();
+
+        ReportJournal reopened = new ReportJournal(dir, SEGMENT_SIZE, 4);
+        Assert.assertNull(reopened.get(1, Event.RESULT));
+        Assert.assertNotNull(reopened.get(2, Event.RESULT));
+        Assert.assertEquals(1, reopened.size());
+        reopened.close();
+    }
+
+    @Test(expected = IOException.class)
+    public void testJournalFull() throws IOException {
+        ReportJournal journal = new ReportJournal(folder.newFolder(), SEGMENT_SIZE, 2);
+        for (int i = 0; i < 1000; i++) {
+            journal.put(report(i, Event.RESULT, "result-" + i));
+        }
+    }
+
+    /**
+     * write reports which are removed at once until the segment of the id is created
+     */
+    private void rollover(ReportJournal journal, File dir, long segmentId) throws IOException {
+        File segment = new File(dir, String.format("%020d.journal", segmentId));
+        for (int i = 1000; !segment.exists(); i++) {
+            journal.put(report(i, Event.RESULT, "filler-" + i));
+            journal.remove(i, Event.RESULT);
+        }
+    }
+
+    private TaskReport report(int taskInstanceId, Event event, String body) {
+        Command command = new Command(taskInstanceId);
+        command.setType(event == Event.ACK ? CommandType.TASK_EXECUTE_ACK : CommandType.TASK_EXECUTE_RESPONSE);
+        command.setSerializer(CommandSerializer.PROTOSTUFF);
+        command.setBody(body.getBytes(StandardCharsets.UTF_8));
+        return new TaskReport(taskInstanceId, event, "127.0.0.1:5678", command);
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.worker.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * resource cache test, a local directory stands in for hdfs
+ */
+public class ResourceCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File storageDir;
+
+    private File cacheDir;
+
+    private LocalResourceStorage storage;
+
+    @Before
+    public void before() throws IOException {
+        storageDir = folder.newFolder("storage");
+        cacheDir = folder.newFolder("cache");
+        storage = new LocalResourceStorage();
+    }
+
+    @Test
+    public void testFetchDownloadsOnce() throws IOException {
+        writeResource("udf.jar", "udf-v1");
+        writeResource("job.sh", "echo 1");
+        ResourceCache cache = new ResourceCache(cacheDir, 1024 * 1024, storage, 2);
+
+        File firstExecPath = folder.newFolder("exec-1");
+        Map<String, File> resources = new HashMap<>();
+        resources.put(resourcePath("udf.jar"), new File(firstExecPath, "lib/udf.jar"));
+        resources.put(resourcePath("job.sh"), new File(firstExecPath, "job.sh"));
+        cache.fetch(resources);
+        Assert.assertEquals("udf-v1", read(new File(firstExecPath, "lib/udf.jar")));
+        Assert.assertEquals("echo 1", read(new File(firstExecPath, "job.sh")));
+
+        File secondExecPath = folder.newFolder("exec-2");
+        cache.link(resourcePath("udf.jar"), new File(secondExecPath, "udf.jar"));
+        Assert.assertEquals("udf-v1", read(new File(secondExecPath, "udf.jar")));
+        Assert.assertEquals(2, storage.downloads.get());
+        Assert.assertEquals(2, cache.getCachedFiles());
+        cache.close();
+    }
+
+    @Test
+    public void testChangedResourceIsDownloadedAgain() throws IOException {
+        File resource = writeResource("udf.jar", "udf-v1");
+        ResourceCache cache = new ResourceCache(cacheDir, 1024 * 1024, storage, 1);
+        File execPath = folder.newFolder("exec");
+        cache.link(resourcePath("udf.jar"), new File(execPath, "v1.jar"));
+
+        writeResource("udf.jar", "udf-v2-longer");
+        resource.setLastModified(resource.lastModified() + 1000);
+        cache.link(resourcePath("udf.jar"), new File(execPath, "v2.jar"));
+
+        Assert.assertEquals("udf-v1", read(new File(execPath, "v1.jar")));
+        Assert.assertEquals("udf-v2-longer", read(new File(execPath, "v2.jar")));
+        Assert.assertEquals(2, storage.downloads.get());
+        cache.close();
+    }
+
+    @Test
+    public void testConcurrentRequestsShareOneDownload() throws Exception {
+        writeResource("udf.jar", "udf-v1");
+        ResourceCache cache = new ResourceCache(cacheDir, 1024 * 1024, storage, 1);
+        storage.blocker = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] futures = new Future<?>[4];
+            for (int i = 0; i < futures.length; i++) {
+                File target = new File(folder.newFolder("exec-" + i), "udf.jar");
+                futures[i] = executor.submit(() -> {
+                    cache.link(resourcePath("udf.jar"), target);
+                    return null;
+                });
+            }
+            // let the other requests join the download in progress
+            Thread.sleep(200);
+            storage.blocker.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(1, storage.downloads.get());
+        cache.close();
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() throws IOException {
+        writeResource("a.jar", "aaaaaaaaaa");
+        writeResource("b.jar", "bbbbbbbbbb");
+        writeResource("c.jar", "cccccccccc");
+        ResourceCache cache = new ResourceCache(cacheDir, 25, storage, 1);
+        File execPath = folder.newFolder("exec");
+        cache.link(resourcePath("a.jar"), new File(execPath, "a.jar"));
+        cache.link(resourcePath("b.jar"), new File(execPath, "b.jar"));
+        // a is used again, b becomes the least recently used
+        cache.link(resourcePath("a.jar"), new File(execPath, "a2.jar"));
+        cache.link(resourcePath("c.jar"), new File(execPath, "c.jar"));
+
+        Assert.assertEquals(2, cache.getCachedFiles());
+        Assert.assertEquals(20, cache.getCachedBytes());
+        Assert.assertEquals(3, storage.downloads.get());
+        // the linked file outlives its eviction
+        Assert.assertEquals("bbbbbbbbbb", read(new File(execPath, "b.jar")));
+
+        cache.link(resourcePath("a.jar"), new File(execPath, "a3.jar"));
+        Assert.assertEquals(3, storage.downloads.get());
+        cache.link(resourcePath("b.jar"), new File(execPath, "b2.jar"));
+        Assert.assertEquals(4, storage.downloads.get());
+        cache.close();
+    }
+
+    @Test
+    public void testDeletedFileIsDownloadedAgain() throws IOException {
+        writeResource("udf.jar", "udf-v1");
+        ResourceCache cache = new ResourceCache(cacheDir, 1024 * 1024, storage, 1);
+        File execPath = folder.newFolder("exec");
+        cache.link(resourcePath("udf.jar"), new File(execPath, "udf.jar"));
+        for (File file : cacheDir.listFiles()) {
+            Assert.assertTrue(file.delete());
+        }
+
+        cache.link(resourcePath("udf.jar"), new File(execPath, "udf2.jar"));
+        Assert.assertEquals("udf-v1", read(new File(execPath, "udf2.jar")));
+        Assert.assertEquals(2, storage.downloads.get());
+        Assert.assertEquals(1, cache.getCachedFiles());
+        Assert.assertEquals(6, cache.getCachedBytes());
+        cache.close();
+    }
+
+    @Test
+    public void testRestore() throws IOException {
+        writeResource("udf.jar", "udf-v1");
+        ResourceCache cache = new ResourceCache(cacheDir, 1024 * 1024, storage, 1);
+        cache.link(resourcePath("udf.jar"), new File(folder.newFolder("exec-1"), "udf.jar"));
+        cache.close();
+        Files.write(new File(cacheDir, "partial.tmp").toPath(), new byte[] {1});
+
+        ResourceCache reopened = new ResourceCache(cacheDir, 1024 * 1024, storage, 1);
+        Assert.assertEquals(1, reopened.getCachedFiles());
+        Assert.assertFalse(new File(cacheDir, "partial.tmp").exists());
+        reopened.link(resourcePath("udf.jar"), new File(folder.newFolder("exec-2"), "udf.jar"));
+        Assert.assertEquals(1, storage.downloads.get());
+        reopened.close();
+    }
+
+    private String resourcePath(String name) {
+        return new File(storageDir, name).getPath();
+    }
+
+    private File writeResource(String name, String content) throws IOException {
+        File file = new File(storageDir, name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static class LocalResourceStorage implements ResourceStorage {
+
+        private final AtomicInteger downloads = new AtomicInteger();
+
+        private volatile CountDownLatch blocker;
+
+        @Override
+        public String getVersion(String path) {
+            File file = new File(path);
+            return file.lastModified() + "-" + file.length();
+        }
+
+        @Override
+        public void download(String path, File localFile) throws IOException {
+            downloads.incrementAndGet();
+            CountDownLatch latch = blocker;
+            if (latch != null) {
+                try {
+                    latch.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            Files.copy(new File(path).toPath(), localFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.worker.cache;
+
+import org.apache.dolphinscheduler.common.enums.Event;
+import org.apache.dolphinscheduler.remote.command.Command;
+import org.apache.dolphinscheduler.remote.command.CommandType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * responce cache test
+ */
+public class ResponceCacheTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testChangeHost() throws IOException {
+        File dir = folder.newFolder();
+        ReportJournal journal = new ReportJournal(dir, SEGMENT_SIZE, 4);
+        ResponceCache.get().open(journal);
+        ResponceCache.get().cache(1, command(1), Event.RESULT, "127.0.0.1:5678");
+
+        ResponceCache.get().changeHost(1, "127.0.0.2:5678");
+
+        Assert.assertEquals("127.0.0.2:5678", journal.get(1, Event.RESULT).getHost());
+        ResponceCache.get().removeResponseCache(1);
+        Assert.assertNull(journal.get(1, Event.RESULT));
+        journal.close();
+    }
+
+    @Test
+    public void testAckDuringChangeHost() throws IOException {
+        File dir = folder.newFolder();
+        // the master acknowledges the report right after the host change loaded it from the journal
+        ReportJournal journal = new ReportJournal(dir, SEGMENT_SIZE, 4) {
+            @Override
+            public synchronized TaskReport get(int taskInstanceId, Event event) {
+                TaskReport report = super.get(taskInstanceId, event);
+                if (taskInstanceId == 2 && event == Event.RESULT) {
+                    ResponceCache.get().removeResponseCache(taskInstanceId);
+                }
+                return report;
+            }
+        };
+        ResponceCache.get().open(journal);
+        ResponceCache.get().cache(2, command(2), Event.RESULT, "127.0.0.1:5678");
+
+        ResponceCache.get().changeHost(2, "127.0.0.2:5678");
+
+        Assert.assertEquals(0, ResponceCache.get().size(Event.RESULT));
+        journal.close();
+        // the acknowledged report is not replayed after a restart
+        ReportJournal reopened = new ReportJournal(dir, SEGMENT_SIZE, 4);
+        Assert.assertNull(reopened.get(2, Event.RESULT));
+        Assert.assertEquals(0, reopened.size());
+        reopened.close();
+    }
+
+    private Command command(int taskInstanceId) {
+        Command command = new Command(taskInstanceId);
+        command.setType(CommandType.TASK_EXECUTE_RESPONSE);
+        command.setBody(("result-" + taskInstanceId).getBytes(StandardCharsets.UTF_8));
+        return command;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.worker.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * worker server metrics test
+ */
+public class WorkerServerMetricsTest {
+
+    private static final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeClass
+    public static void before() {
+        Metrics.addRegistry(registry);
+    }
+
+    @AfterClass
+    public static void after() {
+        Metrics.removeRegistry(registry);
+    }
+
+    @Test
+    public void testTaskExecWaitTimer() {
+        WorkerServerMetrics.taskExecWaitTimer().record(10, TimeUnit.MILLISECONDS);
+
+        Assert.assertTrue(registry.get("ds.worker.task.exec.wait.latency").timer().count() >= 1);
+        Assert.assertTrue(registry.get("ds.worker.task.exec.wait.latency").timer().max(TimeUnit.MILLISECONDS) >= 10);
+    }
+
+    @Test
+    public void testPendingReportGauge() {
+        WorkerServerMetrics.registerPendingReportGauge("metrics-test", () -> 2);
+
+        Assert.assertEquals(2, registry.get("ds.worker.report.pending").tag("event", "metrics-test").gauge().value(), 0);
+    }
+
+    @Test
+    public void testReportRetryCounter() {
+        double retries = WorkerServerMetrics.reportRetryCounter().count();
+        WorkerServerMetrics.reportRetryCounter().increment();
+
+        Assert.assertEquals(retries + 1, registry.get("ds.worker.report.retry").counter().count(), 0);
+    }
+
+    @Test
+    public void testGauges() {
+        WorkerServerMetrics.registerTaskExecuteGauges(() -> 1, () -> 2, () -> 3);
+        WorkerServerMetrics.registerResourceCacheGauges(() -> 1024, () -> 4);
+        WorkerServerMetrics.registerExecPathReclaimGauge(() -> 5);
+
+        Assert.assertNotNull(registry.find("ds.worker.task.delay.queue.size").gauge());
+        Assert.assertNotNull(registry.find("ds.worker.task.exec.queue.size").gauge());
+        Assert.assertNotNull(registry.find("ds.worker.task.exec.active").gauge());
+        Assert.assertNotNull(registry.find("ds.worker.resource.cache.size").gauge());
+        Assert.assertNotNull(registry.find("ds.worker.resource.cache.files").gauge());
+        Assert.assertNotNull(registry.find("ds.worker.exec.path.reclaim.pending").gauge());
+    }
+}
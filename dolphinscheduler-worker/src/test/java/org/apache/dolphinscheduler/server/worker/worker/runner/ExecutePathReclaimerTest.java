@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.worker.runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ExecutePathReclaimerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File execBaseDir;
+
+    private ExecutePathReclaimer reclaimer;
+
+    @Before
+    public void before() throws IOException {
+        execBaseDir = folder.newFolder("exec");
+        reclaimer = new ExecutePathReclaimer(new File(execBaseDir, ".trash/1234"), 1);
+    }
+
+    @After
+    public void after() {
+        reclaimer.close();
+    }
+
+    @Test
+    public void testReclaim() throws Exception {
+        File execPath = createExecPath("process/1/2/1/10/20");
+
+        reclaimer.reclaim(execPath.getPath());
+
+        // the path is free as soon as reclaim returns
+        Assert.assertFalse(execPath.exists());
+        awaitReclaimed();
+        Assert.assertEquals(0, trashFiles());
+    }
+
+    @Test
+    public void testReclaimMissingPath() {
+        reclaimer.reclaim(new File(execBaseDir, "process/missing").getPath());
+        Assert.assertEquals(0, reclaimer.getPendingPaths());
+    }
+
+    @Test
+    public void testReclaimOrphans() throws Exception {
+        File orphan = createExecPath("process/1/2/1/11/21");
+        reclaimer.register(orphan.getPath());
+        File finished = createExecPath("process/1/2/1/11/22");
+        reclaimer.register(finished.getPath());
+        reclaimer.reclaim(finished.getPath());
+        awaitReclaimed();
+        File otherWorkerPath = createExecPath("process/1/2/1/12/23");
+        File leftover = new File(execBaseDir, ".trash/1234/24-1-1");
+        Assert.assertTrue(leftover.mkdirs());
+        File otherWorkerTrash = new File(execBaseDir, ".trash/1235/25-1-1");
+        Assert.assertTrue(otherWorkerTrash.mkdirs());
+
+        // the worker crashes while the task of the orphan runs, and restarts
+        reclaimer.close();
+        reclaimer = new ExecutePathReclaimer(new File(execBaseDir, ".trash/1234"), 1);
+        reclaimer.reclaimOrphans();
+
+        Assert.assertFalse(orphan.exists());
+        awaitReclaimed();
+        Assert.assertEquals(0, trashFiles());
+        // the process directory and the trash root are shared with the other workers on the host
+        Assert.assertTrue(otherWorkerPath.exists());
+        Assert.assertTrue(otherWorkerTrash.exists());
+
+        // the manifest is empty, a second restart reclaims nothing
+        File next = createExecPath("process/1/2/1/11/21");
+        reclaimer.reclaimOrphans();
+        Assert.assertTrue(next.exists());
+    }
+
+    @Test
+    public void testOrphanOutsideExecBaseDirIsKept() throws Exception {
+        File outside = folder.newFolder("outside");
+        reclaimer.register(outside.getPath());
+
+        reclaimer.close();
+        reclaimer = new ExecutePathReclaimer(new File(execBaseDir, ".trash/1234"), 1);
+        reclaimer.reclaimOrphans();
+
+        Assert.assertTrue(outside.exists());
+    }
+
+    private File createExecPath(String path) throws IOException {
+        File execPath = new File(execBaseDir, path);
+        Assert.assertTrue(new File(execPath, "lib").mkdirs());
+        Files.write(new File(execPath, "lib/test.jar").toPath(), "jar".getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(execPath, "20_node.sh").toPath(), "echo".getBytes(StandardCharsets.UTF_8));
+        return execPath;
+    }
+
+    private void awaitReclaimed() throws InterruptedException {
+        for (int i = 0; i < 100 && reclaimer.getPendingPaths() > 0; i++) {
+            Thread.sleep(50);
+        }
+        Assert.assertEquals(0, reclaimer.getPendingPaths());
+    }
+
+    private int trashFiles() {
+        String[] files = new File(execBaseDir, ".trash/1234").list();
+        return files == null ? 0 : files.length;
+    }
+}